@@ -0,0 +1,162 @@
+package com.borsvy.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Shared cache in the application database: PostgreSQL when the nodes share
+ * one, or the embedded H2 file for a single node. Locks are rows keyed by
+ * name with an expiry, so taking one is a plain insert that loses on the
+ * primary key. Invalidation messages are appended to a table that every node
+ * polls; a message is seen within one poll interval.
+ *
+ * <p>Message ids and timestamps are assigned before commit, so a message can
+ * become visible after later ones a node has already read. Each poll
+ * therefore rereads an overlap window behind the newest message seen and
+ * skips the ids it has already delivered.
+ *
+ * <p>Every timestamp, from message times to value and lock expiries, is
+ * computed in SQL from the database's LOCALTIMESTAMP, so skew between the
+ * nodes' clocks cannot expire a value or steal a lock early.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "cache.l2.type", havingValue = "jdbc")
+public class JdbcSharedCache implements SharedCache {
+
+    // Standard SQL that PostgreSQL and H2 both accept; the cast lets H2 type the parameter
+    private static final String EXPIRY = "LOCALTIMESTAMP + CAST(? AS BIGINT) * INTERVAL '0.001' SECOND";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long overlapMs;
+    private final List<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+    // Messages delivered within the overlap window, by id, with their timestamps
+    private final Map<Long, Timestamp> delivered = new HashMap<>();
+    private Timestamp lastSeen;
+
+    public JdbcSharedCache(JdbcTemplate jdbcTemplate,
+                           @Value("${cache.l2.jdbc.overlap-ms:10000}") long overlapMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.overlapMs = overlapMs;
+    }
+
+    @jakarta.annotation.PostConstruct
+    public void init() {
+        // Same DDL as V11, for deployments that run without Flyway
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS shared_cache (" +
+            "cache_key VARCHAR(255) PRIMARY KEY, cache_value TEXT NOT NULL, expires_at TIMESTAMP NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS shared_cache_locks (" +
+            "lock_key VARCHAR(255) PRIMARY KEY, owner VARCHAR(64) NOT NULL, expires_at TIMESTAMP NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS shared_cache_messages (" +
+            "id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, message VARCHAR(512) NOT NULL, " +
+            "created_at TIMESTAMP NOT NULL)");
+        lastSeen = jdbcTemplate.queryForObject("SELECT LOCALTIMESTAMP", Timestamp.class);
+    }
+
+    @Override
+    public String get(String key) {
+        List<String> values = jdbcTemplate.queryForList(
+            "SELECT cache_value FROM shared_cache WHERE cache_key = ? AND expires_at > LOCALTIMESTAMP",
+            String.class, key);
+        return values.isEmpty() ? null : values.get(0);
+    }
+
+    @Override
+    public void put(String key, String value, Duration ttl) {
+        long ttlMs = ttl.toMillis();
+        String update = "UPDATE shared_cache SET cache_value = ?, expires_at = " + EXPIRY + " WHERE cache_key = ?";
+        if (jdbcTemplate.update(update, value, ttlMs, key) > 0) return;
+        try {
+            jdbcTemplate.update("INSERT INTO shared_cache (cache_key, cache_value, expires_at) " +
+                "VALUES (?, ?, " + EXPIRY + ")", key, value, ttlMs);
+        } catch (DuplicateKeyException e) {
+            // Another node inserted first
+            jdbcTemplate.update(update, value, ttlMs, key);
+        }
+    }
+
+    @Override
+    public void delete(String key) {
+        jdbcTemplate.update("DELETE FROM shared_cache WHERE cache_key = ?", key);
+    }
+
+    @Override
+    public boolean tryLock(String key, String owner, Duration ttl) {
+        jdbcTemplate.update("DELETE FROM shared_cache_locks WHERE lock_key = ? AND expires_at <= LOCALTIMESTAMP", key);
+        try {
+            jdbcTemplate.update("INSERT INTO shared_cache_locks (lock_key, owner, expires_at) " +
+                "VALUES (?, ?, " + EXPIRY + ")", key, owner, ttl.toMillis());
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void unlock(String key, String owner) {
+        jdbcTemplate.update("DELETE FROM shared_cache_locks WHERE lock_key = ? AND owner = ?", key, owner);
+    }
+
+    @Override
+    public void publish(String message) {
+        jdbcTemplate.update("INSERT INTO shared_cache_messages (message, created_at) VALUES (?, LOCALTIMESTAMP)", message);
+    }
+
+    @Override
+    public void subscribe(Consumer<String> listener) {
+        listeners.add(listener);
+    }
+
+    @Scheduled(fixedDelayString = "${cache.l2.jdbc.poll-ms:1000}")
+    public void poll() {
+        if (listeners.isEmpty()) return;
+        try {
+            Timestamp windowStart = new Timestamp(lastSeen.getTime() - overlapMs);
+            List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT id, message, created_at FROM shared_cache_messages WHERE created_at > ? " +
+                "ORDER BY created_at, id", windowStart);
+            for (Map<String, Object> row : rows) {
+                long id = ((Number) row.get("id")).longValue();
+                Timestamp createdAt = (Timestamp) row.get("created_at");
+                if (delivered.putIfAbsent(id, createdAt) != null) continue;
+                if (createdAt.after(lastSeen)) lastSeen = createdAt;
+                String message = (String) row.get("message");
+                for (Consumer<String> listener : listeners) {
+                    listener.accept(message);
+                }
+            }
+            // Ids older than the next window cannot be read again
+            Timestamp nextWindowStart = new Timestamp(lastSeen.getTime() - overlapMs);
+            delivered.values().removeIf(createdAt -> !createdAt.after(nextWindowStart));
+        } catch (Exception e) {
+            log.warn("Could not poll shared cache messages: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${cache.l2.jdbc.purge-ms:60000}")
+    public void purge() {
+        try {
+            int values = jdbcTemplate.update("DELETE FROM shared_cache WHERE expires_at <= LOCALTIMESTAMP");
+            jdbcTemplate.update("DELETE FROM shared_cache_locks WHERE expires_at <= LOCALTIMESTAMP");
+            // Long past every node's poll interval and overlap window
+            jdbcTemplate.update(
+                "DELETE FROM shared_cache_messages WHERE created_at < LOCALTIMESTAMP - INTERVAL '5' MINUTE");
+            log.debug("Purged {} expired shared cache entries", values);
+        } catch (Exception e) {
+            log.warn("Shared cache purge failed: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.borsvy.cache;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Consumer;
+
+/**
+ * Single-node default: nothing is shared, every lock is granted and there is
+ * no one to notify. {@link TwoLevelCache} then behaves like the plain
+ * in-process caches it replaced, with single-flight still applied locally.
+ */
+@Component
+@ConditionalOnProperty(name = "cache.l2.type", havingValue = "none", matchIfMissing = true)
+public class NoSharedCache implements SharedCache {
+
+    @Override
+    public String get(String key) {
+        return null;
+    }
+
+    @Override
+    public void put(String key, String value, Duration ttl) {
+    }
+
+    @Override
+    public void delete(String key) {
+    }
+
+    @Override
+    public boolean tryLock(String key, String owner, Duration ttl) {
+        return true;
+    }
+
+    @Override
+    public void unlock(String key, String owner) {
+    }
+
+    @Override
+    public void publish(String message) {
+    }
+
+    @Override
+    public void subscribe(Consumer<String> listener) {
+    }
+
+    @Override
+    public boolean isShared() {
+        return false;
+    }
+}
@@ -0,0 +1,164 @@
+package com.borsvy.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Shared cache on a Redis-protocol server. Values are plain keys with a PX
+ * expiry, locks are {@code SET NX PX} with a compare-and-delete release, and
+ * invalidations go over one pub/sub channel read by a dedicated subscriber
+ * thread that reconnects on its own. Commands use a small pool of blocking
+ * connections with a short read timeout, so a slow server costs the caller
+ * at most that timeout before it falls back to the local tier.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "cache.l2.type", havingValue = "redis")
+public class RedisSharedCache implements SharedCache {
+
+    private static final String KEY_PREFIX = "borsvy:cache:";
+    private static final String CHANNEL = "borsvy:cache:invalidate";
+    private static final String UNLOCK_SCRIPT =
+        "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end";
+
+    private final URI uri;
+    private final int timeoutMs;
+    private final Semaphore permits;
+    private final ConcurrentLinkedQueue<RespConnection> idle = new ConcurrentLinkedQueue<>();
+    private final List<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+    private volatile RespConnection subscriber;
+    private volatile boolean running = true;
+
+    public RedisSharedCache(@Value("${cache.l2.redis.url:redis://localhost:6379}") String url,
+                            @Value("${cache.l2.redis.pool-size:8}") int poolSize,
+                            @Value("${cache.l2.redis.timeout-ms:500}") int timeoutMs) {
+        // Fails startup rather than connecting in plaintext to a TLS endpoint
+        this.uri = RespConnection.requirePlaintext(URI.create(url));
+        this.timeoutMs = timeoutMs;
+        this.permits = new Semaphore(Math.max(1, poolSize));
+    }
+
+    @jakarta.annotation.PostConstruct
+    public void start() {
+        Thread thread = new Thread(this::listen, "shared-cache-subscriber");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @jakarta.annotation.PreDestroy
+    public void stop() {
+        running = false;
+        RespConnection current = subscriber;
+        if (current != null) current.close();
+        RespConnection connection;
+        while ((connection = idle.poll()) != null) {
+            connection.close();
+        }
+    }
+
+    @Override
+    public String get(String key) {
+        return (String) execute("GET", KEY_PREFIX + key);
+    }
+
+    @Override
+    public void put(String key, String value, Duration ttl) {
+        execute("SET", KEY_PREFIX + key, value, "PX", Long.toString(Math.max(1, ttl.toMillis())));
+    }
+
+    @Override
+    public void delete(String key) {
+        execute("DEL", KEY_PREFIX + key);
+    }
+
+    @Override
+    public boolean tryLock(String key, String owner, Duration ttl) {
+        Object reply = execute("SET", KEY_PREFIX + key, owner, "NX", "PX", Long.toString(Math.max(1, ttl.toMillis())));
+        return "OK".equals(reply);
+    }
+
+    @Override
+    public void unlock(String key, String owner) {
+        execute("EVAL", UNLOCK_SCRIPT, "1", KEY_PREFIX + key, owner);
+    }
+
+    @Override
+    public void publish(String message) {
+        execute("PUBLISH", CHANNEL, message);
+    }
+
+    @Override
+    public void subscribe(Consumer<String> listener) {
+        listeners.add(listener);
+    }
+
+    private Object execute(String... command) {
+        try {
+            if (!permits.tryAcquire(timeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new IllegalStateException("No shared cache connection free within " + timeoutMs + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for a shared cache connection", e);
+        }
+        RespConnection connection = idle.poll();
+        try {
+            if (connection == null || !connection.isOpen()) {
+                connection = new RespConnection(uri, timeoutMs, timeoutMs);
+            }
+            Object reply = connection.command(command);
+            idle.offer(connection);
+            return reply;
+        } catch (IOException e) {
+            // The reply stream may be out of step now; never reuse this connection
+            if (connection != null) connection.close();
+            throw new UncheckedIOException(e);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void listen() {
+        long backoffMs = 1000;
+        while (running) {
+            try (RespConnection connection = new RespConnection(uri, timeoutMs, 0)) {
+                subscriber = connection;
+                connection.send("SUBSCRIBE", CHANNEL);
+                connection.read();
+                log.info("Subscribed to shared cache invalidations on {}:{}", uri.getHost(), uri.getPort());
+                backoffMs = 1000;
+                while (running) {
+                    Object reply = connection.read();
+                    if (reply instanceof List && ((List<?>) reply).size() == 3 && "message".equals(((List<?>) reply).get(0))) {
+                        String message = (String) ((List<?>) reply).get(2);
+                        for (Consumer<String> listener : listeners) {
+                            listener.accept(message);
+                        }
+                    }
+                }
+            } catch (Exception e) {
+                if (!running) return;
+                log.warn("Shared cache subscription lost, retrying in {} ms: {}", backoffMs, e.getMessage());
+                try {
+                    Thread.sleep(backoffMs);
+                } catch (InterruptedException ie) {
+                    return;
+                }
+                backoffMs = Math.min(backoffMs * 2, 30000);
+            }
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.borsvy.cache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One blocking connection speaking RESP, the Redis wire protocol. Enough of
+ * it for the shared cache: commands go out as arrays of bulk strings, replies
+ * come back as String, Long, List or null. Works against Redis, Valkey,
+ * KeyDB or any local stand-in that speaks RESP2. Not thread-safe.
+ */
+final class RespConnection implements Closeable {
+
+    private final Socket socket;
+    private final InputStream in;
+    private final OutputStream out;
+
+    /**
+     * Connects to {@code redis://[:password@]host[:port][/db]}. A timeout of
+     * zero blocks reads indefinitely, as a subscriber connection needs.
+     */
+    RespConnection(URI uri, int connectTimeoutMs, int readTimeoutMs) throws IOException {
+        requirePlaintext(uri);
+        socket = new Socket();
+        socket.setTcpNoDelay(true);
+        socket.connect(new InetSocketAddress(uri.getHost(), uri.getPort() > 0 ? uri.getPort() : 6379), connectTimeoutMs);
+        socket.setSoTimeout(readTimeoutMs);
+        in = new BufferedInputStream(socket.getInputStream());
+        out = new BufferedOutputStream(socket.getOutputStream());
+        try {
+            String userInfo = uri.getUserInfo();
+            if (userInfo != null && !userInfo.isEmpty()) {
+                int colon = userInfo.indexOf(':');
+                if (colon > 0) {
+                    command("AUTH", userInfo.substring(0, colon), userInfo.substring(colon + 1));
+                } else {
+                    command("AUTH", colon == 0 ? userInfo.substring(1) : userInfo);
+                }
+            }
+            String path = uri.getPath();
+            if (path != null && path.length() > 1) {
+                command("SELECT", path.substring(1));
+            }
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * Rejects anything but {@code redis://}. There is no TLS support, and a
+     * {@code rediss://} URL must not quietly send the password and the cached
+     * data in the clear.
+     */
+    static URI requirePlaintext(URI uri) {
+        if ("rediss".equalsIgnoreCase(uri.getScheme())) {
+            throw new IllegalArgumentException("TLS Redis URLs (rediss://) are not supported; "
+                + "use a TLS-terminating proxy on localhost or cache.l2.type=jdbc");
+        }
+        if (!"redis".equalsIgnoreCase(uri.getScheme())) {
+            throw new IllegalArgumentException("Expected a redis:// URL, got " + uri.getScheme() + "://");
+        }
+        return uri;
+    }
+
+    Object command(String... args) throws IOException {
+        send(args);
+        return read();
+    }
+
+    void send(String... args) throws IOException {
+        out.write(('*' + Integer.toString(args.length) + "\r\n").getBytes(StandardCharsets.US_ASCII));
+        for (String arg : args) {
+            byte[] bytes = arg.getBytes(StandardCharsets.UTF_8);
+            out.write(('$' + Integer.toString(bytes.length) + "\r\n").getBytes(StandardCharsets.US_ASCII));
+            out.write(bytes);
+            out.write('\r');
+            out.write('\n');
+        }
+        out.flush();
+    }
+
+    Object read() throws IOException {
+        int type = in.read();
+        if (type < 0) throw new EOFException("Connection closed by server");
+        String line = readLine();
+        switch (type) {
+            case '+':
+                return line;
+            case '-':
+                throw new IOException("Server error: " + line);
+            case ':':
+                return Long.parseLong(line);
+            case '$': {
+                int length = Integer.parseInt(line);
+                if (length < 0) return null;
+                byte[] bytes = in.readNBytes(length);
+                if (bytes.length < length) throw new EOFException("Truncated bulk reply");
+                readLine();
+                return new String(bytes, StandardCharsets.UTF_8);
+            }
+            case '*': {
+                int count = Integer.parseInt(line);
+                if (count < 0) return null;
+                List<Object> items = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    items.add(read());
+                }
+                return items;
+            }
+            default:
+                throw new IOException("Unexpected reply type '" + (char) type + "'");
+        }
+    }
+
+    private String readLine() throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream(32);
+        int b;
+        while ((b = in.read()) != '\r') {
+            if (b < 0) throw new EOFException("Connection closed by server");
+            line.write(b);
+        }
+        if (in.read() != '\n') throw new IOException("Malformed reply line");
+        return line.toString(StandardCharsets.UTF_8);
+    }
+
+    boolean isOpen() {
+        return !socket.isClosed();
+    }
+
+    @Override
+    public void close() {
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+            // Nothing left to release
+        }
+    }
+}
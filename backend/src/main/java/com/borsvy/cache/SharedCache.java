@@ -0,0 +1,39 @@
+package com.borsvy.cache;
+
+import java.time.Duration;
+import java.util.function.Consumer;
+
+/**
+ * Second-level cache shared by every instance behind the load balancer.
+ * Values are opaque strings; {@link TwoLevelCache} owns their encoding and
+ * the near cache in front. Implementations throw on transport errors and
+ * leave it to the caller to degrade to the local tier.
+ */
+public interface SharedCache {
+
+    /** The stored value, or null when absent or expired. */
+    String get(String key);
+
+    void put(String key, String value, Duration ttl);
+
+    void delete(String key);
+
+    /**
+     * Takes a lock that expires on its own after {@code ttl}, so a node that
+     * dies mid-refresh cannot block the key for good.
+     */
+    boolean tryLock(String key, String owner, Duration ttl);
+
+    /** Releases the lock only if {@code owner} still holds it. */
+    void unlock(String key, String owner);
+
+    /** Broadcasts a message to every node, including this one. */
+    void publish(String message);
+
+    void subscribe(Consumer<String> listener);
+
+    /** True when the cache is actually shared; false for the single-node stand-in. */
+    default boolean isShared() {
+        return true;
+    }
+}
@@ -0,0 +1,235 @@
+package com.borsvy.cache;
+
+import com.fasterxml.jackson.databind.JavaType;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * One cache region: a near in-process map in front of the {@link SharedCache}.
+ * Entries carry the time they were stored rather than an expiry, since the
+ * callers pick the freshness they need per read (the quote TTL, a history
+ * TTL per interval) and fall back to older entries while a provider is down.
+ * Both tiers keep an entry for the region's retention, well past any TTL.
+ * The near tier is also capped in size: when full, the oldest tenth of its
+ * entries is dropped, and those keys fall through to the shared tier.
+ *
+ * <p>Writes go to both tiers and tell the other nodes to drop their near copy;
+ * their next read finds the new value in the shared tier. Refreshes are
+ * single-flight per key: concurrent callers on one node share one load, and
+ * across nodes the shared lock lets one node load while the others wait for
+ * its result to appear.
+ */
+public final class TwoLevelCache<V> {
+
+    /** A cached value and when it was stored, on whichever node stored it. */
+    public static final class Entry<V> {
+        public final V value;
+        public final long storedAt;
+
+        Entry(V value, long storedAt) {
+            this.value = value;
+            this.storedAt = storedAt;
+        }
+
+        public boolean isFresh(Duration ttl) {
+            return System.currentTimeMillis() - storedAt <= ttl.toMillis();
+        }
+    }
+
+    @FunctionalInterface
+    public interface Loader<V> {
+        V load() throws IOException;
+    }
+
+    private final String region;
+    private final TwoLevelCacheRegistry registry;
+    private final JavaType type;
+    private final Duration retain;
+    private final int maxLocalEntries;
+    private final Map<String, Entry<V>> local = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    TwoLevelCache(String region, TwoLevelCacheRegistry registry, JavaType type,
+                  Duration retain, int maxLocalEntries) {
+        this.region = region;
+        this.registry = registry;
+        this.type = type;
+        this.retain = retain;
+        this.maxLocalEntries = Math.max(1, maxLocalEntries);
+    }
+
+    /**
+     * The newest entry either tier holds, fresh or not. The shared tier is
+     * only asked when the near entry is missing or older than {@code ttl}.
+     */
+    public Entry<V> get(String key, Duration ttl) {
+        Entry<V> entry = local.get(key);
+        if (entry != null && entry.isFresh(ttl)) {
+            return entry;
+        }
+        Entry<V> shared = registry.read(sharedKey(key), type);
+        if (shared != null && (entry == null || shared.storedAt > entry.storedAt)) {
+            storeLocal(key, shared);
+            return shared;
+        }
+        return entry;
+    }
+
+    public void put(String key, V value) {
+        Entry<V> entry = new Entry<>(value, System.currentTimeMillis());
+        storeLocal(key, entry);
+        registry.write(sharedKey(key), entry, retain);
+        registry.invalidateOthers(region, key);
+    }
+
+    /** Drops the key from both tiers on every node. */
+    public void invalidate(String key) {
+        local.remove(key);
+        registry.delete(sharedKey(key));
+        registry.invalidateOthers(region, key);
+    }
+
+    /**
+     * Loads a value once across all callers and nodes. The loader stores
+     * whatever should be cached with {@link #put}; a caller that waited on
+     * another node gets that node's value without loading. If the other node
+     * stores nothing, the next caller to get the lock loads for itself.
+     */
+    public V refresh(String key, Duration ttl, Loader<V> loader) throws IOException {
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException) throw (IOException) cause;
+                if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+                throw e;
+            }
+        }
+        try {
+            V value = loadOnce(key, ttl, loader);
+            mine.complete(value);
+            return value;
+        } catch (IOException | RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    /**
+     * Non-blocking {@link #refresh}: concurrent callers on this node share one
+     * load. The cross-node lock is skipped, since waiting for it would park
+     * the caller, so another node may now and then load the same key.
+     */
+    public CompletableFuture<V> refreshAsync(String key, Supplier<CompletableFuture<V>> loader) {
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            // A copy, so one caller cancelling does not cancel the others
+            return running.copy();
+        }
+        CompletableFuture<V> load;
+        try {
+            load = loader.get();
+        } catch (RuntimeException e) {
+            load = CompletableFuture.failedFuture(e);
+        }
+        load.whenComplete((value, error) -> {
+            inFlight.remove(key, mine);
+            if (error != null) {
+                mine.completeExceptionally(error);
+            } else {
+                mine.complete(value);
+            }
+        });
+        return mine.copy();
+    }
+
+    private V loadOnce(String key, Duration ttl, Loader<V> loader) throws IOException {
+        String lockKey = "lock:" + sharedKey(key);
+        long deadline = System.currentTimeMillis() + registry.lockWaitMillis();
+        while (true) {
+            if (registry.tryLock(lockKey)) {
+                try {
+                    // Another node may have finished while this one waited for the lock
+                    Entry<V> shared = registry.read(sharedKey(key), type);
+                    if (shared != null && shared.isFresh(ttl)) {
+                        storeLocal(key, shared);
+                        return shared.value;
+                    }
+                    return loader.load();
+                } finally {
+                    registry.unlock(lockKey);
+                }
+            }
+            Entry<V> shared = registry.read(sharedKey(key), type);
+            if (shared != null && shared.isFresh(ttl)) {
+                storeLocal(key, shared);
+                return shared.value;
+            }
+            if (System.currentTimeMillis() >= deadline) {
+                // The holder is slow or gone; loading twice beats stalling the request
+                return loader.load();
+            }
+            registry.pause();
+        }
+    }
+
+    private void storeLocal(String key, Entry<V> entry) {
+        if (local.size() >= maxLocalEntries && !local.containsKey(key)) {
+            trimLocal();
+        }
+        local.put(key, entry);
+    }
+
+    /**
+     * Drops entries past retention, then the oldest tenth if that was not
+     * enough. Sorting once per tenth of the cap keeps the cost per insert low.
+     */
+    private synchronized void trimLocal() {
+        if (local.size() < maxLocalEntries) return;
+        evictExpired();
+        if (local.size() < maxLocalEntries) return;
+        int excess = local.size() - maxLocalEntries + Math.max(1, maxLocalEntries / 10);
+        long[] storedAt = local.values().stream().mapToLong(entry -> entry.storedAt).sorted().toArray();
+        long cutoff = storedAt[Math.min(excess, storedAt.length) - 1];
+        int older = 0;
+        while (storedAt[older] < cutoff) older++;
+        // Entries stored in the same millisecond as the cutoff go only up to the excess
+        AtomicInteger ties = new AtomicInteger(excess - older);
+        local.values().removeIf(entry -> entry.storedAt < cutoff
+            || (entry.storedAt == cutoff && ties.getAndDecrement() > 0));
+    }
+
+    String region() {
+        return region;
+    }
+
+    void evictLocal(String key) {
+        local.remove(key);
+    }
+
+    void evictExpired() {
+        long cutoff = System.currentTimeMillis() - retain.toMillis();
+        local.values().removeIf(entry -> entry.storedAt < cutoff);
+    }
+
+    int size() {
+        return local.size();
+    }
+
+    private String sharedKey(String key) {
+        return region + ":" + key;
+    }
+}
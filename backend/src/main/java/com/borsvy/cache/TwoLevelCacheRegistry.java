@@ -0,0 +1,242 @@
+package com.borsvy.cache;
+
+import com.borsvy.client.CircuitBreaker;
+import com.borsvy.client.ProviderHealthRegistry;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Creates the {@link TwoLevelCache} regions and connects them to the shared
+ * tier configured by {@code cache.l2.type} (none, jdbc or redis). Every call
+ * to the shared tier goes through a circuit breaker: while it is down the
+ * regions behave as node-local caches and locks are granted locally, instead
+ * of every request paying a timeout. Invalidation messages from other nodes
+ * drop the matching near entries, or go to the listener of a named channel
+ * for node-local state that is not a cache region.
+ */
+@Slf4j
+@Component
+public class TwoLevelCacheRegistry {
+
+    public static final String SHARED_CACHE = "shared-cache";
+
+    // Messages are "<node> <region> <key>"; region names never contain spaces
+    private static final char SEPARATOR = ' ';
+
+    private final SharedCache shared;
+    private final ObjectMapper objectMapper;
+    private final CircuitBreaker breaker;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<String, TwoLevelCache<?>> regions = new ConcurrentHashMap<>();
+    private final Map<String, Consumer<String>> listeners = new ConcurrentHashMap<>();
+
+    @Value("${cache.l1.max-entries:10000}")
+    private int maxLocalEntries;
+
+    @Value("${cache.l2.lock-ttl-ms:15000}")
+    private long lockTtlMs;
+
+    @Value("${cache.l2.lock-wait-ms:3000}")
+    private long lockWaitMs;
+
+    @Value("${cache.l2.lock-poll-ms:50}")
+    private long lockPollMs;
+
+    public TwoLevelCacheRegistry(SharedCache shared, ObjectMapper objectMapper, ProviderHealthRegistry providerHealth) {
+        this.shared = shared;
+        this.objectMapper = objectMapper;
+        this.breaker = providerHealth.get(SHARED_CACHE);
+    }
+
+    @jakarta.annotation.PostConstruct
+    public void init() {
+        shared.subscribe(this::onMessage);
+        log.info("Two-level cache on node {} with {} shared tier", nodeId,
+            shared.isShared() ? shared.getClass().getSimpleName() : "no");
+    }
+
+    public <V> TwoLevelCache<V> region(String name, Class<V> type, Duration retain) {
+        return region(name, objectMapper.getTypeFactory().constructType(type), retain);
+    }
+
+    public <V> TwoLevelCache<V> region(String name, TypeReference<V> type, Duration retain) {
+        return region(name, objectMapper.getTypeFactory().constructType(type), retain);
+    }
+
+    private <V> TwoLevelCache<V> region(String name, JavaType type, Duration retain) {
+        checkName(name);
+        TwoLevelCache<V> cache = new TwoLevelCache<>(name, this, type, retain, maxLocalEntries);
+        if (regions.putIfAbsent(name, cache) != null) {
+            throw new IllegalArgumentException("Cache region " + name + " already exists");
+        }
+        return cache;
+    }
+
+    /**
+     * Hands {@code listener} every key another node sends with
+     * {@link #notifyOthers} on {@code channel}. Delivery is best effort, like
+     * region invalidation: nothing is sent while the shared tier is down.
+     */
+    public void listen(String channel, Consumer<String> listener) {
+        checkName(channel);
+        if (listeners.putIfAbsent(channel, listener) != null) {
+            throw new IllegalArgumentException("Channel " + channel + " already has a listener");
+        }
+    }
+
+    public void notifyOthers(String channel, String key) {
+        invalidateOthers(channel, key);
+    }
+
+    private void checkName(String name) {
+        if (name.indexOf(SEPARATOR) >= 0) throw new IllegalArgumentException("Region and channel names cannot contain spaces");
+        if (regions.containsKey(name) || listeners.containsKey(name)) {
+            throw new IllegalArgumentException(name + " is already a cache region or channel");
+        }
+    }
+
+    /** Near-tier sizes per region, for diagnostics. */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("node", nodeId);
+        snapshot.put("sharedTier", shared.isShared() ? shared.getClass().getSimpleName() : "none");
+        regions.values().forEach(region -> snapshot.put(region.region(), region.size()));
+        return snapshot;
+    }
+
+    @Scheduled(fixedDelayString = "${cache.l1.sweep-ms:60000}")
+    public void evictExpired() {
+        regions.values().forEach(TwoLevelCache::evictExpired);
+    }
+
+    <V> TwoLevelCache.Entry<V> read(String key, JavaType type) {
+        if (!shared.isShared()) return null;
+        try {
+            String json = breaker.call(() -> shared.get(key));
+            if (json == null) return null;
+            JsonNode node = objectMapper.readTree(json);
+            V value = objectMapper.readerFor(type).readValue(node.get("v"));
+            return new TwoLevelCache.Entry<>(value, node.path("t").asLong());
+        } catch (CircuitBreaker.OpenException e) {
+            return null;
+        } catch (Exception e) {
+            log.debug("Shared cache read of {} failed: {}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    void write(String key, TwoLevelCache.Entry<?> entry, Duration ttl) {
+        if (!shared.isShared()) return;
+        try {
+            ObjectNode node = objectMapper.createObjectNode();
+            node.put("t", entry.storedAt);
+            node.set("v", objectMapper.valueToTree(entry.value));
+            String json = objectMapper.writeValueAsString(node);
+            breaker.call(() -> {
+                shared.put(key, json, ttl);
+                return null;
+            });
+        } catch (CircuitBreaker.OpenException e) {
+            // Shared tier is down; the near tier still has the entry
+        } catch (Exception e) {
+            log.debug("Shared cache write of {} failed: {}", key, e.getMessage());
+        }
+    }
+
+    void delete(String key) {
+        if (!shared.isShared()) return;
+        try {
+            breaker.call(() -> {
+                shared.delete(key);
+                return null;
+            });
+        } catch (Exception e) {
+            log.debug("Shared cache delete of {} failed: {}", key, e.getMessage());
+        }
+    }
+
+    void invalidateOthers(String region, String key) {
+        if (!shared.isShared()) return;
+        try {
+            breaker.call(() -> {
+                shared.publish(nodeId + SEPARATOR + region + SEPARATOR + key);
+                return null;
+            });
+        } catch (Exception e) {
+            log.debug("Shared cache invalidation of {}:{} failed: {}", region, key, e.getMessage());
+        }
+    }
+
+    /** Granted when the shared tier is unavailable, so refreshes fall back to node-local single-flight. */
+    boolean tryLock(String key) {
+        if (!shared.isShared()) return true;
+        try {
+            return breaker.call(() -> shared.tryLock(key, nodeId, Duration.ofMillis(lockTtlMs)));
+        } catch (Exception e) {
+            log.debug("Shared cache lock {} unavailable, loading locally: {}", key, e.getMessage());
+            return true;
+        }
+    }
+
+    void unlock(String key) {
+        if (!shared.isShared()) return;
+        try {
+            breaker.call(() -> {
+                shared.unlock(key, nodeId);
+                return null;
+            });
+        } catch (Exception e) {
+            // The lock expires on its own after lock-ttl-ms
+            log.debug("Shared cache unlock of {} failed: {}", key, e.getMessage());
+        }
+    }
+
+    long lockWaitMillis() {
+        return lockWaitMs;
+    }
+
+    void pause() {
+        try {
+            Thread.sleep(lockPollMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for a shared cache refresh", e);
+        }
+    }
+
+    private void onMessage(String message) {
+        int first = message.indexOf(SEPARATOR);
+        int second = first < 0 ? -1 : message.indexOf(SEPARATOR, first + 1);
+        if (second < 0) return;
+        if (message.regionMatches(0, nodeId, 0, first) && first == nodeId.length()) return;
+        String name = message.substring(first + 1, second);
+        String key = message.substring(second + 1);
+        TwoLevelCache<?> region = regions.get(name);
+        if (region != null) {
+            region.evictLocal(key);
+            return;
+        }
+        Consumer<String> listener = listeners.get(name);
+        if (listener != null) {
+            try {
+                listener.accept(key);
+            } catch (Exception e) {
+                log.warn("Listener for {} failed on {}: {}", name, key, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package com.borsvy.client;
+
+import com.borsvy.model.ArticleThumbnail;
+import com.borsvy.repository.ArticleThumbnailRepository;
+import com.borsvy.repository.StoredNewsArticleRepository;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Resolves article thumbnails off the request path.
+ *
+ * {@link #resolve} answers from memory and never blocks: on a miss it returns
+ * the source's default image and queues a background lookup. The lookup checks
+ * the persistent cache first, then streams only the page {@code <head>} until an
+ * image meta tag shows up. A found image is also written to the stored news
+ * article, which was saved with the placeholder while the lookup ran.
+ *
+ * <p>Only definitive answers are stored: an image, a page without one, or a
+ * 404/410. Stored misses are rechecked after {@code miss-ttl-days}. Throttling,
+ * server errors and timeouts are retried after {@code retry-minutes}.
+ */
+@Component
+public class ArticleThumbnailResolver {
+    private static final Logger log = LoggerFactory.getLogger(ArticleThumbnailResolver.class);
+
+    private static final int MAX_HEAD_BYTES = 64 * 1024;
+    private static final String USER_AGENT =
+        "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/91.0.4472.124 Safari/537.36";
+    private static final String IMAGE_META = "og:image";
+    private static final String[] IMAGE_META_SELECTORS = {
+        "meta[property=og:image]", "meta[name=twitter:image]", "meta[property=article:image]"
+    };
+    // Marker for "looked up, nothing found" so misses are not refetched
+    private static final String NO_IMAGE = "";
+
+    private final ArticleThumbnailRepository repository;
+    private final StoredNewsArticleRepository newsRepository;
+    private final Map<String, String> resolved = new ConcurrentHashMap<>();
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+    // Article hash -> when a transient failure may be retried
+    private final Map<String, Long> retryAfter = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor executor;
+    private final HttpClient httpClient;
+    private final int maxCachedEntries;
+    private final Duration retryDelay;
+    private final Duration missTtl;
+
+    public ArticleThumbnailResolver(ArticleThumbnailRepository repository,
+                                    StoredNewsArticleRepository newsRepository,
+                                    @Value("${news.thumbnails.concurrency:4}") int concurrency,
+                                    @Value("${news.thumbnails.queue-size:200}") int queueSize,
+                                    @Value("${news.thumbnails.memory-entries:5000}") int maxCachedEntries,
+                                    @Value("${news.thumbnails.retry-minutes:15}") long retryMinutes,
+                                    @Value("${news.thumbnails.miss-ttl-days:7}") long missTtlDays) {
+        this.repository = repository;
+        this.newsRepository = newsRepository;
+        this.maxCachedEntries = maxCachedEntries;
+        this.retryDelay = Duration.ofMinutes(retryMinutes);
+        this.missTtl = Duration.ofDays(missTtlDays);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(concurrency, concurrency, 30, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(queueSize),
+            runnable -> {
+                Thread thread = new Thread(runnable, "thumbnail-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+        this.httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(3))
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .build();
+    }
+
+    /**
+     * Returns the best thumbnail known right now for an article. Never does I/O
+     * on the calling thread.
+     */
+    public String resolve(String articleUrl, String source) {
+        String fallback = RapidApiNewsMetadata.getDefaultThumbnailForSource(source);
+        if (articleUrl == null || !articleUrl.startsWith("http")) {
+            return fallback;
+        }
+
+        String key = urlHash(articleUrl);
+        String known = resolved.get(key);
+        if (known != null) {
+            return known.isEmpty() ? fallback : known;
+        }
+        Long retryAt = retryAfter.get(key);
+        if (retryAt != null) {
+            if (retryAt > System.currentTimeMillis()) {
+                return fallback;
+            }
+            retryAfter.remove(key);
+        }
+
+        if (inFlight.add(key)) {
+            try {
+                executor.execute(() -> resolveInBackground(key, articleUrl, fallback));
+            } catch (RejectedExecutionException e) {
+                inFlight.remove(key);
+                log.debug("Thumbnail queue full, skipping {}", articleUrl);
+            }
+        }
+        return fallback;
+    }
+
+    /**
+     * Whether a thumbnail is missing or just the source's default image, i.e.
+     * worth passing through {@link #resolve} again.
+     */
+    public boolean isPlaceholder(String thumbnail, String source) {
+        return thumbnail == null || thumbnail.isEmpty()
+            || thumbnail.equals(RapidApiNewsMetadata.getDefaultThumbnailForSource(source));
+    }
+
+    private void resolveInBackground(String key, String articleUrl, String placeholder) {
+        try {
+            Optional<ArticleThumbnail> stored = repository.findById(key);
+            String imageUrl;
+            if (stored.isPresent() && !isExpiredMiss(stored.get())) {
+                imageUrl = stored.get().getImageUrl();
+            } else {
+                imageUrl = fetchHeadImage(articleUrl);
+                repository.save(new ArticleThumbnail(key, articleUrl, imageUrl));
+                log.debug("Resolved thumbnail for {}: {}", articleUrl, imageUrl);
+            }
+            remember(key, imageUrl);
+            if (imageUrl != null) {
+                newsRepository.fillThumbnail(key, imageUrl, placeholder);
+            }
+        } catch (Exception e) {
+            // Not stored, so a later view tries again
+            retryAfter.put(key, System.currentTimeMillis() + retryDelay.toMillis());
+            log.debug("Thumbnail resolution failed for {}: {}", articleUrl, e.getMessage());
+        } finally {
+            inFlight.remove(key);
+        }
+    }
+
+    private void remember(String key, String imageUrl) {
+        if (resolved.size() >= maxCachedEntries) {
+            // The persistent table is the source of truth; dropping memory is cheap
+            resolved.clear();
+            retryAfter.clear();
+        }
+        resolved.put(key, imageUrl == null ? NO_IMAGE : imageUrl);
+    }
+
+    private boolean isExpiredMiss(ArticleThumbnail stored) {
+        return stored.getImageUrl() == null && stored.getResolvedAt() != null
+            && stored.getResolvedAt().isBefore(LocalDateTime.now().minus(missTtl));
+    }
+
+    /**
+     * Streams the page and stops at {@code </head>}, at the first image meta tag,
+     * or after {@link #MAX_HEAD_BYTES}, whichever comes first. Returns null
+     * when the page has no image or is gone (404/410); other failures throw.
+     */
+    String fetchHeadImage(String articleUrl) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(articleUrl))
+            .timeout(Duration.ofSeconds(5))
+            .header("User-Agent", USER_AGENT)
+            .header("Accept", "text/html")
+            .GET()
+            .build();
+
+        HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        int status = response.statusCode();
+        if (status != 200) {
+            response.body().close();
+            if (status == 404 || status == 410) {
+                return null;
+            }
+            throw new IOException("HTTP " + status);
+        }
+
+        byte[] head = new byte[MAX_HEAD_BYTES];
+        int length = 0;
+        // Offset just past the first og:image, once seen; the tag is complete at the next '>'
+        int imageMetaEnd = -1;
+        try (InputStream body = response.body()) {
+            int read;
+            while (length < head.length && (read = body.read(head, length, Math.min(4096, head.length - length))) != -1) {
+                // Only the new bytes, plus enough before them to catch a marker split across reads.
+                // Latin-1 maps bytes 1:1, so offsets match the buffer regardless of page encoding
+                int from = Math.max(0, length - IMAGE_META.length());
+                length += read;
+                String chunk = new String(head, from, length - from, StandardCharsets.ISO_8859_1).toLowerCase(Locale.ROOT);
+                if (chunk.contains("</head")) {
+                    break;
+                }
+                if (imageMetaEnd < 0) {
+                    int index = chunk.indexOf(IMAGE_META);
+                    if (index >= 0) imageMetaEnd = from + index + IMAGE_META.length();
+                }
+                // Bytes before this chunk were already searched for the '>'
+                if (imageMetaEnd >= 0 && chunk.indexOf('>', Math.max(0, imageMetaEnd - from)) >= 0) {
+                    break;
+                }
+            }
+        }
+
+        Document doc = Jsoup.parse(new String(head, 0, length, StandardCharsets.UTF_8), articleUrl);
+        for (String selector : IMAGE_META_SELECTORS) {
+            Element meta = doc.selectFirst(selector);
+            if (meta != null) {
+                String image = meta.absUrl("content");
+                if (image.isEmpty()) image = meta.attr("content");
+                if (image.startsWith("http")) {
+                    return image;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * SHA-256 hex of an article URL. Also the primary key of the news store so
+     * both tables can be joined on it.
+     */
+    public static String urlHash(String url) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(url.getBytes(StandardCharsets.UTF_8)));
+        } catch (Exception e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
+    }
+
+    @jakarta.annotation.PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,268 @@
+package com.borsvy.client;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Count-based sliding-window circuit breaker for one upstream provider.
+ *
+ * CLOSED records the outcome of the last {@code windowSize} calls and opens
+ * once the failure rate crosses the threshold. OPEN rejects calls immediately
+ * for {@code openMillis}, then HALF_OPEN lets a few probes through: all must
+ * succeed to close again, any failure reopens.
+ */
+public final class CircuitBreaker {
+    private static final Logger log = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    private static final int LATENCY_SAMPLES = 64;
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    @FunctionalInterface
+    public interface Call<T> {
+        T run() throws Exception;
+    }
+
+    /** Thrown instead of calling the provider while the circuit is open. */
+    public static class OpenException extends RuntimeException {
+        public OpenException(String provider) {
+            super("Circuit open for " + provider);
+        }
+    }
+
+    private final String name;
+    private final int windowSize;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long openMillis;
+    private final int halfOpenProbes;
+
+    // Ring of recent outcomes, true = failure
+    private final boolean[] outcomes;
+    private int next;
+    private int recorded;
+    private int failures;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int probesInFlight;
+    private int probeSuccesses;
+
+    private final long[] latencies = new long[LATENCY_SAMPLES];
+    private int latencyCount;
+    private int latencyNext;
+
+    public CircuitBreaker(String name, int windowSize, int minimumCalls, double failureRateThreshold,
+                          long openMillis, int halfOpenProbes) {
+        this.name = name;
+        this.windowSize = windowSize;
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.failureRateThreshold = failureRateThreshold;
+        this.openMillis = openMillis;
+        this.halfOpenProbes = Math.max(1, halfOpenProbes);
+        this.outcomes = new boolean[windowSize];
+    }
+
+    /**
+     * Runs {@code call} through the breaker. Throws {@link OpenException}
+     * without calling the provider while open.
+     */
+    public <T> T call(Call<T> call) throws Exception {
+        if (!tryAcquire()) {
+            throw new OpenException(name);
+        }
+        long started = System.nanoTime();
+        try {
+            T result = call.run();
+            onSuccess((System.nanoTime() - started) / 1_000_000);
+            return result;
+        } catch (Exception e) {
+            onFailure(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Non-blocking {@link #call}: the outcome is recorded when the returned
+     * future completes. Fails with {@link OpenException} without starting the
+     * call while open.
+     */
+    public <T> CompletableFuture<T> callAsync(Supplier<CompletableFuture<T>> call) {
+        if (!tryAcquire()) {
+            return CompletableFuture.failedFuture(new OpenException(name));
+        }
+        long started = System.nanoTime();
+        CompletableFuture<T> future;
+        try {
+            future = call.get();
+        } catch (RuntimeException e) {
+            onFailure(e);
+            return CompletableFuture.failedFuture(e);
+        }
+        return future.whenComplete((result, error) -> {
+            if (error == null) {
+                onSuccess((System.nanoTime() - started) / 1_000_000);
+            } else {
+                onFailure(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+            }
+        });
+    }
+
+    /**
+     * Reserves a call. Every successful acquire must be followed by exactly one
+     * {@link #onSuccess} or {@link #onFailure}.
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (System.currentTimeMillis() - openedAt < openMillis) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            probesInFlight = 0;
+            probeSuccesses = 0;
+            log.info("Circuit for {} half-open, probing", name);
+        }
+        if (state == State.HALF_OPEN) {
+            if (probesInFlight >= halfOpenProbes) {
+                return false;
+            }
+            probesInFlight++;
+        }
+        return true;
+    }
+
+    public synchronized void onSuccess(long latencyMs) {
+        latencies[latencyNext] = latencyMs;
+        latencyNext = (latencyNext + 1) % LATENCY_SAMPLES;
+        if (latencyCount < LATENCY_SAMPLES) latencyCount++;
+
+        if (state == State.HALF_OPEN) {
+            probesInFlight = Math.max(0, probesInFlight - 1);
+            if (++probeSuccesses >= halfOpenProbes) {
+                close();
+            }
+            return;
+        }
+        record(false);
+    }
+
+    public synchronized void onFailure(Throwable error) {
+        if (!isProviderFault(error)) {
+            // The provider answered; the request itself was bad
+            if (state == State.HALF_OPEN) {
+                probesInFlight = Math.max(0, probesInFlight - 1);
+            } else {
+                record(false);
+            }
+            return;
+        }
+        if (state == State.HALF_OPEN) {
+            trip("probe failed: " + error.getMessage());
+            return;
+        }
+        record(true);
+        if (state == State.CLOSED && recorded >= minimumCalls
+                && (double) failures / recorded >= failureRateThreshold) {
+            trip(String.format("%d/%d recent calls failed", failures, recorded));
+        }
+    }
+
+    public synchronized State getState() {
+        if (state == State.OPEN && System.currentTimeMillis() - openedAt >= openMillis) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public synchronized double failureRate() {
+        return recorded == 0 ? 0 : (double) failures / recorded;
+    }
+
+    /**
+     * Latency percentile over recent successful calls, or -1 without samples.
+     */
+    public synchronized long latencyPercentile(double percentile) {
+        if (latencyCount == 0) {
+            return -1;
+        }
+        long[] samples = Arrays.copyOf(latencies, latencyCount);
+        Arrays.sort(samples);
+        int index = (int) Math.ceil(samples.length * percentile) - 1;
+        return samples[Math.max(0, Math.min(samples.length - 1, index))];
+    }
+
+    public synchronized int latencySampleCount() {
+        return latencyCount;
+    }
+
+    /**
+     * 0..1, higher is healthier: recent success rate, scaled down while open or
+     * probing. Latency is deliberately left out so an untried provider does not
+     * outrank a healthy one that simply has samples.
+     */
+    public double healthScore() {
+        State current = getState();
+        double stateFactor = current == State.OPEN ? 0 : current == State.HALF_OPEN ? 0.25 : 1;
+        return (1 - failureRate()) * stateFactor;
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new HashMap<>();
+        snapshot.put("state", getState().name());
+        snapshot.put("failureRate", failureRate());
+        snapshot.put("p90LatencyMs", latencyPercentile(0.9));
+        snapshot.put("healthScore", healthScore());
+        return snapshot;
+    }
+
+    private void record(boolean failed) {
+        if (recorded == windowSize) {
+            if (outcomes[next]) failures--;
+        } else {
+            recorded++;
+        }
+        outcomes[next] = failed;
+        if (failed) failures++;
+        next = (next + 1) % windowSize;
+    }
+
+    private void trip(String reason) {
+        state = State.OPEN;
+        openedAt = System.currentTimeMillis();
+        log.warn("Circuit for {} opened for {} ms: {}", name, openMillis, reason);
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        Arrays.fill(outcomes, false);
+        next = 0;
+        recorded = 0;
+        failures = 0;
+        log.info("Circuit for {} closed", name);
+    }
+
+    /**
+     * Most 4xx responses mean the provider is up and rejected this particular
+     * request (unknown symbol, bad parameter). Auth failures and 429 mean we
+     * cannot use it right now, so they count.
+     */
+    private static boolean isProviderFault(Throwable error) {
+        if (error instanceof HttpClientErrorException) {
+            int status = ((HttpClientErrorException) error).getStatusCode().value();
+            return status == 401 || status == 403 || status == 429;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,117 @@
+package com.borsvy.client;
+
+import org.asynchttpclient.AsyncHttpClient;
+import org.asynchttpclient.BoundRequestBuilder;
+import org.asynchttpclient.Dsl;
+import org.asynchttpclient.Response;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Non-blocking HTTP for the async provider methods. One AsyncHttpClient with
+ * a couple of Netty I/O threads carries every in-flight call, so thousands of
+ * slow provider responses cost connections rather than threads. Responses are
+ * handed to the upstream executor before any parsing or caching runs, which
+ * keeps slow callbacks off the event loop.
+ *
+ * <p>Non-2xx statuses fail the future with the same exceptions RestTemplate
+ * throws, so the circuit breakers classify both paths alike.
+ */
+@Component
+public class EventLoopHttpClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(EventLoopHttpClient.class);
+
+    private final AsyncHttpClient client;
+    private final ExecutorService callbacks;
+
+    public EventLoopHttpClient(@Value("${external-api.connect-timeout-ms:3000}") int connectTimeoutMs,
+                               @Value("${external-api.read-timeout-ms:5000}") int readTimeoutMs,
+                               @Value("${external-api.async.io-threads:2}") int ioThreads,
+                               @Value("${external-api.async.max-connections:1000}") int maxConnections,
+                               @Qualifier("upstreamExecutor") ExecutorService callbacks) {
+        this.client = Dsl.asyncHttpClient(Dsl.config()
+            .setConnectTimeout(connectTimeoutMs)
+            .setReadTimeout(readTimeoutMs)
+            .setRequestTimeout(connectTimeoutMs + readTimeoutMs)
+            .setIoThreadsCount(ioThreads)
+            .setMaxConnections(maxConnections)
+            .setThreadPoolName("upstream-io"));
+        this.callbacks = callbacks;
+    }
+
+    public CompletableFuture<String> get(String url) {
+        return get(url, Map.of());
+    }
+
+    /** The response body, or a failed future on a connection error or non-2xx status. */
+    public CompletableFuture<String> get(String url, Map<String, String> headers) {
+        return execute(url, headers).thenApplyAsync(response -> {
+            checkStatus(response);
+            return response.getResponseBody(StandardCharsets.UTF_8);
+        }, callbacks);
+    }
+
+    /**
+     * Hands the body to {@code reader} as a stream instead of decoding it to
+     * a String first; I/O errors from the reader fail the future.
+     */
+    public <T> CompletableFuture<T> get(String url, Map<String, String> headers, BodyReader<T> reader) {
+        return execute(url, headers).thenApplyAsync(response -> {
+            checkStatus(response);
+            try (InputStream body = response.getResponseBodyAsStream()) {
+                return reader.read(body);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, callbacks);
+    }
+
+    @FunctionalInterface
+    public interface BodyReader<T> {
+        T read(InputStream body) throws IOException;
+    }
+
+    private CompletableFuture<Response> execute(String url, Map<String, String> headers) {
+        BoundRequestBuilder request = client.prepareGet(url);
+        headers.forEach(request::setHeader);
+        return request.execute().toCompletableFuture();
+    }
+
+    private static void checkStatus(Response response) {
+        int status = response.getStatusCode();
+        if (status >= 200 && status < 300) {
+            return;
+        }
+        HttpStatusCode code = HttpStatusCode.valueOf(status);
+        byte[] body = response.getResponseBodyAsBytes();
+        if (status >= 400 && status < 500) {
+            throw HttpClientErrorException.create(code, response.getStatusText(), HttpHeaders.EMPTY, body, StandardCharsets.UTF_8);
+        }
+        throw HttpServerErrorException.create(code, response.getStatusText(), HttpHeaders.EMPTY, body, StandardCharsets.UTF_8);
+    }
+
+    @jakarta.annotation.PreDestroy
+    public void close() {
+        try {
+            client.close();
+        } catch (IOException e) {
+            logger.debug("Error closing the async HTTP client: {}", e.getMessage());
+        }
+    }
+}
@@ -2,13 +2,20 @@ package com.borsvy.client;
 
 import com.borsvy.model.Quote;
 import com.borsvy.model.CompanyProfile2;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.client.RestClientException;
@@ -22,68 +29,119 @@ public class FinnhubClient {
     private final String baseUrl = "https://finnhub.io/api/v1";
     private final RestTemplate restTemplate;
     private final ObjectMapper objectMapper;
+    private final EventLoopHttpClient asyncHttp;
+    private final CircuitBreaker breaker;
 
     @Autowired
-    public FinnhubClient(@Value("${finnhub.api.key}") String apiKey, RestTemplate restTemplate, ObjectMapper objectMapper) {
+    public FinnhubClient(@Value("${finnhub.api.key}") String apiKey, RestTemplate restTemplate, ObjectMapper objectMapper,
+                         EventLoopHttpClient asyncHttp, ProviderHealthRegistry providerHealth) {
         this.apiKey = apiKey;
         this.restTemplate = restTemplate;
         this.objectMapper = objectMapper;
+        this.asyncHttp = asyncHttp;
+        this.breaker = providerHealth.get(ProviderHealthRegistry.FINNHUB);
     }
 
+    /**
+     * Throws {@link CircuitBreaker.OpenException} without calling Finnhub while
+     * its circuit is open, so callers can fall back to stored data immediately.
+     */
     public Quote getQuote(String symbol) {
         try {
-            String url = String.format("%s/quote?symbol=%s&token=%s", baseUrl, symbol, apiKey);
-            ResponseEntity<Quote> response = restTemplate.getForEntity(url, Quote.class);
-            
-            if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
-                return response.getBody();
-            } else {
-                logger.error("Failed to get quote for symbol {}: {}", symbol, response.getStatusCode());
-                throw new RestClientException("Failed to get quote data from Finnhub API");
-            }
-        } catch (RestClientException e) {
+            return breaker.call(() -> {
+                String url = String.format("%s/quote?symbol=%s&token=%s", baseUrl, symbol, apiKey);
+                ResponseEntity<Quote> response = restTemplate.getForEntity(url, Quote.class);
+
+                if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
+                    return response.getBody();
+                } else {
+                    logger.error("Failed to get quote for symbol {}: {}", symbol, response.getStatusCode());
+                    throw new RestClientException("Failed to get quote data from Finnhub API");
+                }
+            });
+        } catch (RestClientException | CircuitBreaker.OpenException e) {
             logger.error("Error fetching quote for symbol {}: {}", symbol, e.getMessage());
             throw e;
+        } catch (Exception e) {
+            logger.error("Error fetching quote for symbol {}: {}", symbol, e.getMessage());
+            throw new RestClientException(e.getMessage(), e);
         }
     }
 
+    /** Non-blocking {@link #getQuote}; the future fails where that method throws. */
+    public CompletableFuture<Quote> getQuoteAsync(String symbol) {
+        String url = String.format("%s/quote?symbol=%s&token=%s", baseUrl, symbol, apiKey);
+        return breaker.callAsync(() -> asyncHttp.get(url).thenApply(body -> read(body, Quote.class)));
+    }
+
     public CompanyProfile2 getCompanyProfile2(String symbol) {
         try {
-            String url = String.format("%s/stock/profile2?symbol=%s&token=%s", baseUrl, symbol, apiKey);
-            ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
-            logger.debug("Raw Finnhub CompanyProfile2 response for {}: {}", symbol, response.getBody());
-            return objectMapper.readValue(response.getBody(), CompanyProfile2.class);
+            return breaker.call(() -> {
+                String url = String.format("%s/stock/profile2?symbol=%s&token=%s", baseUrl, symbol, apiKey);
+                ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
+                logger.debug("Raw Finnhub CompanyProfile2 response for {}: {}", symbol, response.getBody());
+                return objectMapper.readValue(response.getBody(), CompanyProfile2.class);
+            });
         } catch (Exception e) {
             logger.error("Error fetching company profile from Finnhub: {}", e.getMessage());
             return null;
         }
     }
 
+    private <T> T read(String body, Class<T> type) {
+        try {
+            return objectMapper.readValue(body, type);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     /** Returns {"52WeekHigh": x, "52WeekLow": x} or empty map on failure. */
     public Map<String, Double> getBasicMetrics(String symbol) {
         try {
             String url = String.format("%s/stock/metric?symbol=%s&metric=all&token=%s", baseUrl, symbol, apiKey);
-            ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
-            if (response.getStatusCode() != HttpStatus.OK || response.getBody() == null) return Map.of();
-            com.fasterxml.jackson.databind.JsonNode root = objectMapper.readTree(response.getBody());
-            com.fasterxml.jackson.databind.JsonNode metric = root.path("metric");
-            if (metric.isMissingNode()) return Map.of();
-            Map<String, Double> result = new java.util.HashMap<>();
-            if (!metric.path("52WeekHigh").isMissingNode()) result.put("52WeekHigh", metric.path("52WeekHigh").asDouble(0));
-            if (!metric.path("52WeekLow").isMissingNode())  result.put("52WeekLow",  metric.path("52WeekLow").asDouble(0));
-            if (!metric.path("peBasicExclExtraTTM").isMissingNode()) result.put("pe", metric.path("peBasicExclExtraTTM").asDouble(0));
-            return result;
+            return breaker.call(() -> restTemplate.execute(url, HttpMethod.GET, null,
+                response -> readBasicMetrics(response.getBody())));
         } catch (Exception e) {
             logger.warn("Error fetching metrics for {}: {}", symbol, e.getMessage());
             return Map.of();
         }
     }
 
+    /**
+     * metric=all returns well over a hundred metrics plus their history in
+     * "series"; this reads the three we use off the stream and stops at the
+     * end of "metric", without building the rest.
+     */
+    private Map<String, Double> readBasicMetrics(InputStream body) throws IOException {
+        try (JsonParser parser = objectMapper.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) return Map.of();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                if ("metric".equals(field)) {
+                    Map<String, Double> result = new java.util.HashMap<>();
+                    JsonStreams.forEachField(parser, (name, value) -> {
+                        switch (name) {
+                            case "52WeekHigh": result.put("52WeekHigh", JsonStreams.doubleValue(value, 0)); break;
+                            case "52WeekLow": result.put("52WeekLow", JsonStreams.doubleValue(value, 0)); break;
+                            case "peBasicExclExtraTTM": result.put("pe", JsonStreams.doubleValue(value, 0)); break;
+                            default: break;
+                        }
+                    });
+                    return result;
+                }
+                parser.skipChildren();
+            }
+            return Map.of();
+        }
+    }
+
     public List<Map<String, String>> searchSymbols(String query) {
         try {
             String url = String.format("%s/search?q=%s&token=%s", baseUrl,
                     java.net.URLEncoder.encode(query, java.nio.charset.StandardCharsets.UTF_8), apiKey);
-            ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
+            ResponseEntity<String> response = breaker.call(() -> restTemplate.getForEntity(url, String.class));
             if (response.getStatusCode() != HttpStatus.OK || response.getBody() == null) return List.of();
 
             com.fasterxml.jackson.databind.JsonNode root = objectMapper.readTree(response.getBody());
@@ -0,0 +1,114 @@
+package com.borsvy.client;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+
+/**
+ * Walks provider responses token by token, so a client only materialises the
+ * fields it reads instead of a String and a whole JsonNode tree. Whatever a
+ * handler leaves unread is skipped without being built.
+ */
+final class JsonStreams {
+
+    // Powers of ten that are exact doubles
+    private static final double[] POW10 = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private JsonStreams() {
+    }
+
+    @FunctionalInterface
+    interface FieldHandler {
+        void field(String name, JsonParser parser) throws IOException;
+    }
+
+    @FunctionalInterface
+    interface ElementHandler {
+        void element(JsonParser parser) throws IOException;
+    }
+
+    /**
+     * Calls {@code handler} with the parser on each field value of the object
+     * at the current token. Does nothing unless the current token starts an
+     * object, so null or mistyped values are ignored like a missing field.
+     */
+    static void forEachField(JsonParser parser, FieldHandler handler) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) return;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            parser.nextToken();
+            handler.field(name, parser);
+            parser.skipChildren();
+        }
+    }
+
+    /** Calls {@code handler} on each element of the array at the current token. */
+    static void forEachElement(JsonParser parser, ElementHandler handler) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) return;
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+            handler.element(parser);
+            parser.skipChildren();
+        }
+    }
+
+    /**
+     * The current value as a double; null or non-numeric values give
+     * {@code defaultValue}. Quoted numbers, which is how Twelve Data sends
+     * prices, are read from the parser's buffer instead of through a String.
+     */
+    static double doubleValue(JsonParser parser, double defaultValue) throws IOException {
+        // Jackson reads null as 0 rather than the default
+        if (parser.currentToken() == JsonToken.VALUE_NULL) return defaultValue;
+        if (parser.currentToken() != JsonToken.VALUE_STRING) return parser.getValueAsDouble(defaultValue);
+        char[] chars = parser.getTextCharacters();
+        int end = parser.getTextOffset() + parser.getTextLength();
+        int i = parser.getTextOffset();
+        boolean negative = i < end && chars[i] == '-';
+        if (negative) i++;
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean fraction = false;
+        for (; i < end; i++) {
+            char c = chars[i];
+            if (c >= '0' && c <= '9') {
+                if (++digits > 15) return parser.getValueAsDouble(defaultValue);
+                mantissa = mantissa * 10 + (c - '0');
+                if (fraction) scale++;
+            } else if (c == '.' && !fraction) {
+                fraction = true;
+            } else {
+                // Exponents, spaces and the like take the general path
+                return parser.getValueAsDouble(defaultValue);
+            }
+        }
+        if (digits == 0 || scale >= POW10.length) return parser.getValueAsDouble(defaultValue);
+        // Both operands are exact, so the one rounding matches Double.parseDouble
+        double value = mantissa / POW10[scale];
+        return negative ? -value : value;
+    }
+
+    /** Like {@link #doubleValue} for whole numbers such as volumes. */
+    static long longValue(JsonParser parser, long defaultValue) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_NULL) return defaultValue;
+        if (parser.currentToken() != JsonToken.VALUE_STRING) return parser.getValueAsLong(defaultValue);
+        char[] chars = parser.getTextCharacters();
+        int end = parser.getTextOffset() + parser.getTextLength();
+        int i = parser.getTextOffset();
+        boolean negative = i < end && chars[i] == '-';
+        if (negative) i++;
+        if (i == end || end - i > 18) return parser.getValueAsLong(defaultValue);
+        long value = 0;
+        for (; i < end; i++) {
+            char c = chars[i];
+            if (c < '0' || c > '9') return parser.getValueAsLong(defaultValue);
+            value = value * 10 + (c - '0');
+        }
+        return negative ? -value : value;
+    }
+}
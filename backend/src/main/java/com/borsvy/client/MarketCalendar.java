@@ -0,0 +1,181 @@
+package com.borsvy.client;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.Month;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.TemporalAdjusters;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * NYSE/Nasdaq regular sessions, weekends, holidays and early closes, used to
+ * stretch cache TTLs for US equities outside trading hours. Prices don't move
+ * between a session's settled close and the next open, so anything fetched
+ * after the close can be served until then without calling a provider.
+ *
+ * <p>Mistakes here must only ever cost extra calls: an unknown closure is
+ * treated as a trading day, and only early closes that follow fixed rules are
+ * listed. Extended-hours trading is ignored, as the quotes carry regular
+ * session prices only.
+ */
+@Component
+public class MarketCalendar {
+
+    private static final Logger logger = LoggerFactory.getLogger(MarketCalendar.class);
+
+    private static final ZoneId ZONE = ZoneId.of("America/New_York");
+    private static final LocalTime OPEN = LocalTime.of(9, 30);
+    private static final LocalTime CLOSE = LocalTime.of(16, 0);
+    private static final LocalTime EARLY_CLOSE = LocalTime.of(13, 0);
+    // Plain tickers and class shares (BRK.B); other suffixes are foreign listings with their own hours
+    private static final Pattern US_LISTING = Pattern.compile("[A-Z]{1,5}(\\.[A-C])?");
+
+    private final Map<Integer, Set<LocalDate>> holidays = new ConcurrentHashMap<>();
+    private final Map<Integer, Set<LocalDate>> earlyCloses = new ConcurrentHashMap<>();
+    // Unscheduled closures, such as national days of mourning
+    private final Set<LocalDate> extraHolidays = new HashSet<>();
+    private final boolean enabled;
+    // Closing auction prints and delayed feeds settle a few minutes after the bell
+    private final long settleMinutes;
+
+    public MarketCalendar(@Value("${market.calendar.enabled:true}") boolean enabled,
+                          @Value("${market.calendar.settle-minutes:15}") long settleMinutes,
+                          @Value("${market.calendar.extra-holidays:}") String extraHolidays) {
+        this.enabled = enabled;
+        this.settleMinutes = settleMinutes;
+        for (String day : extraHolidays.split(",")) {
+            if (day.isBlank()) continue;
+            try {
+                this.extraHolidays.add(LocalDate.parse(day.trim()));
+            } catch (DateTimeParseException e) {
+                logger.warn("Ignoring market.calendar.extra-holidays entry '{}': not yyyy-MM-dd", day.trim());
+            }
+        }
+    }
+
+    /**
+     * The TTL for a US equity's market data: {@code sessionTtl} while the
+     * market trades or the close settles, and after that the time since the
+     * settled close, so an entry fetched before it is refreshed once and one
+     * fetched after it stays fresh until the next open. Symbols that don't
+     * look US-listed always get {@code sessionTtl}.
+     */
+    public Duration equityTtl(String symbol, Duration sessionTtl) {
+        return equityTtl(symbol, sessionTtl, Instant.now());
+    }
+
+    Duration equityTtl(String symbol, Duration sessionTtl, Instant now) {
+        if (!enabled || symbol == null || !US_LISTING.matcher(symbol.toUpperCase(Locale.ROOT)).matches()) {
+            return sessionTtl;
+        }
+        ZonedDateTime local = now.atZone(ZONE);
+        if (isOpen(local)) {
+            return sessionTtl;
+        }
+        Duration sinceSettled = Duration.between(lastClose(local).plusMinutes(settleMinutes), local);
+        return sinceSettled.isNegative() ? sessionTtl : sinceSettled;
+    }
+
+    private boolean isOpen(ZonedDateTime local) {
+        LocalDate day = local.toLocalDate();
+        LocalTime time = local.toLocalTime();
+        return isTradingDay(day) && !time.isBefore(OPEN) && time.isBefore(closeOn(day));
+    }
+
+    /** The most recent close at or before {@code local}. */
+    private ZonedDateTime lastClose(ZonedDateTime local) {
+        LocalDate day = local.toLocalDate();
+        if (!isTradingDay(day) || local.toLocalTime().isBefore(closeOn(day))) {
+            do {
+                day = day.minusDays(1);
+            } while (!isTradingDay(day));
+        }
+        return day.atTime(closeOn(day)).atZone(ZONE);
+    }
+
+    boolean isTradingDay(LocalDate day) {
+        DayOfWeek weekday = day.getDayOfWeek();
+        return weekday != DayOfWeek.SATURDAY && weekday != DayOfWeek.SUNDAY
+            && !holidays.computeIfAbsent(day.getYear(), MarketCalendar::holidaysIn).contains(day)
+            && !extraHolidays.contains(day);
+    }
+
+    private LocalTime closeOn(LocalDate day) {
+        return earlyCloses.computeIfAbsent(day.getYear(), this::earlyClosesIn).contains(day) ? EARLY_CLOSE : CLOSE;
+    }
+
+    /** NYSE rule 7.2: a Saturday holiday is taken on the Friday, a Sunday one on the Monday. */
+    static Set<LocalDate> holidaysIn(int year) {
+        Set<LocalDate> days = new HashSet<>();
+        LocalDate newYear = LocalDate.of(year, Month.JANUARY, 1);
+        // Except New Year's Day: a Saturday one is not made up on December 31
+        if (newYear.getDayOfWeek() != DayOfWeek.SATURDAY) days.add(observed(newYear));
+        days.add(nth(year, Month.JANUARY, DayOfWeek.MONDAY, 3));   // Martin Luther King Jr. Day
+        days.add(nth(year, Month.FEBRUARY, DayOfWeek.MONDAY, 3));  // Washington's Birthday
+        days.add(easter(year).minusDays(2));                       // Good Friday
+        days.add(LocalDate.of(year, Month.MAY, 31).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY))); // Memorial Day
+        if (year >= 2022) days.add(observed(LocalDate.of(year, Month.JUNE, 19))); // Juneteenth
+        days.add(observed(LocalDate.of(year, Month.JULY, 4)));
+        days.add(nth(year, Month.SEPTEMBER, DayOfWeek.MONDAY, 1)); // Labor Day
+        days.add(nth(year, Month.NOVEMBER, DayOfWeek.THURSDAY, 4)); // Thanksgiving
+        days.add(observed(LocalDate.of(year, Month.DECEMBER, 25)));
+        return days;
+    }
+
+    /** 1 p.m. closes: the day before Independence Day, the day after Thanksgiving and Christmas Eve. */
+    private Set<LocalDate> earlyClosesIn(int year) {
+        Set<LocalDate> days = new HashSet<>();
+        days.add(nth(year, Month.NOVEMBER, DayOfWeek.THURSDAY, 4).plusDays(1));
+        for (LocalDate eve : new LocalDate[] {LocalDate.of(year, Month.JULY, 3), LocalDate.of(year, Month.DECEMBER, 24)}) {
+            // Only when the eve is itself a trading day, not the observed holiday or a weekend
+            if (isTradingDay(eve)) days.add(eve);
+        }
+        return days;
+    }
+
+    private static LocalDate observed(LocalDate holiday) {
+        switch (holiday.getDayOfWeek()) {
+            case SATURDAY: return holiday.minusDays(1);
+            case SUNDAY:   return holiday.plusDays(1);
+            default:       return holiday;
+        }
+    }
+
+    private static LocalDate nth(int year, Month month, DayOfWeek weekday, int n) {
+        return LocalDate.of(year, month, 1).with(TemporalAdjusters.dayOfWeekInMonth(n, weekday));
+    }
+
+    /** Gregorian Easter Sunday (anonymous Gregorian algorithm). */
+    private static LocalDate easter(int year) {
+        int a = year % 19;
+        int b = year / 100;
+        int c = year % 100;
+        int d = b / 4;
+        int e = b % 4;
+        int f = (b + 8) / 25;
+        int g = (b - f + 1) / 3;
+        int h = (19 * a + b - d - g + 15) % 30;
+        int i = c / 4;
+        int k = c % 4;
+        int l = (32 + 2 * e + 2 * i - h - k) % 7;
+        int m = (a + 11 * h + 22 * l) / 451;
+        int month = (h + l - 7 * m + 114) / 31;
+        int day = (h + l - 7 * m + 114) % 31 + 1;
+        return LocalDate.of(year, month, day);
+    }
+}
@@ -1,14 +1,19 @@
 package com.borsvy.client;
 
-import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
 import lombok.extern.slf4j.Slf4j;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 @Slf4j
 @Component
@@ -16,6 +21,9 @@ public class NewsDataClient {
 
     private final RestTemplate restTemplate;
     private final ObjectMapper objectMapper;
+    private final EventLoopHttpClient asyncHttp;
+    private final ArticleThumbnailResolver thumbnailResolver;
+    private final CircuitBreaker breaker;
 
     @Value("${newsdata.api.key}")
     private String apiKey;
@@ -24,64 +32,126 @@ public class NewsDataClient {
     private String apiUrl;
 
     @Autowired
-    public NewsDataClient(RestTemplate restTemplate, ObjectMapper objectMapper) {
+    public NewsDataClient(RestTemplate restTemplate, ObjectMapper objectMapper,
+                          EventLoopHttpClient asyncHttp,
+                          ArticleThumbnailResolver thumbnailResolver,
+                          ProviderHealthRegistry providerHealth) {
         this.restTemplate = restTemplate;
         this.objectMapper = objectMapper;
+        this.asyncHttp = asyncHttp;
+        this.thumbnailResolver = thumbnailResolver;
+        this.breaker = providerHealth.get(ProviderHealthRegistry.NEWSDATA);
     }
 
     public List<Map<String, Object>> getStockNews(String symbol, int limit) {
-        List<Map<String, Object>> articles = new ArrayList<>();
         try {
-            String query = symbol + " stock";
-            String url = apiUrl + "/news?apikey=" + apiKey
-                    + "&q=" + query
-                    + "&language=en"
-                    + "&category=business";
-
+            String url = newsUrl(symbol);
             log.debug("Calling NewsData.io: {}", url.replace(apiKey, "API_KEY_REDACTED"));
 
-            String response = restTemplate.getForObject(url, String.class);
-            if (response == null) {
-                log.warn("NewsData.io returned null response for {}", symbol);
-                return articles;
-            }
-
-            JsonNode root = objectMapper.readTree(response);
-
-            if (!"success".equals(root.path("status").asText())) {
-                log.warn("NewsData.io error for {}: {}", symbol, root.path("message").asText());
-                return articles;
-            }
+            // Quota and key errors come back as a non-success body; count them against the provider
+            List<Map<String, Object>> articles = breaker.call(() -> restTemplate.execute(url, HttpMethod.GET, null,
+                response -> readArticles(response.getBody(), limit)));
+            return withThumbnails(symbol, articles);
 
-            JsonNode results = root.path("results");
-            if (!results.isArray()) return articles;
+        } catch (Exception e) {
+            log.error("Error fetching news from NewsData.io for {}: {}", symbol, e.getMessage());
+            return new ArrayList<>();
+        }
+    }
 
-            for (JsonNode item : results) {
-                String title = item.path("title").asText("");
-                String link = item.path("link").asText("");
-                if (title.isEmpty() || link.isEmpty()) continue;
+    /** Non-blocking {@link #getStockNews}; completes with an empty list on failure. */
+    public CompletableFuture<List<Map<String, Object>>> getStockNewsAsync(String symbol, int limit) {
+        // RestTemplate encodes the URL itself; the async client sends it as given
+        String url = newsUrl(symbol).replace(" ", "%20");
+        return breaker.callAsync(() -> asyncHttp.get(url, Map.of(), body -> readArticles(body, limit)))
+            .thenApply(articles -> withThumbnails(symbol, articles))
+            .exceptionally(e -> {
+                log.error("Error fetching news from NewsData.io for {}: {}", symbol, e.getMessage());
+                return new ArrayList<>();
+            });
+    }
 
-                Map<String, Object> article = new HashMap<>();
-                article.put("title", title);
-                article.put("url", link);
-                article.put("source", item.path("source_id").asText("NewsData"));
-                article.put("date", item.path("pubDate").asText(""));
-                article.put("summary", item.path("description").asText(""));
+    private String newsUrl(String symbol) {
+        String query = symbol + " stock";
+        return apiUrl + "/news?apikey=" + apiKey
+                + "&q=" + query
+                + "&language=en"
+                + "&category=business";
+    }
 
-                JsonNode imageUrl = item.path("image_url");
-                if (!imageUrl.isNull() && !imageUrl.isMissingNode()) {
-                    article.put("thumbnail", imageUrl.asText());
+    /**
+     * Reads up to {@code limit} articles straight off the response stream,
+     * keeping only the fields we show. Throws when the body is not a success
+     * response, so quota and key errors count against the provider.
+     */
+    private List<Map<String, Object>> readArticles(InputStream body, int limit) throws IOException {
+        List<Map<String, Object>> articles = new ArrayList<>();
+        String[] status = {null};
+        String[] message = {"", ""};
+        try (JsonParser parser = objectMapper.createParser(body)) {
+            if (parser.nextToken() == null) {
+                throw new IllegalStateException("NewsData.io returned null response");
+            }
+            JsonStreams.forEachField(parser, (field, value) -> {
+                switch (field) {
+                    case "status": status[0] = value.getValueAsString(""); break;
+                    case "message": message[1] = value.getValueAsString(""); break;
+                    case "results":
+                        if (value.currentToken() == JsonToken.START_OBJECT) {
+                            // Errors put their message under results
+                            JsonStreams.forEachField(value, (name, v) -> {
+                                if ("message".equals(name)) message[0] = v.getValueAsString("");
+                            });
+                        }
+                        JsonStreams.forEachElement(value, item -> {
+                            if (articles.size() >= limit) return;
+                            Map<String, Object> article = readArticle(item);
+                            if (article != null) articles.add(article);
+                        });
+                        break;
+                    default: break;
                 }
+            });
+        }
+        if (!"success".equals(status[0])) {
+            throw new IllegalStateException("NewsData.io error: " + (message[0].isEmpty() ? message[1] : message[0]));
+        }
+        return articles;
+    }
 
-                articles.add(article);
-                if (articles.size() >= limit) break;
+    private Map<String, Object> readArticle(JsonParser item) throws IOException {
+        Map<String, Object> article = new HashMap<>();
+        article.put("source", "NewsData");
+        article.put("date", "");
+        article.put("summary", "");
+        JsonStreams.forEachField(item, (name, value) -> {
+            switch (name) {
+                case "title": article.put("title", value.getValueAsString("")); break;
+                case "link": article.put("url", value.getValueAsString("")); break;
+                case "source_id": article.put("source", value.getValueAsString("NewsData")); break;
+                case "pubDate": article.put("date", value.getValueAsString("")); break;
+                case "description": article.put("summary", value.getValueAsString("")); break;
+                case "image_url":
+                    String imageUrl = value.getValueAsString("");
+                    if (!imageUrl.isEmpty()) article.put("thumbnail", imageUrl);
+                    break;
+                default: break;
             }
+        });
+        String title = (String) article.get("title");
+        String link = (String) article.get("url");
+        if (title == null || title.isEmpty() || link == null || link.isEmpty()) return null;
+        return article;
+    }
 
-            log.info("Returning {} news articles from NewsData.io for {}", articles.size(), symbol);
-
-        } catch (Exception e) {
-            log.error("Error fetching news from NewsData.io for {}: {}", symbol, e.getMessage());
+    // Resolving a thumbnail may mean fetching the article, so it waits until the response is known to be good
+    private List<Map<String, Object>> withThumbnails(String symbol, List<Map<String, Object>> articles) {
+        for (Map<String, Object> article : articles) {
+            if (!article.containsKey("thumbnail")) {
+                article.put("thumbnail", thumbnailResolver.resolve((String) article.get("url"), (String) article.get("source")));
+            }
         }
+        log.info("Returning {} news articles from NewsData.io for {}", articles.size(), symbol);
         return articles;
     }
 
@@ -0,0 +1,66 @@
+package com.borsvy.client;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * One {@link CircuitBreaker} per upstream provider, plus health-based ordering
+ * for places that can use more than one provider for the same data.
+ */
+@Component
+public class ProviderHealthRegistry {
+
+    public static final String FINNHUB = "finnhub";
+    public static final String TWELVE_DATA = "twelvedata";
+    public static final String COINGECKO = "coingecko";
+    public static final String NEWSDATA = "newsdata";
+    public static final String RAPIDAPI = "rapidapi";
+
+    private final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+    private final int windowSize;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long openMillis;
+    private final int halfOpenProbes;
+
+    public ProviderHealthRegistry(@Value("${resilience.circuit.window-size:20}") int windowSize,
+                                  @Value("${resilience.circuit.minimum-calls:5}") int minimumCalls,
+                                  @Value("${resilience.circuit.failure-rate-threshold:0.5}") double failureRateThreshold,
+                                  @Value("${resilience.circuit.open-ms:30000}") long openMillis,
+                                  @Value("${resilience.circuit.half-open-probes:2}") int halfOpenProbes) {
+        this.windowSize = windowSize;
+        this.minimumCalls = minimumCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.openMillis = openMillis;
+        this.halfOpenProbes = halfOpenProbes;
+    }
+
+    public CircuitBreaker get(String provider) {
+        return breakers.computeIfAbsent(provider, name ->
+            new CircuitBreaker(name, windowSize, minimumCalls, failureRateThreshold, openMillis, halfOpenProbes));
+    }
+
+    /**
+     * Providers ordered healthiest first. Ties keep the given order, so the
+     * caller's preferred provider stays first while both are healthy.
+     */
+    public List<String> rank(String... providers) {
+        return Arrays.stream(providers)
+            .sorted(Comparator.comparingDouble((String provider) -> get(provider).healthScore()).reversed())
+            .collect(Collectors.toList());
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        breakers.keySet().stream().sorted().forEach(name -> snapshot.put(name, breakers.get(name).snapshot()));
+        return snapshot;
+    }
+}
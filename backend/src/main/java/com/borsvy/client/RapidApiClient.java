@@ -1,6 +1,8 @@
 package com.borsvy.client;
 
 import com.borsvy.model.NewsArticle;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.asynchttpclient.AsyncHttpClient;
@@ -10,26 +12,29 @@ import org.springframework.stereotype.Component;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.asynchttpclient.Dsl;
-import org.jsoup.Jsoup;
-import org.jsoup.nodes.Document;
-import org.jsoup.nodes.Element;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.Random;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 import java.util.Iterator;
 import java.util.Spliterator;
 import java.util.Spliterators;
 import java.util.Arrays;
-import java.net.HttpURLConnection;
 import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.net.MalformedURLException;
@@ -50,9 +55,16 @@ public class RapidApiClient {
     private String apiHost;
     
     private final ObjectMapper objectMapper;
+    private final EventLoopHttpClient asyncHttp;
+    private final ArticleThumbnailResolver thumbnailResolver;
+    private final CircuitBreaker breaker;
 
-    public RapidApiClient() {
+    public RapidApiClient(EventLoopHttpClient asyncHttp, ArticleThumbnailResolver thumbnailResolver,
+                          ProviderHealthRegistry providerHealth) {
         this.objectMapper = new ObjectMapper();
+        this.asyncHttp = asyncHttp;
+        this.thumbnailResolver = thumbnailResolver;
+        this.breaker = providerHealth.get(ProviderHealthRegistry.RAPIDAPI);
     }
 
     /**
@@ -63,8 +75,13 @@ public class RapidApiClient {
     }
     
     public List<NewsArticle> getStockNews(String symbol, int limit) {
-        // Use the updated news API method
-        return getNewsViaNewsAPI(symbol, limit > 0 ? limit : DEFAULT_LIMIT);
+        try {
+            // Use the updated news API method
+            return breaker.call(() -> getNewsViaNewsAPI(symbol, limit > 0 ? limit : DEFAULT_LIMIT));
+        } catch (Exception e) {
+            log.error("Error fetching news from yahoo-finance166 for {}: {}", symbol, e.getMessage());
+            return new ArrayList<>();
+        }
     }
     
     /**
@@ -212,95 +229,108 @@ public class RapidApiClient {
     }
     
     /**
-     * Gets news via the specific symbol news API
+     * Gets news via the specific symbol news API. Provider failures are thrown
+     * so the circuit breaker can count them.
      */
-    private List<NewsArticle> getNewsViaNewsAPI(String symbol, int limit) {
+    private List<NewsArticle> getNewsViaNewsAPI(String symbol, int limit) throws Exception {
         log.info("Getting stock news via News API for symbol: {} with limit: {}", symbol, limit);
-        List<NewsArticle> articles = new ArrayList<>();
-        
-        try (AsyncHttpClient client = new DefaultAsyncHttpClient()) {
-            // Get the company name for better filtering
-            String companyName = RapidApiNewsMetadata.getCompanyNameForSymbol(symbol);
-            
-            // Create URL for Yahoo Finance API
-            String url = "https://yahoo-finance166.p.rapidapi.com/api/news/list-by-symbol";
-            log.info("Making news API request to URL: {}", url);
-            
-            return client.prepare("GET", url)
-                .addQueryParam("s", symbol)
-                .addQueryParam("region", "US")
-                .setHeader("x-rapidapi-key", apiKey)
-                .setHeader("x-rapidapi-host", "yahoo-finance166.p.rapidapi.com")
-                .execute()
-                .toCompletableFuture()
-                .thenApply(response -> {
-                    try {
-                        log.info("Received News API response with status code: {}", response.getStatusCode());
-                        
-                        if (response.getStatusCode() != 200) {
-                            log.error("News API returned non-200 status code: {}", response.getStatusCode());
-                            return articles;
-                        }
-                        
-                        // Parse the response
-                        String responseBody = response.getResponseBody();
-                        log.debug("Raw news API response: {}", responseBody);
-                        
-                        JsonNode root = objectMapper.readTree(responseBody);
-                        
-                        // Determine which endpoint response format this is
-                        List<NewsArticle> processedArticles = new ArrayList<>();
-                        
-                        // Find the data structure
-                        if (root.has("body") && root.get("body").isArray()) {
-                            log.info("Using 'body' array for news items");
-                            processNewsArray(root.get("body"), processedArticles, symbol, companyName, limit);
-                        } else if (root.isArray()) {
-                            log.info("Using root array for news items");
-                            processNewsArray(root, processedArticles, symbol, companyName, limit);
-                        } else if (root.has("data") && root.get("data").isObject()) {
-                            if (root.get("data").has("main") && root.get("data").get("main").has("stream")) {
-                                log.info("Using 'data.main.stream' array for news items");
-                                processNewsArray(root.get("data").get("main").get("stream"), processedArticles, symbol, companyName, limit);
-                            } else if (root.get("data").has("stream")) {
-                                log.info("Using 'data.stream' array for news items");
-                                processNewsArray(root.get("data").get("stream"), processedArticles, symbol, companyName, limit);
-                            } else if (root.get("data").has("news") && root.get("data").get("news").isArray()) {
-                                log.info("Using 'data.news' array for news items");
-                                processNewsArray(root.get("data").get("news"), processedArticles, symbol, companyName, limit);
-                            } else {
-                                log.info("No recognizable news array found in data structure");
+        try {
+            return newsRequest(symbol, limit).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+    }
+
+    /** Non-blocking {@link #getStockNews}; completes with an empty list on failure. */
+    public CompletableFuture<List<NewsArticle>> getStockNewsAsync(String symbol, int limit) {
+        return breaker.callAsync(() -> newsRequest(symbol, limit > 0 ? limit : DEFAULT_LIMIT))
+            .exceptionally(e -> {
+                log.error("Error fetching news from yahoo-finance166 for {}: {}", symbol, e.getMessage());
+                return new ArrayList<>();
+            });
+    }
+
+    private CompletableFuture<List<NewsArticle>> newsRequest(String symbol, int limit) {
+        // Get the company name for better filtering
+        String companyName = RapidApiNewsMetadata.getCompanyNameForSymbol(symbol);
+
+        // Create URL for Yahoo Finance API
+        String url = "https://yahoo-finance166.p.rapidapi.com/api/news/list-by-symbol?s="
+            + URLEncoder.encode(symbol, StandardCharsets.UTF_8) + "&region=US";
+        log.info("Making news API request to URL: {}", url);
+
+        return asyncHttp.get(url, Map.of(
+                "x-rapidapi-key", apiKey,
+                "x-rapidapi-host", "yahoo-finance166.p.rapidapi.com"),
+            body -> {
+                try {
+                    return parseNews(body, symbol, companyName, limit);
+                } catch (IOException e) {
+                    log.error("Error processing news API response: {}", e.getMessage(), e);
+                    throw new IllegalStateException("Unreadable news API response", e);
+                }
+            });
+    }
+
+    /**
+     * Finds the news array off the response stream and builds one small tree
+     * per article, instead of holding the body as a String and a whole tree.
+     * The first of the known layouts present is used.
+     */
+    private List<NewsArticle> parseNews(InputStream body, String symbol, String companyName, int limit) throws IOException {
+        List<NewsArticle> processedArticles = new ArrayList<>();
+        try (JsonParser parser = objectMapper.createParser(body)) {
+            if (parser.nextToken() == JsonToken.START_ARRAY) {
+                log.info("Using root array for news items");
+                processNewsArray(parser, processedArticles, symbol, companyName, limit);
+            } else {
+                List<String> rootFields = new ArrayList<>();
+                boolean[] found = {false};
+                JsonStreams.forEachField(parser, (field, value) -> {
+                    rootFields.add(field);
+                    if (found[0]) return;
+                    if ("body".equals(field) && value.currentToken() == JsonToken.START_ARRAY) {
+                        log.info("Using 'body' array for news items");
+                        found[0] = true;
+                        processNewsArray(value, processedArticles, symbol, companyName, limit);
+                    } else if ("data".equals(field)) {
+                        JsonStreams.forEachField(value, (dataField, data) -> {
+                            if (found[0]) return;
+                            if ("main".equals(dataField)) {
+                                JsonStreams.forEachField(data, (mainField, main) -> {
+                                    if (!found[0] && "stream".equals(mainField)) {
+                                        log.info("Using 'data.main.stream' array for news items");
+                                        found[0] = true;
+                                        processNewsArray(main, processedArticles, symbol, companyName, limit);
+                                    }
+                                });
+                            } else if ("stream".equals(dataField) || "news".equals(dataField)) {
+                                log.info("Using 'data.{}' array for news items", dataField);
+                                found[0] = true;
+                                processNewsArray(data, processedArticles, symbol, companyName, limit);
                             }
-                        } else {
-                            log.warn("Unrecognized news response structure. Available fields: {}", 
-                                StreamSupport.stream(Spliterators.spliteratorUnknownSize(
-                                    root.fieldNames(), Spliterator.ORDERED), false)
-                                .collect(Collectors.joining(", ")));
-                        }
-                        
-                        log.info("Processed {} news articles for {}", processedArticles.size(), symbol);
-                        return processedArticles;
-                    } catch (Exception e) {
-                        log.error("Error processing news API response: {}", e.getMessage(), e);
-                        return articles;
+                        });
                     }
-                })
-                .exceptionally(t -> {
-                    log.error("Exception fetching news from yahoo-finance166: {}", t.getMessage(), t);
-                    return new ArrayList<>();
-                })
-                .join();
-        } catch (Exception e) {
-            log.error("Error setting up news API call to yahoo-finance166: {}", e.getMessage(), e);
-            return new ArrayList<>();
+                });
+                if (!found[0]) {
+                    log.warn("Unrecognized news response structure. Available fields: {}", String.join(", ", rootFields));
+                }
+            }
         }
+        
+        log.info("Processed {} news articles for {}", processedArticles.size(), symbol);
+        return processedArticles;
     }
-    
-    private void processNewsArray(JsonNode newsArray, List<NewsArticle> articles, String symbol, String companyName, int limit) {
-        int count = 0;
+
+    private void processNewsArray(JsonParser newsArray, List<NewsArticle> articles, String symbol, String companyName, int limit) throws IOException {
+        int[] count = {0};
+        Set<String> seenTitles = new HashSet<>();
+        Set<String> seenUrls = new HashSet<>();
         
-        for (JsonNode item : newsArray) {
-            if (count >= limit) break;
+        JsonStreams.forEachElement(newsArray, element -> {
+            // Past the limit the remaining items are skipped without being built
+            if (count[0] >= limit) return;
+            JsonNode item = objectMapper.readTree(element);
             
             try {
                 NewsArticle article = extractArticleV2(item);
@@ -346,15 +376,19 @@ public class RapidApiClient {
                         title.length() > 40 ? title.substring(0, 40) + "..." : title,
                         sentiment);
                     
-                    if (!isDuplicate(articles, article)) {
+                    // Same title or same URL counts as a duplicate
+                    boolean duplicate = seenTitles.contains(title.toLowerCase()) || seenUrls.contains(article.getUrl());
+                    if (!duplicate) {
+                        seenTitles.add(title.toLowerCase());
+                        seenUrls.add(article.getUrl());
                         articles.add(article);
-                        count++;
+                        count[0]++;
                     }
                 }
             } catch (Exception e) {
                 log.warn("Error extracting article from item: {}", e.getMessage());
             }
-        }
+        });
     }
     
     // Helper method to count keywords
@@ -482,117 +516,6 @@ public class RapidApiClient {
         return url.matches(".*\\.(jpg|jpeg|png|gif)(\\?.*)?$");
     }
     
-    private String extractThumbnailFromUrl(String url) {
-        try {
-            log.info("Attempting to extract thumbnail from URL: {}", url);
-            
-            // Try to get the article's main image using a simple HTML parser
-            Document doc = Jsoup.connect(url)
-                .userAgent("Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/91.0.4472.124 Safari/537.36")
-                .timeout(10000)
-                .get();
-            
-            // Try different meta tags for images
-            String thumbnail = null;
-            
-            // 1. Try Open Graph image
-            Element metaImage = doc.select("meta[property=og:image]").first();
-            if (metaImage != null) {
-                thumbnail = metaImage.attr("content");
-                log.info("Found Open Graph image: {}", thumbnail);
-            }
-            
-            // 2. Try Twitter card image
-            if (thumbnail == null) {
-                metaImage = doc.select("meta[name=twitter:image]").first();
-                if (metaImage != null) {
-                    thumbnail = metaImage.attr("content");
-                    log.info("Found Twitter card image: {}", thumbnail);
-                }
-            }
-            
-            // 3. Try article:image meta tag
-            if (thumbnail == null) {
-                metaImage = doc.select("meta[property=article:image]").first();
-                if (metaImage != null) {
-                    thumbnail = metaImage.attr("content");
-                    log.info("Found article:image: {}", thumbnail);
-                }
-            }
-            
-            // 4. Try to find the first large image in the article
-            if (thumbnail == null) {
-                // Look for images with specific classes or IDs that typically indicate main content
-                Element mainImage = doc.select("img.article-image, img.article-img, img.main-image, img.featured-image, img.hero-image").first();
-                if (mainImage == null) {
-                    // If no specific class found, look for the first large image
-                    mainImage = doc.select("img[src~=(?i)\\.(png|jpe?g|gif)]").stream()
-                        .filter(img -> {
-                            String width = img.attr("width");
-                            String height = img.attr("height");
-                            return (width != null && Integer.parseInt(width) >= 300) || 
-                                   (height != null && Integer.parseInt(height) >= 200);
-                        })
-                        .findFirst()
-                        .orElse(null);
-                }
-                
-                if (mainImage != null) {
-                    thumbnail = mainImage.attr("src");
-                    // Handle relative URLs
-                    if (thumbnail.startsWith("/")) {
-                        thumbnail = new URL(new URL(url), thumbnail).toString();
-                    }
-                    log.info("Found main content image: {}", thumbnail);
-                }
-            }
-            
-            // 5. Try to find any image in the article content
-            if (thumbnail == null) {
-                Element articleImage = doc.select("article img, .article-content img, .post-content img").first();
-                if (articleImage != null) {
-                    thumbnail = articleImage.attr("src");
-                    // Handle relative URLs
-                    if (thumbnail.startsWith("/")) {
-                        thumbnail = new URL(new URL(url), thumbnail).toString();
-                    }
-                    log.info("Found article content image: {}", thumbnail);
-                }
-            }
-            
-            // Validate the thumbnail URL
-            if (thumbnail != null) {
-                // Check if the URL is absolute
-                if (!thumbnail.startsWith("http")) {
-                    thumbnail = new URL(new URL(url), thumbnail).toString();
-                }
-                
-                // Check if the image URL is accessible
-                try {
-                    HttpURLConnection connection = (HttpURLConnection) new URL(thumbnail).openConnection();
-                    connection.setRequestMethod("HEAD");
-                    int responseCode = connection.getResponseCode();
-                    if (responseCode != 200) {
-                        log.warn("Thumbnail URL not accessible (HTTP {}): {}", responseCode, thumbnail);
-                        thumbnail = null;
-                    } else {
-                        log.info("Successfully validated thumbnail URL: {}", thumbnail);
-                    }
-                } catch (Exception e) {
-                    log.warn("Error checking thumbnail URL: {} - {}", thumbnail, e.getMessage());
-                    thumbnail = null;
-                }
-            } else {
-                log.warn("No thumbnail found for URL: {}", url);
-            }
-            
-            return thumbnail;
-        } catch (Exception e) {
-            log.error("Failed to extract thumbnail from URL {}: {}", url, e.getMessage());
-            return null;
-        }
-    }
-    
     /**
      * Extract article data from v2 API response
      */
@@ -717,8 +640,9 @@ public class RapidApiClient {
             }
             
             if (thumbnail == null || thumbnail.isEmpty()) {
-                thumbnail = RapidApiNewsMetadata.getDefaultThumbnailForSource(source);
-                log.debug("Using default thumbnail for article '{}': {}", title, thumbnail);
+                // Returns the source default right away and resolves the real image in the background
+                thumbnail = thumbnailResolver.resolve(link, source);
+                log.debug("Using resolved thumbnail for article '{}': {}", title, thumbnail);
             }
             
             article.setThumbnail(thumbnail);
@@ -759,15 +683,6 @@ public class RapidApiClient {
         }
     }
     
-    /**
-     * Check if article is a duplicate
-     */
-    private boolean isDuplicate(List<NewsArticle> articles, NewsArticle article) {
-        return articles.stream()
-            .anyMatch(a -> a.getTitle().equalsIgnoreCase(article.getTitle()) ||
-                     a.getUrl().equals(article.getUrl()));
-    }
-    
     /**
      * Check if article is highly relevant to the stock
      */
@@ -1,23 +1,33 @@
 package com.borsvy.client;
 
+import com.borsvy.cache.TwoLevelCache;
+import com.borsvy.cache.TwoLevelCacheRegistry;
 import com.borsvy.model.StockPrice;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
 
 @Component
 public class TwelveDataClient {
@@ -31,9 +41,14 @@ public class TwelveDataClient {
     private final String baseUrl;
     private final RestTemplate restTemplate;
     private final ObjectMapper objectMapper;
+    private final EventLoopHttpClient asyncHttp;
+    private final ProviderHealthRegistry providerHealth;
+    private final CircuitBreaker twelveDataBreaker;
+    private final CircuitBreaker coinGeckoBreaker;
+    private final MarketCalendar marketCalendar;
 
-    // Cache: key = "symbol_interval", value = cached entry
-    private final Map<String, CachedHistory> cache = new ConcurrentHashMap<>();
+    // Cache: key = "symbol_interval", shared with the other nodes
+    private final TwoLevelCache<List<StockPrice>> cache;
 
     // Known crypto symbols — Twelve Data requires "BTC/USD" format for these
     private static final Set<String> CRYPTO_SYMBOLS = Set.of(
@@ -65,11 +80,22 @@ public class TwelveDataClient {
     public TwelveDataClient(@Value("${twelvedata.api.key}") String apiKey,
                             @Value("${twelvedata.api.url}") String baseUrl,
                             RestTemplate restTemplate,
-                            ObjectMapper objectMapper) {
+                            ObjectMapper objectMapper,
+                            EventLoopHttpClient asyncHttp,
+                            ProviderHealthRegistry providerHealth,
+                            MarketCalendar marketCalendar,
+                            TwoLevelCacheRegistry caches) {
         this.apiKey = apiKey;
         this.baseUrl = baseUrl;
         this.restTemplate = restTemplate;
         this.objectMapper = objectMapper;
+        this.asyncHttp = asyncHttp;
+        this.providerHealth = providerHealth;
+        this.twelveDataBreaker = providerHealth.get(ProviderHealthRegistry.TWELVE_DATA);
+        this.coinGeckoBreaker = providerHealth.get(ProviderHealthRegistry.COINGECKO);
+        this.marketCalendar = marketCalendar;
+        // Four days covers a long weekend, through which equity histories stay fresh
+        this.cache = caches.region("history", new TypeReference<List<StockPrice>>() {}, Duration.ofDays(4));
     }
 
     public boolean isCrypto(String symbol) {
@@ -83,37 +109,50 @@ public class TwelveDataClient {
         return symbol;
     }
 
-    /** Returns current quote data for a crypto symbol, or null on failure. */
+    /**
+     * Returns current quote data for a crypto symbol, or null on failure.
+     * Twelve Data and CoinGecko are tried healthiest first.
+     */
     public Map<String, Object> getCryptoQuote(String symbol) {
-        try {
-            if (apiKey == null || apiKey.isBlank()) {
-                return getCoinGeckoQuote(symbol);
+        if (apiKey == null || apiKey.isBlank()) {
+            return getCoinGeckoQuote(symbol);
+        }
+
+        for (String provider : providerHealth.rank(ProviderHealthRegistry.TWELVE_DATA, ProviderHealthRegistry.COINGECKO)) {
+            Map<String, Object> quote = ProviderHealthRegistry.TWELVE_DATA.equals(provider)
+                ? getTwelveDataQuote(symbol)
+                : getCoinGeckoQuote(symbol);
+            if (quote != null) {
+                return quote;
             }
+        }
+        return null;
+    }
 
-            String resolvedSymbol = resolveSymbol(symbol);
-            String url = String.format("%s/quote?symbol=%s&apikey=%s", baseUrl, resolvedSymbol, apiKey);
-            logger.debug("Calling Twelve Data quote: {}", url.replace(apiKey, "API_KEY_REDACTED"));
+    /** Non-blocking {@link #getCryptoQuote}; completes with null when no provider has a quote. */
+    public CompletableFuture<Map<String, Object>> getCryptoQuoteAsync(String symbol) {
+        if (apiKey == null || apiKey.isBlank()) {
+            return getCoinGeckoQuoteAsync(symbol);
+        }
+        List<String> order = providerHealth.rank(ProviderHealthRegistry.TWELVE_DATA, ProviderHealthRegistry.COINGECKO);
+        return cryptoQuoteFrom(order.get(0), symbol).thenCompose(quote -> quote != null
+            ? CompletableFuture.completedFuture(quote)
+            : cryptoQuoteFrom(order.get(1), symbol));
+    }
 
-            String response = restTemplate.getForObject(url, String.class);
-            if (response == null) return null;
+    private CompletableFuture<Map<String, Object>> cryptoQuoteFrom(String provider, String symbol) {
+        return ProviderHealthRegistry.TWELVE_DATA.equals(provider)
+            ? getTwelveDataQuoteAsync(symbol)
+            : getCoinGeckoQuoteAsync(symbol);
+    }
 
-            JsonNode root = objectMapper.readTree(response);
-            if (root.has("status") && "error".equals(root.path("status").asText())) {
-                logger.warn("Twelve Data quote error for {}: {}", symbol, root.path("message").asText());
-                return null;
-            }
+    private Map<String, Object> getTwelveDataQuote(String symbol) {
+        try {
+            String url = twelveDataQuoteUrl(symbol);
+            logger.debug("Calling Twelve Data quote: {}", url.replace(apiKey, "API_KEY_REDACTED"));
 
-            Map<String, Object> quote = new java.util.HashMap<>();
-            quote.put("symbol", symbol.toUpperCase());
-            quote.put("name", root.path("name").asText(symbol));
-            quote.put("price", root.path("close").asDouble(0));
-            quote.put("change", root.path("change").asDouble(0));
-            quote.put("changePercent", root.path("percent_change").asDouble(0));
-            quote.put("high", root.path("high").asDouble(0));
-            quote.put("low", root.path("low").asDouble(0));
-            quote.put("volume", root.path("volume").asLong(0));
-            quote.put("exchange", root.path("exchange").asText("Crypto"));
-            return quote;
+            JsonNode root = twelveDataBreaker.call(() -> fetchTwelveData(url));
+            return toTwelveDataQuote(symbol, root);
 
         } catch (Exception e) {
             logger.warn("Error fetching crypto quote for {}: {}", symbol, e.getMessage());
@@ -121,6 +160,114 @@ public class TwelveDataClient {
         }
     }
 
+    private CompletableFuture<Map<String, Object>> getTwelveDataQuoteAsync(String symbol) {
+        String url = twelveDataQuoteUrl(symbol);
+        return twelveDataBreaker.callAsync(() -> fetchTwelveDataAsync(url))
+            .thenApply(root -> toTwelveDataQuote(symbol, root))
+            .exceptionally(e -> {
+                logger.warn("Error fetching crypto quote for {}: {}", symbol, e.getMessage());
+                return null;
+            });
+    }
+
+    private String twelveDataQuoteUrl(String symbol) {
+        return String.format("%s/quote?symbol=%s&apikey=%s", baseUrl, resolveSymbol(symbol), apiKey);
+    }
+
+    private Map<String, Object> toTwelveDataQuote(String symbol, JsonNode root) {
+        if (root == null) return null;
+        if (root.has("status") && "error".equals(root.path("status").asText())) {
+            logger.warn("Twelve Data quote error for {}: {}", symbol, root.path("message").asText());
+            return null;
+        }
+        return toQuote(symbol, root);
+    }
+
+    /**
+     * Quotes for several symbols (stocks or crypto) in a single /quote call,
+     * keyed by the caller's symbol. Symbols the provider rejects are left
+     * out; an empty map means the call itself failed.
+     */
+    public Map<String, Map<String, Object>> getQuotes(Collection<String> symbols) {
+        Map<String, Map<String, Object>> quotes = new java.util.HashMap<>();
+        if (symbols.isEmpty() || apiKey == null || apiKey.isBlank()) {
+            return quotes;
+        }
+        Map<String, String> byResolved = new java.util.LinkedHashMap<>();
+        for (String symbol : symbols) {
+            byResolved.put(resolveSymbol(symbol), symbol);
+        }
+        try {
+            String url = String.format("%s/quote?symbol=%s&apikey=%s",
+                    baseUrl, String.join(",", byResolved.keySet()), apiKey);
+            logger.debug("Calling Twelve Data batch quote for {} symbols", byResolved.size());
+
+            JsonNode root = twelveDataBreaker.call(() -> fetchTwelveData(url));
+            if (root == null) return quotes;
+            if (byResolved.size() == 1) {
+                // A single symbol comes back unwrapped
+                String symbol = byResolved.values().iterator().next();
+                if (!"error".equals(root.path("status").asText())) {
+                    quotes.put(symbol, toQuote(symbol, root));
+                }
+                return quotes;
+            }
+            for (Map.Entry<String, String> entry : byResolved.entrySet()) {
+                JsonNode node = root.path(entry.getKey());
+                if (node.isObject() && !"error".equals(node.path("status").asText())) {
+                    quotes.put(entry.getValue(), toQuote(entry.getValue(), node));
+                }
+            }
+        } catch (Exception e) {
+            logger.warn("Error fetching batch quote for {} symbols: {}", byResolved.size(), e.getMessage());
+        }
+        return quotes;
+    }
+
+    private Map<String, Object> toQuote(String symbol, JsonNode node) {
+        Map<String, Object> quote = new java.util.HashMap<>();
+        quote.put("symbol", symbol.toUpperCase());
+        quote.put("name", node.path("name").asText(symbol));
+        quote.put("price", node.path("close").asDouble(0));
+        quote.put("change", node.path("change").asDouble(0));
+        quote.put("changePercent", node.path("percent_change").asDouble(0));
+        quote.put("high", node.path("high").asDouble(0));
+        quote.put("low", node.path("low").asDouble(0));
+        quote.put("open", node.path("open").asDouble(0));
+        quote.put("volume", node.path("volume").asLong(0));
+        quote.put("exchange", node.path("exchange").asText("Crypto"));
+        return quote;
+    }
+
+    /**
+     * Twelve Data reports errors inside a 200 body. Out-of-credits (code 429)
+     * and server errors are thrown so the circuit breaker sees them; symbol
+     * errors are returned for the caller to handle.
+     */
+    private JsonNode fetchTwelveData(String url) throws java.io.IOException {
+        String response = restTemplate.getForObject(url, String.class);
+        if (response == null) return null;
+        return readTwelveData(response);
+    }
+
+    private CompletableFuture<JsonNode> fetchTwelveDataAsync(String url) {
+        return asyncHttp.get(url).thenApply(response -> {
+            try {
+                return readTwelveData(response);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private JsonNode readTwelveData(String response) throws java.io.IOException {
+        JsonNode root = objectMapper.readTree(response);
+        if ("error".equals(root.path("status").asText()) && root.path("code").asInt(0) >= 429) {
+            throw new java.io.IOException("Twelve Data error " + root.path("code").asInt() + ": " + root.path("message").asText());
+        }
+        return root;
+    }
+
     private Map<String, Object> getCoinGeckoQuote(String symbol) {
         try {
             String normalized = symbol == null ? "" : symbol.toUpperCase();
@@ -129,41 +276,68 @@ public class TwelveDataClient {
                 return null;
             }
 
-            String url = String.format(
-                "https://api.coingecko.com/api/v3/simple/price?ids=%s&vs_currencies=usd&include_24hr_change=true&include_24hr_vol=true",
-                coinId
-            );
+            String url = coinGeckoUrl(coinId);
             logger.debug("Calling CoinGecko quote for {}", normalized);
 
-            String response = restTemplate.getForObject(url, String.class);
+            String response = coinGeckoBreaker.call(() -> restTemplate.getForObject(url, String.class));
             if (response == null) {
                 return null;
             }
+            return toCoinGeckoQuote(normalized, coinId, response);
+        } catch (Exception e) {
+            logger.warn("Error fetching crypto quote from CoinGecko for {}: {}", symbol, e.getMessage());
+            return null;
+        }
+    }
 
-            JsonNode root = objectMapper.readTree(response).path(coinId);
-            if (root.isMissingNode() || !root.has("usd")) {
+    private CompletableFuture<Map<String, Object>> getCoinGeckoQuoteAsync(String symbol) {
+        String normalized = symbol == null ? "" : symbol.toUpperCase();
+        String coinId = COINGECKO_IDS.get(normalized);
+        if (coinId == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return coinGeckoBreaker.callAsync(() -> asyncHttp.get(coinGeckoUrl(coinId)))
+            .thenApply(response -> {
+                try {
+                    return toCoinGeckoQuote(normalized, coinId, response);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            })
+            .exceptionally(e -> {
+                logger.warn("Error fetching crypto quote from CoinGecko for {}: {}", symbol, e.getMessage());
                 return null;
-            }
+            });
+    }
 
-            double price = root.path("usd").asDouble(0);
-            double changePercent = root.path("usd_24h_change").asDouble(0);
-            double change = price * changePercent / 100.0;
-
-            Map<String, Object> quote = new java.util.HashMap<>();
-            quote.put("symbol", normalized);
-            quote.put("name", cryptoName(normalized));
-            quote.put("price", price);
-            quote.put("change", change);
-            quote.put("changePercent", changePercent);
-            quote.put("high", price);
-            quote.put("low", price);
-            quote.put("volume", root.path("usd_24h_vol").asLong(0));
-            quote.put("exchange", "Crypto");
-            return quote;
-        } catch (Exception e) {
-            logger.warn("Error fetching crypto quote from CoinGecko for {}: {}", symbol, e.getMessage());
+    private static String coinGeckoUrl(String coinId) {
+        return String.format(
+            "https://api.coingecko.com/api/v3/simple/price?ids=%s&vs_currencies=usd&include_24hr_change=true&include_24hr_vol=true",
+            coinId
+        );
+    }
+
+    private Map<String, Object> toCoinGeckoQuote(String normalized, String coinId, String response) throws IOException {
+        JsonNode root = objectMapper.readTree(response).path(coinId);
+        if (root.isMissingNode() || !root.has("usd")) {
             return null;
         }
+
+        double price = root.path("usd").asDouble(0);
+        double changePercent = root.path("usd_24h_change").asDouble(0);
+        double change = price * changePercent / 100.0;
+
+        Map<String, Object> quote = new java.util.HashMap<>();
+        quote.put("symbol", normalized);
+        quote.put("name", cryptoName(normalized));
+        quote.put("price", price);
+        quote.put("change", change);
+        quote.put("changePercent", changePercent);
+        quote.put("high", price);
+        quote.put("low", price);
+        quote.put("volume", root.path("usd_24h_vol").asLong(0));
+        quote.put("exchange", "Crypto");
+        return quote;
     }
 
     private String cryptoName(String symbol) {
@@ -181,70 +355,161 @@ public class TwelveDataClient {
 
     public List<StockPrice> getHistoricalData(String symbol, String interval) {
         String cacheKey = symbol + "_" + interval;
-        CachedHistory cached = cache.get(cacheKey);
-        if (cached != null && !cached.isExpired(cacheTtlMinutes(interval))) {
+        Duration ttl = historyTtl(symbol, interval);
+        TwoLevelCache.Entry<List<StockPrice>> cached = cache.get(cacheKey, ttl);
+        if (cached != null && cached.isFresh(ttl)) {
             logger.debug("Returning cached history for {} interval={}", symbol, interval);
-            return cached.data;
+            return cached.value;
         }
-
         try {
-            String tdInterval = toTwelveDataInterval(interval);
-            int outputSize = toOutputSize(interval);
-            String resolvedSymbol = resolveSymbol(symbol);
+            // One node fetches; the others read its result from the shared tier
+            return cache.refresh(cacheKey, ttl, () -> fetchHistoricalData(symbol, interval, cacheKey, cached));
+        } catch (IOException e) {
+            return staleOrEmpty(cached);
+        }
+    }
 
-            String url = String.format("%s/time_series?symbol=%s&interval=%s&outputsize=%d&apikey=%s",
-                    baseUrl, resolvedSymbol, tdInterval, outputSize, apiKey);
+    /**
+     * Non-blocking {@link #getHistoricalData}: the same caching and stale
+     * fallback, with concurrent callers on this node sharing one fetch.
+     */
+    public CompletableFuture<List<StockPrice>> getHistoricalDataAsync(String symbol, String interval) {
+        String cacheKey = symbol + "_" + interval;
+        Duration ttl = historyTtl(symbol, interval);
+        TwoLevelCache.Entry<List<StockPrice>> cached = cache.get(cacheKey, ttl);
+        if (cached != null && cached.isFresh(ttl)) {
+            logger.debug("Returning cached history for {} interval={}", symbol, interval);
+            return CompletableFuture.completedFuture(cached.value);
+        }
+        String url = timeSeriesUrl(symbol, interval);
+        return cache.refreshAsync(cacheKey, () -> twelveDataBreaker.callAsync(() -> asyncHttp.get(url, Map.of(), this::readTimeSeries))
+            .thenApply(series -> toPrices(symbol, interval, series, cacheKey, cached))
+            .exceptionally(e -> {
+                logger.warn("Error fetching historical data from Twelve Data for {}: {}", symbol, e.getMessage());
+                return staleOrEmpty(cached);
+            }));
+    }
 
+    private List<StockPrice> fetchHistoricalData(String symbol, String interval, String cacheKey,
+                                                 TwoLevelCache.Entry<List<StockPrice>> cached) {
+        try {
+            String url = timeSeriesUrl(symbol, interval);
             logger.debug("Calling Twelve Data: {}", url.replace(apiKey, "API_KEY_REDACTED"));
 
-            String response = restTemplate.getForObject(url, String.class);
-            if (response == null) {
-                logger.warn("Twelve Data returned null response for {}", symbol);
-                return new ArrayList<>();
-            }
+            TimeSeries series = twelveDataBreaker.call(() -> restTemplate.execute(url, HttpMethod.GET, null,
+                response -> readTimeSeries(response.getBody())));
+            return toPrices(symbol, interval, series, cacheKey, cached);
 
-            JsonNode root = objectMapper.readTree(response);
+        } catch (Exception e) {
+            logger.warn("Error fetching historical data from Twelve Data for {}: {}", symbol, e.getMessage());
+            return staleOrEmpty(cached);
+        }
+    }
 
-            if (root.has("status") && "error".equals(root.path("status").asText())) {
-                logger.warn("Twelve Data API error for {}: {}", symbol, root.path("message").asText());
-                return new ArrayList<>();
-            }
+    private String timeSeriesUrl(String symbol, String interval) {
+        return String.format("%s/time_series?symbol=%s&interval=%s&outputsize=%d&apikey=%s",
+                baseUrl, resolveSymbol(symbol), toTwelveDataInterval(interval), toOutputSize(interval), apiKey);
+    }
 
-            JsonNode values = root.path("values");
-            if (!values.isArray() || values.isEmpty()) {
-                logger.warn("Twelve Data returned no values for {} interval={}", symbol, interval);
-                return new ArrayList<>();
-            }
+    /** The parts of a /time_series response the charts use, newest point first as sent. */
+    private static final class TimeSeries {
+        String status;
+        int code;
+        String message = "";
+        final List<StockPrice> values = new ArrayList<>();
+        // Parsed later, outside the circuit breaker, as the tree-based code did
+        final List<String> datetimes = new ArrayList<>();
+    }
 
-            boolean isIntraday = tdInterval.contains("min") || tdInterval.contains("h");
-
-            List<StockPrice> prices = new ArrayList<>();
-            // Twelve Data returns newest-first; reverse to get chronological order
-            for (int i = values.size() - 1; i >= 0; i--) {
-                JsonNode entry = values.get(i);
-                StockPrice sp = new StockPrice();
-                sp.setSymbol(symbol);
-                sp.setPrice(entry.path("close").asDouble());
-                sp.setOpen(entry.path("open").asDouble(0));
-                sp.setHigh(entry.path("high").asDouble(0));
-                sp.setLow(entry.path("low").asDouble(0));
-                sp.setVolume(entry.path("volume").asLong(0));
-                String datetime = entry.path("datetime").asText();
-                if (isIntraday) {
-                    sp.setTimestamp(LocalDateTime.parse(datetime, INTRADAY_FMT));
-                } else {
-                    sp.setTimestamp(LocalDate.parse(datetime, DAILY_FMT).atStartOfDay());
+    /**
+     * Reads a /time_series body straight into StockPrice objects. Only the
+     * OHLCV fields of each point are read; "meta" and anything else is
+     * skipped without being built. Errors are classified as in
+     * {@link #readTwelveData}.
+     */
+    private TimeSeries readTimeSeries(InputStream body) throws IOException {
+        TimeSeries series = new TimeSeries();
+        try (JsonParser parser = objectMapper.createParser(body)) {
+            if (parser.nextToken() == null) return null;
+            JsonStreams.forEachField(parser, (field, value) -> {
+                switch (field) {
+                    case "status": series.status = value.getValueAsString(); break;
+                    case "code": series.code = value.getValueAsInt(0); break;
+                    case "message": series.message = value.getValueAsString(""); break;
+                    case "values":
+                        JsonStreams.forEachElement(value, point -> {
+                            StockPrice sp = new StockPrice();
+                            String[] datetime = {""};
+                            JsonStreams.forEachField(point, (name, v) -> {
+                                switch (name) {
+                                    case "datetime": datetime[0] = v.getValueAsString(""); break;
+                                    case "close": sp.setPrice(JsonStreams.doubleValue(v, 0)); break;
+                                    case "open": sp.setOpen(JsonStreams.doubleValue(v, 0)); break;
+                                    case "high": sp.setHigh(JsonStreams.doubleValue(v, 0)); break;
+                                    case "low": sp.setLow(JsonStreams.doubleValue(v, 0)); break;
+                                    case "volume": sp.setVolume(JsonStreams.longValue(v, 0)); break;
+                                    default: break;
+                                }
+                            });
+                            series.values.add(sp);
+                            series.datetimes.add(datetime[0]);
+                        });
+                        break;
+                    default: break;
                 }
-                prices.add(sp);
-            }
+            });
+        }
+        if ("error".equals(series.status) && series.code >= 429) {
+            throw new java.io.IOException("Twelve Data error " + series.code + ": " + series.message);
+        }
+        return series;
+    }
 
-            cache.put(cacheKey, new CachedHistory(prices));
-            return prices;
+    private List<StockPrice> toPrices(String symbol, String interval, TimeSeries series, String cacheKey,
+                                      TwoLevelCache.Entry<List<StockPrice>> cached) {
+        if (series == null) {
+            logger.warn("Twelve Data returned null response for {}", symbol);
+            return staleOrEmpty(cached);
+        }
 
-        } catch (Exception e) {
-            logger.warn("Error fetching historical data from Twelve Data for {}: {}", symbol, e.getMessage());
+        if ("error".equals(series.status)) {
+            logger.warn("Twelve Data API error for {}: {}", symbol, series.message);
             return new ArrayList<>();
         }
+
+        if (series.values.isEmpty()) {
+            logger.warn("Twelve Data returned no values for {} interval={}", symbol, interval);
+            return new ArrayList<>();
+        }
+
+        String tdInterval = toTwelveDataInterval(interval);
+        boolean isIntraday = tdInterval.contains("min") || tdInterval.contains("h");
+
+        List<StockPrice> prices = new ArrayList<>(series.values.size());
+        // Twelve Data returns newest-first; reverse to get chronological order
+        for (int i = series.values.size() - 1; i >= 0; i--) {
+            StockPrice sp = series.values.get(i);
+            sp.setSymbol(symbol);
+            String datetime = series.datetimes.get(i);
+            if (isIntraday) {
+                sp.setTimestamp(LocalDateTime.parse(datetime, INTRADAY_FMT));
+            } else {
+                sp.setTimestamp(LocalDate.parse(datetime, DAILY_FMT).atStartOfDay());
+            }
+            prices.add(sp);
+        }
+
+        cache.put(cacheKey, prices);
+        return prices;
+    }
+
+    // An outdated chart is more useful than an empty one while Twelve Data is down
+    private List<StockPrice> staleOrEmpty(TwoLevelCache.Entry<List<StockPrice>> cached) {
+        if (cached != null) {
+            logger.info("Serving stale history ({} points) while Twelve Data is unavailable", cached.value.size());
+            return cached.value;
+        }
+        return new ArrayList<>();
     }
 
     private String toTwelveDataInterval(String interval) {
@@ -255,6 +520,7 @@ public class TwelveDataClient {
             case "1m": return "1day";
             case "3m": return "1day";
             case "6m": return "1day";
+            case "2y": return "1day";
             case "1y": return "1week";
             case "5y": return "1month";
             default:   return "1day";
@@ -269,12 +535,19 @@ public class TwelveDataClient {
             case "1m": return 22;
             case "3m": return 66;
             case "6m": return 130;
+            case "2y": return 504;
             case "1y": return 52;
             case "5y": return 60;
             default:   return 78;
         }
     }
 
+    // Crypto trades around the clock; equity bars stop changing at the close
+    private Duration historyTtl(String symbol, String interval) {
+        Duration ttl = Duration.ofMinutes(cacheTtlMinutes(interval));
+        return isCrypto(symbol) ? ttl : marketCalendar.equityTtl(symbol, ttl);
+    }
+
     private long cacheTtlMinutes(String interval) {
         if (interval == null) return 5;
         switch (interval.toLowerCase()) {
@@ -284,18 +557,4 @@ public class TwelveDataClient {
             default:   return 360; // 6 hours for 3m/6m/1y/5y — historical data doesn't change
         }
     }
-
-    private static class CachedHistory {
-        final List<StockPrice> data;
-        final long fetchedAt;
-
-        CachedHistory(List<StockPrice> data) {
-            this.data = data;
-            this.fetchedAt = System.currentTimeMillis();
-        }
-
-        boolean isExpired(long ttlMinutes) {
-            return System.currentTimeMillis() - fetchedAt > ttlMinutes * 60 * 1000;
-        }
-    }
 }
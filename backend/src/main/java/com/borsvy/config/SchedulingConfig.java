@@ -0,0 +1,60 @@
+package com.borsvy.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * Threads for the {@code @Scheduled} jobs. On Spring's default single-thread
+ * scheduler a slow job (an alert quote sweep, a news poll, the daily
+ * fundamentals refresh) holds up every job behind it: the cluster heartbeat
+ * lets its lease run out, write-behind flushes and shared cache polls stall.
+ * The short jobs share a small pool instead, and the heartbeat and each long
+ * job get a thread of their own through {@code @Scheduled(scheduler = ...)},
+ * so no job waits on provider calls it does not make.
+ */
+@Configuration
+public class SchedulingConfig {
+
+    public static final String HEARTBEAT = "heartbeatScheduler";
+    public static final String ALERT_REFRESH = "alertRefreshScheduler";
+    public static final String NEWS_INGEST = "newsIngestScheduler";
+    public static final String FUNDAMENTALS_REFRESH = "fundamentalsRefreshScheduler";
+
+    /** The default for jobs that name no scheduler: flushes, polls, sweeps and purges. */
+    @Bean
+    public ThreadPoolTaskScheduler taskScheduler(@Value("${scheduler.pool-size:4}") int poolSize) {
+        return scheduler("scheduling-", poolSize);
+    }
+
+    @Bean(HEARTBEAT)
+    public ThreadPoolTaskScheduler heartbeatScheduler() {
+        return scheduler("cluster-heartbeat-", 1);
+    }
+
+    @Bean(ALERT_REFRESH)
+    public ThreadPoolTaskScheduler alertRefreshScheduler() {
+        return scheduler("alert-refresh-", 1);
+    }
+
+    @Bean(NEWS_INGEST)
+    public ThreadPoolTaskScheduler newsIngestScheduler() {
+        return scheduler("news-ingest-", 1);
+    }
+
+    @Bean(FUNDAMENTALS_REFRESH)
+    public ThreadPoolTaskScheduler fundamentalsRefreshScheduler() {
+        return scheduler("fundamentals-refresh-", 1);
+    }
+
+    private static ThreadPoolTaskScheduler scheduler(String namePrefix, int poolSize) {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(Math.max(1, poolSize));
+        scheduler.setThreadNamePrefix(namePrefix);
+        // Let an in-flight job finish its current step on shutdown, not start new runs
+        scheduler.setWaitForTasksToCompleteOnShutdown(true);
+        scheduler.setAwaitTerminationSeconds(10);
+        return scheduler;
+    }
+}
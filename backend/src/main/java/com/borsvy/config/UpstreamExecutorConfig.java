@@ -0,0 +1,90 @@
+package com.borsvy.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executor for fan-outs that block on provider calls. With
+ * {@code spring.threads.virtual.enabled=true} on a Java 21 runtime every task
+ * gets its own virtual thread, so a slow provider parks cheap threads instead
+ * of exhausting a pool; the same property moves Tomcat's request threads onto
+ * virtual threads. Otherwise it is a fixed platform pool, which at least keeps
+ * blocking calls off the common ForkJoinPool that parallel computations use.
+ *
+ * <p>The platform pool's queue is bounded. When it is full, the submitting
+ * thread runs the task itself: {@link java.util.concurrent.CompletableFuture}
+ * does not complete a dependent stage whose executor rejects it, so aborting
+ * would leave callers waiting forever, while running on the caller slows the
+ * producer down instead.
+ *
+ * <p>The build still targets Java 17, so the virtual-thread API is looked up
+ * reflectively and the setting is ignored, with a warning, on older runtimes.
+ */
+@Configuration
+public class UpstreamExecutorConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(UpstreamExecutorConfig.class);
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService upstreamExecutor(@Value("${spring.threads.virtual.enabled:false}") boolean virtual,
+                                            @Value("${upstream.executor.threads:32}") int threads,
+                                            @Value("${upstream.executor.queue-capacity:1000}") int queueCapacity) {
+        if (virtual && !virtualThreadsAvailable()) {
+            logger.warn("Virtual threads requested but the runtime is Java {}; using {} platform threads",
+                Runtime.version().feature(), threads);
+        }
+        ExecutorService executor = newExecutor(virtual, threads, queueCapacity, "upstream-");
+        logger.info("Upstream calls run on {}", virtual && virtualThreadsAvailable()
+            ? "virtual threads" : threads + " platform threads");
+        return executor;
+    }
+
+    /**
+     * A thread per task on virtual threads when asked for and supported,
+     * otherwise a fixed pool of daemon platform threads that queues up to
+     * {@code queueCapacity} tasks and then runs them on the caller.
+     */
+    public static ExecutorService newExecutor(boolean virtual, int platformThreads, int queueCapacity,
+                                              String namePrefix) {
+        if (virtual && virtualThreadsAvailable()) {
+            try {
+                // Thread.ofVirtual().name(prefix, 0).factory(), through the public Thread.Builder type
+                Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+                Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+                builder = builderType.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 0L);
+                ThreadFactory threadFactory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+                return (ExecutorService) Executors.class
+                    .getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                    .invoke(null, threadFactory);
+            } catch (ReflectiveOperationException e) {
+                logger.warn("Could not create a virtual-thread executor, using platform threads: {}", e.getMessage());
+            }
+        }
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(platformThreads, platformThreads, 60, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(queueCapacity),
+            runnable -> {
+                Thread thread = new Thread(runnable, namePrefix + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    public static boolean virtualThreadsAvailable() {
+        return Runtime.version().feature() >= 21;
+    }
+}
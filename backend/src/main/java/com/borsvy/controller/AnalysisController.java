@@ -1,21 +1,48 @@
 package com.borsvy.controller;
 
+import com.borsvy.model.BacktestRequest;
+import com.borsvy.security.UserPrincipal;
 import com.borsvy.service.AnalysisService;
+import com.borsvy.service.BacktestService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import java.util.Map;
 import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/analysis")
 public class AnalysisController {
 
     private final AnalysisService analysisService;
+    private final BacktestService backtestService;
 
     @Autowired
-    public AnalysisController(AnalysisService analysisService) {
+    public AnalysisController(AnalysisService analysisService, BacktestService backtestService) {
         this.analysisService = analysisService;
+        this.backtestService = backtestService;
+    }
+
+    /**
+     * A sweep fetches history for every symbol and runs thousands of
+     * backtests, more than a portfolio simulation, so it is not open to guests.
+     */
+    @PostMapping("/backtest")
+    public ResponseEntity<?> backtest(@RequestBody BacktestRequest request,
+                                      @AuthenticationPrincipal UserPrincipal principal) {
+        if (principal == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Not authenticated"));
+        }
+        try {
+            return ResponseEntity.ok(backtestService.run(request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(e.getMessage());
+        }
     }
 
     @GetMapping("/{symbol}")
@@ -36,6 +63,14 @@ public class AnalysisController {
         return ResponseEntity.ok(analysisService.getRecentNews(symbol, limit));
     }
 
+    @GetMapping("/{symbol}/history")
+    public ResponseEntity<Map<String, Object>> getAnalysisHistory(
+            @PathVariable String symbol,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(analysisService.getHistoricalAnalysis(symbol, cursor, limit));
+    }
+
     @GetMapping("/{symbol}/price-history")
     public ResponseEntity<List<Map<String, Object>>> getPriceHistory(
             @PathVariable String symbol,
@@ -43,7 +43,7 @@ public class AuthController {
                 return ResponseEntity.badRequest().body(Map.of("error", "Email and password (min 8 chars) required"));
             }
             User user = userService.register(email.trim().toLowerCase(), password);
-            String token = jwtService.generateToken(user.getId(), user.getEmail());
+            String token = jwtService.generateToken(user.getId(), user.getEmail(), user.getTokenVersion());
             setAuthCookie(response, token);
             return ResponseEntity.ok(buildUserResponse(user, "FREE"));
         } catch (IllegalArgumentException e) {
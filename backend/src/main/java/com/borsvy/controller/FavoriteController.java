@@ -4,13 +4,16 @@ import com.borsvy.model.Favorite;
 import com.borsvy.security.UserPrincipal;
 import com.borsvy.service.FavoriteService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/favorites")
@@ -36,6 +39,28 @@ public class FavoriteController {
         }
     }
 
+    /**
+     * Favorites with current quotes. Clients send the previous ETag in
+     * If-None-Match and get 304 while nothing on the watchlist has moved.
+     */
+    @GetMapping(value = "/live", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<Map<String, Object>>> getLiveFavorites(@AuthenticationPrincipal UserPrincipal principal,
+                                                                      WebRequest request) {
+        try {
+            FavoriteService.LiveWatchlist watchlist = favoriteService.getLiveFavorites(resolveUserId(principal));
+            if (request.checkNotModified(watchlist.getEtag())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(watchlist.getEtag()).build();
+            }
+            return ResponseEntity.ok()
+                .eTag(watchlist.getEtag())
+                // Per-user content: browsers may revalidate, shared caches must not store it
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(watchlist.getItems());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<Favorite> addFavorite(@RequestBody Favorite favorite,
                                                  @AuthenticationPrincipal UserPrincipal principal) {
@@ -1,5 +1,8 @@
 package com.borsvy.controller;
 
+import com.borsvy.cache.TwoLevelCacheRegistry;
+import com.borsvy.client.ProviderHealthRegistry;
+import com.borsvy.service.ClusterMembership;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -13,6 +16,16 @@ import java.util.Map;
 public class HealthController {
 
     private final Instant startedAt = Instant.now();
+    private final ProviderHealthRegistry providerHealth;
+    private final TwoLevelCacheRegistry caches;
+    private final ClusterMembership cluster;
+
+    public HealthController(ProviderHealthRegistry providerHealth, TwoLevelCacheRegistry caches,
+                            ClusterMembership cluster) {
+        this.providerHealth = providerHealth;
+        this.caches = caches;
+        this.cluster = cluster;
+    }
 
     @GetMapping("/health")
     public ResponseEntity<Map<String, Object>> health() {
@@ -23,4 +36,19 @@ public class HealthController {
                 "timestamp", Instant.now().toString()
         ));
     }
+
+    @GetMapping("/health/providers")
+    public ResponseEntity<Map<String, Object>> providers() {
+        return ResponseEntity.ok(providerHealth.snapshot());
+    }
+
+    @GetMapping("/health/cache")
+    public ResponseEntity<Map<String, Object>> cache() {
+        return ResponseEntity.ok(caches.snapshot());
+    }
+
+    @GetMapping("/health/cluster")
+    public ResponseEntity<Map<String, Object>> cluster() {
+        return ResponseEntity.ok(cluster.snapshot());
+    }
 }
@@ -2,24 +2,38 @@ package com.borsvy.controller;
 
 import com.borsvy.model.PortfolioHolding;
 import com.borsvy.security.UserPrincipal;
+import com.borsvy.service.PortfolioRiskService;
 import com.borsvy.service.PortfolioService;
+import com.borsvy.service.PortfolioSimulationService;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/portfolio")
 public class PortfolioController {
 
     private static final Long GUEST_USER_ID = 0L;
+    private static final long SIMULATION_STREAM_TIMEOUT_MS = 60_000;
 
     private final PortfolioService portfolioService;
+    private final PortfolioRiskService portfolioRiskService;
+    private final PortfolioSimulationService simulationService;
 
-    public PortfolioController(PortfolioService portfolioService) {
+    public PortfolioController(PortfolioService portfolioService, PortfolioRiskService portfolioRiskService,
+                               PortfolioSimulationService simulationService) {
         this.portfolioService = portfolioService;
+        this.portfolioRiskService = portfolioRiskService;
+        this.simulationService = simulationService;
     }
 
     @GetMapping("/holdings")
@@ -27,6 +41,84 @@ public class PortfolioController {
         return ResponseEntity.ok(portfolioService.getHoldings(resolveUserId(principal)));
     }
 
+    @GetMapping("/summary")
+    public ResponseEntity<Map<String, Object>> getSummary(@AuthenticationPrincipal UserPrincipal principal) {
+        return ResponseEntity.ok(portfolioService.getSummary(resolveUserId(principal)));
+    }
+
+    @GetMapping("/risk")
+    public ResponseEntity<Map<String, Object>> getRisk(@AuthenticationPrincipal UserPrincipal principal) {
+        return ResponseEntity.ok(portfolioRiskService.getRisk(resolveUserId(principal)));
+    }
+
+    /**
+     * Simulations are the most expensive request the app serves, so unlike
+     * the other portfolio endpoints they are not open to guests.
+     */
+    @GetMapping("/simulation")
+    public ResponseEntity<?> simulate(@RequestParam(defaultValue = "100000") int paths,
+                                      @RequestParam(defaultValue = "252") int days,
+                                      @RequestParam(defaultValue = "bootstrap") String model,
+                                      @RequestParam(required = false) Long seed,
+                                      @AuthenticationPrincipal UserPrincipal principal) {
+        if (principal == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Not authenticated"));
+        }
+        try {
+            return ResponseEntity.ok(simulationService.simulate(principal.getId(), paths, days, model, seed, null));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(e.getMessage());
+        }
+    }
+
+    /**
+     * Same simulation as server-sent events: "progress" events with completed
+     * and total path counts, then a single "result" event. The run is
+     * cancelled when the stream completes, times out or the client leaves.
+     */
+    @GetMapping(value = "/simulation/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamSimulation(@RequestParam(defaultValue = "100000") int paths,
+                                                       @RequestParam(defaultValue = "252") int days,
+                                                       @RequestParam(defaultValue = "bootstrap") String model,
+                                                       @RequestParam(required = false) Long seed,
+                                                       @AuthenticationPrincipal UserPrincipal principal) {
+        if (principal == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        SseEmitter emitter = new SseEmitter(SIMULATION_STREAM_TIMEOUT_MS);
+        CompletableFuture<Map<String, Object>> run;
+        try {
+            run = simulationService.simulateAsync(principal.getId(), paths, days, model, seed, (completed, total) -> {
+                try {
+                    emitter.send(SseEmitter.event().name("progress").data(Map.of("completed", completed, "total", total)));
+                } catch (IOException | IllegalStateException ignored) {
+                    // Client went away; the completion callback cancels the run
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build();
+        }
+        emitter.onCompletion(() -> run.cancel(false));
+        emitter.onTimeout(() -> run.cancel(false));
+        emitter.onError(error -> run.cancel(false));
+        run.whenComplete((result, error) -> {
+            if (run.isCancelled()) return;
+            try {
+                if (error != null) {
+                    emitter.send(SseEmitter.event().name("error").data(String.valueOf(error.getMessage())));
+                } else {
+                    emitter.send(SseEmitter.event().name("result").data(result));
+                }
+                emitter.complete();
+            } catch (IOException | IllegalStateException e) {
+                emitter.completeWithError(e);
+            }
+        });
+        return ResponseEntity.ok(emitter);
+    }
+
     @PostMapping("/holdings")
     public ResponseEntity<?> addHolding(@RequestBody PortfolioHolding holding,
                                         @AuthenticationPrincipal UserPrincipal principal) {
@@ -1,13 +1,16 @@
 package com.borsvy.controller;
 
+import com.borsvy.model.CompanyFundamentals;
 import com.borsvy.model.StockPrice;
 import com.borsvy.model.StockDetails;
 import com.borsvy.model.StockAnalysis;
-import com.borsvy.model.Stock;
+import com.borsvy.model.StockSummary;
+import com.borsvy.security.UserPrincipal;
 import com.borsvy.service.StockService;
 import com.borsvy.service.AnalysisService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.http.HttpStatus;
 import java.util.ArrayList;
@@ -20,7 +23,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import java.util.HashMap;
 import java.util.stream.Collectors;
-import com.borsvy.model.NewsArticle;
 
 @RestController
 @RequestMapping("/api/stocks")
@@ -39,24 +41,26 @@ public class StockController {
         this.analysisService = analysisService;
     }
 
+    // The provider-backed endpoints return futures, so the request thread is
+    // released while the providers answer and the response completes later
     @GetMapping({"/{symbol}", "/{symbol}/details"})
-    public ResponseEntity<StockDetails> getStockDetails(@PathVariable String symbol) {
-        try {
-            CachedStockDetails cached = stockDetailsCache.get(symbol);
-            if (cached != null && !cached.isExpired()) {
-                return ResponseEntity.ok(cached.details);
-            }
+    public CompletableFuture<ResponseEntity<StockDetails>> getStockDetails(@PathVariable String symbol) {
+        CachedStockDetails cached = stockDetailsCache.get(symbol);
+        if (cached != null && !cached.isExpired()) {
+            return CompletableFuture.completedFuture(ResponseEntity.ok(cached.details));
+        }
 
-            StockDetails details = stockService.getStockDetails(symbol);
+        return stockService.getStockDetailsAsync(symbol).handle((details, e) -> {
+            if (e != null) {
+                logger.error("Error fetching stock details for {}: {}", symbol, rootMessage(e));
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).<StockDetails>build();
+            }
             if (details != null) {
                 stockDetailsCache.put(symbol, new CachedStockDetails(details));
                 return ResponseEntity.ok(details);
             }
-            return ResponseEntity.notFound().build();
-        } catch (Exception e) {
-            logger.error("Error fetching stock details for {}: {}", symbol, e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        }
+            return ResponseEntity.notFound().<StockDetails>build();
+        });
     }
 
     private static class CachedStockDetails {
@@ -74,9 +78,9 @@ public class StockController {
     }
 
     @GetMapping("/search")
-    public ResponseEntity<List<Stock>> searchStocks(@RequestParam String query) {
+    public ResponseEntity<List<StockSummary>> searchStocks(@RequestParam String query) {
         try {
-            List<Stock> results = stockService.searchStocks(query);
+            List<StockSummary> results = stockService.searchStocks(query);
             return ResponseEntity.ok(results);
         } catch (Exception e) {
             logger.error("Error searching stocks: {}", e.getMessage());
@@ -85,9 +89,9 @@ public class StockController {
     }
 
     @GetMapping("/popular")
-    public ResponseEntity<List<Stock>> getPopularStocks() {
+    public ResponseEntity<List<StockSummary>> getPopularStocks() {
         try {
-            List<Stock> popularStocks = stockService.getPopularStocks();
+            List<StockSummary> popularStocks = stockService.getPopularStocks();
             return ResponseEntity.ok(popularStocks);
         } catch (Exception e) {
             logger.error("Error fetching popular stocks: {}", e.getMessage());
@@ -98,18 +102,24 @@ public class StockController {
     private static final List<String> MARKET_OVERVIEW_SYMBOLS = List.of("AAPL", "MSFT", "NVDA", "BTC");
 
     @GetMapping("/market-overview")
-    public ResponseEntity<List<Map<String, Object>>> getMarketOverview() {
-        List<Map<String, Object>> overview = MARKET_OVERVIEW_SYMBOLS.stream()
-            .map(sym -> CompletableFuture.supplyAsync(() -> buildMarketOverviewItem(sym)))
-            .map(CompletableFuture::join)
-            .filter(item -> !item.isEmpty())
+    public CompletableFuture<ResponseEntity<List<Map<String, Object>>>> getMarketOverview() {
+        // Start every lookup before waiting on any, so the symbols load in parallel
+        List<CompletableFuture<Map<String, Object>>> lookups = MARKET_OVERVIEW_SYMBOLS.stream()
+            .map(this::buildMarketOverviewItem)
             .collect(Collectors.toList());
-        return ResponseEntity.ok(overview);
+        return CompletableFuture.allOf(lookups.toArray(new CompletableFuture[0]))
+            .thenApply(done -> ResponseEntity.ok(lookups.stream()
+                .map(CompletableFuture::join)
+                .filter(item -> !item.isEmpty())
+                .collect(Collectors.toList())));
     }
 
-    private Map<String, Object> buildMarketOverviewItem(String symbol) {
-        try {
-            StockDetails details = stockService.getStockDetails(symbol);
+    private CompletableFuture<Map<String, Object>> buildMarketOverviewItem(String symbol) {
+        return stockService.getStockDetailsAsync(symbol).handle((details, e) -> {
+            if (e != null) {
+                logger.warn("Could not fetch market overview for {}: {}", symbol, rootMessage(e));
+                return Map.of();
+            }
             if (details == null) return Map.of();
 
             Map<String, Object> item = new HashMap<>();
@@ -118,31 +128,31 @@ public class StockController {
             item.put("price", details.getPrice());
             item.put("changePercent", details.getChangePercent());
             return item;
-        } catch (Exception e) {
-            logger.warn("Could not fetch market overview for {}: {}", symbol, e.getMessage());
-            return Map.of();
-        }
+        });
     }
 
     @GetMapping("/{symbol}/price-history")
-    public ResponseEntity<List<StockPrice>> getPriceHistory(
+    public CompletableFuture<ResponseEntity<List<StockPrice>>> getPriceHistory(
             @PathVariable String symbol,
             @RequestParam(defaultValue = "1d") String interval) {
-        try {
-            List<StockPrice> priceHistory = stockService.getHistoricalData(symbol, interval);
+        return stockService.getHistoricalDataAsync(symbol, interval).handle((priceHistory, e) -> {
+            if (e != null) {
+                logger.error("Error fetching price history for {}: {}", symbol, rootMessage(e));
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).<List<StockPrice>>build();
+            }
             return ResponseEntity.ok(priceHistory);
-        } catch (Exception e) {
-            logger.error("Error fetching price history for {}: {}", symbol, e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        }
+        });
     }
 
     @GetMapping("/{symbol}/news")
-    public ResponseEntity<List<Map<String, Object>>> getStockNews(
+    public CompletableFuture<ResponseEntity<List<Map<String, Object>>>> getStockNews(
             @PathVariable String symbol,
             @RequestParam(defaultValue = "5") int limit) {
-        try {
-            List<NewsArticle> newsArticles = stockService.getStockNews(symbol, limit);
+        return stockService.getStockNewsAsync(symbol, limit).handle((newsArticles, e) -> {
+            if (e != null) {
+                logger.error("Error fetching news for {}: {}", symbol, rootMessage(e));
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).<List<Map<String, Object>>>build();
+            }
             List<Map<String, Object>> news = newsArticles.stream()
                 .map(article -> {
                     Map<String, Object> articleMap = new HashMap<>();
@@ -156,10 +166,7 @@ public class StockController {
                 })
                 .collect(Collectors.toList());
             return ResponseEntity.ok(news);
-        } catch (Exception e) {
-            logger.error("Error fetching news for {}: {}", symbol, e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        }
+        });
     }
 
     @GetMapping("/{symbol}/analysis")
@@ -184,4 +191,19 @@ public class StockController {
         }
     }
 
+    /** Refetches a stock's profile and metrics now; 404 when they are unavailable or the symbol is crypto. */
+    // Signed-in users only: each refresh that gets through costs two Finnhub calls
+    @PostMapping("/{symbol}/fundamentals/refresh")
+    public ResponseEntity<CompanyFundamentals> refreshFundamentals(@PathVariable String symbol,
+                                                                   @AuthenticationPrincipal UserPrincipal principal) {
+        if (principal == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        return ResponseEntity.of(stockService.refreshFundamentals(symbol));
+    }
+
+    private static String rootMessage(Throwable t) {
+        while (t.getCause() != null) t = t.getCause();
+        return t.getMessage();
+    }
 }
@@ -0,0 +1,45 @@
+package com.borsvy.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "article_thumbnails")
+public class ArticleThumbnail {
+
+    // SHA-256 of the article URL; URLs are too long to index directly
+    @Id
+    @Column(name = "url_hash", length = 64)
+    private String urlHash;
+
+    @Column(name = "article_url", nullable = false, columnDefinition = "TEXT")
+    private String articleUrl;
+
+    // Null when the page had no usable image; kept so we don't refetch it
+    @Column(name = "image_url", columnDefinition = "TEXT")
+    private String imageUrl;
+
+    @Column(name = "resolved_at", nullable = false)
+    private LocalDateTime resolvedAt = LocalDateTime.now();
+
+    public ArticleThumbnail() {}
+
+    public ArticleThumbnail(String urlHash, String articleUrl, String imageUrl) {
+        this.urlHash = urlHash;
+        this.articleUrl = articleUrl;
+        this.imageUrl = imageUrl;
+        this.resolvedAt = LocalDateTime.now();
+    }
+
+    public String getUrlHash() { return urlHash; }
+    public void setUrlHash(String urlHash) { this.urlHash = urlHash; }
+
+    public String getArticleUrl() { return articleUrl; }
+    public void setArticleUrl(String articleUrl) { this.articleUrl = articleUrl; }
+
+    public String getImageUrl() { return imageUrl; }
+    public void setImageUrl(String imageUrl) { this.imageUrl = imageUrl; }
+
+    public LocalDateTime getResolvedAt() { return resolvedAt; }
+    public void setResolvedAt(LocalDateTime resolvedAt) { this.resolvedAt = resolvedAt; }
+}
@@ -0,0 +1,27 @@
+package com.borsvy.model;
+
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Backtest rule set and universe. {@code sweep} maps a parameter name
+ * (fastPeriod, slowPeriod, rsiPeriod, entryThreshold, exitThreshold) to the
+ * values to try; every combination is run against every symbol.
+ */
+@Data
+public class BacktestRequest {
+    private List<String> symbols;
+    private String interval = "2y";
+    private String entry = "SMA_CROSS_UP";
+    private String exit = "SMA_CROSS_DOWN";
+    private double entryThreshold = 30;
+    private double exitThreshold = 70;
+    private int fastPeriod = 20;
+    private int slowPeriod = 50;
+    private int rsiPeriod = 14;
+    private double initialCapital = 10000;
+    private double commission = 0.0005;
+    private Map<String, List<Double>> sweep;
+}
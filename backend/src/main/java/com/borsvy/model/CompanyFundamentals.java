@@ -0,0 +1,39 @@
+package com.borsvy.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+
+/**
+ * Slow-moving company data from Finnhub's profile and metrics endpoints,
+ * kept apart from the quote so it is fetched about once a day rather than
+ * on every quote refresh.
+ */
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "company_fundamentals")
+public class CompanyFundamentals {
+    @Id
+    private String symbol;
+
+    private String name;
+    private String industry;
+    // In millions, as Finnhub reports it
+    @Column(name = "market_cap")
+    private double marketCap;
+    private double beta;
+    @Column(name = "pe_ratio")
+    private double peRatio;
+    @Column(name = "high_52_week")
+    private double high52Week;
+    @Column(name = "low_52_week")
+    private double low52Week;
+
+    @Column(name = "fetched_at", nullable = false)
+    private LocalDateTime fetchedAt;
+}
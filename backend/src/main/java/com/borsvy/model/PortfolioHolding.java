@@ -8,7 +8,7 @@ import java.time.LocalDateTime;
 @Table(
     name = "portfolio_holdings",
     indexes = {
-        @Index(name = "idx_portfolio_holdings_user", columnList = "user_id")
+        @Index(name = "idx_portfolio_holdings_user_created", columnList = "user_id, created_at DESC")
     }
 )
 public class PortfolioHolding {
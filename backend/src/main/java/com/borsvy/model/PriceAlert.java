@@ -7,7 +7,7 @@ import java.time.LocalDateTime;
 @Table(
     name = "price_alerts",
     indexes = {
-        @Index(name = "idx_price_alerts_user", columnList = "user_id")
+        @Index(name = "idx_price_alerts_user_created", columnList = "user_id, created_at DESC")
     }
 )
 public class PriceAlert {
@@ -5,12 +5,17 @@ import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
 import java.time.LocalDateTime;
 
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@Table(name = "stock", indexes = {
+    @Index(name = "idx_stock_industry_market_cap", columnList = "industry, market_cap DESC")
+})
 public class Stock {
     @Id
     private String symbol;
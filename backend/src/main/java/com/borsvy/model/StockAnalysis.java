@@ -2,16 +2,29 @@ package com.borsvy.model;
 
 import lombok.Data;
 import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Column;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import java.time.LocalDateTime;
 
+/**
+ * One analysis snapshot. Rows are append-only; history for a symbol is read
+ * newest-first through the (symbol, timestamp, id) index.
+ */
 @Data
 @Entity
-@Table(name = "stock_analysis")
+@Table(name = "stock_analysis_history", indexes = {
+    @Index(name = "idx_stock_analysis_history_symbol_ts", columnList = "symbol, timestamp, id")
+})
 public class StockAnalysis {
     @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 20)
     private String symbol;
     
     @Column(columnDefinition = "TEXT")
@@ -32,6 +45,7 @@ public class StockAnalysis {
     @Column(columnDefinition = "TEXT")
     private String newsSentiment;
     
+    @Column(nullable = false)
     private LocalDateTime timestamp;
 
     public StockAnalysis(String symbol, String technical, String fundamental, String sentiment, String recommendation) {
@@ -0,0 +1,30 @@
+package com.borsvy.model;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only slice of {@link Stock} for list endpoints (popular, search,
+ * peers). Loaded through constructor-expression queries, so Hibernate never
+ * manages or snapshots the rows.
+ */
+@Value
+public class StockSummary {
+    String symbol;
+    String name;
+    String type;
+    String industry;
+    double price;
+    double change;
+    double changePercent;
+    double marketCap;
+    double peRatio;
+    LocalDateTime lastUpdated;
+
+    public static StockSummary of(Stock stock) {
+        return new StockSummary(stock.getSymbol(), stock.getName(), stock.getType(), stock.getIndustry(),
+            stock.getPrice(), stock.getChange(), stock.getChangePercent(), stock.getMarketCap(),
+            stock.getPeRatio(), stock.getLastUpdated());
+    }
+}
@@ -0,0 +1,135 @@
+package com.borsvy.model;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+
+@Entity
+@Table(
+    name = "news_articles",
+    indexes = {
+        @Index(name = "idx_news_articles_published", columnList = "published_at")
+    }
+)
+public class StoredNewsArticle implements Persistable<String> {
+
+    // SHA-256 of the article URL, shared with article_thumbnails
+    @Id
+    @Column(name = "url_hash", length = 64)
+    private String urlHash;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String url;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String title;
+
+    // 64-bit simhash of the title tokens, used to drop syndicated near-duplicates
+    @Column(name = "title_simhash", nullable = false)
+    private long titleSimhash;
+
+    private String source;
+
+    // Provider's display string, returned to the UI unchanged
+    @Column(name = "published_date")
+    private String publishedDate;
+
+    // Parsed publish time (ingestion time when the provider's date is not parseable)
+    @Column(name = "published_at", nullable = false)
+    private LocalDateTime publishedAt;
+
+    @Column(columnDefinition = "TEXT")
+    private String thumbnail;
+
+    @Column(columnDefinition = "TEXT")
+    private String summary;
+
+    @Column(length = 16)
+    private String sentiment;
+
+    @Column(name = "ingested_at", nullable = false)
+    private LocalDateTime ingestedAt = LocalDateTime.now();
+
+    // Inverted index: symbol -> articles lives in news_article_symbols
+    @ElementCollection
+    @CollectionTable(
+        name = "news_article_symbols",
+        joinColumns = @JoinColumn(name = "url_hash"),
+        indexes = @Index(name = "idx_news_article_symbols_symbol_hash", columnList = "symbol, url_hash")
+    )
+    @Column(name = "symbol", length = 16, nullable = false)
+    private Set<String> symbols = new HashSet<>();
+
+    // New instances are inserted outright, so a story stored concurrently under
+    // another symbol fails on the key instead of being merged over
+    @Transient
+    private boolean isNew = true;
+
+    public StoredNewsArticle() {}
+
+    @Override
+    public String getId() {
+        return urlHash;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    void markLoaded() {
+        isNew = false;
+    }
+
+    public NewsArticle toNewsArticle() {
+        NewsArticle article = new NewsArticle();
+        article.setTitle(title);
+        article.setUrl(url);
+        article.setSource(source);
+        article.setPublishedDate(publishedDate);
+        article.setThumbnail(thumbnail);
+        article.setSummary(summary);
+        article.setSentiment(sentiment);
+        return article;
+    }
+
+    public String getUrlHash() { return urlHash; }
+    public void setUrlHash(String urlHash) { this.urlHash = urlHash; }
+
+    public String getUrl() { return url; }
+    public void setUrl(String url) { this.url = url; }
+
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+
+    public long getTitleSimhash() { return titleSimhash; }
+    public void setTitleSimhash(long titleSimhash) { this.titleSimhash = titleSimhash; }
+
+    public String getSource() { return source; }
+    public void setSource(String source) { this.source = source; }
+
+    public String getPublishedDate() { return publishedDate; }
+    public void setPublishedDate(String publishedDate) { this.publishedDate = publishedDate; }
+
+    public LocalDateTime getPublishedAt() { return publishedAt; }
+    public void setPublishedAt(LocalDateTime publishedAt) { this.publishedAt = publishedAt; }
+
+    public String getThumbnail() { return thumbnail; }
+    public void setThumbnail(String thumbnail) { this.thumbnail = thumbnail; }
+
+    public String getSummary() { return summary; }
+    public void setSummary(String summary) { this.summary = summary; }
+
+    public String getSentiment() { return sentiment; }
+    public void setSentiment(String sentiment) { this.sentiment = sentiment; }
+
+    public LocalDateTime getIngestedAt() { return ingestedAt; }
+    public void setIngestedAt(LocalDateTime ingestedAt) { this.ingestedAt = ingestedAt; }
+
+    public Set<String> getSymbols() { return symbols; }
+    public void setSymbols(Set<String> symbols) { this.symbols = symbols; }
+}
@@ -4,7 +4,13 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "subscriptions")
+@Table(
+    name = "subscriptions",
+    indexes = {
+        @Index(name = "idx_subscriptions_stripe_customer", columnList = "stripe_customer_id"),
+        @Index(name = "idx_subscriptions_stripe_subscription", columnList = "stripe_subscription_id")
+    }
+)
 public class Subscription {
 
     @Id
@@ -2,6 +2,7 @@ package com.borsvy.model;
 
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
+import java.util.Objects;
 
 @Entity
 @Table(name = "users")
@@ -24,6 +25,11 @@ public class User {
     @Column(nullable = false)
     private boolean enabled = true;
 
+    // Bumped to revoke every token issued so far; the setters below do it whenever
+    // a credential, the role or the enabled flag actually changes
+    @Column(nullable = false, columnDefinition = "integer default 0")
+    private int tokenVersion = 0;
+
     private LocalDateTime createdAt = LocalDateTime.now();
 
     public User() {}
@@ -40,16 +46,33 @@ public class User {
     public void setEmail(String email) { this.email = email; }
 
     public String getPassword() { return password; }
-    public void setPassword(String password) { this.password = password; }
+    public void setPassword(String password) {
+        if (!Objects.equals(this.password, password)) revokeTokens();
+        this.password = password;
+    }
 
     public String getGoogleId() { return googleId; }
-    public void setGoogleId(String googleId) { this.googleId = googleId; }
+    public void setGoogleId(String googleId) {
+        if (!Objects.equals(this.googleId, googleId)) revokeTokens();
+        this.googleId = googleId;
+    }
 
     public String getRole() { return role; }
-    public void setRole(String role) { this.role = role; }
+    public void setRole(String role) {
+        if (!Objects.equals(this.role, role)) revokeTokens();
+        this.role = role;
+    }
 
     public boolean isEnabled() { return enabled; }
-    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+    public void setEnabled(boolean enabled) {
+        if (this.enabled != enabled) revokeTokens();
+        this.enabled = enabled;
+    }
+
+    public int getTokenVersion() { return tokenVersion; }
+    public void setTokenVersion(int tokenVersion) { this.tokenVersion = tokenVersion; }
+
+    public void revokeTokens() { tokenVersion++; }
 
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
@@ -0,0 +1,9 @@
+package com.borsvy.repository;
+
+import com.borsvy.model.ArticleThumbnail;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ArticleThumbnailRepository extends JpaRepository<ArticleThumbnail, String> {
+}
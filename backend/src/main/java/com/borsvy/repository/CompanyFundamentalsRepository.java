@@ -0,0 +1,9 @@
+package com.borsvy.repository;
+
+import com.borsvy.model.CompanyFundamentals;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CompanyFundamentalsRepository extends JpaRepository<CompanyFundamentals, String> {
+}
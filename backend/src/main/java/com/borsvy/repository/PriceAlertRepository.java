@@ -1,9 +1,16 @@
 package com.borsvy.repository;
 
 import com.borsvy.model.PriceAlert;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,4 +19,21 @@ public interface PriceAlertRepository extends JpaRepository<PriceAlert, Long> {
     List<PriceAlert> findByUserIdOrderByCreatedAtDesc(Long userId);
     Optional<PriceAlert> findByIdAndUserId(Long id, Long userId);
     void deleteByIdAndUserId(Long id, Long userId);
+
+    /**
+     * Pending alerts as (id, userId, symbol, targetPrice, direction) rows,
+     * paged by id so the full set can be streamed without loading entities.
+     */
+    @Query("SELECT a.id, a.userId, a.symbol, a.targetPrice, a.direction FROM PriceAlert a " +
+           "WHERE a.active = true AND a.triggered = false AND a.id > :afterId ORDER BY a.id")
+    List<Object[]> findPendingAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE PriceAlert a SET a.triggered = true, a.active = false, a.triggeredAt = :now " +
+           "WHERE a.id IN :ids AND a.active = true AND a.triggered = false")
+    int markTriggered(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    @Query("SELECT a.id FROM PriceAlert a WHERE a.id IN :ids AND a.triggeredAt = :triggeredAt")
+    List<Long> findIdsTriggeredAt(@Param("ids") Collection<Long> ids, @Param("triggeredAt") LocalDateTime triggeredAt);
 }
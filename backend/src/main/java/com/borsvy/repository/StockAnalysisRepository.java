@@ -1,11 +1,49 @@
 package com.borsvy.repository;
 
 import com.borsvy.model.StockAnalysis;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
-public interface StockAnalysisRepository extends JpaRepository<StockAnalysis, String> {
-    List<StockAnalysis> findBySymbolOrderByTimestampDesc(String symbol);
-}
\ No newline at end of file
+public interface StockAnalysisRepository extends JpaRepository<StockAnalysis, Long> {
+
+    /** First page of a symbol's history, newest first. */
+    List<StockAnalysis> findBySymbolOrderByTimestampDescIdDesc(String symbol, Pageable pageable);
+
+    /**
+     * Keyset page: the snapshots strictly older than (timestamp, id). The
+     * redundant {@code timestamp <= :timestamp} gives the planner a range on
+     * the index's second column, since it cannot derive one from the OR, so
+     * the scan starts at the cursor in the (symbol, timestamp, id) index
+     * however deep the page.
+     */
+    @Query("SELECT a FROM StockAnalysis a WHERE a.symbol = :symbol AND a.timestamp <= :timestamp " +
+           "AND (a.timestamp < :timestamp OR (a.timestamp = :timestamp AND a.id < :id)) " +
+           "ORDER BY a.timestamp DESC, a.id DESC")
+    List<StockAnalysis> findPageBefore(@Param("symbol") String symbol, @Param("timestamp") LocalDateTime timestamp,
+                                       @Param("id") Long id, Pageable pageable);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM StockAnalysis a WHERE a.timestamp < :cutoff")
+    int deleteOlderThan(@Param("cutoff") LocalDateTime cutoff);
+
+    /**
+     * Downsamples [start, end) to the last snapshot per symbol. Callers pass
+     * one day at a time, so every row is compared only within its own day.
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM StockAnalysis a WHERE a.timestamp >= :start AND a.timestamp < :end " +
+           "AND EXISTS (SELECT 1 FROM StockAnalysis n WHERE n.symbol = a.symbol " +
+           "AND n.timestamp > a.timestamp AND n.timestamp < :end)")
+    int keepLastPerSymbol(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+}
@@ -1,9 +1,18 @@
 package com.borsvy.repository;
 
 import com.borsvy.model.Stock;
+import com.borsvy.model.StockSummary;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,4 +24,19 @@ public interface StockRepository extends JpaRepository<Stock, String> {
 
     Optional<Stock> findBySymbol(String symbol);
     void deleteBySymbol(String symbol);
-}
\ No newline at end of file
+
+    /** List-endpoint rows for the given symbols, without loading entities. */
+    @Transactional(readOnly = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("SELECT new com.borsvy.model.StockSummary(s.symbol, s.name, s.type, s.industry, s.price, s.change, " +
+           "s.changePercent, s.marketCap, s.peRatio, s.lastUpdated) FROM Stock s WHERE s.symbol IN :symbols")
+    List<StockSummary> findSummariesBySymbolIn(@Param("symbols") Collection<String> symbols);
+
+    /** Largest stocks of an industry by market cap; the database sorts and limits. */
+    @Transactional(readOnly = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("SELECT new com.borsvy.model.StockSummary(s.symbol, s.name, s.type, s.industry, s.price, s.change, " +
+           "s.changePercent, s.marketCap, s.peRatio, s.lastUpdated) FROM Stock s WHERE s.industry = :industry " +
+           "ORDER BY s.marketCap DESC")
+    List<StockSummary> findSummariesByIndustry(@Param("industry") String industry, Pageable pageable);
+}
@@ -0,0 +1,52 @@
+package com.borsvy.repository;
+
+import com.borsvy.model.StoredNewsArticle;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface StoredNewsArticleRepository extends JpaRepository<StoredNewsArticle, String> {
+
+    @Query("SELECT a FROM StoredNewsArticle a JOIN a.symbols s WHERE s = :symbol ORDER BY a.publishedAt DESC")
+    List<StoredNewsArticle> findLatestBySymbol(@Param("symbol") String symbol, Pageable pageable);
+
+    @Query("SELECT a.urlHash FROM StoredNewsArticle a WHERE a.urlHash IN :urlHashes")
+    List<String> findExistingUrlHashes(@Param("urlHashes") Collection<String> urlHashes);
+
+    // The symbol links first: a bulk delete does not cascade to the collection table
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM news_article_symbols WHERE url_hash IN "
+        + "(SELECT url_hash FROM news_articles WHERE published_at < :cutoff)", nativeQuery = true)
+    int deleteSymbolsPublishedBefore(@Param("cutoff") LocalDateTime cutoff);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM StoredNewsArticle a WHERE a.publishedAt < :cutoff")
+    int deletePublishedBefore(@Param("cutoff") LocalDateTime cutoff);
+
+    // Only replaces a missing thumbnail or the source placeholder, never a provider's image
+    @Modifying
+    @Transactional
+    @Query("UPDATE StoredNewsArticle a SET a.thumbnail = :imageUrl WHERE a.urlHash = :urlHash "
+        + "AND (a.thumbnail IS NULL OR a.thumbnail = :placeholder)")
+    int fillThumbnail(@Param("urlHash") String urlHash, @Param("imageUrl") String imageUrl,
+                      @Param("placeholder") String placeholder);
+
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO news_article_symbols (url_hash, symbol) "
+        + "SELECT :urlHash, :symbol WHERE NOT EXISTS "
+        + "(SELECT 1 FROM news_article_symbols WHERE url_hash = :urlHash AND symbol = :symbol)",
+        nativeQuery = true)
+    int addSymbol(@Param("urlHash") String urlHash, @Param("symbol") String symbol);
+}
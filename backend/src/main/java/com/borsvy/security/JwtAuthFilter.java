@@ -1,30 +1,57 @@
 package com.borsvy.security;
 
-import com.borsvy.model.User;
-import com.borsvy.repository.UserRepository;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.server.PathContainer;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
 
 import java.io.IOException;
-import java.util.Optional;
+import java.util.List;
+import java.util.stream.Stream;
 
 @Component
 public class JwtAuthFilter extends OncePerRequestFilter {
 
+    // Only these routes read the principal; market data, news and analysis are
+    // public and high-volume, so they skip token work entirely. Same pattern
+    // syntax as the request matchers in SecurityConfig.
+    private static final List<PathPattern> AUTHENTICATED_ROUTES = Stream.of(
+            "/api/favorites/**",
+            "/api/portfolio/**",
+            "/api/alerts/**",
+            "/api/auth/me",
+            "/api/analysis/backtest",
+            "/api/stocks/*/fundamentals/refresh"
+    ).map(PathPatternParser.defaultInstance::parse).toList();
+
     @Autowired
     private JwtService jwtService;
 
     @Autowired
-    private UserRepository userRepository;
+    private UserPrincipalCache principalCache;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        PathContainer path = PathContainer.parsePath(
+                request.getRequestURI().substring(request.getContextPath().length()));
+        for (PathPattern route : AUTHENTICATED_ROUTES) {
+            if (route.matches(path)) {
+                return false;
+            }
+        }
+        return true;
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -36,18 +63,20 @@ public class JwtAuthFilter extends OncePerRequestFilter {
             token = extractTokenFromHeader(request);
         }
 
-        if (token != null && jwtService.isTokenValid(token)) {
-            try {
-                Long userId = jwtService.extractUserId(token);
-                Optional<User> userOpt = userRepository.findById(userId);
-                if (userOpt.isPresent() && SecurityContextHolder.getContext().getAuthentication() == null) {
-                    UserPrincipal principal = new UserPrincipal(userOpt.get());
-                    UsernamePasswordAuthenticationToken auth =
-                            new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
-                    auth.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                    SecurityContextHolder.getContext().setAuthentication(auth);
-                }
-            } catch (Exception ignored) {}
+        if (token != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            // One parse verifies signature and expiry and yields the claims we need
+            Claims claims = jwtService.verify(token);
+            if (claims != null) {
+                try {
+                    UserPrincipal principal = principalCache.get(JwtService.userId(claims), JwtService.tokenVersion(claims));
+                    if (principal != null) {
+                        UsernamePasswordAuthenticationToken auth =
+                                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+                        auth.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                        SecurityContextHolder.getContext().setAuthentication(auth);
+                    }
+                } catch (Exception ignored) {}
+            }
         }
 
         filterChain.doFilter(request, response);
@@ -1,6 +1,7 @@
 package com.borsvy.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
@@ -14,33 +15,61 @@ import java.util.Base64;
 @Service
 public class JwtService {
 
+    static final String USER_ID_CLAIM = "userId";
+    static final String TOKEN_VERSION_CLAIM = "ver";
+
     @Value("${jwt.secret}")
     private String secret;
 
     @Value("${jwt.expiration-ms:604800000}")
     private long expirationMs; // 7 days default
 
-    private Key getSigningKey() {
+    // Built once; both are immutable and thread-safe
+    private Key signingKey;
+    private JwtParser parser;
+
+    public JwtService() {
+    }
+
+    JwtService(String secret, long expirationMs) {
+        this.secret = secret;
+        this.expirationMs = expirationMs;
+        init();
+    }
+
+    @jakarta.annotation.PostConstruct
+    void init() {
         byte[] keyBytes = Base64.getDecoder().decode(secret);
-        return Keys.hmacShaKeyFor(keyBytes);
+        signingKey = Keys.hmacShaKeyFor(keyBytes);
+        parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
     }
 
-    public String generateToken(Long userId, String email) {
+    public String generateToken(Long userId, String email, int tokenVersion) {
         return Jwts.builder()
                 .setSubject(email)
-                .claim("userId", userId)
+                .claim(USER_ID_CLAIM, userId)
+                .claim(TOKEN_VERSION_CLAIM, tokenVersion)
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + expirationMs))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
     public Claims extractClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return parser.parseClaimsJws(token).getBody();
+    }
+
+    /**
+     * Verifies signature and expiry in a single parse. Returns null for any
+     * invalid or expired token.
+     */
+    public Claims verify(String token) {
+        try {
+            Claims claims = extractClaims(token);
+            return claims.getExpiration() == null || claims.getExpiration().after(new Date()) ? claims : null;
+        } catch (Exception e) {
+            return null;
+        }
     }
 
     public String extractEmail(String token) {
@@ -48,15 +77,20 @@ public class JwtService {
     }
 
     public Long extractUserId(String token) {
-        return extractClaims(token).get("userId", Long.class);
+        return userId(extractClaims(token));
     }
 
     public boolean isTokenValid(String token) {
-        try {
-            Claims claims = extractClaims(token);
-            return !claims.getExpiration().before(new Date());
-        } catch (Exception e) {
-            return false;
-        }
+        return verify(token) != null;
+    }
+
+    public static Long userId(Claims claims) {
+        return claims.get(USER_ID_CLAIM, Long.class);
+    }
+
+    /** Tokens issued before versioning carry no claim and count as version 0. */
+    public static int tokenVersion(Claims claims) {
+        Integer version = claims.get(TOKEN_VERSION_CLAIM, Integer.class);
+        return version == null ? 0 : version;
     }
 }
@@ -0,0 +1,86 @@
+package com.borsvy.security;
+
+import com.borsvy.model.User;
+import com.borsvy.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Short-lived cache of authenticated principals so a valid token does not cost
+ * a user lookup on every request. Entries are keyed by user id and only match
+ * a token carrying the same token version; bumping the version on the user row
+ * (or calling {@link #invalidate}) takes effect on the next request.
+ */
+@Component
+public class UserPrincipalCache {
+
+    private final UserRepository userRepository;
+    private final Map<Long, CachedPrincipal> cache = new ConcurrentHashMap<>();
+    private final long ttlMillis;
+    private final int maxEntries;
+
+    public UserPrincipalCache(UserRepository userRepository,
+                              @Value("${security.principal-cache.ttl-ms:60000}") long ttlMillis,
+                              @Value("${security.principal-cache.max-entries:10000}") int maxEntries) {
+        this.userRepository = userRepository;
+        this.ttlMillis = ttlMillis;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Principal for a verified token, or null when the user no longer exists,
+     * is disabled, or the token was issued for an older token version.
+     */
+    public UserPrincipal get(Long userId, int tokenVersion) {
+        CachedPrincipal cached = cache.get(userId);
+        if (cached != null && !cached.isExpired()) {
+            return cached.tokenVersion == tokenVersion ? cached.principal : null;
+        }
+
+        Optional<User> user = userRepository.findById(userId);
+        if (user.isEmpty() || !user.get().isEnabled()) {
+            cache.remove(userId);
+            return null;
+        }
+        if (cache.size() >= maxEntries) {
+            cache.values().removeIf(CachedPrincipal::isExpired);
+            if (cache.size() >= maxEntries) {
+                cache.clear();
+            }
+        }
+        CachedPrincipal fresh = new CachedPrincipal(new UserPrincipal(user.get()), user.get().getTokenVersion(),
+            System.currentTimeMillis() + ttlMillis);
+        cache.put(userId, fresh);
+        return fresh.tokenVersion == tokenVersion ? fresh.principal : null;
+    }
+
+    public void invalidate(Long userId) {
+        if (userId != null) {
+            cache.remove(userId);
+        }
+    }
+
+    public void invalidateAll() {
+        cache.clear();
+    }
+
+    private static final class CachedPrincipal {
+        private final UserPrincipal principal;
+        private final int tokenVersion;
+        private final long expiresAt;
+
+        private CachedPrincipal(UserPrincipal principal, int tokenVersion, long expiresAt) {
+            this.principal = principal;
+            this.tokenVersion = tokenVersion;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired() {
+            return System.currentTimeMillis() > expiresAt;
+        }
+    }
+}
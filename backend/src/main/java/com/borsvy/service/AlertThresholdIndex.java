@@ -0,0 +1,223 @@
+package com.borsvy.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory index of pending price alerts. Each symbol keeps two ascending
+ * arrays of target prices, one per direction, so a quote finds every crossed
+ * alert with one binary search plus a walk over the k matches:
+ * "above" alerts crossed by price p are the prefix with target <= p, "below"
+ * alerts the suffix with target >= p. Crossed alerts are consumed by moving
+ * the live range bounds, so they never fire twice.
+ */
+final class AlertThresholdIndex {
+
+    static final class Entry {
+        final long alertId;
+        final long userId;
+        final String symbol;
+        final double targetPrice;
+        final boolean above;
+
+        Entry(long alertId, long userId, String symbol, double targetPrice, boolean above) {
+            this.alertId = alertId;
+            this.userId = userId;
+            this.symbol = symbol;
+            this.targetPrice = targetPrice;
+            this.above = above;
+        }
+    }
+
+    private final Map<String, SymbolThresholds> bySymbol = new ConcurrentHashMap<>();
+
+    void add(Entry entry) {
+        bySymbol.computeIfAbsent(entry.symbol, s -> new SymbolThresholds()).side(entry.above).insert(entry);
+    }
+
+    boolean remove(String symbol, boolean above, double targetPrice, long alertId) {
+        SymbolThresholds thresholds = bySymbol.get(symbol);
+        return thresholds != null && thresholds.side(above).remove(targetPrice, alertId);
+    }
+
+    /**
+     * Bulk load for one symbol; sorts once instead of inserting one by one.
+     */
+    void load(String symbol, List<Entry> entries) {
+        SymbolThresholds thresholds = bySymbol.computeIfAbsent(symbol, s -> new SymbolThresholds());
+        List<Entry> above = new ArrayList<>();
+        List<Entry> below = new ArrayList<>();
+        for (Entry entry : entries) {
+            (entry.above ? above : below).add(entry);
+        }
+        thresholds.above.addAll(above);
+        thresholds.below.addAll(below);
+    }
+
+    /**
+     * Removes and returns every alert crossed by {@code price}.
+     */
+    List<Entry> crossed(String symbol, double price) {
+        SymbolThresholds thresholds = bySymbol.get(symbol);
+        if (thresholds == null) {
+            return Collections.emptyList();
+        }
+        List<Entry> crossed = new ArrayList<>();
+        thresholds.above.takeAtOrBelow(price, crossed);
+        thresholds.below.takeAtOrAbove(price, crossed);
+        return crossed;
+    }
+
+    /** Symbols that still have at least one pending alert. */
+    List<String> pendingSymbols() {
+        List<String> symbols = new ArrayList<>();
+        bySymbol.forEach((symbol, thresholds) -> {
+            if (thresholds.above.size() + thresholds.below.size() > 0) symbols.add(symbol);
+        });
+        return symbols;
+    }
+
+    long size() {
+        long size = 0;
+        for (SymbolThresholds thresholds : bySymbol.values()) {
+            size += thresholds.above.size() + thresholds.below.size();
+        }
+        return size;
+    }
+
+    private static final class SymbolThresholds {
+        final SortedThresholds above = new SortedThresholds();
+        final SortedThresholds below = new SortedThresholds();
+
+        SortedThresholds side(boolean isAbove) {
+            return isAbove ? above : below;
+        }
+    }
+
+    /**
+     * Parallel primitive arrays sorted by target price. Only [from, to) is live.
+     */
+    private static final class SortedThresholds {
+        private double[] prices = new double[4];
+        private long[] alertIds = new long[4];
+        private long[] userIds = new long[4];
+        private String symbol;
+        private int from;
+        private int to;
+
+        synchronized int size() {
+            return to - from;
+        }
+
+        synchronized void insert(Entry entry) {
+            symbol = entry.symbol;
+            ensureCapacity(size() + 1);
+            int at = upperBound(entry.targetPrice);
+            System.arraycopy(prices, at, prices, at + 1, to - at);
+            System.arraycopy(alertIds, at, alertIds, at + 1, to - at);
+            System.arraycopy(userIds, at, userIds, at + 1, to - at);
+            prices[at] = entry.targetPrice;
+            alertIds[at] = entry.alertId;
+            userIds[at] = entry.userId;
+            to++;
+        }
+
+        synchronized void addAll(List<Entry> entries) {
+            if (entries.isEmpty()) return;
+            symbol = entries.get(0).symbol;
+            List<Entry> merged = new ArrayList<>(size() + entries.size());
+            for (int i = from; i < to; i++) {
+                merged.add(new Entry(alertIds[i], userIds[i], symbol, prices[i], false));
+            }
+            merged.addAll(entries);
+            merged.sort(Comparator.comparingDouble(e -> e.targetPrice));
+
+            int capacity = Math.max(4, merged.size());
+            prices = new double[capacity];
+            alertIds = new long[capacity];
+            userIds = new long[capacity];
+            for (int i = 0; i < merged.size(); i++) {
+                Entry entry = merged.get(i);
+                prices[i] = entry.targetPrice;
+                alertIds[i] = entry.alertId;
+                userIds[i] = entry.userId;
+            }
+            from = 0;
+            to = merged.size();
+        }
+
+        synchronized boolean remove(double targetPrice, long alertId) {
+            for (int i = lowerBound(targetPrice); i < to && prices[i] == targetPrice; i++) {
+                if (alertIds[i] == alertId) {
+                    System.arraycopy(prices, i + 1, prices, i, to - i - 1);
+                    System.arraycopy(alertIds, i + 1, alertIds, i, to - i - 1);
+                    System.arraycopy(userIds, i + 1, userIds, i, to - i - 1);
+                    to--;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /** "Above" side: consumes the prefix with target <= price. */
+        synchronized void takeAtOrBelow(double price, List<Entry> out) {
+            int end = upperBound(price);
+            for (int i = from; i < end; i++) {
+                out.add(new Entry(alertIds[i], userIds[i], symbol, prices[i], true));
+            }
+            from = end;
+        }
+
+        /** "Below" side: consumes the suffix with target >= price. */
+        synchronized void takeAtOrAbove(double price, List<Entry> out) {
+            int start = lowerBound(price);
+            for (int i = start; i < to; i++) {
+                out.add(new Entry(alertIds[i], userIds[i], symbol, prices[i], false));
+            }
+            to = start;
+        }
+
+        // First index in [from, to) with prices[i] >= value
+        private int lowerBound(double value) {
+            int lo = from, hi = to;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (prices[mid] < value) lo = mid + 1; else hi = mid;
+            }
+            return lo;
+        }
+
+        // First index in [from, to) with prices[i] > value
+        private int upperBound(double value) {
+            int lo = from, hi = to;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (prices[mid] <= value) lo = mid + 1; else hi = mid;
+            }
+            return lo;
+        }
+
+        private void ensureCapacity(int needed) {
+            if (from > 0 && (to == prices.length || from >= size())) {
+                // Reclaim the consumed prefix before growing
+                int live = size();
+                System.arraycopy(prices, from, prices, 0, live);
+                System.arraycopy(alertIds, from, alertIds, 0, live);
+                System.arraycopy(userIds, from, userIds, 0, live);
+                from = 0;
+                to = live;
+            }
+            if (to + 1 > prices.length || needed > prices.length) {
+                int capacity = Math.max(needed, prices.length * 2);
+                prices = Arrays.copyOf(prices, capacity);
+                alertIds = Arrays.copyOf(alertIds, capacity);
+                userIds = Arrays.copyOf(userIds, capacity);
+            }
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.borsvy.service;
+
+import com.borsvy.repository.StockAnalysisRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps the analysis history bounded. On PostgreSQL, where V8 makes the table
+ * range-partitioned by month, upcoming partitions are created ahead of time
+ * and partitions past retention are dropped whole. On any database, older
+ * snapshots are downsampled to the last one per symbol per day and anything
+ * left past retention is deleted.
+ */
+@Slf4j
+@Service
+public class AnalysisHistoryMaintenance {
+
+    private static final String TABLE = "stock_analysis_history";
+    private static final Pattern PARTITION_NAME = Pattern.compile(TABLE + "_y(\\d{4})m(\\d{2})");
+
+    private final StockAnalysisRepository repository;
+    private final JdbcTemplate jdbcTemplate;
+    private Boolean partitioned;
+
+    @Value("${analysis.history.retention-days:365}")
+    private int retentionDays;
+
+    @Value("${analysis.history.downsample-after-days:30}")
+    private int downsampleAfterDays;
+
+    // Days before the downsample cutoff revisited on each run; covers missed runs
+    @Value("${analysis.history.downsample-window-days:7}")
+    private int downsampleWindowDays;
+
+    @Value("${analysis.history.partitions-ahead:2}")
+    private int partitionsAhead;
+
+    public AnalysisHistoryMaintenance(StockAnalysisRepository repository, JdbcTemplate jdbcTemplate) {
+        this.repository = repository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @jakarta.annotation.PostConstruct
+    public void init() {
+        try {
+            ensurePartitions();
+        } catch (Exception e) {
+            log.warn("Could not prepare analysis history partitions: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(cron = "${analysis.history.maintenance-cron:0 45 3 * * *}")
+    public void maintain() {
+        try {
+            ensurePartitions();
+            LocalDateTime cutoff = LocalDate.now().minusDays(retentionDays).atStartOfDay();
+            int droppedPartitions = dropExpiredPartitions(cutoff);
+            int deleted = repository.deleteOlderThan(cutoff);
+
+            LocalDate downsampleEnd = LocalDate.now().minusDays(downsampleAfterDays);
+            int downsampled = 0;
+            for (LocalDate day = downsampleEnd.minusDays(downsampleWindowDays); day.isBefore(downsampleEnd); day = day.plusDays(1)) {
+                downsampled += repository.keepLastPerSymbol(day.atStartOfDay(), day.plusDays(1).atStartOfDay());
+            }
+            log.info("Analysis history maintenance: dropped {} partitions, deleted {} expired and {} downsampled snapshots",
+                droppedPartitions, deleted, downsampled);
+        } catch (Exception e) {
+            log.error("Analysis history maintenance failed: {}", e.getMessage());
+        }
+    }
+
+    private void ensurePartitions() {
+        if (!isPartitioned()) return;
+        YearMonth month = YearMonth.now();
+        for (int i = 0; i <= partitionsAhead; i++, month = month.plusMonths(1)) {
+            jdbcTemplate.execute(String.format(
+                "CREATE TABLE IF NOT EXISTS %s PARTITION OF %s FOR VALUES FROM ('%s') TO ('%s')",
+                partitionName(month), TABLE, month.atDay(1), month.plusMonths(1).atDay(1)));
+        }
+    }
+
+    /** Drops monthly partitions that end on or before {@code cutoff}. */
+    private int dropExpiredPartitions(LocalDateTime cutoff) {
+        if (!isPartitioned()) return 0;
+        List<String> partitions = jdbcTemplate.queryForList(
+            "SELECT c.relname FROM pg_inherits i " +
+            "JOIN pg_class c ON c.oid = i.inhrelid JOIN pg_class p ON p.oid = i.inhparent " +
+            "WHERE p.relname = ?", String.class, TABLE);
+        int dropped = 0;
+        for (String partition : partitions) {
+            Matcher matcher = PARTITION_NAME.matcher(partition);
+            if (!matcher.matches()) continue;
+            YearMonth month = YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+            if (!month.plusMonths(1).atDay(1).atStartOfDay().isAfter(cutoff)) {
+                jdbcTemplate.execute("DROP TABLE IF EXISTS " + partition);
+                dropped++;
+            }
+        }
+        return dropped;
+    }
+
+    private boolean isPartitioned() {
+        if (partitioned == null) {
+            String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+            // Without Flyway the table is Hibernate's plain table, even on PostgreSQL
+            partitioned = "PostgreSQL".equalsIgnoreCase(product) && Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table pt JOIN pg_class c ON c.oid = pt.partrelid " +
+                "WHERE c.relname = ?)", Boolean.class, TABLE));
+        }
+        return partitioned;
+    }
+
+    private static String partitionName(YearMonth month) {
+        return String.format("%s_y%04dm%02d", TABLE, month.getYear(), month.getMonthValue());
+    }
+}
@@ -1,22 +1,26 @@
 package com.borsvy.service;
 
+import com.borsvy.cache.TwoLevelCache;
+import com.borsvy.cache.TwoLevelCacheRegistry;
 import com.borsvy.model.Stock;
 import com.borsvy.model.StockAnalysis;
 import com.borsvy.repository.StockAnalysisRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import com.fasterxml.jackson.core.type.TypeReference;
 import lombok.extern.slf4j.Slf4j;
 
+import java.io.IOException;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.Collections;
 import java.util.ArrayList;
 import java.util.Random;
@@ -42,33 +46,42 @@ public class AnalysisService {
     private final LLMAnalysisService llmAnalysisService;
     private final TwelveDataClient twelveDataClient;
     
-    // In-memory cache for analysis results
-    private final Map<String, Map<String, Object>> analysisCache = new ConcurrentHashMap<>();
-    private final Map<String, LocalDateTime> lastUpdateTimes = new ConcurrentHashMap<>();
+    // Analysis results, shared with the other nodes
+    private final TwoLevelCache<Map<String, Object>> analysisCache;
     private static final int CACHE_DURATION_MINUTES = 30; // Cache duration in minutes
+    private static final Duration ANALYSIS_TTL = Duration.ofMinutes(CACHE_DURATION_MINUTES);
+    private static final int MAX_HISTORY_PAGE = 100;
     
     @Autowired
-    public AnalysisService(StockService stockService, StockAnalysisRepository analysisRepository, LLMAnalysisService llmAnalysisService, TwelveDataClient twelveDataClient) {
+    public AnalysisService(StockService stockService, StockAnalysisRepository analysisRepository, LLMAnalysisService llmAnalysisService, TwelveDataClient twelveDataClient, TwoLevelCacheRegistry caches) {
         this.stockService = stockService;
         this.analysisRepository = analysisRepository;
         this.llmAnalysisService = llmAnalysisService;
         this.twelveDataClient = twelveDataClient;
+        this.analysisCache = caches.region("analysis", new TypeReference<Map<String, Object>>() {}, ANALYSIS_TTL);
     }
     
     public Map<String, Object> getCompleteAnalysis(String symbol) {
+        TwoLevelCache.Entry<Map<String, Object>> cached = analysisCache.get(symbol, ANALYSIS_TTL);
+        if (cached != null && cached.isFresh(ANALYSIS_TTL)) {
+            log.info("Returning cached analysis for symbol: {}", symbol);
+            return cached.value;
+        }
+        try {
+            // The LLM call makes this the most expensive refresh; one node runs it, the others read the result
+            return analysisCache.refresh(symbol, ANALYSIS_TTL, () -> buildCompleteAnalysis(symbol));
+        } catch (IOException e) {
+            Map<String, Object> analysis = new HashMap<>();
+            analysis.put("error", "Failed to generate analysis: " + e.getMessage());
+            return analysis;
+        }
+    }
+
+    private Map<String, Object> buildCompleteAnalysis(String symbol) {
         Map<String, Object> analysis = new HashMap<>();
         try {
             log.info("Starting complete analysis for symbol: {}", symbol);
             
-            // Re-enable cache check
-            Map<String, Object> cachedAnalysis = analysisCache.get(symbol);
-            LocalDateTime lastUpdate = lastUpdateTimes.get(symbol);
-            if (cachedAnalysis != null && lastUpdate != null && 
-                LocalDateTime.now().minusMinutes(CACHE_DURATION_MINUTES).isBefore(lastUpdate)) {
-                log.info("Returning cached analysis for symbol: {}", symbol);
-                return cachedAnalysis;
-            }
-            
             // Validate symbol
             if (symbol == null || symbol.trim().isEmpty() || symbol.equals("undefined")) {
                 log.error("Invalid symbol provided: {}", symbol);
@@ -147,7 +160,6 @@ public class AnalysisService {
             
             // Update cache
             analysisCache.put(symbol, analysis);
-            lastUpdateTimes.put(symbol, LocalDateTime.now());
             
             log.info("Completed analysis for symbol: {}", symbol);
             
@@ -221,27 +233,11 @@ public class AnalysisService {
             .collect(Collectors.toList());
     }
     
-    // Scheduled task to clean up old cache entries
-    @Scheduled(fixedRate = 300000) // Run every 5 minutes
-    public void cleanupCache() {
-        LocalDateTime cutoffTime = LocalDateTime.now().minusMinutes(CACHE_DURATION_MINUTES);
-        
-        analysisCache.entrySet().removeIf(entry -> {
-            LocalDateTime lastUpdate = lastUpdateTimes.get(entry.getKey());
-            if (lastUpdate != null && lastUpdate.isBefore(cutoffTime)) {
-                lastUpdateTimes.remove(entry.getKey());
-                return true;
-            }
-            return false;
-        });
-        
-        log.info("Cache cleanup completed. Current cache size: {}", analysisCache.size());
-    }
-    
-    // Method to manually clear cache for a specific symbol
+    // Expired entries are swept by TwoLevelCacheRegistry once they pass CACHE_DURATION_MINUTES
+
+    // Method to manually clear cache for a specific symbol, on every node
     public void clearCacheForSymbol(String symbol) {
-        analysisCache.remove(symbol);
-        lastUpdateTimes.remove(symbol);
+        analysisCache.invalidate(symbol);
         log.info("Cleared cache for symbol: {}", symbol);
     }
     
@@ -493,12 +489,34 @@ public class AnalysisService {
         }
     }
     
-    public Map<String, Object> getHistoricalAnalysis(String symbol) {
+    /**
+     * One page of a symbol's analysis snapshots, newest first. Pass the
+     * returned {@code nextCursor} back to continue; it is null on the last page.
+     */
+    public Map<String, Object> getHistoricalAnalysis(String symbol, String cursor, int limit) {
         Map<String, Object> result = new HashMap<>();
         
         try {
-            List<StockAnalysis> analyses = analysisRepository.findBySymbolOrderByTimestampDesc(symbol);
+            PageRequest page = PageRequest.of(0, Math.max(1, Math.min(limit, MAX_HISTORY_PAGE)));
+            List<StockAnalysis> analyses;
+            if (cursor == null || cursor.isBlank()) {
+                analyses = analysisRepository.findBySymbolOrderByTimestampDescIdDesc(symbol, page);
+            } else {
+                int separator = cursor.lastIndexOf('_');
+                if (separator <= 0) {
+                    result.put("error", "Invalid cursor");
+                    return result;
+                }
+                LocalDateTime timestamp = LocalDateTime.parse(cursor.substring(0, separator));
+                Long id = Long.parseLong(cursor.substring(separator + 1));
+                analyses = analysisRepository.findPageBefore(symbol, timestamp, id, page);
+            }
             result.put("analyses", analyses);
+            StockAnalysis last = analyses.size() == page.getPageSize() ? analyses.get(analyses.size() - 1) : null;
+            result.put("nextCursor", last != null ? last.getTimestamp() + "_" + last.getId() : null);
+            return result;
+        } catch (java.time.format.DateTimeParseException | NumberFormatException e) {
+            result.put("error", "Invalid cursor");
             return result;
         } catch (Exception e) {
             log.error("Error fetching historical analyses: {}", e.getMessage());
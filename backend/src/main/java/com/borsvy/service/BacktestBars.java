@@ -0,0 +1,68 @@
+package com.borsvy.service;
+
+import com.borsvy.model.StockPrice;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * One symbol's OHLCV history as parallel primitive arrays in chronological
+ * order, so a backtest pass never touches boxed values. Times are UTC epoch
+ * seconds of the bar timestamps.
+ */
+final class BacktestBars {
+
+    final String symbol;
+    final long[] time;
+    final double[] open;
+    final double[] high;
+    final double[] low;
+    final double[] close;
+    final double[] volume;
+
+    private BacktestBars(String symbol, int size) {
+        this.symbol = symbol;
+        this.time = new long[size];
+        this.open = new double[size];
+        this.high = new double[size];
+        this.low = new double[size];
+        this.close = new double[size];
+        this.volume = new double[size];
+    }
+
+    /** Bars without a timestamp or a positive close are dropped. */
+    static BacktestBars from(String symbol, List<StockPrice> history) {
+        List<StockPrice> valid = new ArrayList<>(history == null ? 0 : history.size());
+        if (history != null) {
+            for (StockPrice price : history) {
+                if (price.getTimestamp() != null && price.getPrice() > 0) {
+                    valid.add(price);
+                }
+            }
+        }
+        valid.sort(Comparator.comparing(StockPrice::getTimestamp));
+
+        BacktestBars bars = new BacktestBars(symbol, valid.size());
+        for (int t = 0; t < valid.size(); t++) {
+            StockPrice price = valid.get(t);
+            bars.time[t] = price.getTimestamp().toEpochSecond(ZoneOffset.UTC);
+            bars.open[t] = price.getOpen();
+            bars.high[t] = price.getHigh();
+            bars.low[t] = price.getLow();
+            bars.close[t] = price.getPrice();
+            bars.volume[t] = price.getVolume();
+        }
+        return bars;
+    }
+
+    int size() {
+        return close.length;
+    }
+
+    String timeAt(int t) {
+        return LocalDateTime.ofEpochSecond(time[t], 0, ZoneOffset.UTC).toString();
+    }
+}
@@ -0,0 +1,233 @@
+package com.borsvy.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Event-driven, single-pass backtest of one {@link BacktestStrategy} over one
+ * symbol's bars. Each bar first fills the order raised on the previous bar at
+ * this bar's open, then updates the indicators incrementally (running SMA
+ * sums, Wilder RSI, MACD EMAs), marks the equity and evaluates the rules.
+ * Nothing is allocated per bar, so sweeps of thousands of runs stay cheap.
+ */
+final class BacktestEngine {
+
+    static final class Trade {
+        final int entryIndex;
+        final int exitIndex;
+        final double entryPrice;
+        final double exitPrice;
+        final double returnPct;
+        final boolean open;
+
+        Trade(int entryIndex, int exitIndex, double entryPrice, double exitPrice, double returnPct, boolean open) {
+            this.entryIndex = entryIndex;
+            this.exitIndex = exitIndex;
+            this.entryPrice = entryPrice;
+            this.exitPrice = exitPrice;
+            this.returnPct = returnPct;
+            this.open = open;
+        }
+    }
+
+    static final class Result {
+        double finalEquity;
+        double totalReturn;
+        double sharpe;
+        double maxDrawdown;
+        int trades;
+        int wins;
+        double exposure;
+        /** Mark-to-market equity per bar; only when recording. */
+        double[] equity;
+        /** Closed trades plus a trailing open one; only when recording. */
+        List<Trade> tradeList;
+    }
+
+    private BacktestEngine() {
+    }
+
+    /**
+     * @param commission     fraction of traded value charged on each fill
+     * @param periodsPerYear bars per year, to annualize the Sharpe ratio
+     * @param record         keep the equity curve and trade list; sweeps
+     *                       only need the summary metrics
+     */
+    static Result run(BacktestBars bars, BacktestStrategy strategy, double capital, double commission,
+                      double periodsPerYear, boolean record) {
+        int n = bars.size();
+        double[] open = bars.open;
+        double[] close = bars.close;
+        int fast = strategy.fastPeriod;
+        int slow = strategy.slowPeriod;
+        int rsiPeriod = strategy.rsiPeriod;
+        double kFast = 2.0 / (BacktestStrategy.MACD_FAST + 1);
+        double kSlow = 2.0 / (BacktestStrategy.MACD_SLOW + 1);
+        double kSignal = 2.0 / (BacktestStrategy.MACD_SIGNAL + 1);
+        int signalStart = BacktestStrategy.MACD_SLOW - 1;
+        int histogramStart = signalStart + BacktestStrategy.MACD_SIGNAL - 1;
+
+        Result result = new Result();
+        if (record) {
+            result.equity = new double[n];
+            result.tradeList = new ArrayList<>();
+        }
+
+        double cash = capital;
+        double shares = 0;
+        int pending = 0;
+        int entryIndex = -1;
+        double entryPrice = 0;
+        double entryValue = 0;
+
+        double sumFast = 0, sumSlow = 0;
+        double gainSum = 0, lossSum = 0, avgGain = 0, avgLoss = 0;
+        double emaFast = 0, emaSlow = 0, signal = 0;
+        double prevSmaFast = Double.NaN, prevSmaSlow = Double.NaN, prevHistogram = Double.NaN;
+
+        double peak = capital, maxDrawdown = 0, previousEquity = capital;
+        double meanReturn = 0, m2 = 0;
+        int barsInMarket = 0;
+
+        for (int t = 0; t < n; t++) {
+            double c = close[t];
+
+            // Fill the order raised on the previous bar
+            if (pending != 0) {
+                double price = open[t] > 0 ? open[t] : c;
+                if (pending > 0 && shares == 0) {
+                    entryValue = cash;
+                    shares = cash * (1 - commission) / price;
+                    cash = 0;
+                    entryIndex = t;
+                    entryPrice = price;
+                } else if (pending < 0 && shares > 0) {
+                    cash = shares * price * (1 - commission);
+                    shares = 0;
+                    result.trades++;
+                    if (cash > entryValue) result.wins++;
+                    if (record) {
+                        result.tradeList.add(new Trade(entryIndex, t, entryPrice, price, cash / entryValue - 1, false));
+                    }
+                }
+                pending = 0;
+            }
+
+            sumFast += c;
+            if (t >= fast) sumFast -= close[t - fast];
+            sumSlow += c;
+            if (t >= slow) sumSlow -= close[t - slow];
+            double smaFast = t >= fast - 1 ? sumFast / fast : Double.NaN;
+            double smaSlow = t >= slow - 1 ? sumSlow / slow : Double.NaN;
+
+            double rsi = Double.NaN;
+            if (t > 0) {
+                double change = c - close[t - 1];
+                double gain = change > 0 ? change : 0;
+                double loss = change < 0 ? -change : 0;
+                if (t <= rsiPeriod) {
+                    gainSum += gain;
+                    lossSum += loss;
+                    if (t == rsiPeriod) {
+                        avgGain = gainSum / rsiPeriod;
+                        avgLoss = lossSum / rsiPeriod;
+                    }
+                } else {
+                    avgGain = (avgGain * (rsiPeriod - 1) + gain) / rsiPeriod;
+                    avgLoss = (avgLoss * (rsiPeriod - 1) + loss) / rsiPeriod;
+                }
+                if (t >= rsiPeriod) {
+                    rsi = avgLoss == 0 ? 100 : 100 - 100 / (1 + avgGain / avgLoss);
+                }
+            }
+
+            if (t == 0) {
+                emaFast = c;
+                emaSlow = c;
+            } else {
+                emaFast += kFast * (c - emaFast);
+                emaSlow += kSlow * (c - emaSlow);
+            }
+            double macd = emaFast - emaSlow;
+            if (t == signalStart) {
+                signal = macd;
+            } else if (t > signalStart) {
+                signal += kSignal * (macd - signal);
+            }
+            double histogram = t >= histogramStart ? macd - signal : Double.NaN;
+
+            double equity = cash + shares * c;
+            if (record) result.equity[t] = equity;
+            if (shares > 0) barsInMarket++;
+            if (equity > peak) {
+                peak = equity;
+            } else if (peak > 0) {
+                double drawdown = 1 - equity / peak;
+                if (drawdown > maxDrawdown) maxDrawdown = drawdown;
+            }
+            if (t > 0) {
+                // Welford running mean/variance of per-bar returns
+                double r = previousEquity > 0 ? equity / previousEquity - 1 : 0;
+                double delta = r - meanReturn;
+                meanReturn += delta / t;
+                m2 += delta * (r - meanReturn);
+            }
+            previousEquity = equity;
+
+            if (t < n - 1) {
+                if (shares == 0) {
+                    if (fires(strategy.entry, strategy.entryThreshold, c, smaFast, smaSlow, prevSmaFast, prevSmaSlow,
+                            rsi, histogram, prevHistogram)) {
+                        pending = 1;
+                    }
+                } else if (fires(strategy.exit, strategy.exitThreshold, c, smaFast, smaSlow, prevSmaFast, prevSmaSlow,
+                        rsi, histogram, prevHistogram)) {
+                    pending = -1;
+                }
+            }
+
+            prevSmaFast = smaFast;
+            prevSmaSlow = smaSlow;
+            prevHistogram = histogram;
+        }
+
+        double finalEquity = n == 0 ? capital : cash + shares * close[n - 1];
+        if (shares > 0 && record) {
+            result.tradeList.add(new Trade(entryIndex, n - 1, entryPrice, close[n - 1],
+                finalEquity / entryValue - 1, true));
+        }
+        double variance = n > 2 ? m2 / (n - 2) : 0;
+        result.finalEquity = finalEquity;
+        result.totalReturn = capital > 0 ? finalEquity / capital - 1 : 0;
+        result.sharpe = variance > 0 ? meanReturn / Math.sqrt(variance) * Math.sqrt(periodsPerYear) : 0;
+        result.maxDrawdown = maxDrawdown;
+        result.exposure = n == 0 ? 0 : (double) barsInMarket / n;
+        return result;
+    }
+
+    // NaN indicator values (still warming up) never satisfy a comparison
+    private static boolean fires(BacktestStrategy.Condition condition, double threshold, double close,
+                                 double smaFast, double smaSlow, double prevSmaFast, double prevSmaSlow,
+                                 double rsi, double histogram, double prevHistogram) {
+        switch (condition) {
+            case SMA_CROSS_UP:
+                return prevSmaFast <= prevSmaSlow && smaFast > smaSlow;
+            case SMA_CROSS_DOWN:
+                return prevSmaFast >= prevSmaSlow && smaFast < smaSlow;
+            case PRICE_ABOVE_SMA:
+                return close > smaFast;
+            case PRICE_BELOW_SMA:
+                return close < smaFast;
+            case RSI_BELOW:
+                return rsi < threshold;
+            case RSI_ABOVE:
+                return rsi > threshold;
+            case MACD_CROSS_UP:
+                return prevHistogram <= 0 && histogram > 0;
+            case MACD_CROSS_DOWN:
+                return prevHistogram >= 0 && histogram < 0;
+            default:
+                return false;
+        }
+    }
+}
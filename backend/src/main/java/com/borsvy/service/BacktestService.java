@@ -0,0 +1,350 @@
+package com.borsvy.service;
+
+import com.borsvy.client.TwelveDataClient;
+import com.borsvy.model.BacktestRequest;
+import com.borsvy.model.StockPrice;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs indicator rule sets over historical bars for one symbol or a universe.
+ * A single rule set returns the full equity curve and trade list per symbol;
+ * a parameter sweep runs every (symbol, combination) pair across the
+ * fork-join pool and returns the metrics ranked by Sharpe ratio, plus the
+ * curve and trades of the best run.
+ *
+ * <p>A sweep costs more than a portfolio simulation, so like simulations the
+ * runs are capped at {@code backtest.max-concurrent} and execute on a pool of
+ * their own rather than the common pool.
+ */
+@Slf4j
+@Service
+public class BacktestService {
+
+    private static final Set<String> SWEEPABLE =
+        Set.of("fastPeriod", "slowPeriod", "rsiPeriod", "entryThreshold", "exitThreshold");
+    // Runs per fork-join leaf; one run is a few microseconds per hundred bars
+    private static final int RUNS_PER_TASK = 16;
+
+    private final TwelveDataClient twelveDataClient;
+    private final ForkJoinPool pool;
+    private final Semaphore running;
+
+    @Value("${backtest.max-runs:5000}")
+    private int maxRuns;
+
+    @Value("${backtest.max-symbols:50}")
+    private int maxSymbols;
+
+    public BacktestService(TwelveDataClient twelveDataClient,
+                           @Value("${backtest.parallelism:0}") int parallelism,
+                           @Value("${backtest.max-concurrent:2}") int maxConcurrent) {
+        this.twelveDataClient = twelveDataClient;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.running = new Semaphore(Math.max(1, maxConcurrent));
+    }
+
+    /**
+     * @throws IllegalArgumentException for an invalid request or an oversized sweep
+     * @throws RejectedExecutionException when {@code max-concurrent} backtests are in flight
+     */
+    public Map<String, Object> run(BacktestRequest request) {
+        List<String> symbols = normalizeSymbols(request.getSymbols());
+        if (symbols.isEmpty() || symbols.size() > maxSymbols) {
+            throw new IllegalArgumentException("symbols must contain between 1 and " + maxSymbols + " entries");
+        }
+        if (request.getInitialCapital() <= 0 || request.getCommission() < 0 || request.getCommission() >= 1) {
+            throw new IllegalArgumentException("initialCapital must be positive and commission in [0, 1)");
+        }
+        List<BacktestStrategy> strategies = strategies(request, symbols.size(), maxRuns);
+
+        if (!running.tryAcquire()) {
+            throw new RejectedExecutionException("Too many backtests running, try again shortly");
+        }
+        try {
+            return run(request, symbols, strategies);
+        } finally {
+            running.release();
+        }
+    }
+
+    private Map<String, Object> run(BacktestRequest request, List<String> symbols, List<BacktestStrategy> strategies) {
+        String interval = request.getInterval();
+        // All series are requested at once; each comes from the client's cache after the first request
+        Map<String, CompletableFuture<List<StockPrice>>> histories = new LinkedHashMap<>();
+        for (String symbol : symbols) {
+            histories.put(symbol, twelveDataClient.getHistoricalDataAsync(symbol, interval));
+        }
+        CompletableFuture.allOf(histories.values().toArray(new CompletableFuture[0])).join();
+
+        List<BacktestBars> universe = new ArrayList<>();
+        List<String> excluded = new ArrayList<>();
+        for (Map.Entry<String, CompletableFuture<List<StockPrice>>> history : histories.entrySet()) {
+            String symbol = history.getKey();
+            BacktestBars bars = BacktestBars.from(symbol, history.getValue().join());
+            if (bars.size() < 2) {
+                excluded.add(symbol);
+            } else {
+                universe.add(bars);
+            }
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("interval", interval);
+        result.put("excluded", excluded);
+        if (universe.isEmpty()) {
+            result.put("runs", Collections.emptyList());
+            return result;
+        }
+
+        double periodsPerYear = periodsPerYear(interval);
+        double capital = request.getInitialCapital();
+        double commission = request.getCommission();
+        long started = System.nanoTime();
+
+        if (strategies.size() == 1) {
+            BacktestStrategy strategy = strategies.get(0);
+            List<Map<String, Object>> runs = new ArrayList<>();
+            for (BacktestBars bars : universe) {
+                BacktestEngine.Result run = BacktestEngine.run(bars, strategy, capital, commission, periodsPerYear, true);
+                runs.add(detail(bars, strategy, run));
+            }
+            result.put("parameters", strategy.parameters());
+            result.put("runs", runs);
+        } else {
+            int jobs = universe.size() * strategies.size();
+            BacktestEngine.Result[] results = new BacktestEngine.Result[jobs];
+            pool.invoke(new SweepTask(universe, strategies, capital, commission, periodsPerYear, results, 0, jobs));
+
+            Integer[] order = new Integer[jobs];
+            for (int i = 0; i < jobs; i++) order[i] = i;
+            Arrays.sort(order, (a, b) -> Double.compare(results[b].sharpe, results[a].sharpe));
+
+            List<Map<String, Object>> runs = new ArrayList<>(jobs);
+            for (int job : order) {
+                BacktestBars bars = universe.get(job / strategies.size());
+                BacktestStrategy strategy = strategies.get(job % strategies.size());
+                Map<String, Object> row = metrics(results[job]);
+                row.put("symbol", bars.symbol);
+                row.put("parameters", strategy.parameters());
+                runs.add(row);
+            }
+            int best = order[0];
+            BacktestBars bestBars = universe.get(best / strategies.size());
+            BacktestStrategy bestStrategy = strategies.get(best % strategies.size());
+            result.put("combinations", strategies.size());
+            result.put("runs", runs);
+            result.put("best", detail(bestBars, bestStrategy,
+                BacktestEngine.run(bestBars, bestStrategy, capital, commission, periodsPerYear, true)));
+        }
+
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        log.debug("Backtested {} symbols x {} parameter sets in {} ms", universe.size(), strategies.size(), elapsedMs);
+        result.put("elapsedMs", elapsedMs);
+        return result;
+    }
+
+    @jakarta.annotation.PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    private static List<String> normalizeSymbols(List<String> symbols) {
+        Set<String> normalized = new LinkedHashSet<>();
+        if (symbols != null) {
+            for (String symbol : symbols) {
+                if (symbol != null && !symbol.isBlank()) {
+                    normalized.add(symbol.trim().toUpperCase(Locale.ROOT));
+                }
+            }
+        }
+        return new ArrayList<>(normalized);
+    }
+
+    /**
+     * Cartesian product of the swept values over the request's base values.
+     * Its size is counted from the axis lengths first, so an oversized sweep
+     * is rejected before any combination is built.
+     */
+    static List<BacktestStrategy> strategies(BacktestRequest request, int symbolCount, int maxRuns) {
+        BacktestStrategy.Condition entry = BacktestStrategy.Condition.parse(request.getEntry());
+        BacktestStrategy.Condition exit = BacktestStrategy.Condition.parse(request.getExit());
+        Map<String, List<Double>> sweep = request.getSweep() == null ? Collections.emptyMap() : request.getSweep();
+        for (Map.Entry<String, List<Double>> axis : sweep.entrySet()) {
+            if (!SWEEPABLE.contains(axis.getKey())) {
+                throw new IllegalArgumentException("Cannot sweep " + axis.getKey() + "; allowed: " + SWEEPABLE);
+            }
+            if (axis.getValue() == null || axis.getValue().isEmpty()) {
+                throw new IllegalArgumentException("Sweep values for " + axis.getKey() + " are empty");
+            }
+        }
+
+        long combinations = combinations(sweep, request);
+        if (combinations == 0) {
+            throw new IllegalArgumentException("Sweep has no combination with fastPeriod below slowPeriod");
+        }
+        if (combinations > maxRuns / symbolCount) {
+            throw new IllegalArgumentException("Sweep expands to more than " + maxRuns + " runs");
+        }
+
+        List<BacktestStrategy> strategies = new ArrayList<>((int) combinations);
+        for (double fast : axis(sweep, "fastPeriod", request.getFastPeriod())) {
+            for (double slow : axis(sweep, "slowPeriod", request.getSlowPeriod())) {
+                // A fast average at or above the slow one is the same signal mirrored
+                if (sweep.containsKey("fastPeriod") || sweep.containsKey("slowPeriod")) {
+                    if (fast >= slow) continue;
+                }
+                for (double rsi : axis(sweep, "rsiPeriod", request.getRsiPeriod())) {
+                    for (double entryThreshold : axis(sweep, "entryThreshold", request.getEntryThreshold())) {
+                        for (double exitThreshold : axis(sweep, "exitThreshold", request.getExitThreshold())) {
+                            strategies.add(new BacktestStrategy(entry, exit, entryThreshold, exitThreshold,
+                                (int) fast, (int) slow, (int) rsi));
+                        }
+                    }
+                }
+            }
+        }
+        return strategies;
+    }
+
+    /**
+     * Number of combinations {@link #strategies} builds, saturating at
+     * {@link Long#MAX_VALUE}. Fast/slow pairs are counted against the sorted
+     * slow axis rather than pairwise, since either axis may be long.
+     */
+    private static long combinations(Map<String, List<Double>> sweep, BacktestRequest request) {
+        List<Double> fastAxis = axis(sweep, "fastPeriod", request.getFastPeriod());
+        List<Double> slowAxis = axis(sweep, "slowPeriod", request.getSlowPeriod());
+        long pairs;
+        if (sweep.containsKey("fastPeriod") || sweep.containsKey("slowPeriod")) {
+            double[] slow = new double[slowAxis.size()];
+            for (int i = 0; i < slow.length; i++) slow[i] = slowAxis.get(i);
+            Arrays.sort(slow);
+            pairs = 0;
+            for (double fast : fastAxis) {
+                // Slow values strictly above fast: everything past the upper bound
+                int lo = 0, hi = slow.length;
+                while (lo < hi) {
+                    int mid = (lo + hi) >>> 1;
+                    if (slow[mid] <= fast) lo = mid + 1; else hi = mid;
+                }
+                pairs += slow.length - lo;
+            }
+        } else {
+            pairs = (long) fastAxis.size() * slowAxis.size();
+        }
+        try {
+            long count = pairs;
+            count = Math.multiplyExact(count, axis(sweep, "rsiPeriod", request.getRsiPeriod()).size());
+            count = Math.multiplyExact(count, axis(sweep, "entryThreshold", request.getEntryThreshold()).size());
+            return Math.multiplyExact(count, axis(sweep, "exitThreshold", request.getExitThreshold()).size());
+        } catch (ArithmeticException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    private static List<Double> axis(Map<String, List<Double>> sweep, String name, double base) {
+        List<Double> values = sweep.get(name);
+        return values != null ? values : List.of(base);
+    }
+
+    private static double periodsPerYear(String interval) {
+        if (interval == null) return 252;
+        switch (interval.toLowerCase(Locale.ROOT)) {
+            case "1d": return 252 * 78;  // 5-minute bars
+            case "1w": return 252 * 7;   // hourly bars
+            case "1y": return 52;        // weekly bars
+            case "5y": return 12;        // monthly bars
+            default:   return 252;
+        }
+    }
+
+    private static Map<String, Object> metrics(BacktestEngine.Result run) {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("finalEquity", run.finalEquity);
+        metrics.put("totalReturn", run.totalReturn);
+        metrics.put("sharpe", run.sharpe);
+        metrics.put("maxDrawdown", run.maxDrawdown);
+        metrics.put("trades", run.trades);
+        metrics.put("winRate", run.trades > 0 ? (double) run.wins / run.trades : 0);
+        metrics.put("exposure", run.exposure);
+        return metrics;
+    }
+
+    private static Map<String, Object> detail(BacktestBars bars, BacktestStrategy strategy, BacktestEngine.Result run) {
+        Map<String, Object> detail = metrics(run);
+        detail.put("symbol", bars.symbol);
+        detail.put("parameters", strategy.parameters());
+        detail.put("from", bars.timeAt(0));
+        detail.put("to", bars.timeAt(bars.size() - 1));
+        detail.put("bars", bars.size());
+
+        List<Map<String, Object>> trades = new ArrayList<>(run.tradeList.size());
+        for (BacktestEngine.Trade trade : run.tradeList) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("entryTime", bars.timeAt(trade.entryIndex));
+            row.put("entryPrice", trade.entryPrice);
+            row.put("exitTime", trade.open ? null : bars.timeAt(trade.exitIndex));
+            row.put("exitPrice", trade.exitPrice);
+            row.put("return", trade.returnPct);
+            row.put("open", trade.open);
+            trades.add(row);
+        }
+        String[] times = new String[bars.size()];
+        for (int t = 0; t < times.length; t++) {
+            times[t] = bars.timeAt(t);
+        }
+        detail.put("tradeList", trades);
+        detail.put("equityTimes", times);
+        detail.put("equity", run.equity);
+        return detail;
+    }
+
+    /** Splits the (symbol, parameter set) job range across the pool. */
+    private static final class SweepTask extends RecursiveAction {
+        private final List<BacktestBars> universe;
+        private final List<BacktestStrategy> strategies;
+        private final double capital;
+        private final double commission;
+        private final double periodsPerYear;
+        private final BacktestEngine.Result[] results;
+        private final int from;
+        private final int to;
+
+        SweepTask(List<BacktestBars> universe, List<BacktestStrategy> strategies, double capital, double commission,
+                  double periodsPerYear, BacktestEngine.Result[] results, int from, int to) {
+            this.universe = universe;
+            this.strategies = strategies;
+            this.capital = capital;
+            this.commission = commission;
+            this.periodsPerYear = periodsPerYear;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= RUNS_PER_TASK) {
+                int combinations = strategies.size();
+                for (int job = from; job < to; job++) {
+                    results[job] = BacktestEngine.run(universe.get(job / combinations), strategies.get(job % combinations),
+                        capital, commission, periodsPerYear, false);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new SweepTask(universe, strategies, capital, commission, periodsPerYear, results, from, mid),
+                      new SweepTask(universe, strategies, capital, commission, periodsPerYear, results, mid, to));
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.borsvy.service;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Long-only rule set: go long when {@code entry} fires while flat, go flat
+ * when {@code exit} fires while long. Thresholds only apply to the RSI
+ * conditions; the SMA conditions use the fast and slow periods, MACD uses the
+ * same 12/26/9 setup as {@link TechnicalIndicatorService}.
+ */
+final class BacktestStrategy {
+
+    enum Condition {
+        SMA_CROSS_UP,
+        SMA_CROSS_DOWN,
+        PRICE_ABOVE_SMA,
+        PRICE_BELOW_SMA,
+        RSI_BELOW,
+        RSI_ABOVE,
+        MACD_CROSS_UP,
+        MACD_CROSS_DOWN;
+
+        static Condition parse(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Unknown condition: " + value);
+            }
+        }
+    }
+
+    static final int MACD_FAST = 12;
+    static final int MACD_SLOW = 26;
+    static final int MACD_SIGNAL = 9;
+
+    final Condition entry;
+    final Condition exit;
+    final double entryThreshold;
+    final double exitThreshold;
+    final int fastPeriod;
+    final int slowPeriod;
+    final int rsiPeriod;
+
+    BacktestStrategy(Condition entry, Condition exit, double entryThreshold, double exitThreshold,
+                     int fastPeriod, int slowPeriod, int rsiPeriod) {
+        if (fastPeriod < 1 || slowPeriod < 1 || rsiPeriod < 1) {
+            throw new IllegalArgumentException("Indicator periods must be positive");
+        }
+        this.entry = entry;
+        this.exit = exit;
+        this.entryThreshold = entryThreshold;
+        this.exitThreshold = exitThreshold;
+        this.fastPeriod = fastPeriod;
+        this.slowPeriod = slowPeriod;
+        this.rsiPeriod = rsiPeriod;
+    }
+
+    Map<String, Object> parameters() {
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        parameters.put("entry", entry.name());
+        parameters.put("exit", exit.name());
+        parameters.put("entryThreshold", entryThreshold);
+        parameters.put("exitThreshold", exitThreshold);
+        parameters.put("fastPeriod", fastPeriod);
+        parameters.put("slowPeriod", slowPeriod);
+        parameters.put("rsiPeriod", rsiPeriod);
+        return parameters;
+    }
+}
@@ -0,0 +1,142 @@
+package com.borsvy.service;
+
+import com.borsvy.config.SchedulingConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.net.InetAddress;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Splits per-symbol background work between the running instances. Each node
+ * renews a lease row in {@code cluster_members}; the live rows form a
+ * {@link ConsistentHashRing}, and a node only does background work for the
+ * symbols the ring gives it. When a node joins, or its lease runs out, every
+ * node rebuilds the same ring on its next heartbeat and the symbols move.
+ *
+ * <p>Disabled by default, in which case this node owns every symbol. If the
+ * database is unreachable the last ring is kept; at worst two nodes refresh
+ * the same symbol for a while.
+ */
+@Slf4j
+@Service
+public class ClusterMembership {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String host = hostName();
+    private final String nodeId = host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    private volatile List<String> members = List.of();
+    private volatile ConsistentHashRing ring;
+
+    @Value("${cluster.enabled:false}")
+    private boolean enabled;
+
+    @Value("${cluster.lease-ms:15000}")
+    private long leaseMs;
+
+    @Value("${cluster.virtual-nodes:128}")
+    private int virtualNodes;
+
+    // Rows of nodes that died without deregistering are dropped after this long
+    @Value("${cluster.purge-after-ms:3600000}")
+    private long purgeAfterMs;
+
+    public ClusterMembership(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @jakarta.annotation.PostConstruct
+    public void init() {
+        if (!enabled) return;
+        // Same DDL as V12, for deployments that run without Flyway
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS cluster_members (" +
+            "node_id VARCHAR(300) PRIMARY KEY, host VARCHAR(255) NOT NULL, started_at TIMESTAMP NOT NULL, " +
+            "lease_expires_at TIMESTAMP NOT NULL)");
+        heartbeat();
+    }
+
+    @jakarta.annotation.PreDestroy
+    public void leave() {
+        if (!enabled) return;
+        try {
+            jdbcTemplate.update("DELETE FROM cluster_members WHERE node_id = ?", nodeId);
+        } catch (Exception e) {
+            log.debug("Could not deregister cluster node {}: {}", nodeId, e.getMessage());
+        }
+    }
+
+    /**
+     * Renews this node's lease and rebuilds the ring when the live members
+     * changed. Lease times come from the database clock, so clock skew
+     * between nodes cannot expire a healthy lease.
+     */
+    @Scheduled(fixedDelayString = "${cluster.heartbeat-ms:5000}", initialDelayString = "${cluster.heartbeat-ms:5000}",
+               scheduler = SchedulingConfig.HEARTBEAT)
+    public void heartbeat() {
+        if (!enabled) return;
+        try {
+            Timestamp now = jdbcTemplate.queryForObject("SELECT LOCALTIMESTAMP", Timestamp.class);
+            Timestamp expires = new Timestamp(now.getTime() + leaseMs);
+            String renew = "UPDATE cluster_members SET lease_expires_at = ? WHERE node_id = ?";
+            if (jdbcTemplate.update(renew, expires, nodeId) == 0) {
+                try {
+                    jdbcTemplate.update("INSERT INTO cluster_members (node_id, host, started_at, lease_expires_at) " +
+                        "VALUES (?, ?, ?, ?)", nodeId, host, now, expires);
+                } catch (DuplicateKeyException e) {
+                    jdbcTemplate.update(renew, expires, nodeId);
+                }
+            }
+            List<String> live = new ArrayList<>(jdbcTemplate.queryForList(
+                "SELECT node_id FROM cluster_members WHERE lease_expires_at > ? ORDER BY node_id", String.class, now));
+            if (!live.contains(nodeId)) {
+                live.add(nodeId);
+            }
+            if (!live.equals(members)) {
+                ring = new ConsistentHashRing(live, virtualNodes);
+                log.info("Cluster membership changed from {} to {} nodes: {}", members.size(), live.size(), live);
+                members = List.copyOf(live);
+            }
+            jdbcTemplate.update("DELETE FROM cluster_members WHERE lease_expires_at < ?",
+                new Timestamp(now.getTime() - purgeAfterMs));
+        } catch (Exception e) {
+            log.warn("Cluster heartbeat failed, keeping the last {} members: {}", members.size(), e.getMessage());
+        }
+    }
+
+    /** Whether this node does the background work for {@code symbol}. */
+    public boolean owns(String symbol) {
+        ConsistentHashRing current = ring;
+        if (!enabled || current == null || current.isEmpty()) return true;
+        return nodeId.equals(current.owner(symbol.toUpperCase(Locale.ROOT)));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("enabled", enabled);
+        snapshot.put("node", nodeId);
+        snapshot.put("members", members);
+        return snapshot;
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return "unknown";
+        }
+    }
+}
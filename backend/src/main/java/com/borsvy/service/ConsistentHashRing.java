@@ -0,0 +1,54 @@
+package com.borsvy.service;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Consistent-hash ring over cluster members. Each member is placed at
+ * {@code virtualNodes} points; a key belongs to the first point at or after
+ * its own hash. With enough points per member the shares come out even, and
+ * a member joining or leaving only moves the keys next to its own points,
+ * about 1/N of them, instead of reshuffling everything.
+ */
+final class ConsistentHashRing {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final TreeMap<Long, String> points = new TreeMap<>();
+
+    ConsistentHashRing(Collection<String> members, int virtualNodes) {
+        for (String member : members) {
+            for (int i = 0; i < virtualNodes; i++) {
+                // On the rare collision the smaller id wins, so every node builds the same ring
+                points.merge(hash(member + "#" + i), member, (a, b) -> a.compareTo(b) <= 0 ? a : b);
+            }
+        }
+    }
+
+    /** The owning member, or null on an empty ring. */
+    String owner(String key) {
+        if (points.isEmpty()) return null;
+        Map.Entry<Long, String> entry = points.ceilingEntry(hash(key));
+        return entry != null ? entry.getValue() : points.firstEntry().getValue();
+    }
+
+    boolean isEmpty() {
+        return points.isEmpty();
+    }
+
+    /** FNV-1a, then a 64-bit finalizer so similar keys ("AAPL", "AAPM") land far apart. */
+    static long hash(String key) {
+        long hash = FNV_OFFSET;
+        for (int i = 0; i < key.length(); i++) {
+            hash = (hash ^ key.charAt(i)) * FNV_PRIME;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -1,6 +1,7 @@
 package com.borsvy.service;
 
 import com.borsvy.model.Favorite;
+import com.borsvy.model.Stock;
 import com.borsvy.repository.FavoriteRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -9,8 +10,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class FavoriteService {
@@ -20,10 +26,51 @@ public class FavoriteService {
     @Autowired
     private FavoriteRepository favoriteRepository;
 
+    @Autowired
+    private StockService stockService;
+
     public List<Favorite> getFavoritesByUser(Long userId) {
         return favoriteRepository.findByUserId(userId);
     }
 
+    /**
+     * The user's favorites joined with current quotes from one batched quote
+     * read. Symbols without a quote keep the snapshot taken when they were
+     * added and are marked {@code live=false}.
+     */
+    public LiveWatchlist getLiveFavorites(Long userId) {
+        List<Favorite> favorites = favoriteRepository.findByUserId(userId);
+        Set<String> symbols = new LinkedHashSet<>();
+        for (Favorite favorite : favorites) {
+            symbols.add(favorite.getSymbol());
+        }
+        Map<String, Stock> quotes = symbols.isEmpty() ? Map.of() : stockService.getQuotes(symbols);
+
+        List<Map<String, Object>> items = new ArrayList<>(favorites.size());
+        long hash = 1125899906842597L ^ userId;
+        for (Favorite favorite : favorites) {
+            Stock quote = quotes.get(favorite.getSymbol());
+            boolean live = quote != null && quote.getPrice() > 0;
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("symbol", favorite.getSymbol());
+            item.put("name", live && quote.getName() != null ? quote.getName() : favorite.getName());
+            item.put("price", live ? quote.getPrice() : favorite.getPrice());
+            item.put("change", live ? quote.getChange() : favorite.getChange());
+            item.put("changePercent", live ? quote.getChangePercent() : favorite.getChangePercent());
+            item.put("lastUpdated", live ? quote.getLastUpdated() : null);
+            item.put("addedAt", favorite.getAddedAt());
+            item.put("live", live);
+            items.add(item);
+
+            hash = 31 * hash + favorite.getSymbol().hashCode();
+            hash = 31 * hash + Double.doubleToLongBits((Double) item.get("price"));
+            hash = 31 * hash + Double.doubleToLongBits((Double) item.get("change"));
+            hash = 31 * hash + Double.doubleToLongBits((Double) item.get("changePercent"));
+            hash = 31 * hash + (live ? 1 : 0);
+        }
+        return new LiveWatchlist(items, Long.toHexString(hash));
+    }
+
     @Transactional
     public Favorite addFavorite(Long userId, Favorite favorite) {
         if (favoriteRepository.existsByUserIdAndSymbol(userId, favorite.getSymbol())) {
@@ -48,4 +95,18 @@ public class FavoriteService {
     public boolean isFavorite(Long userId, String symbol) {
         return favoriteRepository.existsByUserIdAndSymbol(userId, symbol);
     }
+
+    /** Watchlist rows plus an ETag that changes whenever any row would. */
+    public static class LiveWatchlist {
+        private final List<Map<String, Object>> items;
+        private final String etag;
+
+        LiveWatchlist(List<Map<String, Object>> items, String etag) {
+            this.items = items;
+            this.etag = etag;
+        }
+
+        public List<Map<String, Object>> getItems() { return items; }
+        public String getEtag() { return etag; }
+    }
 }
@@ -0,0 +1,261 @@
+package com.borsvy.service;
+
+import com.borsvy.client.FinnhubClient;
+import com.borsvy.config.SchedulingConfig;
+import com.borsvy.model.CompanyFundamentals;
+import com.borsvy.model.CompanyProfile2;
+import com.borsvy.repository.CompanyFundamentalsRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Company profile and 52-week metrics, on a much longer TTL than quotes.
+ * Name, industry, market cap and beta change daily at most, yet used to be
+ * refetched with every one-minute quote refresh, along with the heavy
+ * {@code metric=all} call.
+ *
+ * <p>Reads come from memory; the database copy survives restarts and is how
+ * the nodes see each other's refreshes. A stale copy is refetched on the next
+ * read, and once a day for the symbols this node owns. When Finnhub is down
+ * the stale copy is served and the symbol is not retried for a while.
+ */
+@Slf4j
+@Service
+public class FundamentalsStore {
+
+    private final CompanyFundamentalsRepository repository;
+    private final FinnhubClient finnhubClient;
+    private final ClusterMembership cluster;
+    // Blocking fetches for getAsync; a pool of its own, since the upstream pool runs the async HTTP callbacks
+    private final ThreadPoolExecutor fetchExecutor;
+    private final Map<String, CompanyFundamentals> known = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<CompanyFundamentals>> inFlight = new ConcurrentHashMap<>();
+    // Symbol -> last read, so the daily refresh skips symbols nobody asks for any more
+    private final Map<String, Long> requested = new ConcurrentHashMap<>();
+    private final Map<String, Long> retryAfter = new ConcurrentHashMap<>();
+
+    @Value("${fundamentals.ttl-hours:24}")
+    private long ttlHours;
+
+    @Value("${fundamentals.retry-minutes:30}")
+    private long retryMinutes;
+
+    // On-demand refreshes of a younger copy are answered from it
+    @Value("${fundamentals.min-refresh-minutes:10}")
+    private long minRefreshMinutes;
+
+    // Two Finnhub calls per symbol; one symbol a second stays under the free tier's 60 calls a minute
+    @Value("${fundamentals.refresh-pause-ms:1000}")
+    private long refreshPauseMs;
+
+    public FundamentalsStore(CompanyFundamentalsRepository repository, FinnhubClient finnhubClient,
+                             ClusterMembership cluster,
+                             @Value("${fundamentals.fetch-threads:4}") int fetchThreads,
+                             @Value("${fundamentals.fetch-queue:100}") int fetchQueue) {
+        this.repository = repository;
+        this.finnhubClient = finnhubClient;
+        this.cluster = cluster;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.fetchExecutor = new ThreadPoolExecutor(Math.max(1, fetchThreads), Math.max(1, fetchThreads),
+            60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(Math.max(1, fetchQueue)), runnable -> {
+                Thread thread = new Thread(runnable, "fundamentals-fetch-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        this.fetchExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    @jakarta.annotation.PreDestroy
+    public void shutdown() {
+        fetchExecutor.shutdownNow();
+    }
+
+    /**
+     * Fundamentals for a stock, refetched only when older than the TTL. Null
+     * when they were never fetched and Finnhub is unavailable.
+     */
+    public CompanyFundamentals get(String symbol) {
+        String key = symbol.toUpperCase(Locale.ROOT);
+        requested.put(key, System.currentTimeMillis());
+        CompanyFundamentals current = known.get(key);
+        if (isFresh(current, ttl())) {
+            return current;
+        }
+        Long retryAt = retryAfter.get(key);
+        if (retryAt != null && retryAt > System.currentTimeMillis()) {
+            return current;
+        }
+        // Another node may have refreshed it, or this one restarted
+        CompanyFundamentals stored = stored(key);
+        if (stored != null && (current == null || stored.getFetchedAt().isAfter(current.getFetchedAt()))) {
+            known.put(key, stored);
+            current = stored;
+        }
+        if (isFresh(current, ttl())) {
+            return current;
+        }
+        return load(key, current);
+    }
+
+    /** {@link #get} without blocking the caller when a fetch is needed. */
+    public CompletableFuture<CompanyFundamentals> getAsync(String symbol) {
+        CompanyFundamentals current = known.get(symbol.toUpperCase(Locale.ROOT));
+        if (isFresh(current, ttl())) {
+            requested.put(current.getSymbol(), System.currentTimeMillis());
+            return CompletableFuture.completedFuture(current);
+        }
+        CompletableFuture<CompanyFundamentals> running = inFlight.get(symbol.toUpperCase(Locale.ROOT));
+        if (running != null) {
+            // As in load(), but without parking a pool thread on the fetch in flight
+            requested.put(symbol.toUpperCase(Locale.ROOT), System.currentTimeMillis());
+            return current != null ? CompletableFuture.completedFuture(current) : running.copy();
+        }
+        try {
+            return CompletableFuture.supplyAsync(() -> get(symbol), fetchExecutor);
+        } catch (RejectedExecutionException e) {
+            // Saturated: serve what is in memory rather than queue without bound
+            log.debug("Fundamentals fetch pool full, serving {} from memory", symbol);
+            return CompletableFuture.completedFuture(current);
+        }
+    }
+
+    /**
+     * Refetches now, unless the copy is younger than the minimum interval or
+     * Finnhub failed for the symbol recently. Returns the stale copy, or null,
+     * when Finnhub is unavailable.
+     */
+    public CompanyFundamentals refresh(String symbol) {
+        String key = symbol.toUpperCase(Locale.ROOT);
+        requested.put(key, System.currentTimeMillis());
+        CompanyFundamentals current = known.get(key);
+        if (current == null) {
+            current = stored(key);
+        }
+        if (isFresh(current, Duration.ofMinutes(minRefreshMinutes))) {
+            return current;
+        }
+        // An early refresh does not skip the backoff after a failure
+        Long retryAt = retryAfter.get(key);
+        if (retryAt != null && retryAt > System.currentTimeMillis()) {
+            return current;
+        }
+        return load(key, current);
+    }
+
+    /**
+     * Daily refresh of the symbols read since the last TTL, so reads rarely
+     * find a stale copy. With clustering on, each node refreshes its own
+     * symbols and the others pick the rows up from the database.
+     */
+    @Scheduled(cron = "${fundamentals.refresh-cron:0 0 6 * * *}", scheduler = SchedulingConfig.FUNDAMENTALS_REFRESH)
+    public void refreshRequested() {
+        long idleCutoff = System.currentTimeMillis() - ttl().toMillis();
+        int refreshed = 0;
+        for (Map.Entry<String, Long> entry : requested.entrySet()) {
+            String symbol = entry.getKey();
+            if (entry.getValue() < idleCutoff) {
+                requested.remove(symbol);
+                known.remove(symbol);
+                continue;
+            }
+            CompanyFundamentals current = known.get(symbol);
+            if (!cluster.owns(symbol) || isFresh(current, Duration.ofMinutes(minRefreshMinutes))) {
+                continue;
+            }
+            load(symbol, current);
+            refreshed++;
+            try {
+                TimeUnit.MILLISECONDS.sleep(refreshPauseMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        log.info("Refreshed fundamentals for {} symbols", refreshed);
+    }
+
+    private CompanyFundamentals load(String key, CompanyFundamentals current) {
+        CompletableFuture<CompanyFundamentals> mine = new CompletableFuture<>();
+        CompletableFuture<CompanyFundamentals> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            // Stale data beats waiting; only a first fetch waits for the one in flight
+            return current != null ? current : running.join();
+        }
+        CompanyFundamentals result = current;
+        try {
+            result = fetch(key, current);
+            return result;
+        } finally {
+            mine.complete(result);
+            inFlight.remove(key, mine);
+        }
+    }
+
+    private CompanyFundamentals fetch(String key, CompanyFundamentals current) {
+        // Returns null on any failure, including an open circuit
+        CompanyProfile2 profile = finnhubClient.getCompanyProfile2(key);
+        if (profile == null) {
+            retryAfter.put(key, System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(retryMinutes));
+            log.warn("Finnhub profile unavailable for {}, not retrying for {} minutes", key, retryMinutes);
+            return current;
+        }
+        CompanyFundamentals updated = new CompanyFundamentals();
+        if (current != null) {
+            BeanUtils.copyProperties(current, updated);
+        }
+        updated.setSymbol(key);
+        if (profile.getName() != null) updated.setName(profile.getName());
+        if (profile.getFinnhubIndustry() != null) updated.setIndustry(profile.getFinnhubIndustry());
+        updated.setMarketCap(profile.getMarketCapitalization());
+        updated.setBeta(profile.getBeta());
+
+        // 52-week range and TTM P/E; best effort, the previous values stay on failure
+        Map<String, Double> metrics = finnhubClient.getBasicMetrics(key);
+        if (metrics.containsKey("52WeekHigh")) updated.setHigh52Week(metrics.get("52WeekHigh"));
+        if (metrics.containsKey("52WeekLow")) updated.setLow52Week(metrics.get("52WeekLow"));
+        if (metrics.containsKey("pe") && metrics.get("pe") > 0) updated.setPeRatio(metrics.get("pe"));
+
+        updated.setFetchedAt(LocalDateTime.now());
+        retryAfter.remove(key);
+        known.put(key, updated);
+        try {
+            repository.save(updated);
+        } catch (Exception e) {
+            log.warn("Could not store fundamentals for {}: {}", key, e.getMessage());
+        }
+        return updated;
+    }
+
+    private CompanyFundamentals stored(String key) {
+        try {
+            return repository.findById(key).orElse(null);
+        } catch (Exception e) {
+            log.warn("Could not read stored fundamentals for {}: {}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    private Duration ttl() {
+        return Duration.ofHours(ttlHours);
+    }
+
+    private static boolean isFresh(CompanyFundamentals fundamentals, Duration ttl) {
+        return fundamentals != null && fundamentals.getFetchedAt() != null
+            && fundamentals.getFetchedAt().isAfter(LocalDateTime.now().minus(ttl));
+    }
+}
@@ -0,0 +1,212 @@
+package com.borsvy.service;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Hashed unigram/bigram logistic regression over news headlines.
+ *
+ * Scoring walks the characters of the headline once, hashing tokens in place,
+ * so the hot path does not allocate. Weights are stored sparsely in a small
+ * binary file produced by {@link SentimentModelTrainer}.
+ */
+public final class HeadlineSentimentModel {
+
+    public static final int NEGATIVE = 0;
+    public static final int NEUTRAL = 1;
+    public static final int POSITIVE = 2;
+    public static final int CLASSES = 3;
+
+    private static final int MAGIC = 0x4256534D; // "BVSM"
+    private static final int FORMAT_VERSION = 1;
+    private static final int FNV_OFFSET = 0x811C9DC5;
+    private static final int FNV_PRIME = 0x01000193;
+
+    private final int bucketBits;
+    private final int mask;
+    private final float[] bias;
+    private final float[] weights;
+
+    HeadlineSentimentModel(int bucketBits) {
+        this(bucketBits, new float[CLASSES], new float[(1 << bucketBits) * CLASSES]);
+    }
+
+    private HeadlineSentimentModel(int bucketBits, float[] bias, float[] weights) {
+        if (bucketBits < 8 || bucketBits > 24) {
+            throw new IllegalArgumentException("bucketBits must be between 8 and 24");
+        }
+        this.bucketBits = bucketBits;
+        this.mask = (1 << bucketBits) - 1;
+        this.bias = bias;
+        this.weights = weights;
+    }
+
+    /**
+     * Scores a headline and writes class probabilities (indexed by
+     * {@link #NEGATIVE}, {@link #NEUTRAL}, {@link #POSITIVE}) into {@code probs}.
+     *
+     * @return the most probable class
+     */
+    public int score(CharSequence text, double[] probs) {
+        double neg = bias[NEGATIVE];
+        double neu = bias[NEUTRAL];
+        double pos = bias[POSITIVE];
+
+        int length = text == null ? 0 : text.length();
+        int hash = FNV_OFFSET;
+        int previous = 0;
+        boolean inToken = false;
+        for (int i = 0; i <= length; i++) {
+            char c = i < length ? Character.toLowerCase(text.charAt(i)) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                hash = (hash ^ c) * FNV_PRIME;
+                inToken = true;
+                continue;
+            }
+            if (!inToken) {
+                continue;
+            }
+            int offset = (hash & mask) * CLASSES;
+            neg += weights[offset];
+            neu += weights[offset + 1];
+            pos += weights[offset + 2];
+            if (previous != 0) {
+                offset = (bigram(previous, hash) & mask) * CLASSES;
+                neg += weights[offset];
+                neu += weights[offset + 1];
+                pos += weights[offset + 2];
+            }
+            previous = hash;
+            hash = FNV_OFFSET;
+            inToken = false;
+        }
+
+        double max = Math.max(neg, Math.max(neu, pos));
+        double eNeg = Math.exp(neg - max);
+        double eNeu = Math.exp(neu - max);
+        double ePos = Math.exp(pos - max);
+        double sum = eNeg + eNeu + ePos;
+        probs[NEGATIVE] = eNeg / sum;
+        probs[NEUTRAL] = eNeu / sum;
+        probs[POSITIVE] = ePos / sum;
+
+        if (pos >= neg && pos >= neu) return POSITIVE;
+        if (neg >= neu) return NEGATIVE;
+        return NEUTRAL;
+    }
+
+    /**
+     * Writes the feature buckets of {@code text} into {@code features} and
+     * returns how many were written. Used by the trainer; not on the serving path.
+     */
+    int features(CharSequence text, int[] features) {
+        int count = 0;
+        int length = text == null ? 0 : text.length();
+        int hash = FNV_OFFSET;
+        int previous = 0;
+        boolean inToken = false;
+        for (int i = 0; i <= length && count < features.length - 1; i++) {
+            char c = i < length ? Character.toLowerCase(text.charAt(i)) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                hash = (hash ^ c) * FNV_PRIME;
+                inToken = true;
+                continue;
+            }
+            if (!inToken) {
+                continue;
+            }
+            features[count++] = hash & mask;
+            if (previous != 0) {
+                features[count++] = bigram(previous, hash) & mask;
+            }
+            previous = hash;
+            hash = FNV_OFFSET;
+            inToken = false;
+        }
+        return count;
+    }
+
+    float[] bias() {
+        return bias;
+    }
+
+    float[] weights() {
+        return weights;
+    }
+
+    private static int bigram(int first, int second) {
+        int h = first * 0x9E3779B1 + second;
+        return h ^ (h >>> 15);
+    }
+
+    public static String label(int sentimentClass) {
+        switch (sentimentClass) {
+            case POSITIVE: return "POSITIVE";
+            case NEGATIVE: return "NEGATIVE";
+            default: return "NEUTRAL";
+        }
+    }
+
+    /**
+     * Binary layout: magic, version, bucketBits, three biases, the number of
+     * non-zero buckets, then (bucket, three weights) per non-zero bucket.
+     */
+    public void write(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeInt(FORMAT_VERSION);
+        data.writeInt(bucketBits);
+        for (float b : bias) {
+            data.writeFloat(b);
+        }
+
+        int buckets = 1 << bucketBits;
+        int nonZero = 0;
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            if (!isZeroBucket(bucket)) nonZero++;
+        }
+        data.writeInt(nonZero);
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            if (isZeroBucket(bucket)) continue;
+            data.writeInt(bucket);
+            int offset = bucket * CLASSES;
+            for (int c = 0; c < CLASSES; c++) {
+                data.writeFloat(weights[offset + c]);
+            }
+        }
+        data.flush();
+    }
+
+    public static HeadlineSentimentModel read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not a headline sentiment model");
+        }
+        int version = data.readInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported sentiment model version: " + version);
+        }
+        int bucketBits = data.readInt();
+        float[] bias = new float[CLASSES];
+        for (int c = 0; c < CLASSES; c++) {
+            bias[c] = data.readFloat();
+        }
+        float[] weights = new float[(1 << bucketBits) * CLASSES];
+        int nonZero = data.readInt();
+        for (int i = 0; i < nonZero; i++) {
+            int offset = data.readInt() * CLASSES;
+            for (int c = 0; c < CLASSES; c++) {
+                weights[offset + c] = data.readFloat();
+            }
+        }
+        return new HeadlineSentimentModel(bucketBits, bias, weights);
+    }
+
+    private boolean isZeroBucket(int bucket) {
+        int offset = bucket * CLASSES;
+        return weights[offset] == 0f && weights[offset + 1] == 0f && weights[offset + 2] == 0f;
+    }
+}
@@ -0,0 +1,321 @@
+package com.borsvy.service;
+
+import com.borsvy.client.CircuitBreaker;
+import com.borsvy.client.NewsDataClient;
+import com.borsvy.client.ProviderHealthRegistry;
+import com.borsvy.client.RapidApiClient;
+import com.borsvy.model.NewsArticle;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Races the news providers instead of falling back sequentially. The healthier
+ * provider (NewsData.io unless its circuit says otherwise) starts immediately;
+ * the other is launched only if the first has not produced articles within the
+ * hedge delay (or fails first). The first non-empty answer wins, the other is
+ * merged in if it lands within a short window, otherwise it is cancelled.
+ */
+@Slf4j
+@Component
+public class HedgedNewsFetcher {
+
+    private static final int MIN_SAMPLES_FOR_P90 = 16;
+
+    private final NewsDataClient newsDataClient;
+    private final RapidApiClient rapidApiClient;
+    private final ProviderHealthRegistry providerHealth;
+    private final ThreadPoolExecutor executor;
+
+    @Value("${news.hedge.delay-ms:800}")
+    private long maxHedgeDelayMs;
+
+    @Value("${news.hedge.min-delay-ms:100}")
+    private long minHedgeDelayMs;
+
+    @Value("${news.hedge.merge-window-ms:250}")
+    private long mergeWindowMs;
+
+    @Value("${news.hedge.timeout-ms:8000}")
+    private long timeoutMs;
+
+    public HedgedNewsFetcher(NewsDataClient newsDataClient, RapidApiClient rapidApiClient,
+                             ProviderHealthRegistry providerHealth,
+                             @Value("${news.hedge.threads:8}") int threads) {
+        this.newsDataClient = newsDataClient;
+        this.rapidApiClient = rapidApiClient;
+        this.providerHealth = providerHealth;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(threads * 8),
+            runnable -> {
+                Thread thread = new Thread(runnable, "news-fetch-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    public List<NewsArticle> fetch(String symbol, int limit) {
+        long started = System.nanoTime();
+        List<String> order = providerHealth.rank(ProviderHealthRegistry.NEWSDATA, ProviderHealthRegistry.RAPIDAPI);
+        String primaryName = order.get(0);
+        String secondaryName = order.get(1);
+
+        CompletableFuture<List<NewsArticle>> primary = submit(provider(primaryName, symbol, limit));
+        long hedgeDelay = hedgeDelayMs(providerHealth.get(primaryName));
+        try {
+            List<NewsArticle> early = primary.get(hedgeDelay, TimeUnit.MILLISECONDS);
+            if (!early.isEmpty()) {
+                return early;
+            }
+            log.info("{} returned nothing for {}, starting {}", primaryName, symbol, secondaryName);
+        } catch (TimeoutException e) {
+            log.debug("{} slower than {} ms for {}, hedging with {}", primaryName, hedgeDelay, symbol, secondaryName);
+        } catch (Exception e) {
+            log.warn("{} failed for {}: {}, starting {}", primaryName, symbol, rootMessage(e), secondaryName);
+        }
+
+        CompletableFuture<List<NewsArticle>> secondary = submit(provider(secondaryName, symbol, limit));
+        CompletableFuture<List<NewsArticle>> winner = firstNonEmpty(primary, secondary);
+        try {
+            List<NewsArticle> first = winner.get(Math.max(1, timeoutMs - elapsedMs(started)), TimeUnit.MILLISECONDS);
+            if (first.isEmpty()) {
+                log.warn("Both news providers returned nothing for {}", symbol);
+                return first;
+            }
+            boolean primaryWon = primary.isDone() && !primary.isCompletedExceptionally() && primary.join() == first;
+            CompletableFuture<List<NewsArticle>> loser = primaryWon ? secondary : primary;
+            List<NewsArticle> other = awaitQuietly(loser, mergeWindowMs);
+            if (other == null) {
+                loser.cancel(true);
+                return first;
+            }
+            return merge(first, other, limit);
+        } catch (TimeoutException e) {
+            log.warn("News providers timed out after {} ms for {}", timeoutMs, symbol);
+        } catch (Exception e) {
+            log.warn("News fetch failed for {}: {}", symbol, rootMessage(e));
+        }
+        primary.cancel(true);
+        secondary.cancel(true);
+        return new ArrayList<>();
+    }
+
+    /**
+     * Non-blocking {@link #fetch}: the same race, merge window and cancellation,
+     * driven by callbacks on the providers' async calls and by timers rather
+     * than by a worker waiting on each one.
+     */
+    public CompletableFuture<List<NewsArticle>> fetchAsync(String symbol, int limit) {
+        List<String> order = providerHealth.rank(ProviderHealthRegistry.NEWSDATA, ProviderHealthRegistry.RAPIDAPI);
+        String primaryName = order.get(0);
+        String secondaryName = order.get(1);
+
+        CompletableFuture<List<NewsArticle>> result = new CompletableFuture<>();
+        CompletableFuture<List<NewsArticle>> primary = providerAsync(primaryName, symbol, limit);
+        CompletableFuture<List<NewsArticle>> secondary = new CompletableFuture<>();
+        AtomicBoolean hedged = new AtomicBoolean();
+        Runnable hedge = () -> {
+            if (secondary.isDone() || !hedged.compareAndSet(false, true)) {
+                return;
+            }
+            CompletableFuture<List<NewsArticle>> call = providerAsync(secondaryName, symbol, limit);
+            call.whenComplete((articles, error) -> {
+                if (error != null) secondary.completeExceptionally(error);
+                else secondary.complete(articles);
+            });
+            secondary.whenComplete((articles, error) -> {
+                if (secondary.isCancelled()) call.cancel(true);
+            });
+        };
+        primary.whenComplete((articles, error) -> {
+            if (!result.isDone() && (error != null || articles.isEmpty())) {
+                log.info("{} returned nothing for {}, starting {}", primaryName, symbol, secondaryName);
+                hedge.run();
+            }
+        });
+        long hedgeDelay = hedgeDelayMs(providerHealth.get(primaryName));
+        after(hedgeDelay, () -> {
+            if (!primary.isDone()) {
+                log.debug("{} slower than {} ms for {}, hedging with {}", primaryName, hedgeDelay, symbol, secondaryName);
+                hedge.run();
+            }
+        });
+
+        firstNonEmpty(primary, secondary).thenAccept(first -> {
+            if (result.isDone()) {
+                return;
+            }
+            if (first.isEmpty()) {
+                log.warn("Both news providers returned nothing for {}", symbol);
+                result.complete(first);
+                return;
+            }
+            boolean primaryWon = primary.isDone() && !primary.isCompletedExceptionally() && primary.join() == first;
+            CompletableFuture<List<NewsArticle>> loser = primaryWon ? secondary : primary;
+            loser.whenComplete((other, error) ->
+                result.complete(error == null && !other.isEmpty() ? merge(first, other, limit) : first));
+            after(mergeWindowMs, () -> result.complete(first));
+        });
+        after(timeoutMs, () -> {
+            if (result.complete(new ArrayList<>())) {
+                log.warn("News providers timed out after {} ms for {}", timeoutMs, symbol);
+            }
+        });
+        // Whatever settled the result, a provider still running is no longer wanted
+        result.whenComplete((articles, error) -> {
+            primary.cancel(true);
+            secondary.cancel(true);
+        });
+        return result;
+    }
+
+    private static void after(long delayMs, Runnable action) {
+        CompletableFuture.delayedExecutor(delayMs, TimeUnit.MILLISECONDS, Runnable::run).execute(action);
+    }
+
+    private CompletableFuture<List<NewsArticle>> providerAsync(String name, String symbol, int limit) {
+        if (ProviderHealthRegistry.RAPIDAPI.equals(name)) {
+            return rapidApiClient.getStockNewsAsync(symbol, limit);
+        }
+        return newsDataClient.getStockNewsAsync(symbol, limit).thenApply(articles ->
+            articles == null || articles.isEmpty() ? new ArrayList<>() : convertToNewsArticles(articles));
+    }
+
+    private Callable<List<NewsArticle>> provider(String name, String symbol, int limit) {
+        if (ProviderHealthRegistry.RAPIDAPI.equals(name)) {
+            return () -> rapidApiClient.getStockNews(symbol, limit);
+        }
+        return () -> fetchNewsData(symbol, limit);
+    }
+
+    private List<NewsArticle> fetchNewsData(String symbol, int limit) {
+        List<Map<String, Object>> newsDataArticles = newsDataClient.getStockNews(symbol, limit);
+        if (newsDataArticles == null || newsDataArticles.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return convertToNewsArticles(newsDataArticles);
+    }
+
+    /**
+     * Runs a provider call on the fetch pool. Cancelling the returned future
+     * interrupts the worker, which at least frees the thread for blocking I/O
+     * that honours interrupts.
+     */
+    private CompletableFuture<List<NewsArticle>> submit(Callable<List<NewsArticle>> call) {
+        CompletableFuture<List<NewsArticle>> result = new CompletableFuture<>();
+        try {
+            Future<?> task = executor.submit(() -> {
+                try {
+                    List<NewsArticle> articles = call.call();
+                    result.complete(articles != null ? articles : new ArrayList<>());
+                } catch (Throwable t) {
+                    result.completeExceptionally(t);
+                }
+            });
+            result.whenComplete((articles, error) -> {
+                if (result.isCancelled()) task.cancel(true);
+            });
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    /**
+     * Completes with the first non-empty result, or with an empty list once
+     * both sources are done without one.
+     */
+    private CompletableFuture<List<NewsArticle>> firstNonEmpty(CompletableFuture<List<NewsArticle>> a,
+                                                               CompletableFuture<List<NewsArticle>> b) {
+        CompletableFuture<List<NewsArticle>> winner = new CompletableFuture<>();
+        AtomicInteger pending = new AtomicInteger(2);
+        for (CompletableFuture<List<NewsArticle>> source : List.of(a, b)) {
+            source.whenComplete((articles, error) -> {
+                if (error == null && !articles.isEmpty()) {
+                    winner.complete(articles);
+                } else if (pending.decrementAndGet() == 0) {
+                    winner.complete(new ArrayList<>());
+                }
+            });
+        }
+        return winner;
+    }
+
+    private List<NewsArticle> awaitQuietly(CompletableFuture<List<NewsArticle>> future, long waitMs) {
+        try {
+            List<NewsArticle> articles = future.get(waitMs, TimeUnit.MILLISECONDS);
+            return articles.isEmpty() ? null : articles;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private List<NewsArticle> merge(List<NewsArticle> first, List<NewsArticle> second, int limit) {
+        List<NewsArticle> merged = new ArrayList<>(Math.min(limit, first.size() + second.size()));
+        Set<String> seenUrls = new HashSet<>();
+        Set<String> seenTitles = new HashSet<>();
+        for (List<NewsArticle> source : List.of(first, second)) {
+            for (NewsArticle article : source) {
+                if (merged.size() >= limit) return merged;
+                String title = article.getTitle() == null ? "" : article.getTitle().toLowerCase(Locale.ROOT);
+                if (seenUrls.contains(article.getUrl()) || seenTitles.contains(title)) continue;
+                seenUrls.add(article.getUrl());
+                seenTitles.add(title);
+                merged.add(article);
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * p90 of the provider's recent latencies, clamped to the configured bounds.
+     * Falls back to the configured delay until enough samples exist.
+     */
+    long hedgeDelayMs(CircuitBreaker breaker) {
+        if (breaker.latencySampleCount() < MIN_SAMPLES_FOR_P90) {
+            return maxHedgeDelayMs;
+        }
+        long p90 = breaker.latencyPercentile(0.9);
+        return Math.max(minHedgeDelayMs, Math.min(maxHedgeDelayMs, p90));
+    }
+
+    private static long elapsedMs(long startedNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedNanos);
+    }
+
+    private static String rootMessage(Throwable t) {
+        while (t.getCause() != null) t = t.getCause();
+        return t.getMessage();
+    }
+
+    private List<NewsArticle> convertToNewsArticles(List<Map<String, Object>> articles) {
+        List<NewsArticle> newsArticles = new ArrayList<>();
+        for (Map<String, Object> article : articles) {
+            try {
+                NewsArticle newsArticle = new NewsArticle();
+                newsArticle.setTitle((String) article.get("title"));
+                newsArticle.setUrl((String) article.get("url"));
+                newsArticle.setSource((String) article.get("source"));
+                newsArticle.setPublishedDate((String) article.get("date"));
+                newsArticle.setSummary((String) article.get("summary"));
+                newsArticle.setThumbnail((String) article.get("thumbnail"));
+                newsArticles.add(newsArticle);
+            } catch (Exception e) {
+                log.warn("Error converting article: {}", e.getMessage());
+            }
+        }
+        return newsArticles;
+    }
+
+    @jakarta.annotation.PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,120 @@
+package com.borsvy.service;
+
+import com.borsvy.model.NewsArticle;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Service;
+
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Fast in-process sentiment tier. Headlines are scored by the local
+ * {@link HeadlineSentimentModel}; only batches the model is unsure about are
+ * escalated to the Groq-backed {@link LLMAnalysisService}.
+ *
+ * <p>Off unless {@code sentiment.local.enabled=true}. The bundled model is
+ * bootstrapped from the repository's own templates and lexicons, so measure
+ * it with {@link SentimentModelTrainer} on an external labelled headline set,
+ * and pick the escalation confidence from that run, before enabling it.
+ */
+@Slf4j
+@Service
+@Primary
+@ConditionalOnProperty(name = "sentiment.local.enabled", havingValue = "true")
+public class LocalSentimentAnalysisService implements NewsAnalysisService {
+
+    private final LLMAnalysisService llmAnalysisService;
+
+    @Value("${sentiment.model.path:sentiment/headline-model.bin}")
+    private String modelPath;
+
+    @Value("${sentiment.local.escalation-confidence:0.7}")
+    private double escalationConfidence;
+
+    private volatile HeadlineSentimentModel model;
+
+    public LocalSentimentAnalysisService(@Lazy LLMAnalysisService llmAnalysisService) {
+        this.llmAnalysisService = llmAnalysisService;
+    }
+
+    @jakarta.annotation.PostConstruct
+    public void init() {
+        try (InputStream in = new ClassPathResource(modelPath).getInputStream()) {
+            model = HeadlineSentimentModel.read(in);
+            log.info("Loaded local headline sentiment model from {}", modelPath);
+        } catch (Exception e) {
+            log.warn("Local sentiment model unavailable ({}), all batches will use the LLM: {}", modelPath, e.getMessage());
+        }
+    }
+
+    @Override
+    public Map<String, Object> analyzeNewsSentiment(String symbol, List<NewsArticle> newsArticles) {
+        if (newsArticles == null || newsArticles.isEmpty()) {
+            return llmAnalysisService.analyzeNewsSentiment(symbol, newsArticles);
+        }
+
+        HeadlineSentimentModel current = model;
+        if (current == null) {
+            return withSource(llmAnalysisService.analyzeNewsSentiment(symbol, newsArticles), "llm");
+        }
+
+        double[] probs = new double[HeadlineSentimentModel.CLASSES];
+        double[] totals = new double[HeadlineSentimentModel.CLASSES];
+        int[] counts = new int[HeadlineSentimentModel.CLASSES];
+        for (NewsArticle article : newsArticles) {
+            int predicted = current.score(article.getTitle(), probs);
+            counts[predicted]++;
+            for (int c = 0; c < HeadlineSentimentModel.CLASSES; c++) {
+                totals[c] += probs[c];
+            }
+        }
+
+        int winner = HeadlineSentimentModel.NEUTRAL;
+        for (int c = 0; c < HeadlineSentimentModel.CLASSES; c++) {
+            if (totals[c] > totals[winner]) winner = c;
+        }
+        double confidence = totals[winner] / newsArticles.size();
+
+        if (confidence < escalationConfidence) {
+            log.info("Local sentiment for {} below threshold ({} < {}), escalating to LLM",
+                symbol, String.format(Locale.US, "%.2f", confidence), escalationConfidence);
+            try {
+                return withSource(llmAnalysisService.analyzeNewsSentiment(symbol, newsArticles), "llm");
+            } catch (Exception e) {
+                log.warn("LLM sentiment escalation failed for {}, using local result: {}", symbol, e.getMessage());
+            }
+        }
+
+        String sentiment = HeadlineSentimentModel.label(winner);
+        Map<String, Object> result = new HashMap<>();
+        result.put("sentiment", sentiment);
+        result.put("confidence", confidence);
+        result.put("summary", buildSummary(symbol, newsArticles.size(), sentiment, confidence));
+        result.put("positiveCount", counts[HeadlineSentimentModel.POSITIVE]);
+        result.put("negativeCount", counts[HeadlineSentimentModel.NEGATIVE]);
+        result.put("neutralCount", counts[HeadlineSentimentModel.NEUTRAL]);
+        result.put("source", "local");
+        return result;
+    }
+
+    private Map<String, Object> withSource(Map<String, Object> llmResult, String source) {
+        Map<String, Object> result = new HashMap<>(llmResult);
+        result.put("source", source);
+        return result;
+    }
+
+    private String buildSummary(String symbol, int articleCount, String sentiment, double confidence) {
+        return String.format(Locale.US,
+            "News Sentiment Analysis for %s:\n\nBased on analysis of %d recent news articles, "
+                + "the overall sentiment is %s with %.1f%% confidence.",
+            symbol, articleCount, sentiment, confidence * 100);
+    }
+}
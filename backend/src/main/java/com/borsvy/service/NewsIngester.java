@@ -0,0 +1,110 @@
+package com.borsvy.service;
+
+import com.borsvy.config.SchedulingConfig;
+import com.borsvy.model.NewsArticle;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the {@link NewsStore} fresh for symbols users are looking at. Each
+ * symbol is polled at most once per interval and dropped after it has not been
+ * requested for a while, so provider quota follows actual traffic. At most
+ * {@code max-watched} symbols are polled; past that, the one requested least
+ * recently is dropped.
+ */
+@Slf4j
+@Component
+public class NewsIngester {
+
+    private final NewsStore newsStore;
+    private final HedgedNewsFetcher newsFetcher;
+    // symbol -> last time a reader asked for it
+    private final Map<String, Long> watched = new ConcurrentHashMap<>();
+
+    @Value("${news.ingest.interval-minutes:5}")
+    private long intervalMinutes;
+
+    @Value("${news.ingest.idle-hours:6}")
+    private long idleHours;
+
+    @Value("${news.ingest.max-watched:200}")
+    private int maxWatched;
+
+    @Value("${news.ingest.fetch-size:25}")
+    private int fetchSize;
+
+    // Late-indexed stories can carry an older publish time than what we already have
+    @Value("${news.ingest.overlap-hours:24}")
+    private long overlapHours;
+
+    public NewsIngester(NewsStore newsStore, HedgedNewsFetcher newsFetcher) {
+        this.newsStore = newsStore;
+        this.newsFetcher = newsFetcher;
+    }
+
+    public void watch(String symbol) {
+        if (watched.put(symbol, System.currentTimeMillis()) == null && watched.size() > maxWatched) {
+            watched.entrySet().stream()
+                .min(Map.Entry.comparingByValue())
+                .ifPresent(oldest -> unwatch(oldest.getKey()));
+        }
+    }
+
+    private void unwatch(String symbol) {
+        watched.remove(symbol);
+        newsStore.evict(symbol);
+    }
+
+    /**
+     * Fetches the latest news for a symbol and adds whatever is new to the store.
+     */
+    public int ingestNow(String symbol) {
+        LocalDateTime newest = newsStore.newestPublishedAt(symbol);
+        LocalDateTime since = newest == null ? null : newest.minusHours(overlapHours);
+        List<NewsArticle> fetched = newsFetcher.fetch(symbol, fetchSize);
+        return newsStore.ingest(symbol, fetched, since);
+    }
+
+    /** {@link #ingestNow} without holding a thread while the providers answer. */
+    public CompletableFuture<Integer> ingestNowAsync(String symbol) {
+        LocalDateTime newest = newsStore.newestPublishedAt(symbol);
+        LocalDateTime since = newest == null ? null : newest.minusHours(overlapHours);
+        return newsFetcher.fetchAsync(symbol, fetchSize)
+            .thenApply(fetched -> newsStore.ingest(symbol, fetched, since));
+    }
+
+    @Scheduled(fixedDelayString = "${news.ingest.poll-ms:60000}", initialDelayString = "${news.ingest.initial-delay-ms:30000}",
+               scheduler = SchedulingConfig.NEWS_INGEST)
+    public void ingestDue() {
+        long now = System.currentTimeMillis();
+        long idleCutoff = now - TimeUnit.HOURS.toMillis(idleHours);
+        LocalDateTime dueBefore = LocalDateTime.now().minusMinutes(intervalMinutes);
+
+        for (Map.Entry<String, Long> entry : watched.entrySet()) {
+            String symbol = entry.getKey();
+            if (entry.getValue() < idleCutoff) {
+                unwatch(symbol);
+                log.debug("Stopped ingesting news for idle symbol {}", symbol);
+                continue;
+            }
+            LocalDateTime last = newsStore.lastIngestedAt(symbol);
+            if (last != null && last.isAfter(dueBefore)) {
+                continue;
+            }
+            try {
+                ingestNow(symbol);
+            } catch (Exception e) {
+                log.warn("News ingestion failed for {}: {}", symbol, e.getMessage());
+            }
+        }
+    }
+}
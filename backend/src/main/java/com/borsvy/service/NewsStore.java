@@ -0,0 +1,333 @@
+package com.borsvy.service;
+
+import com.borsvy.client.ArticleThumbnailResolver;
+import com.borsvy.model.NewsArticle;
+import com.borsvy.model.StoredNewsArticle;
+import com.borsvy.repository.StoredNewsArticleRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Local store of ingested news, keyed by URL hash with a per-symbol inverted
+ * index. Reads are served from an in-memory snapshot per symbol; the database
+ * copy survives restarts and is loaded lazily the first time a symbol is read.
+ *
+ * <p>Placeholder thumbnails are stored as null and filled in on read from the
+ * {@link ArticleThumbnailResolver}, which also writes the resolved image back
+ * to the row once its background lookup finishes.
+ */
+@Slf4j
+@Service
+public class NewsStore {
+
+    private static final DateTimeFormatter NEWSDATA_DATE = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final DateTimeFormatter DISPLAY_DATE = DateTimeFormatter.ofPattern("MMM d, yyyy", Locale.US);
+
+    private final StoredNewsArticleRepository repository;
+    private final ArticleThumbnailResolver thumbnailResolver;
+    private final Map<String, SymbolNews> index = new ConcurrentHashMap<>();
+
+    @Value("${news.store.per-symbol-limit:100}")
+    private int perSymbolLimit;
+
+    @Value("${news.store.retention-days:30}")
+    private int retentionDays;
+
+    public NewsStore(StoredNewsArticleRepository repository, ArticleThumbnailResolver thumbnailResolver) {
+        this.repository = repository;
+        this.thumbnailResolver = thumbnailResolver;
+    }
+
+    /**
+     * Newest-first articles for a symbol. Never calls a news provider.
+     */
+    public List<NewsArticle> getLatest(String symbol, int limit) {
+        List<NewsArticle> snapshot = load(symbol).snapshot;
+        List<NewsArticle> latest = new ArrayList<>(Math.min(limit, snapshot.size()));
+        for (NewsArticle article : snapshot.subList(0, Math.min(limit, snapshot.size()))) {
+            if (thumbnailResolver.isPlaceholder(article.getThumbnail(), article.getSource())) {
+                // The snapshot is shared between readers; resolve into a copy
+                article = copyOf(article);
+                article.setThumbnail(thumbnailResolver.resolve(article.getUrl(), article.getSource()));
+            }
+            latest.add(article);
+        }
+        return latest;
+    }
+
+    /**
+     * When this process last ingested the symbol, or null if it never has.
+     */
+    public LocalDateTime lastIngestedAt(String symbol) {
+        SymbolNews news = index.get(symbol);
+        return news == null ? null : news.lastIngestedAt;
+    }
+
+    /**
+     * Publish time of the newest stored article, used as the ingester's
+     * since-timestamp. Null when nothing is stored for the symbol.
+     */
+    public LocalDateTime newestPublishedAt(String symbol) {
+        SymbolNews news = load(symbol);
+        synchronized (news) {
+            return news.entries.isEmpty() ? null : news.entries.get(0).publishedAt;
+        }
+    }
+
+    /**
+     * Adds freshly fetched articles for a symbol, dropping exact (URL) and near
+     * (title simhash) duplicates and anything older than {@code since}.
+     *
+     * @return the number of articles that were new for this symbol
+     */
+    public int ingest(String symbol, List<NewsArticle> fetched, LocalDateTime since) {
+        SymbolNews news = load(symbol);
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, Entry> accepted = new LinkedHashMap<>();
+
+        // Only the in-memory index is touched under the lock; the database work follows outside it
+        synchronized (news) {
+            for (NewsArticle article : fetched) {
+                if (article.getTitle() == null || article.getTitle().isBlank()
+                        || article.getUrl() == null || article.getUrl().isBlank()) {
+                    continue;
+                }
+                LocalDateTime publishedAt = parsePublished(article.getPublishedDate(), now);
+                if (since != null && publishedAt.isBefore(since)) {
+                    continue;
+                }
+                String urlHash = ArticleThumbnailResolver.urlHash(article.getUrl());
+                if (news.urlHashes.contains(urlHash)) {
+                    continue;
+                }
+                long simhash = TitleSimhash.of(article.getTitle());
+                if (news.hasNearDuplicate(simhash)) {
+                    log.debug("Dropping near-duplicate headline for {}: {}", symbol, article.getTitle());
+                    continue;
+                }
+                NewsArticle copy = copyOf(article);
+                if (thumbnailResolver.isPlaceholder(copy.getThumbnail(), copy.getSource())) {
+                    copy.setThumbnail(null);
+                }
+                Entry entry = new Entry(urlHash, simhash, publishedAt, copy);
+                news.add(entry);
+                accepted.put(urlHash, entry);
+            }
+            news.lastIngestedAt = now;
+            news.publish(perSymbolLimit);
+        }
+
+        // Accepted entries are already in the index, so a concurrent ingest of the symbol skips them
+        List<StoredNewsArticle> created = new ArrayList<>();
+        int linked = 0;
+        if (!accepted.isEmpty()) {
+            // The same story is often returned for several tickers; link rather than copy it
+            Set<String> existing = new HashSet<>(repository.findExistingUrlHashes(accepted.keySet()));
+            for (Entry entry : accepted.values()) {
+                if (existing.contains(entry.urlHash)) {
+                    repository.addSymbol(entry.urlHash, symbol);
+                    linked++;
+                } else {
+                    created.add(toStored(entry, symbol));
+                }
+            }
+            linked += saveNew(created, symbol);
+        }
+
+        int added = created.size() + linked;
+        if (added > 0) {
+            log.info("Stored {} new news articles for {} ({} linked from other symbols)", added, symbol, linked);
+        }
+        return added;
+    }
+
+    /**
+     * Drops a symbol from memory; its articles stay in the database.
+     */
+    public void evict(String symbol) {
+        index.remove(symbol);
+    }
+
+    @Scheduled(cron = "${news.store.purge-cron:0 30 3 * * *}")
+    public void purgeExpired() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+        repository.deleteSymbolsPublishedBefore(cutoff);
+        int purged = repository.deletePublishedBefore(cutoff);
+        if (purged > 0) {
+            index.clear();
+            log.info("Purged {} news articles published before {}", purged, cutoff);
+        }
+    }
+
+    /**
+     * Inserts the new stories in one batch. Another symbol may have stored one
+     * of them since the lookup; then they are inserted one by one and those
+     * already there are linked instead.
+     *
+     * @return how many turned out to exist and were linked
+     */
+    private int saveNew(List<StoredNewsArticle> created, String symbol) {
+        if (created.isEmpty()) {
+            return 0;
+        }
+        try {
+            repository.saveAll(created);
+            return 0;
+        } catch (DataIntegrityViolationException e) {
+            log.debug("News batch for {} raced another symbol, inserting one by one", symbol);
+        }
+        int linked = 0;
+        for (Iterator<StoredNewsArticle> it = created.iterator(); it.hasNext(); ) {
+            StoredNewsArticle stored = it.next();
+            try {
+                repository.save(stored);
+            } catch (DataIntegrityViolationException e) {
+                repository.addSymbol(stored.getUrlHash(), symbol);
+                it.remove();
+                linked++;
+            }
+        }
+        return linked;
+    }
+
+    private SymbolNews load(String symbol) {
+        SymbolNews news = index.get(symbol);
+        if (news != null) {
+            return news;
+        }
+
+        SymbolNews loaded = new SymbolNews();
+        try {
+            for (StoredNewsArticle stored : repository.findLatestBySymbol(symbol, PageRequest.of(0, perSymbolLimit))) {
+                loaded.add(new Entry(stored.getUrlHash(), stored.getTitleSimhash(),
+                    stored.getPublishedAt(), stored.toNewsArticle()));
+            }
+            loaded.publish(perSymbolLimit);
+        } catch (Exception e) {
+            log.warn("Could not load stored news for {}: {}", symbol, e.getMessage());
+        }
+        SymbolNews existing = index.putIfAbsent(symbol, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    private StoredNewsArticle toStored(Entry entry, String symbol) {
+        NewsArticle article = entry.article;
+        StoredNewsArticle stored = new StoredNewsArticle();
+        stored.setUrlHash(entry.urlHash);
+        stored.setUrl(article.getUrl());
+        stored.setTitle(article.getTitle());
+        stored.setTitleSimhash(entry.simhash);
+        stored.setSource(article.getSource());
+        stored.setPublishedDate(article.getPublishedDate());
+        stored.setPublishedAt(entry.publishedAt);
+        stored.setThumbnail(article.getThumbnail());
+        stored.setSummary(article.getSummary());
+        stored.setSentiment(article.getSentiment());
+        stored.getSymbols().add(symbol);
+        return stored;
+    }
+
+    private NewsArticle copyOf(NewsArticle article) {
+        NewsArticle copy = new NewsArticle();
+        copy.setTitle(article.getTitle());
+        copy.setUrl(article.getUrl());
+        copy.setSource(article.getSource());
+        copy.setPublishedDate(article.getPublishedDate());
+        copy.setThumbnail(article.getThumbnail());
+        copy.setSummary(article.getSummary());
+        copy.setSentiment(article.getSentiment());
+        return copy;
+    }
+
+    /**
+     * Providers disagree on date formats, and RapidApiClient already turns its
+     * dates into display strings, so parse what we can and fall back to now.
+     */
+    static LocalDateTime parsePublished(String value, LocalDateTime now) {
+        if (value == null || value.isBlank()) {
+            return now;
+        }
+        try {
+            if (value.startsWith("Today, ")) {
+                return LocalDate.now().atTime(LocalTime.parse(value.substring(7)));
+            }
+            if (value.equals("Today")) {
+                return now;
+            }
+            if (value.equals("Yesterday")) {
+                return now.minusDays(1);
+            }
+            if (value.length() == 19 && value.charAt(10) == ' ') {
+                return LocalDateTime.parse(value, NEWSDATA_DATE);
+            }
+            if (value.contains("T")) {
+                return LocalDateTime.parse(value, DateTimeFormatter.ISO_DATE_TIME);
+            }
+            return LocalDate.parse(value, DISPLAY_DATE).atStartOfDay();
+        } catch (Exception e) {
+            return now;
+        }
+    }
+
+    private static final class Entry {
+        private final String urlHash;
+        private final long simhash;
+        private final LocalDateTime publishedAt;
+        private final NewsArticle article;
+
+        private Entry(String urlHash, long simhash, LocalDateTime publishedAt, NewsArticle article) {
+            this.urlHash = urlHash;
+            this.simhash = simhash;
+            this.publishedAt = publishedAt;
+            this.article = article;
+        }
+    }
+
+    /**
+     * Per-symbol postings list. Mutated under its own monitor; readers only
+     * touch the immutable {@code snapshot}.
+     */
+    private static final class SymbolNews {
+        private final List<Entry> entries = new ArrayList<>();
+        private final Set<String> urlHashes = new HashSet<>();
+        private volatile List<NewsArticle> snapshot = List.of();
+        private volatile LocalDateTime lastIngestedAt;
+
+        private void add(Entry entry) {
+            entries.add(entry);
+            urlHashes.add(entry.urlHash);
+        }
+
+        private boolean hasNearDuplicate(long simhash) {
+            for (Entry entry : entries) {
+                if (TitleSimhash.isNearDuplicate(entry.simhash, simhash)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void publish(int limit) {
+            entries.sort((a, b) -> b.publishedAt.compareTo(a.publishedAt));
+            while (entries.size() > limit) {
+                urlHashes.remove(entries.remove(entries.size() - 1).urlHash);
+            }
+            List<NewsArticle> articles = new ArrayList<>(entries.size());
+            for (Entry entry : entries) {
+                articles.add(entry.article);
+            }
+            snapshot = Collections.unmodifiableList(articles);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.borsvy.service;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Aligned daily history for the priced holdings of one portfolio. Row i of
+ * {@code closes}/{@code returns} belongs to {@code symbols.get(i)}; weights
+ * are market values at the last close, normalised to sum to one.
+ */
+final class PortfolioReturns {
+
+    final List<String> symbols;
+    final List<String> excluded;
+    final LocalDate[] calendar;
+    final double[][] closes;
+    final double[][] returns;
+    final double[] benchmarkReturns;
+    final double[] weights;
+    final double totalValue;
+
+    PortfolioReturns(List<String> symbols, List<String> excluded, LocalDate[] calendar, double[][] closes,
+                     double[][] returns, double[] benchmarkReturns, double[] weights, double totalValue) {
+        this.symbols = symbols;
+        this.excluded = excluded;
+        this.calendar = calendar;
+        this.closes = closes;
+        this.returns = returns;
+        this.benchmarkReturns = benchmarkReturns;
+        this.weights = weights;
+        this.totalValue = totalValue;
+    }
+
+    int assets() {
+        return symbols.size();
+    }
+
+    int observations() {
+        return returns.length == 0 ? 0 : returns[0].length;
+    }
+}
@@ -0,0 +1,261 @@
+package com.borsvy.service;
+
+import com.borsvy.client.TwelveDataClient;
+import com.borsvy.model.PortfolioHolding;
+import com.borsvy.model.StockPrice;
+import com.borsvy.repository.PortfolioHoldingRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Portfolio risk analytics from daily closes: per-asset and portfolio
+ * volatility, beta against a benchmark, covariance/correlation and one-day
+ * historical and parametric VaR/CVaR. Results are cached per user and reused
+ * until the holdings change or the cache entry ages out; past
+ * {@code max-users}, the least recently requested user is dropped.
+ */
+@Slf4j
+@Service
+public class PortfolioRiskService {
+
+    // Daily bars over roughly six months
+    private static final String HISTORY_INTERVAL = "6m";
+    private static final int MIN_OBSERVATIONS = 20;
+
+    private final PortfolioHoldingRepository holdingRepository;
+    private final TwelveDataClient twelveDataClient;
+    private final ForkJoinPool pool = ForkJoinPool.commonPool();
+    private final Map<Long, CachedRisk> cache = Collections.synchronizedMap(
+        new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, CachedRisk> eldest) {
+                return size() > maxCachedUsers;
+            }
+        });
+
+    @Value("${portfolio.risk.benchmark:SPY}")
+    private String benchmark;
+
+    @Value("${portfolio.risk.cache-minutes:30}")
+    private long cacheMinutes;
+
+    @Value("${portfolio.risk.max-users:1000}")
+    private int maxCachedUsers;
+
+    public PortfolioRiskService(PortfolioHoldingRepository holdingRepository, TwelveDataClient twelveDataClient) {
+        this.holdingRepository = holdingRepository;
+        this.twelveDataClient = twelveDataClient;
+    }
+
+    public Map<String, Object> getRisk(Long userId) {
+        List<PortfolioHolding> holdings = holdingRepository.findByUserIdOrderByCreatedAtDesc(userId);
+        long version = portfolioVersion(holdings);
+        CachedRisk cached = cache.get(userId);
+        if (cached != null && cached.version == version && !cached.isExpired(cacheMinutes)) {
+            return cached.result;
+        }
+
+        Map<String, Object> result = compute(loadReturns(holdings));
+        cache.put(userId, new CachedRisk(version, result));
+        return result;
+    }
+
+    /**
+     * Aligned returns for the user's holdings, or null when there is not
+     * enough history to say anything.
+     */
+    PortfolioReturns loadReturns(Long userId) {
+        return loadReturns(holdingRepository.findByUserIdOrderByCreatedAtDesc(userId));
+    }
+
+    private PortfolioReturns loadReturns(List<PortfolioHolding> holdings) {
+        Map<String, Double> shares = new LinkedHashMap<>();
+        for (PortfolioHolding holding : holdings) {
+            shares.merge(holding.getSymbol(), holding.getShares(), Double::sum);
+        }
+        if (shares.isEmpty()) {
+            return null;
+        }
+
+        // All series are requested at once; each comes from the client's cache after the first request
+        CompletableFuture<List<StockPrice>> benchmarkFuture =
+            twelveDataClient.getHistoricalDataAsync(benchmark, HISTORY_INTERVAL);
+        Map<String, CompletableFuture<List<StockPrice>>> histories = new LinkedHashMap<>();
+        for (String symbol : shares.keySet()) {
+            histories.put(symbol, twelveDataClient.getHistoricalDataAsync(symbol, HISTORY_INTERVAL));
+        }
+        List<CompletableFuture<List<StockPrice>>> all = new ArrayList<>(histories.values());
+        all.add(benchmarkFuture);
+        CompletableFuture.allOf(all.toArray(new CompletableFuture[0])).join();
+
+        List<StockPrice> benchmarkHistory = benchmarkFuture.join();
+        LocalDate[] calendar = calendar(benchmarkHistory);
+        if (calendar.length <= MIN_OBSERVATIONS) {
+            log.warn("Not enough {} history for risk analytics ({} days)", benchmark, calendar.length);
+            return null;
+        }
+        double[] benchmarkReturns = RiskMath.returns(new double[][] {align(benchmarkHistory, calendar)})[0];
+
+        List<String> symbols = new ArrayList<>();
+        List<String> excluded = new ArrayList<>();
+        List<double[]> closeRows = new ArrayList<>();
+        for (String symbol : shares.keySet()) {
+            double[] closes = align(histories.get(symbol).join(), calendar);
+            if (closes == null) {
+                excluded.add(symbol);
+                continue;
+            }
+            symbols.add(symbol);
+            closeRows.add(closes);
+        }
+        int n = symbols.size();
+        if (n == 0) {
+            return null;
+        }
+
+        double[][] closes = closeRows.toArray(new double[0][]);
+        int days = calendar.length;
+
+        // Market-value weights at the latest close
+        double[] weights = new double[n];
+        double totalValue = 0;
+        for (int i = 0; i < n; i++) {
+            weights[i] = shares.get(symbols.get(i)) * closes[i][days - 1];
+            totalValue += weights[i];
+        }
+        for (int i = 0; i < n; i++) {
+            weights[i] = totalValue > 0 ? weights[i] / totalValue : 1.0 / n;
+        }
+        return new PortfolioReturns(symbols, excluded, calendar, closes, RiskMath.returns(closes),
+            benchmarkReturns, weights, totalValue);
+    }
+
+    private Map<String, Object> compute(PortfolioReturns data) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("benchmark", benchmark);
+        if (data == null) {
+            result.put("symbols", Collections.emptyList());
+            return result;
+        }
+
+        long started = System.nanoTime();
+        int n = data.assets();
+        double[][] returns = data.returns;
+        double[] weights = data.weights;
+        double[] benchmarkReturns = data.benchmarkReturns;
+        double totalValue = data.totalValue;
+        LocalDate[] calendar = data.calendar;
+        int days = calendar.length;
+
+        double[][] cov = RiskMath.covarianceMatrix(returns, pool);
+        double[][] corr = RiskMath.correlation(cov);
+        double[] portfolioReturns = RiskMath.weightedReturns(weights, returns);
+        double dailyVariance = RiskMath.portfolioVariance(weights, cov);
+        double dailyVolatility = Math.sqrt(Math.max(0, dailyVariance));
+        double meanReturn = RiskMath.mean(portfolioReturns);
+
+        double[] volatility = new double[n];
+        double[] beta = new double[n];
+        for (int i = 0; i < n; i++) {
+            volatility[i] = RiskMath.annualizedVolatility(cov[i][i]);
+            beta[i] = RiskMath.beta(returns[i], benchmarkReturns);
+        }
+
+        Map<String, Object> portfolio = new LinkedHashMap<>();
+        portfolio.put("value", totalValue);
+        portfolio.put("volatility", RiskMath.annualizedVolatility(dailyVariance));
+        portfolio.put("beta", RiskMath.beta(portfolioReturns, benchmarkReturns));
+        for (double confidence : new double[] {0.95, 0.99}) {
+            String suffix = String.valueOf(Math.round(confidence * 100));
+            double[] historical = RiskMath.historicalVaR(portfolioReturns, confidence);
+            double[] parametric = RiskMath.parametricVaR(meanReturn, dailyVolatility, confidence);
+            portfolio.put("historicalVar" + suffix, historical[0]);
+            portfolio.put("historicalCvar" + suffix, historical[1]);
+            portfolio.put("parametricVar" + suffix, parametric[0]);
+            portfolio.put("parametricCvar" + suffix, parametric[1]);
+            portfolio.put("historicalVar" + suffix + "Amount", historical[0] * totalValue);
+            portfolio.put("parametricVar" + suffix + "Amount", parametric[0] * totalValue);
+        }
+
+        result.put("symbols", data.symbols);
+        result.put("weights", weights);
+        result.put("volatility", volatility);
+        result.put("beta", beta);
+        result.put("covariance", cov);
+        result.put("correlation", corr);
+        result.put("portfolio", portfolio);
+        result.put("observations", days - 1);
+        result.put("from", calendar[0].toString());
+        result.put("to", calendar[days - 1].toString());
+        result.put("excluded", data.excluded);
+        result.put("computeMs", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        return result;
+    }
+
+    private static LocalDate[] calendar(List<StockPrice> benchmarkHistory) {
+        TreeSet<LocalDate> dates = new TreeSet<>();
+        for (StockPrice price : benchmarkHistory) {
+            if (price.getTimestamp() != null && price.getPrice() > 0) {
+                dates.add(price.getTimestamp().toLocalDate());
+            }
+        }
+        return dates.toArray(new LocalDate[0]);
+    }
+
+    /**
+     * Closes on the benchmark's trading days. Gaps are filled with the last
+     * known close (crypto trades on weekends, some listings skip holidays);
+     * returns null when the symbol has no close on or before the first day.
+     */
+    private static double[] align(List<StockPrice> history, LocalDate[] calendar) {
+        if (history == null || history.isEmpty()) return null;
+        TreeMap<LocalDate, Double> byDate = new TreeMap<>();
+        for (StockPrice price : history) {
+            if (price.getTimestamp() != null && price.getPrice() > 0) {
+                byDate.put(price.getTimestamp().toLocalDate(), price.getPrice());
+            }
+        }
+        double[] closes = new double[calendar.length];
+        for (int t = 0; t < calendar.length; t++) {
+            Map.Entry<LocalDate, Double> entry = byDate.floorEntry(calendar[t]);
+            if (entry == null) return null;
+            closes[t] = entry.getValue();
+        }
+        return closes;
+    }
+
+    /** Changes whenever a holding is added, removed or resized. */
+    private static long portfolioVersion(List<PortfolioHolding> holdings) {
+        long hash = 1125899906842597L;
+        List<PortfolioHolding> sorted = new ArrayList<>(holdings);
+        sorted.sort(Comparator.comparing(PortfolioHolding::getId));
+        for (PortfolioHolding holding : sorted) {
+            hash = 31 * hash + holding.getId();
+            hash = 31 * hash + Double.doubleToLongBits(holding.getShares());
+        }
+        return hash;
+    }
+
+    private static class CachedRisk {
+        final long version;
+        final Map<String, Object> result;
+        final long timestamp;
+
+        CachedRisk(long version, Map<String, Object> result) {
+            this.version = version;
+            this.result = result;
+            this.timestamp = System.currentTimeMillis();
+        }
+
+        boolean isExpired(long minutes) {
+            return System.currentTimeMillis() - timestamp > TimeUnit.MINUTES.toMillis(minutes);
+        }
+    }
+}
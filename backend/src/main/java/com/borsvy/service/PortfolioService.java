@@ -7,15 +7,18 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
 public class PortfolioService {
 
     private final PortfolioHoldingRepository repository;
+    private final PortfolioValuationService valuationService;
 
-    public PortfolioService(PortfolioHoldingRepository repository) {
+    public PortfolioService(PortfolioHoldingRepository repository, PortfolioValuationService valuationService) {
         this.repository = repository;
+        this.valuationService = valuationService;
     }
 
     public List<PortfolioHolding> getHoldings(Long userId) {
@@ -27,13 +30,22 @@ public class PortfolioService {
         holding.setId(null);
         holding.setUserId(userId);
         holding.setSymbol(holding.getSymbol().trim().toUpperCase(Locale.ROOT));
-        return repository.save(holding);
+        PortfolioHolding saved = repository.save(holding);
+        valuationService.onHoldingAdded(saved);
+        return saved;
+    }
+
+    public Map<String, Object> getSummary(Long userId) {
+        return valuationService.getSummary(userId);
     }
 
     @Transactional
     public boolean removeHolding(Long userId, Long id) {
         Optional<PortfolioHolding> existing = repository.findByIdAndUserId(id, userId);
-        existing.ifPresent(holding -> repository.deleteByIdAndUserId(id, userId));
+        existing.ifPresent(holding -> {
+            repository.deleteByIdAndUserId(id, userId);
+            valuationService.onHoldingRemoved(holding);
+        });
         return existing.isPresent();
     }
 
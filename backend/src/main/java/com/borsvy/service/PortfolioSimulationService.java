@@ -0,0 +1,183 @@
+package com.borsvy.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Monte Carlo projection of a user's portfolio: terminal value percentiles and
+ * drawdown statistics over a horizon, from either correlated GBM or
+ * bootstrapped historical days. Runs on its own fork-join pool so a large
+ * simulation cannot starve the common pool used elsewhere, and at most
+ * {@code max-concurrent} runs share that pool; further requests are rejected
+ * rather than queued behind them.
+ */
+@Slf4j
+@Service
+public class PortfolioSimulationService {
+
+    private static final double[] PERCENTILES = {1, 5, 10, 25, 50, 75, 90, 95, 99};
+
+    private final PortfolioRiskService riskService;
+    private final ForkJoinPool pool;
+    private final MonteCarloSimulator simulator;
+    private final Semaphore running;
+
+    @Value("${portfolio.simulation.max-paths:500000}")
+    private int maxPaths;
+
+    @Value("${portfolio.simulation.max-horizon-days:756}")
+    private int maxHorizonDays;
+
+    public PortfolioSimulationService(PortfolioRiskService riskService,
+                                      @Value("${portfolio.simulation.parallelism:0}") int parallelism,
+                                      @Value("${portfolio.simulation.max-concurrent:2}") int maxConcurrent) {
+        this.riskService = riskService;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.simulator = new MonteCarloSimulator(pool);
+        this.running = new Semaphore(Math.max(1, maxConcurrent));
+    }
+
+    /**
+     * @param listener receives (completed, total) path counts as the run
+     *                 progresses, at most once per percent; may be null
+     * @throws RejectedExecutionException when {@code max-concurrent} runs are in flight
+     */
+    public Map<String, Object> simulate(Long userId, int paths, int horizonDays, String model, Long seed,
+                                        SimulationProgressListener listener) {
+        acquire();
+        try {
+            return run(userId, paths, horizonDays, model, seed, listener, () -> false);
+        } finally {
+            running.release();
+        }
+    }
+
+    private Map<String, Object> run(Long userId, int paths, int horizonDays, String model, Long seed,
+                                    SimulationProgressListener listener, BooleanSupplier cancelled) {
+        if (paths <= 0 || paths > maxPaths) {
+            throw new IllegalArgumentException("paths must be between 1 and " + maxPaths);
+        }
+        if (horizonDays <= 0 || horizonDays > maxHorizonDays) {
+            throw new IllegalArgumentException("days must be between 1 and " + maxHorizonDays);
+        }
+        MonteCarloSimulator.Model simulationModel = parseModel(model);
+
+        PortfolioReturns data = riskService.loadReturns(userId);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("model", simulationModel.name().toLowerCase(Locale.ROOT));
+        result.put("paths", paths);
+        result.put("days", horizonDays);
+        if (data == null) {
+            result.put("error", "Not enough price history for the portfolio");
+            return result;
+        }
+
+        long runSeed = seed != null ? seed : System.nanoTime();
+        long started = System.nanoTime();
+        MonteCarloSimulator.Result run = simulator.run(data, simulationModel, paths, horizonDays, runSeed, listener, cancelled);
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        log.debug("Simulated {} {} paths x {} days over {} assets in {} ms",
+            paths, simulationModel, horizonDays, data.assets(), elapsedMs);
+
+        double[] terminal = run.terminal;
+        double[] drawdown = run.maxDrawdown;
+        Arrays.parallelSort(terminal);
+        Arrays.parallelSort(drawdown);
+
+        double initialValue = data.totalValue;
+        Map<String, Object> terminalStats = new LinkedHashMap<>();
+        Map<String, Object> drawdownStats = new LinkedHashMap<>();
+        for (double p : PERCENTILES) {
+            String key = "p" + (int) p;
+            terminalStats.put(key, percentile(terminal, p) * initialValue);
+            drawdownStats.put(key, percentile(drawdown, p));
+        }
+        terminalStats.put("mean", RiskMath.mean(terminal) * initialValue);
+        terminalStats.put("probabilityOfLoss", fractionBelow(terminal, 1.0));
+        drawdownStats.put("mean", RiskMath.mean(drawdown));
+        drawdownStats.put("worst", drawdown[drawdown.length - 1]);
+
+        result.put("seed", runSeed);
+        result.put("initialValue", initialValue);
+        result.put("symbols", data.symbols);
+        result.put("excluded", data.excluded);
+        result.put("terminalValue", terminalStats);
+        result.put("maxDrawdown", drawdownStats);
+        result.put("elapsedMs", elapsedMs);
+        return result;
+    }
+
+    private static MonteCarloSimulator.Model parseModel(String model) {
+        if (model == null || model.isBlank()) {
+            return MonteCarloSimulator.Model.BOOTSTRAP;
+        }
+        try {
+            return MonteCarloSimulator.Model.valueOf(model.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("model must be gbm or bootstrap");
+        }
+    }
+
+    // Nearest-rank percentile of a sorted array
+    private static double percentile(double[] sorted, double p) {
+        int index = (int) Math.ceil(p / 100 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    private static double fractionBelow(double[] sorted, double value) {
+        int lo = 0, hi = sorted.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted[mid] < value) lo = mid + 1; else hi = mid;
+        }
+        return (double) lo / sorted.length;
+    }
+
+    /**
+     * Same as {@link #simulate} but off the calling thread, for streaming
+     * callers that report progress while the run is in flight. Cancelling the
+     * returned future stops the run after the paths already in progress.
+     */
+    public CompletableFuture<Map<String, Object>> simulateAsync(Long userId, int paths, int horizonDays, String model,
+                                                               Long seed, SimulationProgressListener listener) {
+        acquire();
+        CompletableFuture<Map<String, Object>> future = new CompletableFuture<>();
+        future.whenComplete((result, error) -> running.release());
+        try {
+            pool.execute(() -> {
+                if (future.isDone()) return;
+                try {
+                    future.complete(run(userId, paths, horizonDays, model, seed, listener, future::isDone));
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    private void acquire() {
+        if (!running.tryAcquire()) {
+            throw new RejectedExecutionException("Too many simulations running, try again shortly");
+        }
+    }
+
+    @jakarta.annotation.PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+}
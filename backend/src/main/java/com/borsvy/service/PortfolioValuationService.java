@@ -0,0 +1,278 @@
+package com.borsvy.service;
+
+import com.borsvy.cache.TwoLevelCacheRegistry;
+import com.borsvy.model.PortfolioHolding;
+import com.borsvy.model.Stock;
+import com.borsvy.repository.PortfolioHoldingRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Server-side portfolio valuation. Each user's aggregates (market value, cost
+ * basis, day change) are built once from the holdings plus one batched quote
+ * read, then kept current by applying deltas: a quote tick adjusts only the
+ * users holding that symbol, a holding change adjusts only its position.
+ *
+ * <p>Aggregates are rebuilt after {@code ttl-minutes}, so rounding in the
+ * deltas cannot build up, and the least recently viewed user is dropped once
+ * {@code max-users} are cached. A holding change also tells the other nodes
+ * to drop that user, over the shared cache's invalidation channel.
+ */
+@Service
+public class PortfolioValuationService {
+
+    private static final String CHANNEL = "portfolio-valuations";
+
+    private final PortfolioHoldingRepository holdingRepository;
+    private final StockService stockService;
+    private final TwoLevelCacheRegistry cacheRegistry;
+    // Access-ordered for LRU eviction; every access holds its lock
+    private final Map<Long, Valuation> valuations = new LinkedHashMap<>(16, 0.75f, true);
+    // symbol -> cached valuations holding it; changed only under the valuations lock
+    private final Map<String, Set<Valuation>> holders = new ConcurrentHashMap<>();
+
+    @Value("${portfolio.summary.max-users:10000}")
+    private int maxCachedUsers;
+
+    @Value("${portfolio.summary.ttl-minutes:10}")
+    private long ttlMinutes;
+
+    public PortfolioValuationService(PortfolioHoldingRepository holdingRepository, StockService stockService,
+                                     TwoLevelCacheRegistry cacheRegistry) {
+        this.holdingRepository = holdingRepository;
+        this.stockService = stockService;
+        this.cacheRegistry = cacheRegistry;
+    }
+
+    @jakarta.annotation.PostConstruct
+    public void init() {
+        cacheRegistry.listen(CHANNEL, userId -> evict(Long.valueOf(userId)));
+    }
+
+    public Map<String, Object> getSummary(Long userId) {
+        Valuation valuation = cached(userId);
+        if (valuation == null) {
+            valuation = build(userId);
+        } else {
+            // Quotes served from the cache or database never raised a tick; catch up on those
+            Map<String, Stock> quotes = stockService.getQuotes(valuation.symbols());
+            Valuation current = valuation;
+            quotes.forEach((symbol, stock) -> current.applyQuote(symbol, stock.getPrice(), stock.getChange()));
+        }
+        return valuation.toSummary();
+    }
+
+    @EventListener
+    public void onQuoteUpdated(QuoteUpdatedEvent event) {
+        Set<Valuation> holding = holders.get(event.getSymbol());
+        if (holding == null) return;
+        for (Valuation valuation : holding) {
+            valuation.applyQuote(event.getSymbol(), event.getPrice(), event.getChange());
+        }
+    }
+
+    public void onHoldingAdded(PortfolioHolding holding) {
+        cacheRegistry.notifyOthers(CHANNEL, String.valueOf(holding.getUserId()));
+        Valuation valuation = cached(holding.getUserId());
+        if (valuation == null) return;
+        if (!valuation.holds(holding.getSymbol())) {
+            Stock quote = stockService.getQuotes(List.of(holding.getSymbol())).get(holding.getSymbol());
+            valuation.applyQuote(holding.getSymbol(), quote != null ? quote.getPrice() : 0, quote != null ? quote.getChange() : 0);
+            synchronized (valuations) {
+                if (valuations.get(holding.getUserId()) == valuation) {
+                    holders.computeIfAbsent(holding.getSymbol(), s -> ConcurrentHashMap.newKeySet()).add(valuation);
+                }
+            }
+        }
+        valuation.add(holding);
+    }
+
+    public void onHoldingRemoved(PortfolioHolding holding) {
+        cacheRegistry.notifyOthers(CHANNEL, String.valueOf(holding.getUserId()));
+        Valuation valuation = cached(holding.getUserId());
+        if (valuation == null) return;
+        if (valuation.remove(holding)) {
+            synchronized (valuations) {
+                unlink(holding.getSymbol(), valuation);
+            }
+        }
+    }
+
+    private Valuation build(Long userId) {
+        List<PortfolioHolding> holdings = holdingRepository.findByUserIdOrderByCreatedAtDesc(userId);
+        Set<String> symbols = new LinkedHashSet<>();
+        for (PortfolioHolding holding : holdings) {
+            symbols.add(holding.getSymbol());
+        }
+        Map<String, Stock> quotes = symbols.isEmpty() ? Collections.emptyMap() : stockService.getQuotes(symbols);
+
+        Valuation valuation = new Valuation();
+        for (String symbol : symbols) {
+            Stock quote = quotes.get(symbol);
+            valuation.applyQuote(symbol, quote != null ? quote.getPrice() : 0, quote != null ? quote.getChange() : 0);
+        }
+        for (PortfolioHolding holding : holdings) {
+            valuation.add(holding);
+        }
+
+        synchronized (valuations) {
+            Valuation previous = valuations.put(userId, valuation);
+            if (previous != null) {
+                unlinkAll(previous);
+            }
+            if (valuations.size() > maxCachedUsers) {
+                Iterator<Valuation> eldest = valuations.values().iterator();
+                unlinkAll(eldest.next());
+                eldest.remove();
+            }
+            for (String symbol : symbols) {
+                holders.computeIfAbsent(symbol, s -> ConcurrentHashMap.newKeySet()).add(valuation);
+            }
+        }
+        return valuation;
+    }
+
+    private Valuation cached(Long userId) {
+        synchronized (valuations) {
+            Valuation valuation = valuations.get(userId);
+            if (valuation != null && System.currentTimeMillis() - valuation.builtAt > ttlMinutes * 60_000) {
+                valuations.remove(userId);
+                unlinkAll(valuation);
+                return null;
+            }
+            return valuation;
+        }
+    }
+
+    private void evict(Long userId) {
+        synchronized (valuations) {
+            Valuation valuation = valuations.remove(userId);
+            if (valuation != null) {
+                unlinkAll(valuation);
+            }
+        }
+    }
+
+    private void unlinkAll(Valuation valuation) {
+        for (String symbol : valuation.symbols()) {
+            unlink(symbol, valuation);
+        }
+    }
+
+    private void unlink(String symbol, Valuation valuation) {
+        Set<Valuation> holding = holders.get(symbol);
+        if (holding != null && holding.remove(valuation) && holding.isEmpty()) {
+            holders.remove(symbol);
+        }
+    }
+
+    private static final class Position {
+        double shares;
+        double costBasis;
+        double price;
+        double change;
+    }
+
+    /**
+     * Running totals for one user. Every mutation applies a delta to the
+     * totals rather than summing the positions again.
+     */
+    private static final class Valuation {
+        private final long builtAt = System.currentTimeMillis();
+        private final Map<String, Position> positions = new HashMap<>();
+        private double marketValue;
+        private double costBasis;
+        private double dayChange;
+
+        synchronized Set<String> symbols() {
+            return new LinkedHashSet<>(positions.keySet());
+        }
+
+        synchronized boolean holds(String symbol) {
+            Position position = positions.get(symbol);
+            return position != null && position.shares > 0;
+        }
+
+        synchronized void applyQuote(String symbol, double price, double change) {
+            if (price <= 0 && positions.containsKey(symbol)) return;
+            Position position = positions.computeIfAbsent(symbol, s -> new Position());
+            marketValue += position.shares * (price - position.price);
+            dayChange += position.shares * (change - position.change);
+            position.price = price;
+            position.change = change;
+        }
+
+        synchronized void add(PortfolioHolding holding) {
+            Position position = positions.computeIfAbsent(holding.getSymbol(), s -> new Position());
+            double cost = holding.getShares() * holding.getBuyPrice();
+            position.shares += holding.getShares();
+            position.costBasis += cost;
+            costBasis += cost;
+            marketValue += holding.getShares() * position.price;
+            dayChange += holding.getShares() * position.change;
+        }
+
+        /** Returns true when the user no longer holds the symbol. */
+        synchronized boolean remove(PortfolioHolding holding) {
+            Position position = positions.get(holding.getSymbol());
+            if (position == null) return false;
+            double cost = holding.getShares() * holding.getBuyPrice();
+            position.shares -= holding.getShares();
+            position.costBasis -= cost;
+            costBasis -= cost;
+            marketValue -= holding.getShares() * position.price;
+            dayChange -= holding.getShares() * position.change;
+            if (position.shares <= 1e-9) {
+                positions.remove(holding.getSymbol());
+                return true;
+            }
+            return false;
+        }
+
+        synchronized Map<String, Object> toSummary() {
+            List<Map<String, Object>> rows = new ArrayList<>(positions.size());
+            for (Map.Entry<String, Position> entry : positions.entrySet()) {
+                Position position = entry.getValue();
+                double value = position.shares * position.price;
+                Map<String, Object> row = new HashMap<>();
+                row.put("symbol", entry.getKey());
+                row.put("shares", position.shares);
+                row.put("price", position.price);
+                row.put("marketValue", value);
+                row.put("costBasis", position.costBasis);
+                row.put("unrealizedPnl", value - position.costBasis);
+                row.put("unrealizedPnlPercent", percent(value - position.costBasis, position.costBasis));
+                row.put("dayChange", position.shares * position.change);
+                row.put("weight", marketValue > 0 ? value / marketValue : 0);
+                rows.add(row);
+            }
+            rows.sort((a, b) -> Double.compare((Double) b.get("marketValue"), (Double) a.get("marketValue")));
+
+            Map<String, Object> summary = new HashMap<>();
+            summary.put("marketValue", marketValue);
+            summary.put("costBasis", costBasis);
+            summary.put("unrealizedPnl", marketValue - costBasis);
+            summary.put("unrealizedPnlPercent", percent(marketValue - costBasis, costBasis));
+            summary.put("dayChange", dayChange);
+            summary.put("dayChangePercent", percent(dayChange, marketValue - dayChange));
+            summary.put("positions", rows);
+            return summary;
+        }
+
+        private static double percent(double delta, double base) {
+            return base > 0 ? delta / base * 100 : 0;
+        }
+    }
+}
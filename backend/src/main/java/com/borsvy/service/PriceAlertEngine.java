@@ -0,0 +1,266 @@
+package com.borsvy.service;
+
+import com.borsvy.cache.TwoLevelCacheRegistry;
+import com.borsvy.config.SchedulingConfig;
+import com.borsvy.model.PriceAlert;
+import com.borsvy.repository.PriceAlertRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Evaluates price alerts on the server so they fire without a browser tab
+ * polling. Pending alerts live in an {@link AlertThresholdIndex}; every fresh
+ * quote looks up the crossed ones, and a single worker marks them triggered in
+ * batched updates and publishes a {@link PriceAlertTriggeredEvent} for each.
+ *
+ * <p>With {@link ClusterMembership} enabled, each node refreshes and evaluates
+ * only the symbols it owns, so an alert fires on exactly one node. Every node
+ * still indexes all pending alerts, picking up ones created elsewhere on each
+ * poll, so a symbol that moves to this node is ready to evaluate at once.
+ * Toggles and deletes are not visible to that poll, so they are sent to the
+ * other nodes on the shared cache's invalidation channel.
+ */
+@Slf4j
+@Service
+public class PriceAlertEngine {
+
+    private static final int UPDATE_BATCH_SIZE = 1000;
+    private static final String CHANNEL = "price-alerts";
+
+    private final PriceAlertRepository repository;
+    private final StockService stockService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ClusterMembership cluster;
+    private final TwoLevelCacheRegistry cacheRegistry;
+    private final AlertThresholdIndex index = new AlertThresholdIndex();
+    // One writer keeps triggered updates ordered and off the quote thread
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "price-alert-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Guards the incremental load against track() adding the same alert twice
+    private final Object loadLock = new Object();
+    private final Set<Long> trackedAhead = new HashSet<>();
+    private long loadedThroughId;
+
+    @Value("${alerts.engine.load-page-size:10000}")
+    private int loadPageSize;
+
+    public PriceAlertEngine(PriceAlertRepository repository, StockService stockService,
+                            ApplicationEventPublisher eventPublisher, ClusterMembership cluster,
+                            TwoLevelCacheRegistry cacheRegistry) {
+        this.repository = repository;
+        this.stockService = stockService;
+        this.eventPublisher = eventPublisher;
+        this.cluster = cluster;
+        this.cacheRegistry = cacheRegistry;
+    }
+
+    /**
+     * Loads every pending alert before the app starts serving, so API changes
+     * can never interleave with the initial load.
+     */
+    @jakarta.annotation.PostConstruct
+    public void loadPending() {
+        cacheRegistry.listen(CHANNEL, this::onRemoteChange);
+        long started = System.currentTimeMillis();
+        long loaded;
+        synchronized (loadLock) {
+            loaded = loadNewerThanLoaded();
+        }
+        log.info("Loaded {} pending price alerts across {} symbols in {} ms",
+            loaded, index.pendingSymbols().size(), System.currentTimeMillis() - started);
+    }
+
+    /**
+     * Alerts created on other nodes reach this one only through the database,
+     * so in a cluster each poll loads the pending alerts added since the last.
+     * Ones this node already tracked itself are skipped.
+     */
+    private long loadNewerThanLoaded() {
+        long loaded = 0;
+        while (true) {
+            List<Object[]> rows = repository.findPendingAfter(loadedThroughId, PageRequest.of(0, loadPageSize));
+            if (rows.isEmpty()) break;
+
+            Map<String, List<AlertThresholdIndex.Entry>> bySymbol = new HashMap<>();
+            for (Object[] row : rows) {
+                if (trackedAhead.contains((Long) row[0])) continue;
+                AlertThresholdIndex.Entry entry = new AlertThresholdIndex.Entry(
+                    (Long) row[0], (Long) row[1], (String) row[2], (Double) row[3], isAbove((String) row[4]));
+                bySymbol.computeIfAbsent(entry.symbol, s -> new ArrayList<>()).add(entry);
+                loaded++;
+            }
+            bySymbol.forEach(index::load);
+
+            loadedThroughId = (Long) rows.get(rows.size() - 1)[0];
+            if (rows.size() < loadPageSize) break;
+        }
+        trackedAhead.removeIf(id -> id <= loadedThroughId);
+        return loaded;
+    }
+
+    public void track(PriceAlert alert) {
+        if (!alert.isActive() || alert.isTriggered()) return;
+        index(toEntry(alert));
+        cacheRegistry.notifyOthers(CHANNEL, message("track", alert));
+    }
+
+    public void untrack(PriceAlert alert) {
+        index.remove(alert.getSymbol(), isAbove(alert.getDirection()), alert.getTargetPrice(), alert.getId());
+        cacheRegistry.notifyOthers(CHANNEL, message("untrack", alert));
+    }
+
+    private void index(AlertThresholdIndex.Entry entry) {
+        synchronized (loadLock) {
+            // A poll, or an earlier message about it, may have indexed it already
+            index.remove(entry.symbol, entry.above, entry.targetPrice, entry.alertId);
+            index.add(entry);
+            if (cluster.isEnabled() && entry.alertId > loadedThroughId) {
+                trackedAhead.add(entry.alertId);
+            }
+        }
+    }
+
+    /**
+     * Applies a track or untrack made on another node. The message carries
+     * the alert's fields, since a deleted alert can no longer be read back.
+     */
+    private void onRemoteChange(String message) {
+        String[] parts = message.split(" ");
+        if (parts.length != 6) return;
+        AlertThresholdIndex.Entry entry = new AlertThresholdIndex.Entry(Long.parseLong(parts[1]),
+            Long.parseLong(parts[2]), parts[3], Double.parseDouble(parts[5]), isAbove(parts[4]));
+        if ("track".equals(parts[0])) {
+            index(entry);
+        } else {
+            index.remove(entry.symbol, entry.above, entry.targetPrice, entry.alertId);
+        }
+    }
+
+    private static String message(String action, PriceAlert alert) {
+        return action + " " + alert.getId() + " " + alert.getUserId() + " " + alert.getSymbol()
+            + " " + alert.getDirection() + " " + alert.getTargetPrice();
+    }
+
+    @EventListener
+    public void onQuoteUpdated(QuoteUpdatedEvent event) {
+        if (event.getSymbol() != null && cluster.owns(event.getSymbol())) {
+            evaluate(event.getSymbol(), event.getPrice());
+        }
+    }
+
+    /**
+     * Takes the alerts crossed by {@code price} out of the index and hands
+     * them to the writer; the lookup itself never touches the database.
+     */
+    public void evaluate(String symbol, double price) {
+        if (price <= 0 || symbol == null) return;
+        List<AlertThresholdIndex.Entry> crossed = index.crossed(symbol.toUpperCase(Locale.ROOT), price);
+        if (!crossed.isEmpty()) {
+            writer.execute(() -> markTriggered(crossed, price));
+        }
+    }
+
+    /**
+     * Quotes are otherwise only refreshed when someone views a symbol, so
+     * symbols with pending alerts are refreshed on a fixed schedule too. In a
+     * cluster each node refreshes its own share; the quotes land in the shared
+     * cache, where the other nodes read them instead of calling the provider.
+     */
+    @Scheduled(fixedDelayString = "${alerts.engine.poll-ms:60000}", initialDelayString = "${alerts.engine.initial-delay-ms:60000}",
+               scheduler = SchedulingConfig.ALERT_REFRESH)
+    public void refreshAlertedSymbols() {
+        if (cluster.isEnabled()) {
+            try {
+                synchronized (loadLock) {
+                    loadNewerThanLoaded();
+                }
+            } catch (Exception e) {
+                log.warn("Could not load new pending alerts: {}", e.getMessage());
+            }
+        }
+        for (String symbol : index.pendingSymbols()) {
+            if (!cluster.owns(symbol)) continue;
+            try {
+                stockService.getStockBySymbol(symbol).ifPresent(stock -> evaluate(symbol, stock.getPrice()));
+            } catch (Exception e) {
+                log.warn("Alert quote refresh failed for {}: {}", symbol, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Another node may have triggered, toggled or deleted some of the alerts
+     * first, so events go out only for the rows this update changed. When the
+     * count falls short, those rows are found by the timestamp it wrote,
+     * truncated to millis so it compares equal after the database stores it.
+     */
+    private void markTriggered(List<AlertThresholdIndex.Entry> crossed, double price) {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        for (int start = 0; start < crossed.size(); start += UPDATE_BATCH_SIZE) {
+            List<AlertThresholdIndex.Entry> batch = crossed.subList(start, Math.min(crossed.size(), start + UPDATE_BATCH_SIZE));
+            List<Long> ids = new ArrayList<>(batch.size());
+            for (AlertThresholdIndex.Entry entry : batch) {
+                ids.add(entry.alertId);
+            }
+            int updated;
+            try {
+                updated = repository.markTriggered(ids, now);
+                log.info("Triggered {} price alerts for {} at {}", updated, batch.get(0).symbol, price);
+            } catch (Exception e) {
+                // Put them back so the next quote retries the update
+                log.error("Failed to mark {} alerts triggered: {}", ids.size(), e.getMessage());
+                batch.forEach(index::add);
+                continue;
+            }
+            Set<Long> changed = null;
+            if (updated < ids.size()) {
+                try {
+                    changed = new HashSet<>(repository.findIdsTriggeredAt(ids, now));
+                } catch (Exception e) {
+                    // Better to miss a notification than to send one twice
+                    log.error("Could not tell which of {} alerts were triggered here: {}", ids.size(), e.getMessage());
+                    continue;
+                }
+            }
+            for (AlertThresholdIndex.Entry entry : batch) {
+                if (changed != null && !changed.contains(entry.alertId)) continue;
+                eventPublisher.publishEvent(new PriceAlertTriggeredEvent(entry.alertId, entry.userId, entry.symbol,
+                    entry.targetPrice, entry.above ? "above" : "below", price));
+            }
+        }
+    }
+
+    private static AlertThresholdIndex.Entry toEntry(PriceAlert alert) {
+        return new AlertThresholdIndex.Entry(alert.getId(), alert.getUserId(), alert.getSymbol(),
+            alert.getTargetPrice(), isAbove(alert.getDirection()));
+    }
+
+    private static boolean isAbove(String direction) {
+        return !"below".equals(direction.toLowerCase(Locale.ROOT));
+    }
+
+    @jakarta.annotation.PreDestroy
+    public void shutdown() {
+        writer.shutdown();
+    }
+}
@@ -0,0 +1,55 @@
+package com.borsvy.service;
+
+import com.borsvy.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.stereotype.Component;
+
+/**
+ * Emails the owner of a triggered alert. Runs on the alert engine's writer
+ * thread, never on a request or quote thread. Disabled unless configured.
+ */
+@Slf4j
+@Component
+public class PriceAlertNotifier {
+
+    private final UserRepository userRepository;
+    private final ObjectProvider<JavaMailSender> mailSender;
+
+    @Value("${alerts.notifications.email-enabled:false}")
+    private boolean emailEnabled;
+
+    @Value("${alerts.notifications.from:alerts@borsvy.local}")
+    private String from;
+
+    public PriceAlertNotifier(UserRepository userRepository, ObjectProvider<JavaMailSender> mailSender) {
+        this.userRepository = userRepository;
+        this.mailSender = mailSender;
+    }
+
+    @EventListener
+    public void onTriggered(PriceAlertTriggeredEvent event) {
+        log.debug("Alert {} for {} crossed {} {} at {}", event.getAlertId(), event.getSymbol(),
+            event.getDirection(), event.getTargetPrice(), event.getPrice());
+        JavaMailSender sender = mailSender.getIfAvailable();
+        if (!emailEnabled || sender == null) return;
+
+        userRepository.findById(event.getUserId()).ifPresent(user -> {
+            try {
+                SimpleMailMessage message = new SimpleMailMessage();
+                message.setFrom(from);
+                message.setTo(user.getEmail());
+                message.setSubject(String.format("%s is %s %.2f", event.getSymbol(), event.getDirection(), event.getTargetPrice()));
+                message.setText(String.format("Your BorsVy alert for %s triggered: the price is now %.2f (target %s %.2f).",
+                    event.getSymbol(), event.getPrice(), event.getDirection(), event.getTargetPrice()));
+                sender.send(message);
+            } catch (Exception e) {
+                log.warn("Could not email alert {} to user {}: {}", event.getAlertId(), event.getUserId(), e.getMessage());
+            }
+        });
+    }
+}
@@ -14,9 +14,11 @@ import java.util.Optional;
 public class PriceAlertService {
 
     private final PriceAlertRepository repository;
+    private final PriceAlertEngine engine;
 
-    public PriceAlertService(PriceAlertRepository repository) {
+    public PriceAlertService(PriceAlertRepository repository, PriceAlertEngine engine) {
         this.repository = repository;
+        this.engine = engine;
     }
 
     public List<PriceAlert> getAlerts(Long userId) {
@@ -32,13 +34,21 @@ public class PriceAlertService {
         alert.setActive(true);
         alert.setTriggered(false);
         alert.setTriggeredAt(null);
-        return repository.save(alert);
+        PriceAlert saved = repository.save(alert);
+        engine.track(saved);
+        return saved;
     }
 
     public Optional<PriceAlert> toggleAlert(Long userId, Long id) {
         return repository.findByIdAndUserId(id, userId).map(alert -> {
             alert.setActive(!alert.isActive());
-            return repository.save(alert);
+            PriceAlert saved = repository.save(alert);
+            if (saved.isActive()) {
+                engine.track(saved);
+            } else {
+                engine.untrack(saved);
+            }
+            return saved;
         });
     }
 
@@ -47,6 +57,7 @@ public class PriceAlertService {
             alert.setTriggered(true);
             alert.setActive(false);
             alert.setTriggeredAt(LocalDateTime.now());
+            engine.untrack(alert);
             return repository.save(alert);
         });
     }
@@ -54,7 +65,10 @@ public class PriceAlertService {
     @Transactional
     public boolean removeAlert(Long userId, Long id) {
         Optional<PriceAlert> existing = repository.findByIdAndUserId(id, userId);
-        existing.ifPresent(alert -> repository.deleteByIdAndUserId(id, userId));
+        existing.ifPresent(alert -> {
+            engine.untrack(alert);
+            repository.deleteByIdAndUserId(id, userId);
+        });
         return existing.isPresent();
     }
 
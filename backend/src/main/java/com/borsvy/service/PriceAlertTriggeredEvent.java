@@ -0,0 +1,31 @@
+package com.borsvy.service;
+
+/**
+ * Published once a server-side alert has been marked triggered.
+ */
+public class PriceAlertTriggeredEvent {
+
+    private final long alertId;
+    private final long userId;
+    private final String symbol;
+    private final double targetPrice;
+    private final String direction;
+    private final double price;
+
+    public PriceAlertTriggeredEvent(long alertId, long userId, String symbol, double targetPrice,
+                                    String direction, double price) {
+        this.alertId = alertId;
+        this.userId = userId;
+        this.symbol = symbol;
+        this.targetPrice = targetPrice;
+        this.direction = direction;
+        this.price = price;
+    }
+
+    public long getAlertId() { return alertId; }
+    public long getUserId() { return userId; }
+    public String getSymbol() { return symbol; }
+    public double getTargetPrice() { return targetPrice; }
+    public String getDirection() { return direction; }
+    public double getPrice() { return price; }
+}
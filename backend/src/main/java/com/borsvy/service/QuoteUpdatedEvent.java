@@ -0,0 +1,22 @@
+package com.borsvy.service;
+
+/**
+ * Published by {@link StockService} whenever a fresh quote has been fetched
+ * from a provider and stored.
+ */
+public class QuoteUpdatedEvent {
+
+    private final String symbol;
+    private final double price;
+    private final double change;
+
+    public QuoteUpdatedEvent(String symbol, double price, double change) {
+        this.symbol = symbol;
+        this.price = price;
+        this.change = change;
+    }
+
+    public String getSymbol() { return symbol; }
+    public double getPrice() { return price; }
+    public double getChange() { return change; }
+}
@@ -0,0 +1,279 @@
+package com.borsvy.service;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Return-series statistics on primitive arrays. Rows are assets, columns are
+ * days; all rows of a matrix share the same calendar.
+ */
+final class RiskMath {
+
+    static final int TRADING_DAYS = 252;
+
+    // Rows of the covariance triangle handled per fork-join task
+    private static final int ROWS_PER_TASK = 8;
+
+    private RiskMath() {
+    }
+
+    /** Simple daily returns of each row of closing prices. */
+    static double[][] returns(double[][] closes) {
+        double[][] returns = new double[closes.length][];
+        for (int i = 0; i < closes.length; i++) {
+            double[] row = closes[i];
+            double[] r = new double[Math.max(0, row.length - 1)];
+            for (int t = 1; t < row.length; t++) {
+                r[t - 1] = row[t - 1] > 0 ? row[t] / row[t - 1] - 1 : 0;
+            }
+            returns[i] = r;
+        }
+        return returns;
+    }
+
+    /** Daily log returns, log(1 + r), for GBM calibration. */
+    static double[][] logReturns(double[][] returns) {
+        double[][] logs = new double[returns.length][];
+        for (int i = 0; i < returns.length; i++) {
+            double[] r = returns[i];
+            double[] l = new double[r.length];
+            for (int t = 0; t < r.length; t++) {
+                l[t] = Math.log1p(r[t]);
+            }
+            logs[i] = l;
+        }
+        return logs;
+    }
+
+    static double mean(double[] values) {
+        double sum = 0;
+        for (double v : values) sum += v;
+        return values.length == 0 ? 0 : sum / values.length;
+    }
+
+    static double covariance(double[] a, double[] b) {
+        int n = a.length;
+        if (n < 2) return 0;
+        double meanA = mean(a);
+        double meanB = mean(b);
+        double sum = 0;
+        for (int t = 0; t < n; t++) {
+            sum += (a[t] - meanA) * (b[t] - meanB);
+        }
+        return sum / (n - 1);
+    }
+
+    /**
+     * Sample covariance matrix. Rows are demeaned once, then the upper
+     * triangle is split across the fork-join pool by row ranges.
+     */
+    static double[][] covarianceMatrix(double[][] returns, ForkJoinPool pool) {
+        int n = returns.length;
+        double[][] cov = new double[n][n];
+        if (n == 0) return cov;
+        int days = returns[0].length;
+        if (days < 2) return cov;
+
+        double[][] centered = new double[n][days];
+        for (int i = 0; i < n; i++) {
+            double m = mean(returns[i]);
+            for (int t = 0; t < days; t++) {
+                centered[i][t] = returns[i][t] - m;
+            }
+        }
+        pool.invoke(new CovarianceTask(centered, cov, 0, n));
+        return cov;
+    }
+
+    static double[][] correlation(double[][] cov) {
+        int n = cov.length;
+        double[][] corr = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            double sdI = Math.sqrt(cov[i][i]);
+            for (int j = 0; j < n; j++) {
+                double sdJ = Math.sqrt(cov[j][j]);
+                corr[i][j] = sdI > 0 && sdJ > 0 ? cov[i][j] / (sdI * sdJ) : (i == j ? 1 : 0);
+            }
+        }
+        return corr;
+    }
+
+    /** w' * cov * w */
+    static double portfolioVariance(double[] weights, double[][] cov) {
+        double variance = 0;
+        for (int i = 0; i < weights.length; i++) {
+            double rowSum = 0;
+            for (int j = 0; j < weights.length; j++) {
+                rowSum += cov[i][j] * weights[j];
+            }
+            variance += weights[i] * rowSum;
+        }
+        return variance;
+    }
+
+    /** Daily portfolio returns for fixed weights. */
+    static double[] weightedReturns(double[] weights, double[][] returns) {
+        int days = returns.length == 0 ? 0 : returns[0].length;
+        double[] portfolio = new double[days];
+        for (int i = 0; i < weights.length; i++) {
+            double w = weights[i];
+            double[] r = returns[i];
+            for (int t = 0; t < days; t++) {
+                portfolio[t] += w * r[t];
+            }
+        }
+        return portfolio;
+    }
+
+    static double annualizedVolatility(double dailyVariance) {
+        return Math.sqrt(Math.max(0, dailyVariance) * TRADING_DAYS);
+    }
+
+    static double beta(double[] returns, double[] benchmark) {
+        double benchmarkVariance = covariance(benchmark, benchmark);
+        return benchmarkVariance > 0 ? covariance(returns, benchmark) / benchmarkVariance : 0;
+    }
+
+    /**
+     * Historical one-day VaR and CVaR at {@code confidence}, as positive
+     * loss fractions: {var, cvar}.
+     */
+    static double[] historicalVaR(double[] returns, double confidence) {
+        if (returns.length == 0) return new double[] {0, 0};
+        double[] sorted = returns.clone();
+        Arrays.sort(sorted);
+        int tail = Math.max(1, (int) Math.floor(sorted.length * (1 - confidence)));
+        double var = -sorted[tail - 1];
+        double tailSum = 0;
+        for (int t = 0; t < tail; t++) tailSum += sorted[t];
+        return new double[] {Math.max(0, var), Math.max(0, -tailSum / tail)};
+    }
+
+    /**
+     * Gaussian one-day VaR and CVaR at {@code confidence}: {var, cvar}.
+     */
+    static double[] parametricVaR(double meanReturn, double dailyVolatility, double confidence) {
+        double z = normalQuantile(confidence);
+        double alpha = 1 - confidence;
+        double density = Math.exp(-z * z / 2) / Math.sqrt(2 * Math.PI);
+        double var = z * dailyVolatility - meanReturn;
+        double cvar = dailyVolatility * density / alpha - meanReturn;
+        return new double[] {Math.max(0, var), Math.max(0, cvar)};
+    }
+
+    /**
+     * Lower Cholesky factor of a covariance matrix, packed row by row:
+     * L[i][j] (j <= i) is at {@code i * (i + 1) / 2 + j}. Sample covariances
+     * from short histories are often only semi-definite, so the diagonal is
+     * nudged until the factorization succeeds.
+     */
+    static double[] choleskyPacked(double[][] cov) {
+        int n = cov.length;
+        double trace = 0;
+        for (int i = 0; i < n; i++) trace += cov[i][i];
+        double jitter = 0;
+        for (int attempt = 0; attempt < 8; attempt++) {
+            double[] l = tryCholesky(cov, jitter);
+            if (l != null) return l;
+            jitter = jitter == 0 ? 1e-10 * Math.max(trace / n, 1e-12) : jitter * 10;
+        }
+        // Fall back to independent assets with the same variances
+        double[] l = new double[n * (n + 1) / 2];
+        for (int i = 0; i < n; i++) {
+            l[i * (i + 1) / 2 + i] = Math.sqrt(Math.max(0, cov[i][i]));
+        }
+        return l;
+    }
+
+    private static double[] tryCholesky(double[][] cov, double jitter) {
+        int n = cov.length;
+        double[] l = new double[n * (n + 1) / 2];
+        for (int i = 0; i < n; i++) {
+            int rowI = i * (i + 1) / 2;
+            for (int j = 0; j <= i; j++) {
+                int rowJ = j * (j + 1) / 2;
+                double sum = cov[i][j] + (i == j ? jitter : 0);
+                for (int k = 0; k < j; k++) {
+                    sum -= l[rowI + k] * l[rowJ + k];
+                }
+                if (i == j) {
+                    if (sum <= 0) return null;
+                    l[rowI + i] = Math.sqrt(sum);
+                } else {
+                    l[rowI + j] = sum / l[rowJ + j];
+                }
+            }
+        }
+        return l;
+    }
+
+    /**
+     * Inverse standard normal CDF (Acklam's rational approximation, relative
+     * error below 1.2e-9).
+     */
+    static double normalQuantile(double p) {
+        final double[] a = {-3.969683028665376e+01, 2.209460984245205e+02, -2.759285104469687e+02,
+            1.383577518672690e+02, -3.066479806614716e+01, 2.506628277459239e+00};
+        final double[] b = {-5.447609879822406e+01, 1.615858368580409e+02, -1.556989798598866e+02,
+            6.680131188771972e+01, -1.328068155288572e+01};
+        final double[] c = {-7.784894002430293e-03, -3.223964580411365e-01, -2.400758277161838e+00,
+            -2.549732539343734e+00, 4.374664141464968e+00, 2.938163982698783e+00};
+        final double[] d = {7.784695709041462e-03, 3.224671290700398e-01, 2.445134137142996e+00,
+            3.754408661907416e+00};
+        double low = 0.02425;
+        if (p < low) {
+            double q = Math.sqrt(-2 * Math.log(p));
+            return (((((c[0] * q + c[1]) * q + c[2]) * q + c[3]) * q + c[4]) * q + c[5])
+                / ((((d[0] * q + d[1]) * q + d[2]) * q + d[3]) * q + 1);
+        }
+        if (p > 1 - low) {
+            double q = Math.sqrt(-2 * Math.log(1 - p));
+            return -(((((c[0] * q + c[1]) * q + c[2]) * q + c[3]) * q + c[4]) * q + c[5])
+                / ((((d[0] * q + d[1]) * q + d[2]) * q + d[3]) * q + 1);
+        }
+        double q = p - 0.5;
+        double r = q * q;
+        return (((((a[0] * r + a[1]) * r + a[2]) * r + a[3]) * r + a[4]) * r + a[5]) * q
+            / (((((b[0] * r + b[1]) * r + b[2]) * r + b[3]) * r + b[4]) * r + 1);
+    }
+
+    private static final class CovarianceTask extends RecursiveAction {
+        private final double[][] centered;
+        private final double[][] cov;
+        private final int fromRow;
+        private final int toRow;
+
+        CovarianceTask(double[][] centered, double[][] cov, int fromRow, int toRow) {
+            this.centered = centered;
+            this.cov = cov;
+            this.fromRow = fromRow;
+            this.toRow = toRow;
+        }
+
+        @Override
+        protected void compute() {
+            if (toRow - fromRow <= ROWS_PER_TASK) {
+                int n = centered.length;
+                int days = centered[0].length;
+                for (int i = fromRow; i < toRow; i++) {
+                    double[] a = centered[i];
+                    for (int j = i; j < n; j++) {
+                        double[] b = centered[j];
+                        double sum = 0;
+                        for (int t = 0; t < days; t++) {
+                            sum += a[t] * b[t];
+                        }
+                        double value = sum / (days - 1);
+                        cov[i][j] = value;
+                        cov[j][i] = value;
+                    }
+                }
+                return;
+            }
+            int mid = (fromRow + toRow) >>> 1;
+            invokeAll(new CovarianceTask(centered, cov, fromRow, mid),
+                      new CovarianceTask(centered, cov, mid, toRow));
+        }
+    }
+}
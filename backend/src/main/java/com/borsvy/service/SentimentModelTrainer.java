@@ -0,0 +1,199 @@
+package com.borsvy.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Offline trainer and benchmark for {@link HeadlineSentimentModel}.
+ *
+ * Input files are tab-separated: {@code positive|negative|neutral<TAB>headline}.
+ * Evaluate on headlines labelled independently of the training data, such as
+ * the Financial PhraseBank: "eval" prints accuracy and, per confidence gate,
+ * the share of headlines kept local and their accuracy, which is what
+ * {@code sentiment.local.escalation-confidence} should be chosen from.
+ *
+ * <pre>
+ * java -cp backend.jar com.borsvy.service.SentimentModelTrainer train data.tsv model.bin [--epochs 20] [--bits 14]
+ * java -cp backend.jar com.borsvy.service.SentimentModelTrainer eval model.bin holdout.tsv [--rounds 200000]
+ * </pre>
+ */
+public final class SentimentModelTrainer {
+
+    private static final int MAX_FEATURES = 256;
+
+    private SentimentModelTrainer() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            usage();
+            return;
+        }
+        switch (args[0]) {
+            case "train":
+                train(Paths.get(args[1]), Paths.get(args[2]),
+                    intOption(args, "--epochs", 20), intOption(args, "--bits", 14));
+                break;
+            case "eval":
+                evaluate(Paths.get(args[1]), Paths.get(args[2]), intOption(args, "--rounds", 200_000));
+                break;
+            default:
+                usage();
+        }
+    }
+
+    private static void train(Path dataFile, Path modelFile, int epochs, int bits) throws IOException {
+        List<Example> examples = readExamples(dataFile);
+        if (examples.isEmpty()) {
+            System.err.println("No labelled examples in " + dataFile);
+            return;
+        }
+
+        HeadlineSentimentModel model = new HeadlineSentimentModel(bits);
+        float[] bias = model.bias();
+        float[] weights = model.weights();
+        int[] features = new int[MAX_FEATURES];
+        double[] probs = new double[HeadlineSentimentModel.CLASSES];
+        double l2 = 1e-6;
+        Random random = new Random(42);
+
+        for (int epoch = 0; epoch < epochs; epoch++) {
+            Collections.shuffle(examples, random);
+            double learningRate = 0.5 / (1 + epoch * 0.2);
+            double loss = 0;
+            for (Example example : examples) {
+                int count = model.features(example.text, features);
+                model.score(example.text, probs);
+                loss -= Math.log(Math.max(probs[example.label], 1e-12));
+                for (int c = 0; c < HeadlineSentimentModel.CLASSES; c++) {
+                    double gradient = probs[c] - (c == example.label ? 1 : 0);
+                    bias[c] -= (float) (learningRate * gradient);
+                    for (int i = 0; i < count; i++) {
+                        int index = features[i] * HeadlineSentimentModel.CLASSES + c;
+                        weights[index] -= (float) (learningRate * (gradient + l2 * weights[index]));
+                    }
+                }
+            }
+            System.out.printf(Locale.US, "epoch %d: loss=%.4f%n", epoch + 1, loss / examples.size());
+        }
+
+        try (OutputStream out = Files.newOutputStream(modelFile)) {
+            model.write(out);
+        }
+        System.out.printf(Locale.US, "Trained on %d examples, wrote %s (%d bytes)%n",
+            examples.size(), modelFile, Files.size(modelFile));
+    }
+
+    private static void evaluate(Path modelFile, Path dataFile, int rounds) throws IOException {
+        HeadlineSentimentModel model;
+        try (InputStream in = Files.newInputStream(modelFile)) {
+            model = HeadlineSentimentModel.read(in);
+        }
+        List<Example> examples = readExamples(dataFile);
+        if (examples.isEmpty()) {
+            System.err.println("No labelled examples in " + dataFile);
+            return;
+        }
+
+        double[] probs = new double[HeadlineSentimentModel.CLASSES];
+        int[][] confusion = new int[HeadlineSentimentModel.CLASSES][HeadlineSentimentModel.CLASSES];
+        int correct = 0;
+        double[] gates = {0.5, 0.6, 0.7, 0.8, 0.9};
+        int[] kept = new int[gates.length];
+        int[] keptCorrect = new int[gates.length];
+        for (Example example : examples) {
+            int predicted = model.score(example.text, probs);
+            confusion[example.label][predicted]++;
+            if (predicted == example.label) correct++;
+            for (int g = 0; g < gates.length; g++) {
+                if (probs[predicted] < gates[g]) continue;
+                kept[g]++;
+                if (predicted == example.label) keptCorrect[g]++;
+            }
+        }
+        System.out.printf(Locale.US, "accuracy: %.2f%% (%d/%d)%n",
+            100.0 * correct / examples.size(), correct, examples.size());
+        for (int actual = 0; actual < HeadlineSentimentModel.CLASSES; actual++) {
+            System.out.printf(Locale.US, "%-8s -> neg=%d neu=%d pos=%d%n",
+                HeadlineSentimentModel.label(actual),
+                confusion[actual][0], confusion[actual][1], confusion[actual][2]);
+        }
+        for (int g = 0; g < gates.length; g++) {
+            System.out.printf(Locale.US, "gate %.2f: %.1f%% kept local, %.2f%% accurate%n", gates[g],
+                100.0 * kept[g] / examples.size(), kept[g] == 0 ? 0 : 100.0 * keptCorrect[g] / kept[g]);
+        }
+
+        // Warm up so the timed loop measures compiled code
+        long sink = 0;
+        for (int i = 0; i < 20_000; i++) {
+            sink += model.score(examples.get(i % examples.size()).text, probs);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            sink += model.score(examples.get(i % examples.size()).text, probs);
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.printf(Locale.US, "throughput: %.0f headlines/s, %.2f us/headline (checksum %d)%n",
+            rounds * 1e9 / elapsed, elapsed / 1000.0 / rounds, sink);
+    }
+
+    private static List<Example> readExamples(Path file) throws IOException {
+        List<Example> examples = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int tab = line.indexOf('\t');
+                if (tab <= 0 || line.startsWith("#")) continue;
+                int label = parseLabel(line.substring(0, tab));
+                if (label < 0) continue;
+                examples.add(new Example(label, line.substring(tab + 1)));
+            }
+        }
+        return examples;
+    }
+
+    private static int parseLabel(String label) {
+        switch (label.trim().toLowerCase(Locale.ROOT)) {
+            case "positive": return HeadlineSentimentModel.POSITIVE;
+            case "negative": return HeadlineSentimentModel.NEGATIVE;
+            case "neutral": return HeadlineSentimentModel.NEUTRAL;
+            default: return -1;
+        }
+    }
+
+    private static int intOption(String[] args, String name, int defaultValue) {
+        for (int i = 3; i < args.length - 1; i++) {
+            if (args[i].equals(name)) {
+                return Integer.parseInt(args[i + 1]);
+            }
+        }
+        return defaultValue;
+    }
+
+    private static void usage() {
+        System.out.println("Usage:");
+        System.out.println("  train <data.tsv> <model.bin> [--epochs N] [--bits B]");
+        System.out.println("  eval <model.bin> <data.tsv> [--rounds N]");
+    }
+
+    private static final class Example {
+        private final int label;
+        private final String text;
+
+        private Example(int label, String text) {
+            this.label = label;
+            this.text = text;
+        }
+    }
+}
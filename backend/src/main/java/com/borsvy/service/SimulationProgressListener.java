@@ -0,0 +1,9 @@
+package com.borsvy.service;
+
+/**
+ * Progress callback for long-running simulations. Called from worker threads.
+ */
+@FunctionalInterface
+public interface SimulationProgressListener {
+    void onProgress(long completed, long total);
+}
@@ -1,36 +1,39 @@
 
 package com.borsvy.service;
 
+import com.borsvy.cache.TwoLevelCache;
+import com.borsvy.cache.TwoLevelCacheRegistry;
 import com.borsvy.model.Stock;
 import com.borsvy.model.StockPrice;
 import com.borsvy.model.StockDetails;
+import com.borsvy.model.StockSummary;
 import com.borsvy.repository.StockRepository;
+import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
-import org.springframework.retry.annotation.Backoff;
-import org.springframework.retry.annotation.Retryable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.web.client.RestTemplate;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.borsvy.client.FinnhubClient;
-import com.borsvy.client.NewsDataClient;
+import com.borsvy.client.MarketCalendar;
 import com.borsvy.client.TwelveDataClient;
 import com.borsvy.model.Quote;
-import com.borsvy.model.CompanyProfile2;
+import com.borsvy.model.CompanyFundamentals;
 import lombok.extern.slf4j.Slf4j;
-import com.borsvy.client.RapidApiClient;
 import com.borsvy.model.NewsArticle;
 
 import java.util.*;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.TimeUnit;
 import java.io.IOException;
 import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -39,236 +42,369 @@ public class StockService {
 
     private final StockRepository stockRepository;
     private final FinnhubClient finnhubClient;
-    private final NewsDataClient newsDataClient;
     private final TwelveDataClient twelveDataClient;
-    private final RapidApiClient rapidApiClient;
+    private final NewsStore newsStore;
+    private final NewsIngester newsIngester;
     private final NewsAnalysisService newsAnalysisService; // Changed to interface instead of implementation
-    private final Map<String, CachedStock> stockCache = new ConcurrentHashMap<>();
-    private final Map<String, CachedStockDetails> detailsCache = new ConcurrentHashMap<>();
-    private List<Stock> cachedPopularStocks;
+    private final ApplicationEventPublisher eventPublisher;
+    private final StockWriteBehind writeBehind;
+    private final FundamentalsStore fundamentalsStore;
+    private final MarketCalendar marketCalendar;
+    private final TwoLevelCache<Stock> stockCache;
+    private final TwoLevelCache<StockDetails> detailsCache;
+    private List<StockSummary> cachedPopularStocks;
     private long popularStocksCacheTime;
     private final List<String> popularStocks = Arrays.asList("AAPL", "MSFT", "GOOGL", "AMZN", "META", "NVDA", "TSLA", "JPM", "V", "WMT");
     
     private static final int CACHE_EXPIRY_MINUTES = 1;
     private static final int DETAILS_CACHE_EXPIRY_HOURS = 1;
+    private static final Duration QUOTE_TTL = Duration.ofMinutes(CACHE_EXPIRY_MINUTES);
+    private static final Duration DETAILS_TTL = Duration.ofHours(DETAILS_CACHE_EXPIRY_HOURS);
 
     @Autowired
     public StockService(StockRepository stockRepository,
                        FinnhubClient finnhubClient,
-                       NewsDataClient newsDataClient,
                        TwelveDataClient twelveDataClient,
-                       RapidApiClient rapidApiClient,
-                       NewsAnalysisService newsAnalysisService) {
+                       NewsStore newsStore,
+                       NewsIngester newsIngester,
+                       NewsAnalysisService newsAnalysisService,
+                       ApplicationEventPublisher eventPublisher,
+                       StockWriteBehind writeBehind,
+                       FundamentalsStore fundamentalsStore,
+                       MarketCalendar marketCalendar,
+                       TwoLevelCacheRegistry caches) {
         this.stockRepository = stockRepository;
         this.finnhubClient = finnhubClient;
-        this.newsDataClient = newsDataClient;
         this.twelveDataClient = twelveDataClient;
-        this.rapidApiClient = rapidApiClient;
+        this.newsStore = newsStore;
+        this.newsIngester = newsIngester;
         this.newsAnalysisService = newsAnalysisService;
+        this.eventPublisher = eventPublisher;
+        this.writeBehind = writeBehind;
+        this.fundamentalsStore = fundamentalsStore;
+        this.marketCalendar = marketCalendar;
+        // Kept past the TTL so a stale entry can stand in while a provider is down,
+        // and through a long weekend, when equity quotes stay fresh from the close
+        this.stockCache = caches.region("quotes", Stock.class, Duration.ofDays(4));
+        this.detailsCache = caches.region("details", StockDetails.class, Duration.ofDays(4));
     }
 
-    @Retryable(
-        value = { Exception.class },
-        maxAttempts = 3,
-        backoff = @Backoff(delay = 2000, multiplier = 2)
-    )
+    /**
+     * Refreshes a quote. Profile and metrics come from the fundamentals store,
+     * so a stale quote costs one Finnhub call. Provider failures (including an open circuit) fall
+     * back to the last stored row instead of retrying on the request thread.
+     * The refreshed row is queued for write-behind; the caller never waits on
+     * the database for it. Only one node refreshes a symbol at a time; the
+     * others pick its result up from the shared cache tier.
+     */
     Stock fetchStockFromFinnhub(String symbol) throws IOException {
         try {
             // Check cache first
-            CachedStock cached = stockCache.get(symbol);
-            if (cached != null && !cached.isExpired()) {
+            Duration ttl = quoteTtl(symbol);
+            TwoLevelCache.Entry<Stock> cached = stockCache.get(symbol, ttl);
+            if (isFresh(cached, ttl)) {
                 log.debug("Returning cached data for {}", symbol);
-                return cached.stock;
-            }
-
-            // Check database before making API call
-            Optional<Stock> dbStock = stockRepository.findById(symbol);
-            if (dbStock.isPresent() && 
-                dbStock.get().getLastUpdated() != null && 
-                Duration.between(dbStock.get().getLastUpdated(), LocalDateTime.now()).toMinutes() < CACHE_EXPIRY_MINUTES) {
-                log.debug("Returning database data for {}", symbol);
-                Stock stock = dbStock.get();
-                stockCache.put(symbol, new CachedStock(stock));
-                return stock;
+                return cached.value;
             }
+            // Session TTL: another node's stale fallback must not pass for a post-close quote
+            return stockCache.refresh(symbol, QUOTE_TTL, () -> loadStock(symbol, cached));
+        } catch (Exception e) {
+            log.error("Error fetching stock data from Finnhub: {}", e.getMessage());
+            throw e;
+        }
+    }
 
-            // Create or update stock object
-            Stock stock = dbStock.orElse(new Stock());
-            stock.setSymbol(symbol);
+    private Stock loadStock(String symbol, TwoLevelCache.Entry<Stock> cached) {
+        // Newest known state: the expired cache entry or a queued write; the database only when neither exists
+        Optional<Stock> dbStock = Optional.ofNullable(cached != null ? cached.value : writeBehind.pending(symbol));
+        if (dbStock.isEmpty()) {
+            dbStock = stockRepository.findById(symbol);
+        }
+        if (dbStock.isPresent() && isFresh(dbStock.get().getLastUpdated(), quoteTtl(symbol))) {
+            log.debug("Returning stored data for {}", symbol);
+            Stock stock = dbStock.get();
+            stockCache.put(symbol, stock);
+            return stock;
+        }
 
-            if (twelveDataClient.isCrypto(symbol)) {
-                // Crypto: use Twelve Data quote instead of Finnhub
-                Map<String, Object> cryptoQuote = twelveDataClient.getCryptoQuote(symbol);
-                if (cryptoQuote == null) return null;
-                stock.setName((String) cryptoQuote.get("name"));
-                stock.setPrice((Double) cryptoQuote.get("price"));
-                stock.setChange((Double) cryptoQuote.get("change"));
-                stock.setChangePercent((Double) cryptoQuote.get("changePercent"));
-                stock.setHigh((Double) cryptoQuote.get("high"));
-                stock.setLow((Double) cryptoQuote.get("low"));
-                stock.setVolume(((Number) cryptoQuote.get("volume")).longValue());
-                stock.setIndustry("Cryptocurrency");
-            } else {
-                // Stock: use Finnhub
-                Quote quote = finnhubClient.getQuote(symbol);
-                if (quote == null) return null;
+        // Update a copy; the known row may be shared through the cache
+        Stock stock = new Stock();
+        dbStock.ifPresent(known -> BeanUtils.copyProperties(known, stock));
+        stock.setSymbol(symbol);
 
-                try {
-                    stock.setPrice(quote.getCurrentPrice());
-                    stock.setChange(quote.getChange());
-                    stock.setChangePercent(quote.getPercentChange());
-                    stock.setHigh(quote.getHigh());
-                    stock.setLow(quote.getLow());
-                    stock.setOpen(quote.getOpen());
-                    stock.setVolume(quote.getVolume());
-                } catch (Exception e) {
-                    log.error("Error parsing numeric values from Finnhub for {}: {}", symbol, e.getMessage());
-                    return null;
-                }
+        if (twelveDataClient.isCrypto(symbol)) {
+            // Crypto: use Twelve Data quote instead of Finnhub
+            Map<String, Object> cryptoQuote = twelveDataClient.getCryptoQuote(symbol);
+            if (cryptoQuote == null) return staleOrNull(symbol, dbStock);
+            stock.setName((String) cryptoQuote.get("name"));
+            stock.setPrice((Double) cryptoQuote.get("price"));
+            stock.setChange((Double) cryptoQuote.get("change"));
+            stock.setChangePercent((Double) cryptoQuote.get("changePercent"));
+            stock.setHigh((Double) cryptoQuote.get("high"));
+            stock.setLow((Double) cryptoQuote.get("low"));
+            stock.setVolume(((Number) cryptoQuote.get("volume")).longValue());
+            stock.setIndustry("Cryptocurrency");
+        } else {
+            // Stock: use Finnhub
+            Quote quote;
+            try {
+                quote = finnhubClient.getQuote(symbol);
+            } catch (Exception e) {
+                log.warn("Finnhub quote unavailable for {}: {}", symbol, e.getMessage());
+                return staleOrNull(symbol, dbStock);
+            }
+            if (quote == null) return staleOrNull(symbol, dbStock);
 
-                // Get company profile for additional details
-                try {
-                    CompanyProfile2 profile = finnhubClient.getCompanyProfile2(symbol);
-                    if (profile != null) {
-                        stock.setName(profile.getName());
-                        stock.setIndustry(profile.getFinnhubIndustry());
-                        stock.setMarketCap(profile.getMarketCapitalization());
-                        stock.setBeta(profile.getBeta());
-                    }
-                } catch (Exception e) {
-                    log.warn("Could not fetch company profile for {}: {}", symbol, e.getMessage());
-                }
+            try {
+                stock.setPrice(quote.getCurrentPrice());
+                stock.setChange(quote.getChange());
+                stock.setChangePercent(quote.getPercentChange());
+                stock.setHigh(quote.getHigh());
+                stock.setLow(quote.getLow());
+                stock.setOpen(quote.getOpen());
+                stock.setVolume(quote.getVolume());
+            } catch (Exception e) {
+                log.error("Error parsing numeric values from Finnhub for {}: {}", symbol, e.getMessage());
+                return null;
+            }
 
-                // Get 52-week high/low and TTM P/E from Finnhub metrics
-                try {
-                    Map<String, Double> metrics = finnhubClient.getBasicMetrics(symbol);
-                    if (metrics.containsKey("52WeekHigh")) stock.setHigh52Week(metrics.get("52WeekHigh"));
-                    if (metrics.containsKey("52WeekLow"))  stock.setLow52Week(metrics.get("52WeekLow"));
-                    if (metrics.containsKey("pe") && metrics.get("pe") > 0) stock.setPeRatio(metrics.get("pe"));
-                } catch (Exception e) {
-                    log.warn("Could not fetch metrics for {}: {}", symbol, e.getMessage());
-                }
+            // Profile, 52-week range and P/E; fetched about once a day, not with every quote
+            CompanyFundamentals fundamentals = fundamentalsStore.get(symbol);
+            if (fundamentals != null) {
+                if (fundamentals.getName() != null) stock.setName(fundamentals.getName());
+                if (fundamentals.getIndustry() != null) stock.setIndustry(fundamentals.getIndustry());
+                stock.setMarketCap(fundamentals.getMarketCap());
+                stock.setBeta(fundamentals.getBeta());
+                if (fundamentals.getHigh52Week() > 0) stock.setHigh52Week(fundamentals.getHigh52Week());
+                if (fundamentals.getLow52Week() > 0) stock.setLow52Week(fundamentals.getLow52Week());
+                if (fundamentals.getPeRatio() > 0) stock.setPeRatio(fundamentals.getPeRatio());
             }
+        }
 
-            stock.setLastUpdated(LocalDateTime.now());
+        stock.setLastUpdated(LocalDateTime.now());
 
-            // Save to database and update cache
-            stock = stockRepository.save(stock);
-            stockCache.put(symbol, new CachedStock(stock));
-            
-            return stock;
+        // Update the cache now, the database on the next write-behind flush
+        writeBehind.enqueue(stock);
+        stockCache.put(symbol, stock);
+        eventPublisher.publishEvent(new QuoteUpdatedEvent(symbol, stock.getPrice(), stock.getChange()));
 
-        } catch (Exception e) {
-            log.error("Error fetching stock data from Finnhub: {}", e.getMessage());
-            throw e;
+        return stock;
+}
+
+    private Stock staleOrNull(String symbol, Optional<Stock> dbStock) {
+        if (dbStock.isPresent() && dbStock.get().getPrice() > 0) {
+            log.info("Serving stored quote for {} from {} while the provider is unavailable",
+                symbol, dbStock.get().getLastUpdated());
+            Stock stale = dbStock.get();
+            // Hold the stale row for one TTL so an outage doesn't turn into a retry storm
+            stockCache.put(symbol, stale);
+            return stale;
         }
+        return null;
     }
 
-    @Retryable(
-        value = { Exception.class },
-        maxAttempts = 3,
-        backoff = @Backoff(delay = 2000, multiplier = 2)
-    )
-    public StockDetails getStockDetails(String symbol) throws IOException {
-        try {
-            // Check cache first
-            CachedStockDetails cached = detailsCache.get(symbol);
-            if (cached != null && !cached.isExpired()) {
-                return cached.details;
-            }
+    /**
+     * Crypto trades around the clock and keeps the fixed TTL. Equity quotes
+     * only need refreshing while their market is open; outside sessions one
+     * fetched after the close stays fresh until the next open.
+     */
+    private Duration quoteTtl(String symbol) {
+        return twelveDataClient.isCrypto(symbol) ? QUOTE_TTL : marketCalendar.equityTtl(symbol, QUOTE_TTL);
+    }
+
+    private Duration detailsTtl(String symbol) {
+        return twelveDataClient.isCrypto(symbol) ? DETAILS_TTL : marketCalendar.equityTtl(symbol, DETAILS_TTL);
+    }
+
+    /**
+     * Entries are fresh for one session TTL after being stored, which is also
+     * how long a stale fallback is held; past that, only if the quote itself
+     * is recent enough, so a fallback stored after the close isn't frozen.
+     */
+    private boolean isFresh(TwoLevelCache.Entry<Stock> cached, Duration ttl) {
+        return cached != null && (cached.isFresh(QUOTE_TTL) || isFresh(cached.value.getLastUpdated(), ttl));
+    }
+
+    private static boolean isFresh(LocalDateTime lastUpdated, Duration ttl) {
+        return lastUpdated != null && Duration.between(lastUpdated, LocalDateTime.now()).compareTo(ttl) < 0;
+    }
 
-            StockDetails details = new StockDetails();
-            details.setSymbol(symbol);
+    public StockDetails getStockDetails(String symbol) throws IOException {
+        Duration ttl = detailsTtl(symbol);
+        TwoLevelCache.Entry<StockDetails> cached = detailsCache.get(symbol, ttl);
+        if (cached != null && cached.isFresh(ttl)) {
+            return cached.value;
+        }
+        return detailsCache.refresh(symbol, ttl, () -> loadStockDetails(symbol, cached));
+    }
 
+    private StockDetails loadStockDetails(String symbol, TwoLevelCache.Entry<StockDetails> stale) throws IOException {
+        try {
+            StockDetails details;
             if (twelveDataClient.isCrypto(symbol)) {
                 // Crypto: use Twelve Data
-                Map<String, Object> cryptoQuote = twelveDataClient.getCryptoQuote(symbol);
-                if (cryptoQuote == null) throw new IOException("Failed to fetch crypto quote for " + symbol);
-                details.setName((String) cryptoQuote.get("name"));
-                details.setPrice((Double) cryptoQuote.get("price"));
-                details.setChange((Double) cryptoQuote.get("change"));
-                details.setChangePercent((Double) cryptoQuote.get("changePercent"));
-                details.setHigh((Double) cryptoQuote.get("high"));
-                details.setLow((Double) cryptoQuote.get("low"));
-                details.setVolume(((Number) cryptoQuote.get("volume")).longValue());
-                details.setIndustry("Cryptocurrency");
+                details = cryptoDetails(symbol, twelveDataClient.getCryptoQuote(symbol));
             } else {
                 // Stock: use Finnhub
-                Quote quote = finnhubClient.getQuote(symbol);
-                CompanyProfile2 profile = finnhubClient.getCompanyProfile2(symbol);
-
-                if (quote == null) {
-                    log.error("Failed to fetch quote data for symbol: {}", symbol);
-                    throw new IOException("Failed to fetch quote data from Finnhub API");
-                }
-
-                details.setPrice(quote.getCurrentPrice());
-                details.setChange(quote.getChange());
-                details.setChangePercent(quote.getPercentChange());
-                details.setHigh(quote.getHigh());
-                details.setLow(quote.getLow());
-                details.setOpen(quote.getOpen());
-                details.setPreviousClose(quote.getOpen() - quote.getChange());
-                details.setVolume(quote.getVolume());
-
-                if (profile != null) {
-                    details.setName(profile.getName());
-                    details.setIndustry(profile.getFinnhubIndustry());
-                    double marketCapInBillions = profile.getMarketCapitalization();
-                    if (marketCapInBillions > 0) details.setMarketCap(marketCapInBillions);
-                    details.setPeRatio(profile.getPe());
-                    details.setBeta(profile.getBeta());
-                }
+                details = stockDetails(symbol, finnhubClient.getQuote(symbol), fundamentalsStore.get(symbol));
             }
 
             // Cache the details
-            detailsCache.put(symbol, new CachedStockDetails(details));
+            detailsCache.put(symbol, details);
             return details;
 
         } catch (Exception e) {
+            if (stale != null) {
+                log.warn("Serving stale details for {} after provider error: {}", symbol, e.getMessage());
+                return stale.value;
+            }
             log.error("Error fetching stock details for {}: {}", symbol, e.getMessage());
             throw new IOException("Failed to fetch stock details: " + e.getMessage());
         }
     }
 
-    public List<Stock> searchStocks(String query) {
+    /**
+     * Non-blocking {@link #getStockDetails}. For stocks the quote request and
+     * any fundamentals fetch run at the same time; the future fails with an IOException
+     * when neither fresh nor stale details exist.
+     */
+    public CompletableFuture<StockDetails> getStockDetailsAsync(String symbol) {
+        Duration ttl = detailsTtl(symbol);
+        TwoLevelCache.Entry<StockDetails> cached = detailsCache.get(symbol, ttl);
+        if (cached != null && cached.isFresh(ttl)) {
+            return CompletableFuture.completedFuture(cached.value);
+        }
+        return detailsCache.refreshAsync(symbol, () -> loadStockDetailsAsync(symbol, cached));
+    }
+
+    private CompletableFuture<StockDetails> loadStockDetailsAsync(String symbol, TwoLevelCache.Entry<StockDetails> stale) {
+        CompletableFuture<StockDetails> load = twelveDataClient.isCrypto(symbol)
+            ? twelveDataClient.getCryptoQuoteAsync(symbol).thenApply(quote -> cryptoDetails(symbol, quote))
+            : finnhubClient.getQuoteAsync(symbol).thenCombine(fundamentalsStore.getAsync(symbol),
+                (quote, fundamentals) -> stockDetails(symbol, quote, fundamentals));
+        return load.handle((details, error) -> {
+            if (error == null) {
+                detailsCache.put(symbol, details);
+                return details;
+            }
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            if (stale != null) {
+                log.warn("Serving stale details for {} after provider error: {}", symbol, cause.getMessage());
+                return stale.value;
+            }
+            log.error("Error fetching stock details for {}: {}", symbol, cause.getMessage());
+            throw new CompletionException(new IOException("Failed to fetch stock details: " + cause.getMessage()));
+        });
+    }
+
+    private StockDetails cryptoDetails(String symbol, Map<String, Object> cryptoQuote) {
+        if (cryptoQuote == null) throw new IllegalStateException("Failed to fetch crypto quote for " + symbol);
+        StockDetails details = new StockDetails();
+        details.setSymbol(symbol);
+        details.setName((String) cryptoQuote.get("name"));
+        details.setPrice((Double) cryptoQuote.get("price"));
+        details.setChange((Double) cryptoQuote.get("change"));
+        details.setChangePercent((Double) cryptoQuote.get("changePercent"));
+        details.setHigh((Double) cryptoQuote.get("high"));
+        details.setLow((Double) cryptoQuote.get("low"));
+        details.setVolume(((Number) cryptoQuote.get("volume")).longValue());
+        details.setIndustry("Cryptocurrency");
+        return details;
+    }
+
+    private StockDetails stockDetails(String symbol, Quote quote, CompanyFundamentals fundamentals) {
+        if (quote == null) {
+            log.error("Failed to fetch quote data for symbol: {}", symbol);
+            throw new IllegalStateException("Failed to fetch quote data from Finnhub API");
+        }
+        StockDetails details = new StockDetails();
+        details.setSymbol(symbol);
+        details.setPrice(quote.getCurrentPrice());
+        details.setChange(quote.getChange());
+        details.setChangePercent(quote.getPercentChange());
+        details.setHigh(quote.getHigh());
+        details.setLow(quote.getLow());
+        details.setOpen(quote.getOpen());
+        details.setPreviousClose(quote.getOpen() - quote.getChange());
+        details.setVolume(quote.getVolume());
+
+        if (fundamentals != null) {
+            details.setName(fundamentals.getName());
+            details.setIndustry(fundamentals.getIndustry());
+            double marketCapInBillions = fundamentals.getMarketCap();
+            if (marketCapInBillions > 0) details.setMarketCap(marketCapInBillions);
+            details.setPeRatio(fundamentals.getPeRatio());
+            details.setBeta(fundamentals.getBeta());
+        }
+        return details;
+    }
+
+    /**
+     * Refetches a stock's fundamentals ahead of the daily refresh, e.g. after
+     * earnings. Empty for crypto, which has none.
+     */
+    public Optional<CompanyFundamentals> refreshFundamentals(String symbol) {
+        if (twelveDataClient.isCrypto(symbol)) {
+            return Optional.empty();
+        }
+        CompanyFundamentals fundamentals = fundamentalsStore.refresh(symbol);
+        // Details embed them; the quote cache picks them up on its next refresh
+        detailsCache.invalidate(symbol);
+        return Optional.ofNullable(fundamentals);
+    }
+
+    public List<StockSummary> searchStocks(String query) {
         if (query == null || query.trim().isEmpty()) {
             return new ArrayList<>();
         }
 
         String trimmed = query.trim();
-        List<Stock> searchResults = new ArrayList<>();
+        List<StockSummary> searchResults = new ArrayList<>();
 
         try {
             // Use Finnhub symbol search for proper name/symbol matching
             List<Map<String, String>> finnhubResults = finnhubClient.searchSymbols(trimmed);
 
+            // Stored rows for every result not in the cache, in one projection query
+            List<String> uncached = new ArrayList<>();
+            for (Map<String, String> item : finnhubResults) {
+                String symbol = item.get("symbol");
+                if (symbol == null || symbol.isEmpty()) continue;
+                Duration ttl = quoteTtl(symbol);
+                if (!isFresh(stockCache.get(symbol, ttl), ttl)) uncached.add(symbol);
+            }
+            Map<String, StockSummary> stored = new HashMap<>();
+            if (!uncached.isEmpty()) {
+                for (StockSummary summary : stockRepository.findSummariesBySymbolIn(uncached)) {
+                    stored.put(summary.getSymbol(), summary);
+                }
+            }
+
             for (Map<String, String> item : finnhubResults) {
                 String symbol = item.get("symbol");
                 if (symbol == null || symbol.isEmpty()) continue;
 
-                // Check cache/db first to avoid unnecessary API calls
-                CachedStock cached = stockCache.get(symbol);
-                if (cached != null && !cached.isExpired()) {
-                    searchResults.add(cached.stock);
+                Duration ttl = quoteTtl(symbol);
+                TwoLevelCache.Entry<Stock> cached = stockCache.get(symbol, ttl);
+                if (isFresh(cached, ttl)) {
+                    searchResults.add(StockSummary.of(cached.value));
                     continue;
                 }
 
-                Optional<Stock> dbStock = stockRepository.findById(symbol);
-                if (dbStock.isPresent() && dbStock.get().getLastUpdated() != null &&
-                        Duration.between(dbStock.get().getLastUpdated(), LocalDateTime.now()).toMinutes() < CACHE_EXPIRY_MINUTES) {
-                    searchResults.add(dbStock.get());
+                StockSummary summary = stored.get(symbol);
+                if (summary != null && isFresh(summary.getLastUpdated(), ttl)) {
+                    searchResults.add(summary);
                     continue;
                 }
 
                 // Return a lightweight stub — frontend can fetch full details on demand
-                Stock stub = dbStock.orElse(new Stock());
-                stub.setSymbol(symbol);
-                if (stub.getName() == null || stub.getName().isEmpty()) {
-                    stub.setName(item.get("name"));
-                }
-                stub.setType(item.get("type"));
-                searchResults.add(stub);
+                String name = summary != null && summary.getName() != null && !summary.getName().isEmpty()
+                    ? summary.getName() : item.get("name");
+                searchResults.add(summary != null
+                    ? new StockSummary(symbol, name, item.get("type"), summary.getIndustry(), summary.getPrice(),
+                        summary.getChange(), summary.getChangePercent(), summary.getMarketCap(),
+                        summary.getPeRatio(), summary.getLastUpdated())
+                    : new StockSummary(symbol, name, item.get("type"), null, 0, 0, 0, 0, 0, null));
             }
 
             return searchResults;
@@ -288,25 +424,7 @@ public class StockService {
                 return Optional.empty();
             }
             
-            // Check cache first
-            CachedStock cached = stockCache.get(symbol);
-            if (cached != null && !cached.isExpired()) {
-                log.debug("Returning cached data for {}", symbol);
-                return Optional.of(cached.stock);
-            }
-
-            // Check database before making API call
-            Optional<Stock> dbStock = stockRepository.findById(symbol);
-            if (dbStock.isPresent() && 
-                dbStock.get().getLastUpdated() != null && 
-                Duration.between(dbStock.get().getLastUpdated(), LocalDateTime.now()).toMinutes() < CACHE_EXPIRY_MINUTES) {
-                log.debug("Returning database data for {}", symbol);
-                Stock stock = dbStock.get();
-                stockCache.put(symbol, new CachedStock(stock));
-                return Optional.of(stock);
-            }
-
-            // If not in cache or database, fetch from Finnhub
+            // Cache, then stored row, then the provider
             Stock stock = fetchStockFromFinnhub(symbol);
             if (stock != null) {
                 return Optional.of(stock);
@@ -319,14 +437,125 @@ public class StockService {
         }
     }
 
-    public List<Stock> getPopularStocks() {
+    /**
+     * Quotes for several symbols at once: the in-memory cache first, then one
+     * database read for the rest. A single stale symbol gets the usual full
+     * refresh; several are refreshed together with one batched provider call.
+     */
+    public Map<String, Stock> getQuotes(Collection<String> symbols) {
+        Map<String, Stock> quotes = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        Map<String, Stock> stored = new HashMap<>();
+        List<String> unknown = new ArrayList<>();
+        for (String symbol : symbols) {
+            Duration ttl = quoteTtl(symbol);
+            TwoLevelCache.Entry<Stock> cached = stockCache.get(symbol, ttl);
+            if (isFresh(cached, ttl)) {
+                quotes.put(symbol, cached.value);
+                continue;
+            }
+            missing.add(symbol);
+            Stock known = cached != null ? cached.value : writeBehind.pending(symbol);
+            if (known != null) {
+                stored.put(symbol, known);
+            } else {
+                unknown.add(symbol);
+            }
+        }
+        if (missing.isEmpty()) {
+            return quotes;
+        }
+
+        if (!unknown.isEmpty()) {
+            for (Stock stock : stockRepository.findAllById(unknown)) {
+                stored.put(stock.getSymbol(), stock);
+            }
+        }
+        List<String> stale = new ArrayList<>();
+        for (String symbol : missing) {
+            Stock stock = stored.get(symbol);
+            if (stock != null && isFresh(stock.getLastUpdated(), quoteTtl(symbol))) {
+                stockCache.put(symbol, stock);
+                quotes.put(symbol, stock);
+            } else {
+                stale.add(symbol);
+            }
+        }
+
+        if (stale.size() == 1) {
+            String symbol = stale.get(0);
+            Stock stock = stored.get(symbol);
+            try {
+                Stock fresh = fetchStockFromFinnhub(symbol);
+                if (fresh != null) {
+                    quotes.put(symbol, fresh);
+                } else if (stock != null) {
+                    quotes.put(symbol, stock);
+                }
+            } catch (Exception e) {
+                log.warn("Quote refresh failed for {}: {}", symbol, e.getMessage());
+                if (stock != null) quotes.put(symbol, stock);
+            }
+        } else if (!stale.isEmpty()) {
+            quotes.putAll(refreshQuotes(stale, stored));
+        }
+        return quotes;
+    }
+
+    /**
+     * Refreshes prices for several symbols with one batched quote call. Only
+     * the price fields are updated; profile data stays as stored until the
+     * symbol's next full refresh. Symbols the batch misses keep their stored
+     * row for one TTL rather than falling back to per-symbol calls.
+     */
+    private Map<String, Stock> refreshQuotes(List<String> symbols, Map<String, Stock> stored) {
+        Map<String, Map<String, Object>> batch = twelveDataClient.getQuotes(symbols);
+        Map<String, Stock> quotes = new HashMap<>();
+        List<Stock> updated = new ArrayList<>();
+        for (String symbol : symbols) {
+            Stock known = stored.get(symbol);
+            Map<String, Object> quote = batch.get(symbol);
+            double price = quote != null ? ((Number) quote.get("price")).doubleValue() : 0;
+            if (price <= 0) {
+                Stock stale = staleOrNull(symbol, Optional.ofNullable(known));
+                if (stale != null) quotes.put(symbol, stale);
+                continue;
+            }
+            Stock stock = new Stock();
+            if (known != null) {
+                BeanUtils.copyProperties(known, stock);
+            } else {
+                stock.setSymbol(symbol);
+                stock.setName((String) quote.get("name"));
+                if (twelveDataClient.isCrypto(symbol)) stock.setIndustry("Cryptocurrency");
+            }
+            stock.setPrice(price);
+            stock.setChange(((Number) quote.get("change")).doubleValue());
+            stock.setChangePercent(((Number) quote.get("changePercent")).doubleValue());
+            stock.setHigh(((Number) quote.get("high")).doubleValue());
+            stock.setLow(((Number) quote.get("low")).doubleValue());
+            stock.setOpen(((Number) quote.get("open")).doubleValue());
+            stock.setVolume(((Number) quote.get("volume")).longValue());
+            stock.setLastUpdated(LocalDateTime.now());
+            updated.add(stock);
+        }
+        for (Stock stock : updated) {
+            writeBehind.enqueue(stock);
+            stockCache.put(stock.getSymbol(), stock);
+            quotes.put(stock.getSymbol(), stock);
+            eventPublisher.publishEvent(new QuoteUpdatedEvent(stock.getSymbol(), stock.getPrice(), stock.getChange()));
+        }
+        return quotes;
+    }
+
+    public List<StockSummary> getPopularStocks() {
         // Return cached popular stocks if not expired
         if (cachedPopularStocks != null && System.currentTimeMillis() - popularStocksCacheTime < 3600000) {
             return cachedPopularStocks;
         }
         
         // Load from database only
-        List<Stock> dbStocks = stockRepository.findAllById(popularStocks);
+        List<StockSummary> dbStocks = stockRepository.findSummariesBySymbolIn(popularStocks);
         if (!dbStocks.isEmpty()) {
             cachedPopularStocks = dbStocks;
             popularStocksCacheTime = System.currentTimeMillis();
@@ -347,6 +576,15 @@ public class StockService {
         return data;
     }
     
+    public CompletableFuture<List<StockPrice>> getHistoricalDataAsync(String symbol, String interval) {
+        return twelveDataClient.getHistoricalDataAsync(symbol, interval).thenApply(data -> {
+            if (data.isEmpty()) {
+                log.warn("No historical data available for {} interval={}", symbol, interval);
+            }
+            return data;
+        });
+    }
+
     public Map<String, Object> getNewsSentiment(String symbol) {
         try {
             log.info("Getting news sentiment for symbol: {}", symbol);
@@ -365,10 +603,10 @@ public class StockService {
             
             log.info("Found {} news articles for sentiment analysis", newsArticles.size());
             
-            // Use LLM service to analyze sentiment based on actual news articles
+            // The LLM, or with sentiment.local.enabled the local model, escalating unsure batches to the LLM
             Map<String, Object> sentimentResults = newsAnalysisService.analyzeNewsSentiment(symbol, newsArticles);
-            log.info("LLM analysis complete: sentiment={}, confidence={}", 
-                    sentimentResults.get("sentiment"), sentimentResults.get("confidence"));
+            log.info("Sentiment analysis complete: sentiment={}, confidence={}, source={}", 
+                    sentimentResults.get("sentiment"), sentimentResults.get("confidence"), sentimentResults.get("source"));
             
             return sentimentResults;
             
@@ -382,75 +620,50 @@ public class StockService {
         }
     }
     
+    /**
+     * Reads news from the local {@link NewsStore}. Providers are only called
+     * synchronously the first time a symbol is seen; after that the
+     * {@link NewsIngester} keeps it fresh in the background.
+     */
     public List<NewsArticle> getStockNews(String symbol, int limit) {
         try {
-            log.info("Fetching news for symbol: {} with limit: {}", symbol, limit);
-            
-            // Try NewsData.io first
-            boolean newsDataSuccess = false;
-            try {
-                log.info("Attempting to use NewsData.io for news...");
-                List<Map<String, Object>> newsDataArticles = newsDataClient.getStockNews(symbol, limit);
-                if (newsDataArticles != null && !newsDataArticles.isEmpty()) {
-                    log.info("Successfully fetched {} news articles from NewsData.io", newsDataArticles.size());
-                    List<NewsArticle> articles = convertToNewsArticles(newsDataArticles);
-                    if (!articles.isEmpty()) {
-                        newsDataSuccess = true;
-                        return articles;
-                    }
-                } else {
-                    log.warn("NewsData.io returned no results. Falling back to RapidApi");
-                }
-            } catch (Exception e) {
-                log.warn("Error fetching news from NewsData.io: {}. Falling back to RapidApi", e.getMessage());
-            }
-
-            // Fallback to RapidApi if NewsData.io failed
-            if (!newsDataSuccess) {
-                try {
-                    log.info("Attempting to use RapidAPI for news (fallback)...");
-                    List<NewsArticle> rapidApiNews = rapidApiClient.getStockNews(symbol, limit);
-                    if (rapidApiNews != null && !rapidApiNews.isEmpty()) {
-                        log.info("Successfully fetched {} news articles from RapidApi (fallback)", rapidApiNews.size());
-                        return rapidApiNews;
-                    } else {
-                        log.warn("RapidAPI returned no news results");
-                    }
-                } catch (Exception e) {
-                    log.error("Error fetching news from RapidApi (fallback): {}", e.getMessage());
-                }
+            String key = symbol.toUpperCase();
+            newsIngester.watch(key);
+            List<NewsArticle> articles = newsStore.getLatest(key, limit);
+            if (articles.isEmpty() && newsStore.lastIngestedAt(key) == null) {
+                log.info("No stored news for {}, ingesting before responding", key);
+                newsIngester.ingestNow(key);
+                articles = newsStore.getLatest(key, limit);
             }
-            
-            // If both APIs fail, return empty list
-            log.warn("Both news APIs failed, returning empty list");
-            return new ArrayList<>();
-            
+            return articles;
         } catch (Exception e) {
             log.error("Error in getStockNews: {}", e.getMessage());
             return new ArrayList<>();
         }
     }
 
-    private List<NewsArticle> convertToNewsArticles(List<Map<String, Object>> articles) {
-        List<NewsArticle> newsArticles = new ArrayList<>();
-        for (Map<String, Object> article : articles) {
-            try {
-                NewsArticle newsArticle = new NewsArticle();
-                newsArticle.setTitle((String) article.get("title"));
-                newsArticle.setUrl((String) article.get("url"));
-                newsArticle.setSource((String) article.get("source"));
-                newsArticle.setPublishedDate((String) article.get("date"));
-                newsArticle.setSummary((String) article.get("summary"));
-                newsArticle.setThumbnail((String) article.get("thumbnail"));
-                newsArticles.add(newsArticle);
-            } catch (Exception e) {
-                log.warn("Error converting article: {}", e.getMessage());
+    /** {@link #getStockNews} without blocking on the first-time ingest. */
+    public CompletableFuture<List<NewsArticle>> getStockNewsAsync(String symbol, int limit) {
+        String key = symbol.toUpperCase();
+        try {
+            newsIngester.watch(key);
+            List<NewsArticle> articles = newsStore.getLatest(key, limit);
+            if (!articles.isEmpty() || newsStore.lastIngestedAt(key) != null) {
+                return CompletableFuture.completedFuture(articles);
             }
+            log.info("No stored news for {}, ingesting before responding", key);
+            return newsIngester.ingestNowAsync(key)
+                .thenApply(ingested -> newsStore.getLatest(key, limit))
+                .exceptionally(e -> {
+                    log.error("Error in getStockNews: {}", e.getMessage());
+                    return new ArrayList<>();
+                });
+        } catch (Exception e) {
+            log.error("Error in getStockNews: {}", e.getMessage());
+            return CompletableFuture.completedFuture(new ArrayList<>());
         }
-        return newsArticles;
     }
 
-
     public List<Map<String, Object>> getChartData(String symbol, String interval) {
         List<StockPrice> priceHistory = getHistoricalData(symbol, interval);
         
@@ -719,34 +932,6 @@ public class StockService {
         return Math.min(100, Math.max(0, rsi));
     }
 
-    private static class CachedStock {
-        final Stock stock;
-        final long timestamp;
-        
-        CachedStock(Stock stock) {
-            this.stock = stock;
-            this.timestamp = System.currentTimeMillis();
-        }
-        
-        boolean isExpired() {
-            return System.currentTimeMillis() - timestamp > TimeUnit.MINUTES.toMillis(CACHE_EXPIRY_MINUTES);
-        }
-    }
-    
-    private static class CachedStockDetails {
-        final StockDetails details;
-        final long timestamp;
-        
-        CachedStockDetails(StockDetails details) {
-            this.details = details;
-            this.timestamp = System.currentTimeMillis();
-        }
-        
-        boolean isExpired() {
-            return System.currentTimeMillis() - timestamp > TimeUnit.HOURS.toMillis(DETAILS_CACHE_EXPIRY_HOURS);
-        }
-    }
-
     public Map<String, Object> getPeerComparison(String symbol) {
         Map<String, Object> result = new HashMap<>();
         try {
@@ -763,67 +948,64 @@ public class StockService {
                 return result;
             }
             
+            // Shared with the quote cache and possibly queued for write-behind, so read only
             Stock stock = stockOpt.get();
-            stock.setIndustry(details.getIndustry()); // Ensure industry is set
+            String industry = details.getIndustry();
             
-            // Find other stocks in the same industry
-            List<Stock> industryPeers = stockRepository.findByIndustry(details.getIndustry());
-            if (industryPeers.size() <= 1) {
-                log.info("No peers found for industry: {}", details.getIndustry());
+            // Top 5 other stocks in the same industry by market cap (one extra in case the stock itself is among them)
+            List<StockSummary> industryPeers = new ArrayList<>(
+                stockRepository.findSummariesByIndustry(industry, PageRequest.of(0, 6)));
+            industryPeers.removeIf(s -> s.getSymbol().equals(symbol));
+            if (industryPeers.isEmpty()) {
+                log.info("No peers found for industry: {}", industry);
                 return result;
             }
-            
-            // Remove the current stock from the list
-            industryPeers.removeIf(s -> s.getSymbol().equals(symbol));
-            
-            // Limit to top 5 peers by market cap
-            industryPeers.sort((a, b) -> Double.compare(b.getMarketCap(), a.getMarketCap()));
             if (industryPeers.size() > 5) {
                 industryPeers = industryPeers.subList(0, 5);
             }
             
-            // Update peer data with latest information
-            for (Stock peer : industryPeers) {
+            // Create comparison data, with the latest details where available
+            List<Map<String, Object>> peers = new ArrayList<>();
+            double peSum = 0;
+            int peCount = 0;
+            double changeSum = 0;
+            for (StockSummary peer : industryPeers) {
+                double price = peer.getPrice();
+                double changePercent = peer.getChangePercent();
+                double peRatio = peer.getPeRatio();
+                double marketCap = peer.getMarketCap();
                 try {
                     StockDetails peerDetails = getStockDetails(peer.getSymbol());
                     if (peerDetails != null) {
-                        peer.setPrice(peerDetails.getPrice());
-                        peer.setChangePercent(peerDetails.getChangePercent());
-                        peer.setPeRatio(peerDetails.getPeRatio());
-                        peer.setMarketCap(peerDetails.getMarketCap());
+                        if (peerDetails.getPrice() != null) price = peerDetails.getPrice();
+                        if (peerDetails.getChangePercent() != null) changePercent = peerDetails.getChangePercent();
+                        if (peerDetails.getPeRatio() != null) peRatio = peerDetails.getPeRatio();
+                        if (peerDetails.getMarketCap() != null) marketCap = peerDetails.getMarketCap();
                     }
                 } catch (Exception e) {
                     log.warn("Failed to update peer data for {}: {}", peer.getSymbol(), e.getMessage());
                 }
-            }
-            
-            // Basic metrics for comparison
-            double avgPE = industryPeers.stream()
-                    .map(Stock::getPeRatio)
-                    .filter(pe -> pe != null && pe > 0.0)
-                    .mapToDouble(Double::doubleValue)
-                    .average()
-                    .orElse(0.0);
-            
-            double avgChangePercent = industryPeers.stream()
-                    .mapToDouble(Stock::getChangePercent)
-                    .average()
-                    .orElse(0.0);
-            
-            // Create comparison data
-            List<Map<String, Object>> peers = new ArrayList<>();
-            for (Stock peer : industryPeers) {
+
                 Map<String, Object> peerData = new HashMap<>();
                 peerData.put("symbol", peer.getSymbol());
                 peerData.put("name", peer.getName());
-                peerData.put("price", peer.getPrice());
-                peerData.put("changePercent", peer.getChangePercent());
-                Double peRatio = peer.getPeRatio();
-                peerData.put("peRatio", (peRatio != null && peRatio > 0.0) ? peRatio : null);
-                peerData.put("marketCap", formatMarketCap(peer.getMarketCap()));
+                peerData.put("price", price);
+                peerData.put("changePercent", changePercent);
+                peerData.put("peRatio", peRatio > 0.0 ? peRatio : null);
+                peerData.put("marketCap", formatMarketCap(marketCap));
                 peers.add(peerData);
+
+                if (peRatio > 0.0) {
+                    peSum += peRatio;
+                    peCount++;
+                }
+                changeSum += changePercent;
             }
             
+            // Basic metrics for comparison
+            double avgPE = peCount > 0 ? peSum / peCount : 0.0;
+            double avgChangePercent = changeSum / industryPeers.size();
+            
             result.put("peers", peers);
             result.put("avgPE", avgPE > 0.0 ? avgPE : null);
             Double stockPE = stock.getPeRatio();
@@ -885,6 +1067,7 @@ public class StockService {
     public Stock saveStock(Stock stock) {
         try {
             log.debug("Saving stock: {}", stock.getSymbol());
+            writeBehind.discard(stock.getSymbol());
             return stockRepository.save(stock);
         } catch (Exception e) {
             log.error("Error saving stock {}: {}", stock.getSymbol(), e.getMessage());
@@ -895,6 +1078,8 @@ public class StockService {
     public void deleteStock(String symbol) {
         try {
             log.debug("Deleting stock: {}", symbol);
+            writeBehind.discard(symbol);
+            stockCache.invalidate(symbol);
             stockRepository.deleteBySymbol(symbol);
         } catch (Exception e) {
             log.error("Error deleting stock {}: {}", symbol, e.getMessage());
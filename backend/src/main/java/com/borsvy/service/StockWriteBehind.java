@@ -0,0 +1,211 @@
+package com.borsvy.service;
+
+import com.borsvy.model.Stock;
+import com.borsvy.repository.StockRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.NonTransientDataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Write-behind buffer for quote refreshes. The request path only replaces the
+ * symbol's entry in memory; a scheduled flush writes the latest state of every
+ * dirty symbol as one JDBC batch upsert ({@code INSERT ... ON CONFLICT} on
+ * PostgreSQL, {@code MERGE} on H2). Ten refreshes of a symbol between flushes
+ * cost one row write.
+ *
+ * <p>When a batch fails, its rows are written one at a time. The upsert is
+ * idempotent, so rows the batch already wrote can be written again. A row
+ * rejected for its own data is dropped and logged instead of failing every
+ * later flush. When a row fails for any other reason, such as a lost
+ * connection, it and the rest of the batch are queued for the next flush.
+ */
+@Slf4j
+@Service
+public class StockWriteBehind {
+
+    private static final String[] COLUMNS = {
+        "symbol", "name", "type", "industry", "price", "change", "change_percent", "high", "low", "open", "volume",
+        "market_cap", "pe_ratio", "beta", "high52week", "low52week", "dividend_yield", "earnings_per_share",
+        "shares_outstanding", "dividend", "last_updated", "rsi", "macd", "sma20", "sma50"
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final StockRepository stockRepository;
+    private final Map<String, Stock> pending = new ConcurrentHashMap<>();
+    // Taken from pending by the running flush; still visible to readers until committed
+    private final Map<String, Stock> inFlight = new ConcurrentHashMap<>();
+    private String upsertSql;
+    private boolean sqlResolved;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:30}")
+    private int batchSize;
+
+    public StockWriteBehind(JdbcTemplate jdbcTemplate, StockRepository stockRepository) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.stockRepository = stockRepository;
+    }
+
+    /**
+     * Queues the latest state of a stock. The instance must not be mutated
+     * afterwards; callers copy before changing a queued or cached row.
+     */
+    public void enqueue(Stock stock) {
+        pending.put(stock.getSymbol(), stock);
+    }
+
+    /** The newest state not yet committed, or null. */
+    public Stock pending(String symbol) {
+        Stock stock = pending.get(symbol);
+        return stock != null ? stock : inFlight.get(symbol);
+    }
+
+    /** Drops a queued write, e.g. before a direct save or delete of the row. */
+    public void discard(String symbol) {
+        pending.remove(symbol);
+    }
+
+    @Scheduled(fixedDelayString = "${stocks.write-behind.flush-ms:500}")
+    public synchronized void flush() {
+        if (pending.isEmpty()) return;
+        List<Stock> batch = new ArrayList<>(pending.size());
+        for (String symbol : pending.keySet()) {
+            Stock stock = pending.remove(symbol);
+            if (stock != null) {
+                inFlight.put(symbol, stock);
+                batch.add(stock);
+            }
+        }
+
+        try {
+            String sql = upsertSql();
+            try {
+                write(sql, batch);
+                log.debug("Flushed {} quote updates", batch.size());
+            } catch (Exception e) {
+                log.warn("Quote write-behind batch of {} rows failed, writing them one by one: {}",
+                    batch.size(), e.getMessage());
+                boolean reachable = true;
+                for (Stock stock : batch) {
+                    if (reachable) {
+                        reachable = writeOne(sql, stock);
+                    } else {
+                        requeue(stock);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            // Resolving the dialect failed, so the database is unreachable
+            log.warn("Quote write-behind flush of {} rows failed, will retry: {}", batch.size(), e.getMessage());
+            batch.forEach(this::requeue);
+        } finally {
+            for (Stock stock : batch) {
+                inFlight.remove(stock.getSymbol(), stock);
+            }
+        }
+    }
+
+    private void write(String sql, List<Stock> stocks) {
+        if (sql != null) {
+            jdbcTemplate.batchUpdate(sql, stocks, batchSize, StockWriteBehind::bind);
+        } else {
+            // Other databases: Hibernate still groups these by hibernate.jdbc.batch_size
+            stockRepository.saveAll(stocks);
+        }
+    }
+
+    /**
+     * Returns false when the row failed for a reason other than its data;
+     * the caller then queues the rest instead of waiting on each in turn.
+     */
+    private boolean writeOne(String sql, Stock stock) {
+        try {
+            write(sql, List.of(stock));
+            return true;
+        } catch (NonTransientDataAccessException e) {
+            if (!(e instanceof DataAccessResourceFailureException)) {
+                log.error("Dropping quote update for {}, the database rejected it: {}", stock.getSymbol(), e.getMessage());
+                return true;
+            }
+            requeue(stock);
+            return false;
+        } catch (Exception e) {
+            requeue(stock);
+            return false;
+        }
+    }
+
+    private void requeue(Stock stock) {
+        // A newer refresh queued meanwhile wins
+        pending.putIfAbsent(stock.getSymbol(), stock);
+    }
+
+    @jakarta.annotation.PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private String upsertSql() {
+        if (!sqlResolved) {
+            String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+            String columns = String.join(", ", COLUMNS);
+            String placeholders = String.join(", ", Collections.nCopies(COLUMNS.length, "?"));
+            if ("PostgreSQL".equalsIgnoreCase(product)) {
+                StringBuilder updates = new StringBuilder();
+                for (int i = 1; i < COLUMNS.length; i++) {
+                    if (updates.length() > 0) updates.append(", ");
+                    updates.append(COLUMNS[i]).append(" = EXCLUDED.").append(COLUMNS[i]);
+                }
+                upsertSql = "INSERT INTO stock (" + columns + ") VALUES (" + placeholders + ") " +
+                    "ON CONFLICT (symbol) DO UPDATE SET " + updates;
+            } else if ("H2".equalsIgnoreCase(product)) {
+                upsertSql = "MERGE INTO stock (" + columns + ") KEY (symbol) VALUES (" + placeholders + ")";
+            }
+            sqlResolved = true;
+        }
+        return upsertSql;
+    }
+
+    private static void bind(PreparedStatement ps, Stock stock) throws SQLException {
+        int i = 1;
+        ps.setString(i++, stock.getSymbol());
+        ps.setString(i++, stock.getName());
+        ps.setString(i++, stock.getType());
+        ps.setString(i++, stock.getIndustry());
+        ps.setDouble(i++, stock.getPrice());
+        ps.setDouble(i++, stock.getChange());
+        ps.setDouble(i++, stock.getChangePercent());
+        ps.setDouble(i++, stock.getHigh());
+        ps.setDouble(i++, stock.getLow());
+        ps.setDouble(i++, stock.getOpen());
+        ps.setLong(i++, stock.getVolume());
+        ps.setDouble(i++, stock.getMarketCap());
+        ps.setDouble(i++, stock.getPeRatio());
+        ps.setDouble(i++, stock.getBeta());
+        ps.setDouble(i++, stock.getHigh52Week());
+        ps.setDouble(i++, stock.getLow52Week());
+        ps.setDouble(i++, stock.getDividendYield());
+        ps.setDouble(i++, stock.getEarningsPerShare());
+        ps.setDouble(i++, stock.getSharesOutstanding());
+        ps.setDouble(i++, stock.getDividend());
+        ps.setTimestamp(i++, stock.getLastUpdated() != null ? Timestamp.valueOf(stock.getLastUpdated()) : null);
+        ps.setDouble(i++, stock.getRsi());
+        ps.setDouble(i++, stock.getMacd());
+        ps.setDouble(i++, stock.getSma20());
+        ps.setDouble(i, stock.getSma50());
+    }
+}
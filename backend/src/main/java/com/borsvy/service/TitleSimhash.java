@@ -0,0 +1,79 @@
+package com.borsvy.service;
+
+/**
+ * 64-bit simhash over lower-cased title tokens. Syndicated copies of the same
+ * story ("Apple shares rise after earnings" vs "Apple Shares Rise After
+ * Earnings - Reuters") land within a few bits of each other.
+ */
+final class TitleSimhash {
+
+    // Titles within this many differing bits are treated as the same story
+    static final int NEAR_DUPLICATE_BITS = 5;
+
+    private static final int MAX_SUFFIX_LENGTH = 32;
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private TitleSimhash() {
+    }
+
+    static long of(CharSequence title) {
+        int[] votes = new int[64];
+        int length = withoutPublisherSuffix(title);
+        long hash = FNV_OFFSET;
+        int tokenLength = 0;
+        for (int i = 0; i <= length; i++) {
+            char c = i < length ? Character.toLowerCase(title.charAt(i)) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                hash = (hash ^ c) * FNV_PRIME;
+                tokenLength++;
+                continue;
+            }
+            // Single characters ("a", "-", "s" from "'s") carry no signal
+            if (tokenLength > 1) {
+                long mixed = mix(hash);
+                for (int bit = 0; bit < 64; bit++) {
+                    votes[bit] += ((mixed >>> bit) & 1L) != 0 ? 1 : -1;
+                }
+            }
+            hash = FNV_OFFSET;
+            tokenLength = 0;
+        }
+
+        long simhash = 0;
+        for (int bit = 0; bit < 64; bit++) {
+            if (votes[bit] > 0) simhash |= 1L << bit;
+        }
+        return simhash;
+    }
+
+    /**
+     * Length of the title without a trailing " - Reuters" / " | Yahoo Finance"
+     * style publisher tag, which would otherwise dominate short headlines.
+     */
+    private static int withoutPublisherSuffix(CharSequence title) {
+        if (title == null) {
+            return 0;
+        }
+        int length = title.length();
+        for (int i = length - 2; i > 0 && i >= length - MAX_SUFFIX_LENGTH; i--) {
+            char c = title.charAt(i);
+            if ((c == '-' || c == '|') && title.charAt(i - 1) == ' ' && title.charAt(i + 1) == ' ') {
+                return i - 1;
+            }
+        }
+        return length;
+    }
+
+    static boolean isNearDuplicate(long a, long b) {
+        return Long.bitCount(a ^ b) <= NEAR_DUPLICATE_BITS;
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -5,10 +5,13 @@ import com.borsvy.model.User;
 import com.borsvy.repository.SubscriptionRepository;
 import com.borsvy.repository.UserRepository;
 import com.borsvy.security.JwtService;
+import com.borsvy.security.UserPrincipalCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.client.RestTemplate;
 
 import java.util.Map;
@@ -26,6 +29,9 @@ public class UserService {
     @Autowired
     private JwtService jwtService;
 
+    @Autowired
+    private UserPrincipalCache principalCache;
+
     private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
     private final RestTemplate restTemplate = new RestTemplate();
 
@@ -35,7 +41,7 @@ public class UserService {
             throw new IllegalArgumentException("Email already registered");
         }
         User user = new User(email, passwordEncoder.encode(rawPassword));
-        user = userRepository.save(user);
+        user = save(user);
         subscriptionRepository.save(new Subscription(user.getId()));
         return user;
     }
@@ -46,7 +52,7 @@ public class UserService {
         if (user.getPassword() == null || !passwordEncoder.matches(rawPassword, user.getPassword())) {
             throw new IllegalArgumentException("Invalid email or password");
         }
-        return jwtService.generateToken(user.getId(), user.getEmail());
+        return jwtService.generateToken(user.getId(), user.getEmail(), user.getTokenVersion());
     }
 
     @Transactional
@@ -71,15 +77,15 @@ public class UserService {
                 if (byEmail.isPresent()) {
                     user = byEmail.get();
                     user.setGoogleId(googleId);
-                    user = userRepository.save(user);
+                    user = save(user);
                 } else {
                     user = new User(email, null);
                     user.setGoogleId(googleId);
-                    user = userRepository.save(user);
+                    user = save(user);
                     subscriptionRepository.save(new Subscription(user.getId()));
                 }
             }
-            return jwtService.generateToken(user.getId(), user.getEmail());
+            return jwtService.generateToken(user.getId(), user.getEmail(), user.getTokenVersion());
         } catch (IllegalArgumentException e) {
             throw e;
         } catch (Exception e) {
@@ -87,6 +93,27 @@ public class UserService {
         }
     }
 
+    /**
+     * Every write to a user goes through here so cached principals never
+     * outlive the row they were built from. The entry is dropped again after
+     * commit, since a request between the save and the commit would cache the
+     * old row.
+     */
+    private User save(User user) {
+        User saved = userRepository.save(user);
+        Long userId = saved.getId();
+        principalCache.invalidate(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    principalCache.invalidate(userId);
+                }
+            });
+        }
+        return saved;
+    }
+
     public Optional<User> findById(Long id) {
         return userRepository.findById(id);
     }
@@ -0,0 +1,6 @@
+-- V10: Peer comparison reads the largest stocks of an industry (StockRepository.findSummariesByIndustry);
+-- with market_cap in the key the top-N comes straight off the index without a sort.
+-- findByIndustry is still served by the leading column.
+
+CREATE INDEX IF NOT EXISTS idx_stock_industry_market_cap ON stock(industry, market_cap DESC);
+DROP INDEX IF EXISTS idx_stock_industry;
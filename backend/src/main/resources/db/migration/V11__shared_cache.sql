@@ -0,0 +1,24 @@
+-- V11: Shared cache tier for cache.l2.type=jdbc (JdbcSharedCache also creates these when Flyway is off)
+
+CREATE TABLE IF NOT EXISTS shared_cache (
+    cache_key VARCHAR(255) PRIMARY KEY,
+    cache_value TEXT NOT NULL,
+    expires_at TIMESTAMP NOT NULL
+);
+
+-- Refresh locks: one row per key being refreshed, taken by insert, expiring on its own
+CREATE TABLE IF NOT EXISTS shared_cache_locks (
+    lock_key VARCHAR(255) PRIMARY KEY,
+    owner VARCHAR(64) NOT NULL,
+    expires_at TIMESTAMP NOT NULL
+);
+
+-- Invalidation messages, polled by every node and purged after a few minutes
+CREATE TABLE IF NOT EXISTS shared_cache_messages (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    message VARCHAR(512) NOT NULL,
+    created_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_shared_cache_expires ON shared_cache(expires_at);
+CREATE INDEX IF NOT EXISTS idx_shared_cache_messages_created ON shared_cache_messages(created_at);
@@ -0,0 +1,9 @@
+-- V12: Lease table for cluster.enabled=true (ClusterMembership also creates it when Flyway is off)
+
+-- One row per running node, renewed every heartbeat; live rows form the consistent-hash ring
+CREATE TABLE IF NOT EXISTS cluster_members (
+    node_id VARCHAR(300) PRIMARY KEY,
+    host VARCHAR(255) NOT NULL,
+    started_at TIMESTAMP NOT NULL,
+    lease_expires_at TIMESTAMP NOT NULL
+);
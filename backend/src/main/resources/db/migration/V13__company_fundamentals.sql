@@ -0,0 +1,14 @@
+-- V13: Company fundamentals (profile and 52-week metrics), refreshed about once a day
+
+-- Separate from stock so the one-minute quote refresh no longer refetches them
+CREATE TABLE IF NOT EXISTS company_fundamentals (
+    symbol VARCHAR(20) PRIMARY KEY,
+    name VARCHAR(255),
+    industry VARCHAR(255),
+    market_cap DOUBLE PRECISION NOT NULL DEFAULT 0,
+    beta DOUBLE PRECISION NOT NULL DEFAULT 0,
+    pe_ratio DOUBLE PRECISION NOT NULL DEFAULT 0,
+    high_52_week DOUBLE PRECISION NOT NULL DEFAULT 0,
+    low_52_week DOUBLE PRECISION NOT NULL DEFAULT 0,
+    fetched_at TIMESTAMP NOT NULL
+);
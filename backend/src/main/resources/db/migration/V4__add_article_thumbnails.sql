@@ -0,0 +1,8 @@
+-- V4: Persistent cache of resolved news article thumbnails
+
+CREATE TABLE IF NOT EXISTS article_thumbnails (
+    url_hash VARCHAR(64) PRIMARY KEY,
+    article_url TEXT NOT NULL,
+    image_url TEXT,
+    resolved_at TIMESTAMP NOT NULL DEFAULT NOW()
+);
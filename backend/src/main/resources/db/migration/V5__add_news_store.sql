@@ -0,0 +1,24 @@
+-- V5: Persistent, deduplicated news store with a per-symbol inverted index
+
+CREATE TABLE IF NOT EXISTS news_articles (
+    url_hash VARCHAR(64) PRIMARY KEY,
+    url TEXT NOT NULL,
+    title TEXT NOT NULL,
+    title_simhash BIGINT NOT NULL,
+    source VARCHAR(255),
+    published_date VARCHAR(255),
+    published_at TIMESTAMP NOT NULL,
+    thumbnail TEXT,
+    summary TEXT,
+    sentiment VARCHAR(16),
+    ingested_at TIMESTAMP NOT NULL DEFAULT NOW()
+);
+
+CREATE TABLE IF NOT EXISTS news_article_symbols (
+    url_hash VARCHAR(64) NOT NULL REFERENCES news_articles(url_hash) ON DELETE CASCADE,
+    symbol VARCHAR(16) NOT NULL,
+    PRIMARY KEY (url_hash, symbol)
+);
+
+CREATE INDEX IF NOT EXISTS idx_news_articles_published ON news_articles(published_at);
+CREATE INDEX IF NOT EXISTS idx_news_article_symbols_symbol ON news_article_symbols(symbol);
@@ -0,0 +1,3 @@
+-- V6: Token version per user, bumped to revoke previously issued JWTs
+
+ALTER TABLE users ADD COLUMN IF NOT EXISTS token_version INTEGER NOT NULL DEFAULT 0;
@@ -0,0 +1,3 @@
+-- V7: Partial index used by the alert engine to page through pending alerts
+
+CREATE INDEX IF NOT EXISTS idx_price_alerts_pending ON price_alerts(id) WHERE active AND NOT triggered;
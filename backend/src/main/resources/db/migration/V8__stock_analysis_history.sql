@@ -0,0 +1,45 @@
+-- V8: Append-only analysis history, range-partitioned by month.
+-- stock_analysis kept one row per symbol; every snapshot is now its own row.
+-- The primary key has to include the partition key; ids stay unique through the sequence.
+
+CREATE TABLE IF NOT EXISTS stock_analysis_history (
+    id BIGSERIAL,
+    symbol VARCHAR(20) NOT NULL,
+    ai_analysis TEXT,
+    technical TEXT,
+    fundamental TEXT,
+    sentiment TEXT,
+    recommendation TEXT,
+    news_sentiment TEXT,
+    timestamp TIMESTAMP NOT NULL,
+    PRIMARY KEY (id, timestamp)
+) PARTITION BY RANGE (timestamp);
+
+-- Catches rows outside the monthly partitions (migrated snapshots, clock skew)
+CREATE TABLE IF NOT EXISTS stock_analysis_history_default PARTITION OF stock_analysis_history DEFAULT;
+
+-- Created on the parent, so every partition gets it
+CREATE INDEX IF NOT EXISTS idx_stock_analysis_history_symbol_ts
+    ON stock_analysis_history(symbol, timestamp, id);
+
+-- Current and next two months; AnalysisHistoryMaintenance keeps creating them ahead
+DO $$
+DECLARE
+    month_start DATE := date_trunc('month', NOW())::date;
+BEGIN
+    FOR i IN 0..2 LOOP
+        EXECUTE format(
+            'CREATE TABLE IF NOT EXISTS %I PARTITION OF stock_analysis_history FOR VALUES FROM (%L) TO (%L)',
+            'stock_analysis_history_y' || to_char(month_start, 'YYYY') || 'm' || to_char(month_start, 'MM'),
+            month_start, (month_start + INTERVAL '1 month')::date);
+        month_start := (month_start + INTERVAL '1 month')::date;
+    END LOOP;
+END $$;
+
+INSERT INTO stock_analysis_history (symbol, ai_analysis, technical, fundamental, sentiment, recommendation,
+                                    news_sentiment, timestamp)
+SELECT symbol, ai_analysis, technical, fundamental, sentiment, recommendation, news_sentiment,
+       COALESCE(timestamp, NOW())
+FROM stock_analysis;
+
+DROP TABLE IF EXISTS stock_analysis;
@@ -0,0 +1,60 @@
+-- V9: Indexes behind every repository finder (checked by QueryPlanCheck)
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- Until now only Hibernate created the quotes table; define it so the indexes below apply on a fresh database
+CREATE TABLE IF NOT EXISTS stock (
+    symbol VARCHAR(255) PRIMARY KEY,
+    name VARCHAR(255),
+    type VARCHAR(255),
+    industry VARCHAR(255),
+    price DOUBLE PRECISION NOT NULL DEFAULT 0,
+    change DOUBLE PRECISION NOT NULL DEFAULT 0,
+    change_percent DOUBLE PRECISION NOT NULL DEFAULT 0,
+    high DOUBLE PRECISION NOT NULL DEFAULT 0,
+    low DOUBLE PRECISION NOT NULL DEFAULT 0,
+    open DOUBLE PRECISION NOT NULL DEFAULT 0,
+    volume BIGINT NOT NULL DEFAULT 0,
+    market_cap DOUBLE PRECISION NOT NULL DEFAULT 0,
+    pe_ratio DOUBLE PRECISION NOT NULL DEFAULT 0,
+    beta DOUBLE PRECISION NOT NULL DEFAULT 0,
+    high52week DOUBLE PRECISION NOT NULL DEFAULT 0,
+    low52week DOUBLE PRECISION NOT NULL DEFAULT 0,
+    dividend_yield DOUBLE PRECISION NOT NULL DEFAULT 0,
+    earnings_per_share DOUBLE PRECISION NOT NULL DEFAULT 0,
+    shares_outstanding DOUBLE PRECISION NOT NULL DEFAULT 0,
+    dividend DOUBLE PRECISION NOT NULL DEFAULT 0,
+    last_updated TIMESTAMP,
+    rsi DOUBLE PRECISION NOT NULL DEFAULT 0,
+    macd DOUBLE PRECISION NOT NULL DEFAULT 0,
+    sma20 DOUBLE PRECISION NOT NULL DEFAULT 0,
+    sma50 DOUBLE PRECISION NOT NULL DEFAULT 0
+);
+
+-- StockRepository.findByIndustry
+CREATE INDEX IF NOT EXISTS idx_stock_industry ON stock(industry);
+
+-- StockRepository.findBySymbolContainingIgnoreCaseOrNameContainingIgnoreCase:
+-- Spring Data renders upper(col) LIKE upper(?) with a leading %, which only a trigram index can serve.
+-- The two GIN scans are OR-ed as a bitmap.
+CREATE INDEX IF NOT EXISTS idx_stock_symbol_trgm ON stock USING gin (upper(symbol) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_stock_name_trgm ON stock USING gin (upper(name) gin_trgm_ops);
+
+-- FavoriteRepository.findByUserId: covering, so the watchlist read is an index-only scan
+CREATE INDEX IF NOT EXISTS idx_favorites_user_covering ON favorites(user_id)
+    INCLUDE (id, symbol, name, price, change, change_percent, added_at, version);
+
+-- findByUserIdOrderByCreatedAtDesc on holdings and alerts: filter and sort from one index
+CREATE INDEX IF NOT EXISTS idx_portfolio_holdings_user_created ON portfolio_holdings(user_id, created_at DESC);
+DROP INDEX IF EXISTS idx_portfolio_holdings_user;
+CREATE INDEX IF NOT EXISTS idx_price_alerts_user_created ON price_alerts(user_id, created_at DESC);
+DROP INDEX IF EXISTS idx_price_alerts_user;
+
+-- StoredNewsArticleRepository.findLatestBySymbol: the symbol lookup also yields the join key
+CREATE INDEX IF NOT EXISTS idx_news_article_symbols_symbol_hash ON news_article_symbols(symbol, url_hash);
+DROP INDEX IF EXISTS idx_news_article_symbols_symbol;
+
+-- SubscriptionRepository.findByStripeSubscriptionId (webhooks)
+CREATE INDEX IF NOT EXISTS idx_subscriptions_stripe_subscription ON subscriptions(stripe_subscription_id);
+
+-- StockAnalysisRepository history queries are served by idx_stock_analysis_history_symbol_ts (V8)
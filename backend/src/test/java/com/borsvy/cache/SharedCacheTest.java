@@ -0,0 +1,292 @@
+package com.borsvy.cache;
+
+import com.borsvy.client.ProviderHealthRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The {@link SharedCache} contract and {@link TwoLevelCache} on top of it,
+ * with two nodes sharing one in-memory H2 database. The same contract runs
+ * against a Redis-protocol server when {@code -Dsharedcache.redis.url=redis://host:port}
+ * is given.
+ */
+class SharedCacheTest {
+
+    private static final Duration LONG_TTL = Duration.ofMinutes(5);
+
+    private DriverManagerDataSource dataSource;
+    private JdbcSharedCache nodeA;
+    private JdbcSharedCache nodeB;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:shared-cache-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+        nodeA = new JdbcSharedCache(new JdbcTemplate(dataSource), 10_000);
+        nodeB = new JdbcSharedCache(new JdbcTemplate(dataSource), 10_000);
+        nodeA.init();
+        nodeB.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        new JdbcTemplate(dataSource).execute("SHUTDOWN");
+    }
+
+    @Test
+    void valuesAndExpiry() throws InterruptedException {
+        checkValues(nodeA, nodeB);
+    }
+
+    @Test
+    void locksAreExclusiveAndExpire() throws InterruptedException {
+        checkLocks(nodeA, nodeB);
+    }
+
+    @Test
+    void invalidationIsDelivered() throws InterruptedException {
+        LinkedBlockingQueue<String> received = new LinkedBlockingQueue<>();
+        nodeB.subscribe(received::add);
+        nodeA.publish("one");
+        assertTrue(awaitMessage(received, nodeB::poll, "one"));
+    }
+
+    @Test
+    void lateCommitIsDeliveredOnce() throws Exception {
+        LinkedBlockingQueue<String> received = new LinkedBlockingQueue<>();
+        nodeB.subscribe(received::add);
+        // Takes its id and timestamp now but commits after a newer message was read
+        try (Connection late = dataSource.getConnection()) {
+            late.setAutoCommit(false);
+            try (PreparedStatement insert = late.prepareStatement(
+                    "INSERT INTO shared_cache_messages (message, created_at) VALUES (?, LOCALTIMESTAMP)")) {
+                insert.setString(1, "late");
+                insert.executeUpdate();
+            }
+            Thread.sleep(50);
+            nodeA.publish("early");
+            assertTrue(awaitMessage(received, nodeB::poll, "early"));
+            late.commit();
+        }
+        assertTrue(awaitMessage(received, nodeB::poll, "late"));
+        nodeA.publish("again");
+        assertTrue(awaitMessage(received, nodeB::poll, "again"));
+        assertFalse(received.contains("late") || received.contains("early"), "delivered twice: " + received);
+    }
+
+    @Test
+    void contendedLoadsRunOnce() throws Exception {
+        assertEquals(1, contendedLoads(nodeA, nodeB, 16));
+    }
+
+    @Test
+    void twoLevelCachesInvalidateEachOther() {
+        TwoLevelCache<String> a = registry(nodeA, 100).region("quotes", String.class, Duration.ofHours(1));
+        TwoLevelCache<String> b = registry(nodeB, 100).region("quotes", String.class, Duration.ofHours(1));
+
+        a.put("AAPL", "189.84");
+        assertEquals("189.84", b.get("AAPL", LONG_TTL).value);
+
+        a.put("AAPL", "190.10");
+        // B answers from its near copy until the message arrives
+        assertEquals("189.84", b.get("AAPL", LONG_TTL).value);
+        nodeB.poll();
+        assertEquals("190.10", b.get("AAPL", LONG_TTL).value);
+
+        b.invalidate("AAPL");
+        nodeA.poll();
+        assertNull(a.get("AAPL", LONG_TTL));
+    }
+
+    @Test
+    void twoLevelRefreshIsSingleFlightAcrossNodes() throws Exception {
+        List<TwoLevelCache<String>> caches = List.of(
+            registry(nodeA, 100).region("analysis", String.class, Duration.ofHours(1)),
+            registry(nodeB, 100).region("analysis", String.class, Duration.ofHours(1)));
+        AtomicInteger loads = new AtomicInteger();
+        int callers = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < callers; i++) {
+            TwoLevelCache<String> cache = caches.get(i % caches.size());
+            results.add(executor.submit(() -> {
+                start.await();
+                return cache.refresh("AAPL", LONG_TTL, () -> {
+                    loads.incrementAndGet();
+                    sleep(200);
+                    cache.put("AAPL", "loaded");
+                    return "loaded";
+                });
+            }));
+        }
+        start.countDown();
+        for (Future<String> result : results) {
+            assertEquals("loaded", result.get(30, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void nearTierIsCapped() {
+        TwoLevelCache<String> cache = registry(new NoSharedCache(), 20).region("quotes", String.class, Duration.ofHours(1));
+        for (int i = 0; i < 100; i++) {
+            cache.put("SYM" + i, "v" + i);
+            assertTrue(cache.size() <= 20, "size " + cache.size());
+        }
+        assertEquals("v99", cache.get("SYM99", LONG_TTL).value);
+        assertNull(cache.get("SYM0", LONG_TTL));
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "sharedcache.redis.url", matches = ".+")
+    void redisContract() throws Exception {
+        String url = System.getProperty("sharedcache.redis.url");
+        RedisSharedCache a = new RedisSharedCache(url, 4, 2000);
+        RedisSharedCache b = new RedisSharedCache(url, 4, 2000);
+        a.start();
+        b.start();
+        try {
+            LinkedBlockingQueue<String> received = new LinkedBlockingQueue<>();
+            b.subscribe(received::add);
+            // Subscriptions are set up asynchronously
+            Thread.sleep(500);
+            checkValues(a, b);
+            checkLocks(a, b);
+            String message = "check:" + System.nanoTime();
+            a.publish(message);
+            assertTrue(awaitMessage(received, () -> { }, message));
+            assertEquals(1, contendedLoads(a, b, 32));
+        } finally {
+            a.stop();
+            b.stop();
+        }
+    }
+
+    private TwoLevelCacheRegistry registry(SharedCache shared, int maxLocalEntries) {
+        TwoLevelCacheRegistry registry = new TwoLevelCacheRegistry(shared, new ObjectMapper(),
+            new ProviderHealthRegistry(20, 5, 0.5, 30_000, 2));
+        ReflectionTestUtils.setField(registry, "maxLocalEntries", maxLocalEntries);
+        ReflectionTestUtils.setField(registry, "lockTtlMs", 15_000L);
+        ReflectionTestUtils.setField(registry, "lockWaitMs", 10_000L);
+        ReflectionTestUtils.setField(registry, "lockPollMs", 20L);
+        registry.init();
+        return registry;
+    }
+
+    private static void checkValues(SharedCache first, SharedCache second) throws InterruptedException {
+        String prefix = "check:" + System.nanoTime() + ":";
+        first.put(prefix + "value", "{\"t\":1}", LONG_TTL);
+        assertEquals("{\"t\":1}", second.get(prefix + "value"));
+        first.put(prefix + "value", "{\"t\":2}", LONG_TTL);
+        assertEquals("{\"t\":2}", second.get(prefix + "value"));
+        second.delete(prefix + "value");
+        assertNull(first.get(prefix + "value"));
+
+        first.put(prefix + "short", "x", Duration.ofMillis(200));
+        assertEquals("x", second.get(prefix + "short"));
+        Thread.sleep(1100);
+        assertNull(second.get(prefix + "short"));
+    }
+
+    private static void checkLocks(SharedCache first, SharedCache second) throws InterruptedException {
+        String lock = "check:" + System.nanoTime() + ":lock";
+        assertTrue(first.tryLock(lock, "node-a", LONG_TTL));
+        assertFalse(second.tryLock(lock, "node-b", LONG_TTL));
+        second.unlock(lock, "node-b");
+        assertFalse(second.tryLock(lock, "node-b", LONG_TTL), "foreign unlock must be ignored");
+        first.unlock(lock, "node-a");
+        assertTrue(second.tryLock(lock, "node-b", LONG_TTL));
+        second.unlock(lock, "node-b");
+
+        assertTrue(first.tryLock(lock, "node-a", Duration.ofMillis(200)));
+        Thread.sleep(1100);
+        assertTrue(second.tryLock(lock, "node-b", LONG_TTL), "abandoned lock must expire");
+        second.unlock(lock, "node-b");
+    }
+
+    private static boolean awaitMessage(LinkedBlockingQueue<String> received, Runnable deliver, String expected)
+            throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 3000;
+        while (System.currentTimeMillis() < deadline) {
+            deliver.run();
+            String message;
+            while ((message = received.poll(50, TimeUnit.MILLISECONDS)) != null) {
+                if (message.equals(expected)) return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The wait-or-load loop of {@link TwoLevelCache#refresh} on the raw
+     * shared tier, with the callers spread over both nodes and released at once.
+     */
+    private static int contendedLoads(SharedCache first, SharedCache second, int callers) throws Exception {
+        String key = "check:" + System.nanoTime() + ":refresh";
+        SharedCache[] nodes = {first, second};
+        AtomicInteger loads = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < callers; i++) {
+            SharedCache node = nodes[i % nodes.length];
+            String owner = "caller-" + i;
+            futures.add(executor.submit(() -> {
+                start.await();
+                while (true) {
+                    if (node.tryLock("lock:" + key, owner, Duration.ofSeconds(10))) {
+                        try {
+                            if (node.get(key) == null) {
+                                loads.incrementAndGet();
+                                Thread.sleep(200);
+                                node.put(key, "loaded", Duration.ofSeconds(30));
+                            }
+                            return null;
+                        } finally {
+                            node.unlock("lock:" + key, owner);
+                        }
+                    }
+                    if (node.get(key) != null) return null;
+                    Thread.sleep(20);
+                }
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        first.delete(key);
+        return loads.get();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.borsvy.client;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTest {
+
+    private static final long OPEN_MILLIS = 50;
+
+    private final CircuitBreaker breaker = new CircuitBreaker("test", 10, 4, 0.5, OPEN_MILLIS, 2);
+
+    @Test
+    void staysClosedUntilMinimumCalls() {
+        for (int i = 0; i < 3; i++) {
+            fail(breaker, new IOException("down"));
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        fail(breaker, new IOException("down"));
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void staysClosedBelowFailureRate() throws Exception {
+        for (int i = 0; i < 6; i++) {
+            breaker.call(() -> "ok");
+        }
+        for (int i = 0; i < 4; i++) {
+            fail(breaker, new IOException("down"));
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(0.4, breaker.failureRate(), 1e-9);
+    }
+
+    @Test
+    void oldOutcomesLeaveTheWindow() throws Exception {
+        for (int i = 0; i < 4; i++) {
+            breaker.onFailure(new HttpClientErrorException(HttpStatus.NOT_FOUND));
+        }
+        for (int i = 0; i < 3; i++) {
+            fail(breaker, new IOException("down"));
+        }
+        for (int i = 0; i < 10; i++) {
+            breaker.call(() -> "ok");
+        }
+        assertEquals(0, breaker.failureRate(), 1e-9);
+    }
+
+    @Test
+    void clientErrorsDoNotCountButRateLimitsDo() {
+        for (int i = 0; i < 10; i++) {
+            fail(breaker, new HttpClientErrorException(HttpStatus.NOT_FOUND));
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(0, breaker.failureRate(), 1e-9);
+
+        for (int i = 0; i < 10; i++) {
+            fail(breaker, new HttpClientErrorException(HttpStatus.TOO_MANY_REQUESTS));
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void openRejectsWithoutCalling() {
+        trip(breaker);
+        AtomicInteger calls = new AtomicInteger();
+        assertThrows(CircuitBreaker.OpenException.class, () -> breaker.call(calls::incrementAndGet));
+        CompletableFuture<Integer> async = breaker.callAsync(
+                () -> CompletableFuture.completedFuture(calls.incrementAndGet()));
+        assertTrue(async.isCompletedExceptionally());
+        assertEquals(0, calls.get());
+        assertEquals(0, breaker.healthScore(), 1e-9);
+    }
+
+    @Test
+    void halfOpenClosesAfterEnoughProbes() throws Exception {
+        trip(breaker);
+        Thread.sleep(OPEN_MILLIS + 20);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+
+        assertTrue(breaker.tryAcquire());
+        assertTrue(breaker.tryAcquire());
+        assertFalse(breaker.tryAcquire(), "only two probes at a time");
+        breaker.onSuccess(5);
+        breaker.onSuccess(5);
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(0, breaker.failureRate(), 1e-9);
+    }
+
+    @Test
+    void failedProbeReopens() throws Exception {
+        trip(breaker);
+        Thread.sleep(OPEN_MILLIS + 20);
+        assertTrue(breaker.tryAcquire());
+        breaker.onFailure(new IOException("still down"));
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+    }
+
+    @Test
+    void asyncFailuresAreRecorded() {
+        for (int i = 0; i < 4; i++) {
+            breaker.callAsync(() -> CompletableFuture.failedFuture(new IOException("down")));
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void latencyPercentileUsesSuccessfulCalls() {
+        assertEquals(-1, breaker.latencyPercentile(0.9));
+        for (long ms = 1; ms <= 10; ms++) {
+            breaker.onSuccess(ms * 10);
+        }
+        assertEquals(10, breaker.latencySampleCount());
+        assertEquals(90, breaker.latencyPercentile(0.9));
+        assertEquals(50, breaker.latencyPercentile(0.5));
+        assertEquals(100, breaker.latencyPercentile(1.0));
+    }
+
+    private static void trip(CircuitBreaker breaker) {
+        for (int i = 0; i < 4; i++) {
+            fail(breaker, new IOException("down"));
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    private static void fail(CircuitBreaker breaker, Exception error) {
+        assertThrows(Exception.class, () -> breaker.call(() -> {
+            throw error;
+        }));
+    }
+}
@@ -0,0 +1,125 @@
+package com.borsvy.client;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonStreamsTest {
+
+    private static final JsonFactory FACTORY = new JsonFactory();
+
+    @Test
+    void quotedDecimalsMatchParseDouble() throws IOException {
+        for (String text : List.of("0", "1", "189.84", "0.0001", "00012.50", "5.", ".5", "123456789012345",
+                "0.123456789012345", "99999.99999", "-42.17", "-0.5", "1.1", "0.3", "2.675")) {
+            assertSame(Double.parseDouble(text), quoted(text), text);
+        }
+    }
+
+    @Test
+    void randomPricesMatchParseDouble() throws IOException {
+        Random random = new Random(7);
+        for (int n = 0; n < 20_000; n++) {
+            int digits = 1 + random.nextInt(15);
+            StringBuilder text = new StringBuilder();
+            if (random.nextInt(4) == 0) text.append('-');
+            for (int d = 0; d < digits; d++) {
+                text.append((char) ('0' + random.nextInt(10)));
+            }
+            int point = random.nextInt(digits + 1);
+            if (point < digits) text.insert(text.length() - digits + point, '.');
+            assertSame(Double.parseDouble(text.toString()), quoted(text.toString()), text.toString());
+        }
+    }
+
+    @Test
+    void negativeZeroKeepsItsSign() throws IOException {
+        assertSame(-0.0, quoted("-0"));
+        assertSame(-0.0, quoted("-0.00"));
+    }
+
+    @Test
+    void generalPathHandlesWhatTheFastPathSkips() throws IOException {
+        assertSame(1500.0, quoted("1.5e3"));
+        assertSame(12.0, quoted(" 12 "));
+        assertSame(Double.parseDouble("1234567890.1234567"), quoted("1234567890.1234567"));
+        assertSame(Double.parseDouble("0.00000000000000000000001"), quoted("0.00000000000000000000001"));
+    }
+
+    @Test
+    void nonNumericValuesGiveTheDefault() throws IOException {
+        for (String text : List.of("", "-", ".", "N/A", "1.2.3", "--1")) {
+            assertSame(-1.0, quoted(text), '"' + text + '"');
+        }
+        assertSame(-1.0, value("null"));
+        assertSame(-1.0, value("{}"));
+    }
+
+    @Test
+    void unquotedNumbersAndBooleansUseTheParser() throws IOException {
+        assertSame(189.84, value("189.84"));
+        assertSame(42.0, value("42"));
+        assertSame(1.0, value("true"));
+    }
+
+    @Test
+    void longValueReadsQuotedVolumes() throws IOException {
+        assertEquals(123456789L, longValue("\"123456789\""));
+        assertEquals(-5L, longValue("\"-5\""));
+        assertEquals(9L, longValue("9"));
+        assertEquals(-1L, longValue("\"12a\""));
+        assertEquals(-1L, longValue("\"\""));
+        assertEquals(-1L, longValue("null"));
+    }
+
+    @Test
+    void forEachFieldSkipsUnreadValues() throws IOException {
+        List<String> seen = new ArrayList<>();
+        double[] price = new double[1];
+        try (JsonParser parser = FACTORY.createParser(
+                "{\"meta\":{\"a\":[1,2,{\"b\":3}]},\"close\":\"10.5\",\"list\":[1,2],\"tail\":1}")) {
+            parser.nextToken();
+            JsonStreams.forEachField(parser, (name, p) -> {
+                seen.add(name);
+                if (name.equals("close")) price[0] = JsonStreams.doubleValue(p, 0);
+            });
+        }
+        assertEquals(List.of("meta", "close", "list", "tail"), seen);
+        assertEquals(10.5, price[0]);
+    }
+
+    private static double quoted(String text) throws IOException {
+        return value('"' + text + '"');
+    }
+
+    private static double value(String json) throws IOException {
+        try (JsonParser parser = FACTORY.createParser(json)) {
+            parser.nextToken();
+            return JsonStreams.doubleValue(parser, -1);
+        }
+    }
+
+    private static long longValue(String json) throws IOException {
+        try (JsonParser parser = FACTORY.createParser(json)) {
+            parser.nextToken();
+            return JsonStreams.longValue(parser, -1);
+        }
+    }
+
+    /** Bit-for-bit, so 0.0 and -0.0 differ. */
+    private static void assertSame(double expected, double actual) {
+        assertSame(expected, actual, null);
+    }
+
+    private static void assertSame(double expected, double actual, String message) {
+        assertEquals(Double.doubleToLongBits(expected), Double.doubleToLongBits(actual),
+            () -> (message != null ? message + ": " : "") + "expected " + expected + " but was " + actual);
+    }
+}
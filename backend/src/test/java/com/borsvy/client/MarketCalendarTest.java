@@ -0,0 +1,127 @@
+package com.borsvy.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MarketCalendarTest {
+
+    private static final ZoneId NEW_YORK = ZoneId.of("America/New_York");
+    private static final Duration SESSION_TTL = Duration.ofMinutes(1);
+
+    private final MarketCalendar calendar = new MarketCalendar(true, 15, "2025-01-09, not-a-date");
+
+    @Test
+    void nyseHolidays() {
+        // As published by NYSE
+        for (String day : List.of("2024-01-01", "2024-01-15", "2024-02-19", "2024-03-29", "2024-05-27",
+                "2024-06-19", "2024-07-04", "2024-09-02", "2024-11-28", "2024-12-25",
+                "2025-01-01", "2025-01-20", "2025-02-17", "2025-04-18", "2025-05-26",
+                "2025-06-19", "2025-07-04", "2025-09-01", "2025-11-27", "2025-12-25",
+                "2026-01-01", "2026-01-19", "2026-02-16", "2026-04-03", "2026-05-25",
+                "2026-06-19", "2026-07-03", "2026-09-07", "2026-11-26", "2026-12-25")) {
+            assertFalse(calendar.isTradingDay(LocalDate.parse(day)), day);
+        }
+    }
+
+    @Test
+    void weekendHolidaysMoveToTheNearestWeekday() {
+        // Juneteenth and Christmas 2022 fell on Sundays
+        assertFalse(calendar.isTradingDay(LocalDate.parse("2022-06-20")));
+        assertFalse(calendar.isTradingDay(LocalDate.parse("2022-12-26")));
+        // Independence Day 2026 is a Saturday, so the Friday before is closed
+        assertFalse(calendar.isTradingDay(LocalDate.parse("2026-07-03")));
+        assertTrue(calendar.isTradingDay(LocalDate.parse("2026-07-06")));
+    }
+
+    @Test
+    void saturdayNewYearIsNotMadeUpOnTheFriday() {
+        assertTrue(calendar.isTradingDay(LocalDate.parse("2021-12-31")));
+        assertFalse(calendar.isTradingDay(LocalDate.parse("2022-01-01")));
+    }
+
+    @Test
+    void ordinaryDaysAndWeekends() {
+        assertTrue(calendar.isTradingDay(LocalDate.parse("2025-06-11")));
+        assertTrue(calendar.isTradingDay(LocalDate.parse("2025-12-24")));
+        assertFalse(calendar.isTradingDay(LocalDate.parse("2025-06-14")));
+        assertFalse(calendar.isTradingDay(LocalDate.parse("2025-06-15")));
+    }
+
+    @Test
+    void extraHolidaysAreClosedAndBadEntriesIgnored() {
+        assertFalse(calendar.isTradingDay(LocalDate.parse("2025-01-09")));
+        assertTrue(new MarketCalendar(true, 15, "").isTradingDay(LocalDate.parse("2025-01-09")));
+    }
+
+    @Test
+    void sessionTtlWhileTradingAndSettling() {
+        assertEquals(SESSION_TTL, ttl("AAPL", "2025-06-11T09:30"));
+        assertEquals(SESSION_TTL, ttl("AAPL", "2025-06-11T14:00"));
+        assertEquals(SESSION_TTL, ttl("AAPL", "2025-06-11T16:10"));
+    }
+
+    @Test
+    void afterTheSettledCloseTtlIsTheTimeSinceIt() {
+        assertEquals(Duration.ofHours(1), ttl("AAPL", "2025-06-11T17:15"));
+        // Before the open, the previous day's close
+        assertEquals(Duration.ofHours(16).plusMinutes(45), ttl("AAPL", "2025-06-12T09:00"));
+    }
+
+    @Test
+    void weekendsReachBackToFridaysClose() {
+        assertEquals(Duration.ofHours(19).plusMinutes(45), ttl("MSFT", "2025-06-14T12:00"));
+        assertEquals(Duration.ofDays(2).plusHours(15).plusMinutes(45), ttl("MSFT", "2025-06-16T08:00"));
+    }
+
+    @Test
+    void earlyClosesEndAtOnePm() {
+        assertEquals(SESSION_TTL, ttl("AAPL", "2025-11-28T12:30"));
+        assertEquals(Duration.ofMinutes(45), ttl("AAPL", "2025-11-28T14:00"));
+        // Independence Day follows the July 3 early close
+        assertEquals(Duration.ofHours(22).plusMinutes(45), ttl("AAPL", "2025-07-04T12:00"));
+    }
+
+    @Test
+    void noEarlyCloseWhenTheEveIsAHoliday() {
+        // July 3, 2026 is the observed holiday, so July 2 closes at 4 p.m.
+        assertEquals(SESSION_TTL, ttl("AAPL", "2026-07-02T15:00"));
+        assertEquals(Duration.ofHours(1), ttl("AAPL", "2026-07-02T17:15"));
+    }
+
+    @Test
+    void clockChangesAreMeasuredInRealTime() {
+        // Friday 16:15 EST to Monday 08:00 EDT, across the March 9, 2025 change
+        assertEquals(Duration.ofDays(2).plusHours(14).plusMinutes(45), ttl("AAPL", "2025-03-10T08:00"));
+    }
+
+    @Test
+    void otherListingsKeepTheSessionTtl() {
+        for (String symbol : List.of("SHOP.TO", "BTC/USD", "7203.T", "TOOLONGX")) {
+            assertEquals(SESSION_TTL, ttl(symbol, "2025-06-14T12:00"), symbol);
+        }
+        assertEquals(Duration.ofHours(19).plusMinutes(45), ttl("brk.b", "2025-06-14T12:00"));
+        assertEquals(SESSION_TTL, calendar.equityTtl(null, SESSION_TTL, at("2025-06-14T12:00")));
+    }
+
+    @Test
+    void disabledCalendarKeepsTheSessionTtl() {
+        MarketCalendar disabled = new MarketCalendar(false, 15, "");
+        assertEquals(SESSION_TTL, disabled.equityTtl("AAPL", SESSION_TTL, at("2025-06-14T12:00")));
+    }
+
+    private Duration ttl(String symbol, String newYorkTime) {
+        return calendar.equityTtl(symbol, SESSION_TTL, at(newYorkTime));
+    }
+
+    private static Instant at(String newYorkTime) {
+        return LocalDateTime.parse(newYorkTime).atZone(NEW_YORK).toInstant();
+    }
+}
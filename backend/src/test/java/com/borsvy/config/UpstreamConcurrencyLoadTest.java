@@ -0,0 +1,183 @@
+package com.borsvy.config;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.condition.JRE;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Blocking HTTP calls through {@link UpstreamExecutorConfig} executors at a
+ * local stand-in provider that answers after a fixed latency, recording how
+ * many calls were in flight at the same time. On the platform pool
+ * concurrency stops at the thread count and wall time grows with
+ * requests / threads * latency; on virtual threads it should track the
+ * request count.
+ *
+ * <p>The load runs are opt-in, since the defaults take about half a minute on
+ * the platform pool; the virtual run also needs a Java 21 runtime. From
+ * {@code backend/}:
+ *
+ * <pre>
+ * mvn test -Dtest=UpstreamConcurrencyLoadTest -Dloadtest.upstream=true \
+ *     [-Dloadtest.upstream.requests=1000] [-Dloadtest.upstream.latency-ms=500] \
+ *     [-Dloadtest.upstream.platform-threads=20]
+ * </pre>
+ */
+class UpstreamConcurrencyLoadTest {
+
+    private static final int REQUESTS = Integer.getInteger("loadtest.upstream.requests", 1000);
+    private static final int LATENCY_MS = Integer.getInteger("loadtest.upstream.latency-ms", 500);
+    // Same as server.tomcat.max-threads in the prod profile
+    private static final int PLATFORM_THREADS = Integer.getInteger("loadtest.upstream.platform-threads", 20);
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peak = new AtomicInteger();
+    private HttpServer server;
+    private String url;
+
+    @BeforeEach
+    void startProvider() throws Exception {
+        server = standInProvider();
+        url = "http://127.0.0.1:" + server.getAddress().getPort() + "/quote";
+    }
+
+    @AfterEach
+    void stopProvider() {
+        server.stop(0);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "loadtest.upstream", matches = "true")
+    void platformPoolStopsAtItsThreadCount() throws Exception {
+        int platformPeak = run("platform", false);
+        assertEquals(PLATFORM_THREADS, platformPeak);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "loadtest.upstream", matches = "true")
+    @EnabledForJreRange(min = JRE.JAVA_21)
+    void virtualThreadsGetPastThePlatformPool() throws Exception {
+        int virtualPeak = run("virtual", true);
+        assertTrue(virtualPeak > PLATFORM_THREADS,
+            "virtual threads peaked at " + virtualPeak + " concurrent calls");
+    }
+
+    @Test
+    void fullQueueRunsTasksOnTheCaller() throws Exception {
+        ExecutorService executor = UpstreamExecutorConfig.newExecutor(false, 1, 2, "queue-");
+        CountDownLatch release = new CountDownLatch(1);
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        try {
+            // One task holds the only thread and two fill the queue
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                futures.add(executor.submit(() -> {
+                    threads.add(Thread.currentThread().getName());
+                    release.await();
+                    return null;
+                }));
+            }
+            Future<?> overflow = executor.submit(() -> threads.add(Thread.currentThread().getName()));
+            assertTrue(overflow.isDone());
+            assertTrue(threads.contains(Thread.currentThread().getName()));
+
+            release.countDown();
+            for (Future<?> future : futures) {
+                future.get(5, TimeUnit.SECONDS);
+            }
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    private int run(String mode, boolean virtual) throws Exception {
+        peak.set(0);
+        ExecutorService executor = UpstreamExecutorConfig.newExecutor(virtual, PLATFORM_THREADS, REQUESTS,
+            "load-" + mode + "-");
+        long[] latencies = new long[REQUESTS];
+        List<Future<?>> futures = new ArrayList<>(REQUESTS);
+        long started = System.nanoTime();
+        try {
+            for (int i = 0; i < REQUESTS; i++) {
+                int slot = i;
+                futures.add(executor.submit(() -> {
+                    // Measured from submission, so time queued for a thread counts
+                    call(url);
+                    latencies[slot] = System.nanoTime() - started;
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdown();
+        }
+        long wallMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        Arrays.sort(latencies);
+        System.out.printf("%s: %d calls, %d ms provider latency, %d platform threads%n",
+            mode, REQUESTS, LATENCY_MS, PLATFORM_THREADS);
+        System.out.printf("peak %d, wall %d ms, p50 %d ms, p99 %d ms%n", peak.get(), wallMs,
+            TimeUnit.NANOSECONDS.toMillis(latencies[REQUESTS / 2]),
+            TimeUnit.NANOSECONDS.toMillis(latencies[Math.min(REQUESTS - 1, (int) (REQUESTS * 0.99))]));
+        return peak.get();
+    }
+
+    private static void call(String url) throws Exception {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setConnectTimeout(10_000);
+        connection.setReadTimeout(60_000);
+        try (InputStream body = connection.getInputStream()) {
+            body.readAllBytes();
+        }
+    }
+
+    /** Answers every request after the configured latency, recording how many were waiting at once. */
+    private HttpServer standInProvider() throws Exception {
+        HttpServer provider = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 4096);
+        provider.createContext("/quote", exchange -> {
+            peak.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(LATENCY_MS);
+                byte[] body = "{\"c\":1.0}".getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inFlight.decrementAndGet();
+                exchange.close();
+            }
+        });
+        // The stand-in must never be the bottleneck
+        provider.setExecutor(Executors.newCachedThreadPool());
+        provider.start();
+        return provider;
+    }
+}
@@ -0,0 +1,178 @@
+package com.borsvy.repository;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Connection acquisition under load, against the pool settings of the
+ * postgres profile. Each client thread plays one request in a loop: borrow a
+ * connection, run a short read the way a repository call does, return it,
+ * then spend {@code loadtest.think-ms} outside the database (provider calls,
+ * JSON rendering), as requests do without open-in-view. Prints the
+ * acquisition time percentiles and fails if p99 exceeds
+ * {@code loadtest.max-p99-ms} or any acquisition times out.
+ *
+ * <p>Opt-in, since it needs a migrated database and runs for half a minute.
+ * From {@code backend/}:
+ *
+ * <pre>
+ * mvn test -Dtest=ConnectionPoolLoadTest -Dloadtest.jdbc.url=jdbc:postgresql://localhost/borsvy \
+ *     [-Dloadtest.clients=500] [-Dloadtest.pool-size=10] [-Dloadtest.seconds=30] \
+ *     [-Dloadtest.think-ms=50] [-Dloadtest.max-p99-ms=100]
+ * </pre>
+ * The user and password default to DB_USERNAME and DB_PASSWORD.
+ */
+@EnabledIfSystemProperty(named = "loadtest.jdbc.url", matches = ".+")
+class ConnectionPoolLoadTest {
+
+    private static final String[] QUERIES = {
+        "SELECT symbol, name, price, change, change_percent FROM stock WHERE symbol = ?",
+        "SELECT id, symbol, name, price FROM favorites WHERE user_id = ?"
+    };
+    private static final String[] SYMBOLS = {"AAPL", "MSFT", "GOOGL", "AMZN", "META", "NVDA", "TSLA", "JPM", "V", "WMT"};
+
+    @Test
+    void p99AcquisitionStaysUnderTheLimit() throws Exception {
+        String url = System.getProperty("loadtest.jdbc.url");
+        String user = System.getProperty("loadtest.user", System.getenv("DB_USERNAME"));
+        String password = System.getProperty("loadtest.password", System.getenv("DB_PASSWORD"));
+        int clients = Integer.getInteger("loadtest.clients", 500);
+        int poolSize = Integer.getInteger("loadtest.pool-size", 10);
+        int seconds = Integer.getInteger("loadtest.seconds", 30);
+        int thinkMs = Integer.getInteger("loadtest.think-ms", 50);
+        int maxP99Ms = Integer.getInteger("loadtest.max-p99-ms", 100);
+
+        try (HikariDataSource dataSource = new HikariDataSource(config(url, user, password, poolSize))) {
+            // Warm up: open every connection and prepare the statements once per connection
+            run(dataSource, Math.min(clients, poolSize * 2), 2, 0);
+
+            long[] samples = run(dataSource, clients, seconds, thinkMs);
+            HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+            double p99 = millis(percentile(samples, 0.99));
+            System.out.printf("clients=%d pool=%d think=%d ms duration=%d s%n", clients, poolSize, thinkMs, seconds);
+            System.out.printf("acquisitions: %,d (%,.0f/s)%n", samples.length, (double) samples.length / seconds);
+            System.out.printf("acquire p50=%.2f ms p95=%.2f ms p99=%.2f ms max=%.2f ms%n",
+                millis(percentile(samples, 0.50)), millis(percentile(samples, 0.95)),
+                p99, millis(samples.length > 0 ? samples[samples.length - 1] : 0));
+            System.out.printf("pool after run: active=%d idle=%d waiting=%d%n",
+                pool.getActiveConnections(), pool.getIdleConnections(), pool.getThreadsAwaitingConnection());
+
+            assertTrue(samples.length > 0, "no connection was acquired");
+            assertTrue(p99 <= maxP99Ms, String.format("p99 acquisition %.2f ms exceeds %d ms", p99, maxP99Ms));
+        }
+    }
+
+    /** Mirrors the spring.datasource.hikari.* settings of application-postgres.properties. */
+    private static HikariConfig config(String url, String user, String password, int poolSize) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("borsvy-db-loadtest");
+        config.setJdbcUrl(url);
+        config.setUsername(user);
+        config.setPassword(password);
+        config.setMaximumPoolSize(poolSize);
+        config.setMinimumIdle(poolSize);
+        config.setConnectionTimeout(3000);
+        if (url.startsWith("jdbc:postgresql:")) {
+            config.addDataSourceProperty("prepareThreshold", "3");
+            config.addDataSourceProperty("preparedStatementCacheQueries", "256");
+            config.addDataSourceProperty("preparedStatementCacheSizeMiB", "5");
+            config.addDataSourceProperty("reWriteBatchedInserts", "true");
+        }
+        return config;
+    }
+
+    /** Runs the client loop and returns every acquisition time in nanoseconds, sorted. */
+    private static long[] run(HikariDataSource dataSource, int clients, int seconds, int thinkMs) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        CountDownLatch start = new CountDownLatch(1);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds) + TimeUnit.MILLISECONDS.toNanos(200);
+        List<Future<long[]>> futures = new ArrayList<>(clients);
+        for (int c = 0; c < clients; c++) {
+            futures.add(executor.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long[] times = new long[1024];
+                int count = 0;
+                start.await();
+                while (System.nanoTime() < deadline) {
+                    long begin = System.nanoTime();
+                    try (Connection connection = dataSource.getConnection()) {
+                        long acquired = System.nanoTime() - begin;
+                        if (count == times.length) times = Arrays.copyOf(times, count * 2);
+                        times[count++] = acquired;
+                        query(connection, random);
+                    }
+                    if (thinkMs > 0) {
+                        // Spread the think time so clients do not move in lockstep
+                        Thread.sleep(thinkMs / 2 + random.nextInt(thinkMs + 1));
+                    }
+                }
+                return Arrays.copyOf(times, count);
+            }));
+        }
+        start.countDown();
+
+        List<long[]> perClient = new ArrayList<>(clients);
+        int total = 0;
+        try {
+            for (Future<long[]> future : futures) {
+                long[] times = future.get();
+                perClient.add(times);
+                total += times.length;
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        long[] all = new long[total];
+        int offset = 0;
+        for (long[] times : perClient) {
+            System.arraycopy(times, 0, all, offset, times.length);
+            offset += times.length;
+        }
+        Arrays.sort(all);
+        return all;
+    }
+
+    private static void query(Connection connection, ThreadLocalRandom random) throws Exception {
+        boolean stock = random.nextBoolean();
+        try (PreparedStatement ps = connection.prepareStatement(QUERIES[stock ? 0 : 1])) {
+            if (stock) {
+                ps.setString(1, SYMBOLS[random.nextInt(SYMBOLS.length)]);
+            } else {
+                ps.setLong(1, 1 + random.nextInt(1000));
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    rs.getString(1);
+                }
+            }
+        }
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) return 0;
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
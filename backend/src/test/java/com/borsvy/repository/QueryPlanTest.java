@@ -0,0 +1,312 @@
+package com.borsvy.repository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Plan regression test for the repository queries on PostgreSQL. Flyway
+ * builds the schema in a container, which is seeded with representative
+ * volumes and analyzed. Each repository method is then called, and every
+ * statement Hibernate sent is explained with the values it bound, under the
+ * default planner settings. A sequential scan of any table larger than
+ * {@link #SCAN_THRESHOLD} rows fails the test. Skipped without Docker.
+ */
+@DataJpaTest(properties = {"spring.flyway.enabled=true", "spring.jpa.hibernate.ddl-auto=none"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Import(QueryPlanTest.CaptureConfig.class)
+class QueryPlanTest {
+
+    // Below this many rows a sequential scan can be the cheaper plan
+    private static final long SCAN_THRESHOLD = 1000;
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    private static final StatementCapture CAPTURE = new StatementCapture();
+
+    @Autowired private DataSource dataSource;
+    @Autowired private PlatformTransactionManager transactionManager;
+    @Autowired private StockRepository stocks;
+    @Autowired private FavoriteRepository favorites;
+    @Autowired private PortfolioHoldingRepository holdings;
+    @Autowired private PriceAlertRepository alerts;
+    @Autowired private StockAnalysisRepository analyses;
+    @Autowired private StoredNewsArticleRepository news;
+    @Autowired private UserRepository users;
+    @Autowired private SubscriptionRepository subscriptions;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeAll
+    void seed() {
+        new ResourceDatabasePopulator(new ClassPathResource("db/query-plan-seed.sql")).execute(dataSource);
+    }
+
+    @Test
+    void stockQueries() {
+        assertIndexed("findSummariesByIndustry", () -> stocks.findSummariesByIndustry("Industry 7", PageRequest.of(0, 6)));
+        assertIndexed("findSummariesBySymbolIn", () -> stocks.findSummariesBySymbolIn(List.of("SYM1", "SYM2", "SYM3")));
+        assertIndexed("findBySymbolContainingIgnoreCaseOrNameContainingIgnoreCase",
+            () -> stocks.findBySymbolContainingIgnoreCaseOrNameContainingIgnoreCase("sym123", "sym123"));
+        assertIndexed("findByIndustry", () -> stocks.findByIndustry("Industry 7"));
+        assertIndexed("findBySymbol", () -> stocks.findBySymbol("SYM42"));
+    }
+
+    @Test
+    void favoriteQueries() {
+        assertIndexed("findByUserId", () -> favorites.findByUserId(42L));
+        assertIndexed("findByUserIdAndSymbol", () -> favorites.findByUserIdAndSymbol(42L, "SYM1"));
+        assertIndexed("existsByUserIdAndSymbol", () -> favorites.existsByUserIdAndSymbol(42L, "SYM1"));
+        assertIndexed("deleteByUserIdAndSymbol", () -> favorites.deleteByUserIdAndSymbol(42L, "SYM1"));
+    }
+
+    @Test
+    void portfolioQueries() {
+        assertIndexed("findByUserIdOrderByCreatedAtDesc", () -> holdings.findByUserIdOrderByCreatedAtDesc(42L));
+        assertIndexed("findByIdAndUserId", () -> holdings.findByIdAndUserId(42L, 43L));
+        assertIndexed("deleteByIdAndUserId", () -> holdings.deleteByIdAndUserId(42L, 43L));
+    }
+
+    @Test
+    void priceAlertQueries() {
+        List<Long> ids = List.of(10L, 20L, 30L);
+        assertIndexed("findByUserIdOrderByCreatedAtDesc", () -> alerts.findByUserIdOrderByCreatedAtDesc(42L));
+        assertIndexed("findByIdAndUserId", () -> alerts.findByIdAndUserId(42L, 43L));
+        assertIndexed("findPendingAfter", () -> alerts.findPendingAfter(0L, PageRequest.of(0, 10000)));
+        assertIndexed("markTriggered", () -> alerts.markTriggered(ids, LocalDateTime.now()));
+        assertIndexed("findIdsTriggeredAt", () -> alerts.findIdsTriggeredAt(ids, LocalDateTime.now()));
+    }
+
+    @Test
+    void analysisHistoryQueries() {
+        assertIndexed("findBySymbolOrderByTimestampDescIdDesc",
+            () -> analyses.findBySymbolOrderByTimestampDescIdDesc("SYM7", PageRequest.of(0, 20)));
+        assertIndexed("findPageBefore", () -> analyses.findPageBefore("SYM7", LocalDateTime.now().minusDays(10),
+            Long.MAX_VALUE, PageRequest.of(0, 20)));
+    }
+
+    @Test
+    void newsQueries() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(30);
+        assertIndexed("findLatestBySymbol", () -> news.findLatestBySymbol("SYM7", PageRequest.of(0, 100)));
+        assertIndexed("findExistingUrlHashes", () -> news.findExistingUrlHashes(
+            List.of("c4ca4238a0b923820dcc509a6f75849b", "c81e728d9d4c2f636f067f89cc14862c", "missing")));
+        assertIndexed("fillThumbnail", () -> news.fillThumbnail("c4ca4238a0b923820dcc509a6f75849b",
+            "https://img.example.com/new", "https://img.example.com/placeholder"));
+        assertIndexed("addSymbol", () -> news.addSymbol("c4ca4238a0b923820dcc509a6f75849b", "SYM9"));
+        assertIndexed("deleteSymbolsPublishedBefore", () -> news.deleteSymbolsPublishedBefore(cutoff));
+        assertIndexed("deletePublishedBefore", () -> news.deletePublishedBefore(cutoff));
+    }
+
+    @Test
+    void userAndSubscriptionQueries() {
+        assertIndexed("findByEmail", () -> users.findByEmail("user42@example.com"));
+        assertIndexed("findByGoogleId", () -> users.findByGoogleId("google-42"));
+        assertIndexed("existsByEmail", () -> users.existsByEmail("user42@example.com"));
+        assertIndexed("findByUserId", () -> subscriptions.findByUserId(42L));
+        assertIndexed("findByStripeCustomerId", () -> subscriptions.findByStripeCustomerId("cus_42"));
+        assertIndexed("findByStripeSubscriptionId", () -> subscriptions.findByStripeSubscriptionId("sub_42"));
+    }
+
+    /**
+     * Runs {@code call} in a transaction that is rolled back, so modifying
+     * queries leave the seeded data alone, then explains what it executed.
+     */
+    private void assertIndexed(String name, Runnable call) {
+        CAPTURE.clear();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(status -> {
+            status.setRollbackOnly();
+            call.run();
+        });
+        List<StatementCapture.Executed> executed = CAPTURE.drain();
+        assertFalse(executed.isEmpty(), name + " ran no statement");
+        for (StatementCapture.Executed statement : executed) {
+            JsonNode plan = explain(statement);
+            List<String> scanned = new ArrayList<>();
+            collectSeqScans(plan, scanned);
+            for (String table : scanned) {
+                long rows = rowEstimate(table);
+                assertTrue(rows <= SCAN_THRESHOLD, () -> name + " scans " + table + " (" + rows + " rows) sequentially:\n"
+                    + statement.sql + "\n" + plan.toPrettyString());
+            }
+        }
+    }
+
+    private JsonNode explain(StatementCapture.Executed statement) {
+        try (Connection connection = CAPTURE.target.getConnection();
+             PreparedStatement explain = connection.prepareStatement("EXPLAIN (FORMAT JSON) " + statement.sql)) {
+            for (StatementCapture.Binding binding : statement.bindings) {
+                binding.method.invoke(explain, binding.args);
+            }
+            try (ResultSet rs = explain.executeQuery()) {
+                rs.next();
+                return objectMapper.readTree(rs.getString(1)).get(0).get("Plan");
+            }
+        } catch (Exception e) {
+            throw new AssertionError("Could not explain " + statement.sql, e);
+        }
+    }
+
+    private static void collectSeqScans(JsonNode node, List<String> tables) {
+        if ("Seq Scan".equals(node.path("Node Type").asText())) {
+            tables.add(node.path("Relation Name").asText());
+        }
+        for (JsonNode child : node.path("Plans")) {
+            collectSeqScans(child, tables);
+        }
+    }
+
+    private long rowEstimate(String table) {
+        try (Connection connection = CAPTURE.target.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                 "SELECT reltuples::bigint FROM pg_class WHERE relname = ?")) {
+            statement.setString(1, table);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        } catch (Exception e) {
+            throw new AssertionError("Could not read the size of " + table, e);
+        }
+    }
+
+    @TestConfiguration
+    static class CaptureConfig {
+        @Bean
+        static BeanPostProcessor statementCapture() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource ? CAPTURE.wrap((DataSource) bean) : bean;
+                }
+            };
+        }
+    }
+
+    /**
+     * Records each prepared statement's SQL and parameter setter calls as it
+     * runs, so the test can explain it with the same values.
+     */
+    static final class StatementCapture {
+
+        static final class Binding {
+            final Method method;
+            final Object[] args;
+
+            Binding(Method method, Object[] args) {
+                this.method = method;
+                this.args = args;
+            }
+        }
+
+        static final class Executed {
+            final String sql;
+            final List<Binding> bindings;
+
+            Executed(String sql, List<Binding> bindings) {
+                this.sql = sql;
+                this.bindings = bindings;
+            }
+        }
+
+        private final List<Executed> executed = new ArrayList<>();
+        private DataSource target;
+
+        DataSource wrap(DataSource dataSource) {
+            target = dataSource;
+            return proxy(DataSource.class, dataSource, (method, args, result) ->
+                method.getName().equals("getConnection") ? wrapConnection((Connection) result) : result);
+        }
+
+        synchronized void clear() {
+            executed.clear();
+        }
+
+        synchronized List<Executed> drain() {
+            List<Executed> drained = new ArrayList<>(executed);
+            executed.clear();
+            return drained;
+        }
+
+        private synchronized void record(String sql, List<Binding> bindings) {
+            executed.add(new Executed(sql, new ArrayList<>(bindings)));
+        }
+
+        private Connection wrapConnection(Connection connection) {
+            return proxy(Connection.class, connection, (method, args, result) ->
+                method.getName().equals("prepareStatement")
+                    ? wrapStatement((PreparedStatement) result, (String) args[0]) : result);
+        }
+
+        private PreparedStatement wrapStatement(PreparedStatement statement, String sql) {
+            List<Binding> bindings = new ArrayList<>();
+            return proxy(PreparedStatement.class, statement, (method, args, result) -> {
+                String name = method.getName();
+                if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                    bindings.add(new Binding(method, args.clone()));
+                } else if (name.equals("clearParameters")) {
+                    bindings.clear();
+                } else if (name.equals("addBatch") || (name.startsWith("execute") && args == null)) {
+                    record(sql, bindings);
+                }
+                return result;
+            });
+        }
+
+        @FunctionalInterface
+        private interface AfterCall {
+            Object apply(Method method, Object[] args, Object result) throws Exception;
+        }
+
+        private static <T> T proxy(Class<T> type, T target, AfterCall after) {
+            Object proxy = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, (p, method, args) -> {
+                Object result;
+                try {
+                    result = method.invoke(target, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+                return after.apply(method, args, result);
+            });
+            return type.cast(proxy);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.borsvy.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * Throughput benchmark for the per-request token work done by
+ * {@link JwtAuthFilter}: the old path (decode the secret and build a key for
+ * each of two full parses) against a single verify with the key and parser
+ * built once. The principal lookup is left out since a cache hit is a map read.
+ *
+ * Lives with the tests so it stays out of the application jar. From
+ * {@code backend/}, after {@code mvn test-compile}:
+ *
+ * <pre>
+ * java -cp "target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout)" \
+ *     com.borsvy.security.JwtAuthBenchmark [--threads 8] [--seconds 5]
+ * </pre>
+ */
+public final class JwtAuthBenchmark {
+
+    private JwtAuthBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int threads = intOption(args, "--threads", Runtime.getRuntime().availableProcessors());
+        int seconds = intOption(args, "--seconds", 5);
+
+        byte[] keyBytes = new byte[32];
+        new SecureRandom().nextBytes(keyBytes);
+        String secret = Base64.getEncoder().encodeToString(keyBytes);
+        JwtService jwtService = new JwtService(secret, 3_600_000);
+        String token = jwtService.generateToken(42L, "bench@example.com", 0);
+
+        Predicate<String> legacy = t -> {
+            Claims first = legacyParse(secret, t);
+            if (first.getExpiration().before(new Date())) return false;
+            return legacyParse(secret, t).get(JwtService.USER_ID_CLAIM, Long.class) != null;
+        };
+        Predicate<String> current = t -> {
+            Claims claims = jwtService.verify(t);
+            return claims != null && JwtService.userId(claims) != null;
+        };
+
+        // Warm up both paths before measuring
+        run(legacy, token, threads, 1);
+        run(current, token, threads, 1);
+
+        double legacyOps = run(legacy, token, threads, seconds);
+        double currentOps = run(current, token, threads, seconds);
+        System.out.printf("threads=%d%n", threads);
+        System.out.printf("legacy  (key per call, 2 parses): %,.0f req/s%n", legacyOps);
+        System.out.printf("current (cached key, 1 parse):    %,.0f req/s%n", currentOps);
+        System.out.printf("speedup: %.2fx%n", currentOps / legacyOps);
+    }
+
+    private static Claims legacyParse(String secret, String token) {
+        return Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(Base64.getDecoder().decode(secret)))
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+
+    private static double run(Predicate<String> path, String token, int threads, int seconds) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        LongAdder completed = new LongAdder();
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        List<Future<?>> workers = new ArrayList<>();
+        long started = System.nanoTime();
+        for (int i = 0; i < threads; i++) {
+            workers.add(pool.submit(() -> {
+                while (System.nanoTime() < deadline) {
+                    if (!path.test(token)) {
+                        throw new IllegalStateException("Token rejected");
+                    }
+                    completed.increment();
+                }
+            }));
+        }
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        double elapsedSeconds = (System.nanoTime() - started) / 1e9;
+        pool.shutdown();
+        return completed.sum() / elapsedSeconds;
+    }
+
+    private static int intOption(String[] args, String name, int defaultValue) {
+        for (int i = 0; i < args.length - 1; i++) {
+            if (args[i].equals(name)) {
+                return Integer.parseInt(args[i + 1]);
+            }
+        }
+        return defaultValue;
+    }
+}
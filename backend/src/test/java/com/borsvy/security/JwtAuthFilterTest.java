@@ -0,0 +1,44 @@
+package com.borsvy.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtAuthFilterTest {
+
+    private final JwtAuthFilter filter = new JwtAuthFilter();
+
+    @Test
+    void signedInRoutesAreFiltered() {
+        for (String path : List.of("/api/favorites", "/api/favorites/AAPL", "/api/portfolio/risk",
+                "/api/alerts", "/api/alerts/7/toggle", "/api/auth/me", "/api/analysis/backtest",
+                "/api/stocks/AAPL/fundamentals/refresh", "/api/stocks/BRK.B/fundamentals/refresh")) {
+            assertFalse(filter.shouldNotFilter(request(path)), path);
+        }
+    }
+
+    @Test
+    void publicRoutesSkipTokenWork() {
+        for (String path : List.of("/api/stocks/AAPL", "/api/stocks/AAPL/fundamentals", "/api/news/AAPL",
+                "/api/analysis/AAPL", "/api/auth/login", "/api/favoritesx", "/api/auth/me/extra",
+                "/api/stocks/fundamentals/refresh", "/api/stocks/A/B/fundamentals/refresh", "/api/health")) {
+            assertTrue(filter.shouldNotFilter(request(path)), path);
+        }
+    }
+
+    @Test
+    void contextPathIsIgnored() {
+        MockHttpServletRequest request = request("/app/api/auth/me");
+        request.setContextPath("/app");
+        assertFalse(filter.shouldNotFilter(request));
+    }
+
+    private static MockHttpServletRequest request(String uri) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        request.setRequestURI(uri);
+        return request;
+    }
+}
@@ -0,0 +1,84 @@
+package com.borsvy.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+
+import java.util.Base64;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtServiceTest {
+
+    private static final String SECRET = Base64.getEncoder().encodeToString(
+        "a-test-signing-key-of-at-least-32-bytes".getBytes());
+    private static final String OTHER_SECRET = Base64.getEncoder().encodeToString(
+        "another-signing-key-of-at-least-32-bytes".getBytes());
+
+    private final JwtService jwt = new JwtService(SECRET, 60_000);
+
+    @Test
+    void claimsRoundTrip() {
+        Claims claims = jwt.verify(jwt.generateToken(42L, "user@example.com", 3));
+        assertNotNull(claims);
+        assertEquals("user@example.com", claims.getSubject());
+        assertEquals(42L, JwtService.userId(claims));
+        assertEquals(3, JwtService.tokenVersion(claims));
+        assertTrue(claims.getExpiration().after(claims.getIssuedAt()));
+    }
+
+    @Test
+    void expiredTokensAreRejected() {
+        JwtService expired = new JwtService(SECRET, -1_000);
+        String token = expired.generateToken(42L, "user@example.com", 0);
+        assertNull(jwt.verify(token));
+        assertFalse(jwt.isTokenValid(token));
+    }
+
+    @Test
+    void tamperedTokensAreRejected() {
+        String token = jwt.generateToken(42L, "user@example.com", 0);
+        String[] parts = token.split("\\.");
+
+        // Claim a different user under the original signature
+        String forged = Base64.getUrlEncoder().withoutPadding().encodeToString(
+            new String(Base64.getUrlDecoder().decode(parts[1])).replace("42", "43").getBytes());
+        assertNull(jwt.verify(parts[0] + "." + forged + "." + parts[2]));
+
+        String signature = parts[2];
+        char flipped = signature.charAt(0) == 'A' ? 'B' : 'A';
+        assertNull(jwt.verify(parts[0] + "." + parts[1] + "." + flipped + signature.substring(1)));
+
+        assertNull(jwt.verify(parts[0] + "." + parts[1] + "."));
+        assertNull(jwt.verify("not-a-token"));
+    }
+
+    @Test
+    void tokensSignedWithAnotherKeyAreRejected() {
+        String token = new JwtService(OTHER_SECRET, 60_000).generateToken(42L, "user@example.com", 0);
+        assertNull(jwt.verify(token));
+    }
+
+    @Test
+    void versionMismatchIsVisibleInTheClaims() {
+        Claims older = jwt.verify(jwt.generateToken(42L, "user@example.com", 1));
+        Claims newer = jwt.verify(jwt.generateToken(42L, "user@example.com", 2));
+        assertNotEquals(JwtService.tokenVersion(older), JwtService.tokenVersion(newer));
+    }
+
+    @Test
+    void tokensWithoutAVersionCountAsVersionZero() {
+        String legacy = Jwts.builder()
+            .setSubject("user@example.com")
+            .claim(JwtService.USER_ID_CLAIM, 42L)
+            .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+            .signWith(Keys.hmacShaKeyFor(Base64.getDecoder().decode(SECRET)), SignatureAlgorithm.HS256)
+            .compact();
+        Claims claims = jwt.verify(legacy);
+        assertNotNull(claims);
+        assertEquals(0, JwtService.tokenVersion(claims));
+    }
+}
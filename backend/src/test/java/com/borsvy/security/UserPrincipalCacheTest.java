@@ -0,0 +1,106 @@
+package com.borsvy.security;
+
+import com.borsvy.model.User;
+import com.borsvy.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class UserPrincipalCacheTest {
+
+    private final UserRepository users = mock(UserRepository.class);
+    private final User user = user(7L);
+
+    @Test
+    void hitSkipsTheLookup() {
+        when(users.findById(7L)).thenReturn(Optional.of(user));
+        UserPrincipalCache cache = new UserPrincipalCache(users, 60_000, 100);
+
+        UserPrincipal first = cache.get(7L, 0);
+        assertNotNull(first);
+        assertEquals(7L, first.getId());
+        assertSame(first, cache.get(7L, 0));
+        verify(users, times(1)).findById(7L);
+    }
+
+    @Test
+    void versionMismatchIsRejectedFromTheCacheToo() {
+        user.revokeTokens();
+        when(users.findById(7L)).thenReturn(Optional.of(user));
+        UserPrincipalCache cache = new UserPrincipalCache(users, 60_000, 100);
+
+        assertNull(cache.get(7L, 0));
+        assertNull(cache.get(7L, 0));
+        assertNotNull(cache.get(7L, 1));
+        verify(users, times(1)).findById(7L);
+    }
+
+    @Test
+    void credentialChangeRevokesTokensOnceInvalidated() {
+        when(users.findById(7L)).thenReturn(Optional.of(user));
+        UserPrincipalCache cache = new UserPrincipalCache(users, 60_000, 100);
+        assertNotNull(cache.get(7L, 0));
+
+        user.setPassword("rotated");
+        cache.invalidate(7L);
+        assertNull(cache.get(7L, 0));
+        assertNotNull(cache.get(7L, 1));
+    }
+
+    @Test
+    void onlyRealChangesBumpTheVersion() {
+        user.setPassword("hash");
+        user.setRole("USER");
+        user.setEnabled(true);
+        assertEquals(0, user.getTokenVersion());
+
+        user.setRole("ADMIN");
+        user.setGoogleId("google-sub");
+        user.setEnabled(false);
+        assertEquals(3, user.getTokenVersion());
+    }
+
+    @Test
+    void disabledOrMissingUsersGetNoPrincipal() {
+        user.setEnabled(false);
+        when(users.findById(7L)).thenReturn(Optional.of(user));
+        when(users.findById(8L)).thenReturn(Optional.empty());
+        UserPrincipalCache cache = new UserPrincipalCache(users, 60_000, 100);
+
+        assertNull(cache.get(7L, user.getTokenVersion()));
+        assertNull(cache.get(8L, 0));
+    }
+
+    @Test
+    void expiredEntriesAreReloaded() throws InterruptedException {
+        when(users.findById(7L)).thenReturn(Optional.of(user));
+        UserPrincipalCache cache = new UserPrincipalCache(users, 20, 100);
+
+        assertNotNull(cache.get(7L, 0));
+        Thread.sleep(50);
+        // The row changed while the entry aged out; the reload sees it
+        user.revokeTokens();
+        assertNull(cache.get(7L, 0));
+        verify(users, times(2)).findById(7L);
+    }
+
+    @Test
+    void fullCacheStillServes() {
+        for (long id = 1; id <= 5; id++) {
+            when(users.findById(id)).thenReturn(Optional.of(user(id)));
+        }
+        UserPrincipalCache cache = new UserPrincipalCache(users, 60_000, 2);
+        for (long id = 1; id <= 5; id++) {
+            assertEquals(id, cache.get(id, 0).getId());
+        }
+    }
+
+    private static User user(long id) {
+        User user = new User("user" + id + "@example.com", "hash");
+        user.setId(id);
+        return user;
+    }
+}
@@ -0,0 +1,129 @@
+package com.borsvy.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AlertThresholdIndexTest {
+
+    private final AlertThresholdIndex index = new AlertThresholdIndex();
+
+    @Test
+    void aboveAlertsFireAtOrBelowThePrice() {
+        index.add(above(1, 100));
+        index.add(above(2, 110));
+        index.add(above(3, 120));
+
+        assertEquals(Set.of(), ids(index.crossed("AAPL", 99)));
+        assertEquals(Set.of(1L, 2L), ids(index.crossed("AAPL", 110)));
+        assertEquals(Set.of(3L), ids(index.crossed("AAPL", 500)));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void belowAlertsFireAtOrAboveThePrice() {
+        index.add(below(1, 80));
+        index.add(below(2, 90));
+        index.add(below(3, 100));
+
+        assertEquals(Set.of(), ids(index.crossed("AAPL", 101)));
+        assertEquals(Set.of(2L, 3L), ids(index.crossed("AAPL", 90)));
+        assertEquals(Set.of(1L), ids(index.crossed("AAPL", 1)));
+    }
+
+    @Test
+    void crossedAlertsDoNotFireTwice() {
+        index.add(above(1, 100));
+        assertEquals(1, index.crossed("AAPL", 105).size());
+        assertTrue(index.crossed("AAPL", 105).isEmpty());
+        assertTrue(index.pendingSymbols().isEmpty());
+    }
+
+    @Test
+    void crossedEntriesKeepTheirFields() {
+        index.add(new AlertThresholdIndex.Entry(7, 42, "AAPL", 95.5, false));
+        AlertThresholdIndex.Entry entry = index.crossed("AAPL", 95.5).get(0);
+        assertEquals(7, entry.alertId);
+        assertEquals(42, entry.userId);
+        assertEquals("AAPL", entry.symbol);
+        assertEquals(95.5, entry.targetPrice);
+        assertFalse(entry.above);
+    }
+
+    @Test
+    void removeDropsOnlyTheMatchingAlert() {
+        index.add(above(1, 100));
+        index.add(above(2, 100));
+        assertFalse(index.remove("AAPL", true, 101, 1));
+        assertFalse(index.remove("AAPL", false, 100, 1));
+        assertFalse(index.remove("MSFT", true, 100, 1));
+        assertTrue(index.remove("AAPL", true, 100, 1));
+        assertEquals(Set.of(2L), ids(index.crossed("AAPL", 100)));
+    }
+
+    @Test
+    void loadMergesWithAddedAlerts() {
+        index.add(above(1, 105));
+        index.load("AAPL", List.of(above(2, 100), above(3, 110), below(4, 90)));
+        assertEquals(4, index.size());
+        assertEquals(Set.of(1L, 2L), ids(index.crossed("AAPL", 107)));
+        assertEquals(Set.of(4L), ids(index.crossed("AAPL", 90)));
+        assertEquals(List.of("AAPL"), index.pendingSymbols());
+    }
+
+    @Test
+    void symbolsAreIndependent() {
+        index.add(above(1, 100));
+        index.add(new AlertThresholdIndex.Entry(2, 1, "MSFT", 100, true));
+        assertEquals(Set.of(1L), ids(index.crossed("AAPL", 200)));
+        assertEquals(List.of("MSFT"), index.pendingSymbols());
+    }
+
+    @Test
+    void matchesALinearScanAfterManyChanges() {
+        Random random = new Random(7);
+        List<AlertThresholdIndex.Entry> pending = new ArrayList<>();
+        long nextId = 1;
+        for (int round = 0; round < 2000; round++) {
+            int op = random.nextInt(10);
+            if (op < 6) {
+                AlertThresholdIndex.Entry entry = new AlertThresholdIndex.Entry(nextId++, 1, "AAPL",
+                    random.nextInt(50) + 75, random.nextBoolean());
+                index.add(entry);
+                pending.add(entry);
+            } else if (op < 8 && !pending.isEmpty()) {
+                AlertThresholdIndex.Entry entry = pending.remove(random.nextInt(pending.size()));
+                assertTrue(index.remove("AAPL", entry.above, entry.targetPrice, entry.alertId));
+            } else {
+                double price = random.nextInt(60) + 70;
+                Set<Long> expected = new TreeSet<>();
+                pending.removeIf(entry -> {
+                    boolean crossed = entry.above ? entry.targetPrice <= price : entry.targetPrice >= price;
+                    if (crossed) expected.add(entry.alertId);
+                    return crossed;
+                });
+                assertEquals(expected, new TreeSet<>(ids(index.crossed("AAPL", price))));
+            }
+            assertEquals(pending.size(), index.size());
+        }
+    }
+
+    private static AlertThresholdIndex.Entry above(long id, double target) {
+        return new AlertThresholdIndex.Entry(id, 1, "AAPL", target, true);
+    }
+
+    private static AlertThresholdIndex.Entry below(long id, double target) {
+        return new AlertThresholdIndex.Entry(id, 1, "AAPL", target, false);
+    }
+
+    private static Set<Long> ids(List<AlertThresholdIndex.Entry> entries) {
+        return entries.stream().map(entry -> entry.alertId).collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,144 @@
+package com.borsvy.service;
+
+import com.borsvy.model.BacktestRequest;
+import com.borsvy.model.StockPrice;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BacktestEngineTest {
+
+    private static final double[] OPEN = {10, 10.5, 11.5, 12.5, 13.5};
+    private static final double[] CLOSE = {10, 11, 12, 13, 14};
+    private static final double CAPITAL = 1000;
+
+    // RSI is at most 100, so RSI_BELOW 101 fires on every bar once the RSI exists and RSI_ABOVE 101 never does
+    private static final BacktestStrategy BUY_AND_HOLD = new BacktestStrategy(
+        BacktestStrategy.Condition.RSI_BELOW, BacktestStrategy.Condition.RSI_ABOVE, 101, 101, 1, 2, 1);
+    private static final BacktestStrategy IN_AND_OUT = new BacktestStrategy(
+        BacktestStrategy.Condition.RSI_BELOW, BacktestStrategy.Condition.RSI_BELOW, 101, 101, 1, 2, 1);
+
+    @Test
+    void buyAndHoldEquityCurve() {
+        BacktestEngine.Result result = BacktestEngine.run(bars(), BUY_AND_HOLD, CAPITAL, 0, 252, true);
+
+        // Entry raised on bar 1 when the RSI first exists, filled at bar 2's open
+        double shares = CAPITAL / 11.5;
+        assertArrayEquals(new double[] {1000, 1000, shares * 12, shares * 13, shares * 14}, result.equity, 1e-9);
+        assertEquals(shares * 14, result.finalEquity, 1e-9);
+        assertEquals(14 / 11.5 - 1, result.totalReturn, 1e-12);
+        assertEquals(0, result.maxDrawdown, 1e-12);
+        assertEquals(0.6, result.exposure, 1e-12);
+
+        // Still open at the end: reported, but not counted as a closed trade
+        assertEquals(0, result.trades);
+        assertEquals(1, result.tradeList.size());
+        BacktestEngine.Trade trade = result.tradeList.get(0);
+        assertTrue(trade.open);
+        assertEquals(2, trade.entryIndex);
+        assertEquals(11.5, trade.entryPrice, 1e-12);
+        assertEquals(14 / 11.5 - 1, trade.returnPct, 1e-12);
+    }
+
+    @Test
+    void commissionIsChargedOnEveryFill() {
+        double commission = 0.01;
+        BacktestEngine.Result result = BacktestEngine.run(bars(), IN_AND_OUT, CAPITAL, commission, 252, true);
+
+        // Buy at bar 2's open, sell at bar 3's, buy again at bar 4's
+        double shares = CAPITAL * 0.99 / 11.5;
+        double cash = shares * 12.5 * 0.99;
+        double reentered = cash * 0.99 / 13.5;
+        assertEquals(reentered * 14, result.finalEquity, 1e-9);
+        assertEquals(cash, result.equity[3], 1e-9);
+
+        assertEquals(1, result.trades);
+        assertEquals(1, result.wins);
+        BacktestEngine.Trade closed = result.tradeList.get(0);
+        assertFalse(closed.open);
+        assertEquals(3, closed.exitIndex);
+        assertEquals(cash / CAPITAL - 1, closed.returnPct, 1e-12);
+        assertTrue(result.tradeList.get(1).open);
+
+        BacktestEngine.Result free = BacktestEngine.run(bars(), IN_AND_OUT, CAPITAL, 0, 252, false);
+        assertEquals(CAPITAL * 12.5 / 11.5 * 14 / 13.5, free.finalEquity, 1e-9);
+        assertTrue(free.finalEquity > result.finalEquity);
+    }
+
+    @Test
+    void sweepsSkipTheCurveButMatchTheMetrics() {
+        BacktestEngine.Result recorded = BacktestEngine.run(bars(), IN_AND_OUT, CAPITAL, 0.001, 252, true);
+        BacktestEngine.Result summary = BacktestEngine.run(bars(), IN_AND_OUT, CAPITAL, 0.001, 252, false);
+        assertNull(summary.equity);
+        assertNull(summary.tradeList);
+        assertEquals(recorded.finalEquity, summary.finalEquity);
+        assertEquals(recorded.sharpe, summary.sharpe);
+        assertEquals(recorded.trades, summary.trades);
+    }
+
+    @Test
+    void drawdownFromThePeak() {
+        double[] close = {10, 11, 12, 9, 12};
+        BacktestEngine.Result result = BacktestEngine.run(bars(close, close), BUY_AND_HOLD, CAPITAL, 0, 252, true);
+        assertEquals(1 - 9.0 / 12, result.maxDrawdown, 1e-12);
+    }
+
+    @Test
+    void parameterGridSize() {
+        BacktestRequest request = new BacktestRequest();
+        request.setSweep(Map.of(
+            "fastPeriod", List.of(5.0, 10.0, 20.0),
+            "slowPeriod", List.of(10.0, 20.0, 50.0),
+            "rsiPeriod", List.of(7.0, 14.0)));
+        // Fast below slow: (5,10) (5,20) (5,50) (10,20) (10,50) (20,50), times two RSI periods
+        List<BacktestStrategy> strategies = BacktestService.strategies(request, 1, 5000);
+        assertEquals(12, strategies.size());
+        for (BacktestStrategy strategy : strategies) {
+            assertTrue(strategy.fastPeriod < strategy.slowPeriod);
+        }
+
+        BacktestRequest single = new BacktestRequest();
+        assertEquals(1, BacktestService.strategies(single, 50, 5000).size());
+    }
+
+    @Test
+    void oversizedGridsAreRejectedBeforeBuilding() {
+        BacktestRequest request = new BacktestRequest();
+        request.setSweep(Map.of("rsiPeriod", List.of(7.0, 14.0), "entryThreshold", List.of(20.0, 25.0, 30.0)));
+        assertEquals(6, BacktestService.strategies(request, 10, 60).size());
+        // Six combinations for eleven symbols exceed 60 runs
+        assertThrows(IllegalArgumentException.class, () -> BacktestService.strategies(request, 11, 60));
+
+        List<Double> many = new ArrayList<>();
+        for (int i = 1; i <= 10_000; i++) many.add((double) i);
+        BacktestRequest huge = new BacktestRequest();
+        huge.setSweep(Map.of("entryThreshold", many, "exitThreshold", many, "rsiPeriod", many));
+        assertThrows(IllegalArgumentException.class, () -> BacktestService.strategies(huge, 1, 5000));
+
+        BacktestRequest empty = new BacktestRequest();
+        empty.setSweep(Map.of("fastPeriod", List.of(50.0), "slowPeriod", List.of(20.0)));
+        assertThrows(IllegalArgumentException.class, () -> BacktestService.strategies(empty, 1, 5000));
+    }
+
+    private static BacktestBars bars() {
+        return bars(OPEN, CLOSE);
+    }
+
+    private static BacktestBars bars(double[] open, double[] close) {
+        List<StockPrice> history = new ArrayList<>();
+        LocalDateTime start = LocalDateTime.of(2025, 1, 6, 0, 0);
+        for (int t = 0; t < close.length; t++) {
+            StockPrice price = new StockPrice();
+            price.setTimestamp(start.plusDays(t));
+            price.setOpen(open[t]);
+            price.setPrice(close[t]);
+            history.add(price);
+        }
+        return BacktestBars.from("TEST", history);
+    }
+}
@@ -0,0 +1,105 @@
+package com.borsvy.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConsistentHashRingTest {
+
+    private static final int KEYS = 20_000;
+    private static final List<String> NODES = List.of("node-a", "node-b", "node-c", "node-d");
+
+    @Test
+    void emptyRingHasNoOwner() {
+        ConsistentHashRing ring = new ConsistentHashRing(List.of(), 128);
+        assertTrue(ring.isEmpty());
+        assertNull(ring.owner("AAPL"));
+    }
+
+    @Test
+    void singleMemberOwnsEverything() {
+        ConsistentHashRing ring = new ConsistentHashRing(List.of("only"), 128);
+        for (String key : keys(1000)) {
+            assertEquals("only", ring.owner(key));
+        }
+    }
+
+    @Test
+    void memberOrderDoesNotChangeOwners() {
+        List<String> reversed = new ArrayList<>(NODES);
+        Collections.reverse(reversed);
+        ConsistentHashRing ring = new ConsistentHashRing(NODES, 128);
+        ConsistentHashRing other = new ConsistentHashRing(reversed, 128);
+        for (String key : keys(KEYS)) {
+            assertEquals(ring.owner(key), other.owner(key), key);
+        }
+    }
+
+    @Test
+    void sharesAreRoughlyEven() {
+        ConsistentHashRing ring = new ConsistentHashRing(NODES, 128);
+        Map<String, Integer> counts = new HashMap<>();
+        for (String key : keys(KEYS)) {
+            counts.merge(ring.owner(key), 1, Integer::sum);
+        }
+        assertEquals(NODES.size(), counts.size());
+        double fair = (double) KEYS / NODES.size();
+        for (Map.Entry<String, Integer> count : counts.entrySet()) {
+            assertEquals(fair, count.getValue(), fair * 0.25, count.getKey() + " share");
+        }
+    }
+
+    @Test
+    void joiningMovesOnlyItsShareToTheNewMember() {
+        ConsistentHashRing before = new ConsistentHashRing(NODES, 128);
+        List<String> grown = new ArrayList<>(NODES);
+        grown.add("node-e");
+        ConsistentHashRing after = new ConsistentHashRing(grown, 128);
+
+        int moved = 0;
+        for (String key : keys(KEYS)) {
+            String was = before.owner(key);
+            String now = after.owner(key);
+            if (!was.equals(now)) {
+                assertEquals("node-e", now, "keys only move to the new member");
+                moved++;
+            }
+        }
+        // About 1/5 of the keys, never a reshuffle
+        assertEquals(KEYS / 5.0, moved, KEYS / 5.0 * 0.3);
+    }
+
+    @Test
+    void leavingMovesOnlyTheLeaversKeys() {
+        ConsistentHashRing before = new ConsistentHashRing(NODES, 128);
+        ConsistentHashRing after = new ConsistentHashRing(NODES.subList(0, 3), 128);
+        for (String key : keys(KEYS)) {
+            String was = before.owner(key);
+            if (!was.equals("node-d")) {
+                assertEquals(was, after.owner(key), key);
+            }
+        }
+    }
+
+    @Test
+    void similarKeysSpreadOut() {
+        assertNotEquals(ConsistentHashRing.hash("AAPL"), ConsistentHashRing.hash("AAPM"));
+        long a = ConsistentHashRing.hash("AAPL");
+        long b = ConsistentHashRing.hash("AAPM");
+        assertTrue(Long.bitCount(a ^ b) > 16, "adjacent symbols should differ in many bits");
+    }
+
+    private static List<String> keys(int count) {
+        List<String> keys = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            keys.add("SYM" + i);
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,107 @@
+package com.borsvy.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HeadlineSentimentModelTest {
+
+    private static final List<String> POSITIVE_HEADLINES = List.of(
+        "Apple shares surge after record quarterly profit beats estimates",
+        "Nvidia stock jumps to all-time high on strong AI chip demand",
+        "Microsoft raises full-year guidance as cloud revenue soars");
+    private static final List<String> NEGATIVE_HEADLINES = List.of(
+        "Tesla shares plunge after deliveries miss expectations",
+        "Boeing stock falls as regulators widen safety probe",
+        "Retailer cuts outlook and warns of layoffs as sales slump");
+
+    @Test
+    void bundledModelScoresKnownHeadlines() throws IOException {
+        HeadlineSentimentModel model;
+        try (InputStream in = new ClassPathResource("sentiment/headline-model.bin").getInputStream()) {
+            model = HeadlineSentimentModel.read(in);
+        }
+        double[] probs = new double[HeadlineSentimentModel.CLASSES];
+        for (String headline : POSITIVE_HEADLINES) {
+            assertEquals(HeadlineSentimentModel.POSITIVE, model.score(headline, probs), headline);
+        }
+        for (String headline : NEGATIVE_HEADLINES) {
+            assertEquals(HeadlineSentimentModel.NEGATIVE, model.score(headline, probs), headline);
+        }
+    }
+
+    @Test
+    void probabilitiesFollowTheWeights() {
+        HeadlineSentimentModel model = new HeadlineSentimentModel(10);
+        weigh(model, "surge", HeadlineSentimentModel.POSITIVE, 2f);
+        weigh(model, "plunge", HeadlineSentimentModel.NEGATIVE, 2f);
+        double[] probs = new double[HeadlineSentimentModel.CLASSES];
+
+        assertEquals(HeadlineSentimentModel.POSITIVE, model.score("Shares SURGE", probs));
+        assertEquals(Math.exp(2) / (Math.exp(2) + 2), probs[HeadlineSentimentModel.POSITIVE], 1e-9);
+        assertEquals(1, probs[0] + probs[1] + probs[2], 1e-12);
+
+        assertEquals(HeadlineSentimentModel.NEGATIVE, model.score("Shares plunge!", probs));
+        // Opposite signals tie, and a tie between classes goes to positive
+        assertEquals(HeadlineSentimentModel.POSITIVE, model.score("surge, then plunge", probs));
+        assertEquals(probs[HeadlineSentimentModel.NEGATIVE], probs[HeadlineSentimentModel.POSITIVE], 1e-12);
+        assertEquals(1 / (2 * Math.exp(2) + 1), probs[HeadlineSentimentModel.NEUTRAL], 1e-9);
+    }
+
+    @Test
+    void emptyHeadlinesScoreOnTheBiasAlone() {
+        HeadlineSentimentModel model = new HeadlineSentimentModel(10);
+        model.bias()[HeadlineSentimentModel.NEUTRAL] = 1f;
+        double[] probs = new double[HeadlineSentimentModel.CLASSES];
+        assertEquals(HeadlineSentimentModel.NEUTRAL, model.score(null, probs));
+        assertEquals(HeadlineSentimentModel.NEUTRAL, model.score(" - ", probs));
+    }
+
+    @Test
+    void featuresAreUnigramsAndBigrams() {
+        HeadlineSentimentModel model = new HeadlineSentimentModel(10);
+        int[] features = new int[16];
+        assertEquals(1, model.features("surge", features));
+        // surge, shares, and the (surge, shares) bigram
+        assertEquals(3, model.features("Surge shares", features));
+        int[] again = new int[16];
+        model.features("surge", again);
+        assertEquals(features[0], again[0]);
+    }
+
+    @Test
+    void writeAndReadRoundTrip() throws IOException {
+        HeadlineSentimentModel model = new HeadlineSentimentModel(10);
+        model.bias()[HeadlineSentimentModel.NEUTRAL] = 0.5f;
+        weigh(model, "beats", HeadlineSentimentModel.POSITIVE, 1.5f);
+        weigh(model, "misses", HeadlineSentimentModel.NEGATIVE, 1.25f);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        model.write(out);
+        HeadlineSentimentModel copy = HeadlineSentimentModel.read(new ByteArrayInputStream(out.toByteArray()));
+
+        assertArrayEquals(model.bias(), copy.bias());
+        assertArrayEquals(model.weights(), copy.weights());
+    }
+
+    @Test
+    void rejectsOtherFiles() {
+        byte[] notAModel = {'P', 'K', 3, 4, 0, 0, 0, 0};
+        assertThrows(IOException.class, () -> HeadlineSentimentModel.read(new ByteArrayInputStream(notAModel)));
+        assertThrows(IllegalArgumentException.class, () -> new HeadlineSentimentModel(4));
+    }
+
+    /** Sets the weight of a single-token headline's only bucket. */
+    static void weigh(HeadlineSentimentModel model, String token, int sentimentClass, float weight) {
+        int[] features = new int[4];
+        assertEquals(1, model.features(token, features));
+        model.weights()[features[0] * HeadlineSentimentModel.CLASSES + sentimentClass] = weight;
+    }
+}
@@ -0,0 +1,144 @@
+package com.borsvy.service;
+
+import com.borsvy.client.NewsDataClient;
+import com.borsvy.client.ProviderHealthRegistry;
+import com.borsvy.client.RapidApiClient;
+import com.borsvy.model.NewsArticle;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * NewsData.io is the primary while both circuits are healthy; RapidAPI is the
+ * hedge. Latencies are an order of magnitude apart so scheduling jitter does
+ * not decide the race.
+ */
+class HedgedNewsFetcherTest {
+
+    private static final long HEDGE_DELAY_MS = 50;
+    private static final long MERGE_WINDOW_MS = 200;
+    private static final long TIMEOUT_MS = 1500;
+
+    private final NewsDataClient newsData = mock(NewsDataClient.class);
+    private final RapidApiClient rapidApi = mock(RapidApiClient.class);
+    private final HedgedNewsFetcher fetcher =
+        new HedgedNewsFetcher(newsData, rapidApi, new ProviderHealthRegistry(20, 5, 0.5, 30_000, 2), 2);
+
+    {
+        ReflectionTestUtils.setField(fetcher, "maxHedgeDelayMs", HEDGE_DELAY_MS);
+        ReflectionTestUtils.setField(fetcher, "minHedgeDelayMs", HEDGE_DELAY_MS);
+        ReflectionTestUtils.setField(fetcher, "mergeWindowMs", MERGE_WINDOW_MS);
+        ReflectionTestUtils.setField(fetcher, "timeoutMs", TIMEOUT_MS);
+    }
+
+    @AfterEach
+    void shutdown() {
+        fetcher.shutdown();
+    }
+
+    @Test
+    void fastPrimaryIsNotHedged() throws Exception {
+        stubNewsData(10, "a");
+        stubRapidApi(10, "b");
+
+        assertEquals(List.of("a"), titles(fetcher.fetchAsync("AAPL", 10)));
+        // Past the hedge delay, the secondary still has not been asked
+        Thread.sleep(HEDGE_DELAY_MS * 3);
+        verify(rapidApi, never()).getStockNewsAsync(anyString(), anyInt());
+    }
+
+    @Test
+    void fasterHedgeWinsAndTheSlowLoserIsMerged() throws Exception {
+        stubNewsData(HEDGE_DELAY_MS + 100, "a", "shared");
+        stubRapidApi(10, "b", "Shared");
+
+        // RapidAPI answers first; NewsData.io lands inside the merge window, duplicates dropped
+        assertEquals(List.of("b", "Shared", "a"), titles(fetcher.fetchAsync("AAPL", 10)));
+    }
+
+    @Test
+    void loserOutsideTheMergeWindowIsCancelled() throws Exception {
+        stubNewsData(HEDGE_DELAY_MS + 50, "a");
+        CompletableFuture<List<NewsArticle>> slow = stubRapidApi(TIMEOUT_MS * 10, "b");
+
+        long started = System.nanoTime();
+        assertEquals(List.of("a"), titles(fetcher.fetchAsync("AAPL", 10)));
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        assertTrue(elapsedMs < TIMEOUT_MS, "returned after the merge window, took " + elapsedMs + " ms");
+        assertCancelled(slow);
+    }
+
+    @Test
+    void emptyPrimaryHedgesWithoutWaiting() throws Exception {
+        stubNewsData(0);
+        stubRapidApi(10, "b");
+        assertEquals(List.of("b"), titles(fetcher.fetchAsync("AAPL", 10)));
+    }
+
+    @Test
+    void mergeHonoursTheLimit() throws Exception {
+        stubNewsData(HEDGE_DELAY_MS + 100, "a1", "a2");
+        stubRapidApi(10, "b1", "b2");
+        assertEquals(List.of("b1", "b2", "a1"), titles(fetcher.fetchAsync("AAPL", 3)));
+    }
+
+    @Test
+    void timeoutGivesEmptyAndCancelsBoth() throws Exception {
+        when(newsData.getStockNewsAsync(anyString(), anyInt())).thenReturn(new CompletableFuture<>());
+        CompletableFuture<List<NewsArticle>> hung = new CompletableFuture<>();
+        when(rapidApi.getStockNewsAsync(anyString(), anyInt())).thenReturn(hung);
+
+        assertEquals(List.of(), titles(fetcher.fetchAsync("AAPL", 10)));
+        assertCancelled(hung);
+    }
+
+    private void stubNewsData(long latencyMs, String... titles) {
+        List<Map<String, Object>> articles = new ArrayList<>();
+        for (String title : titles) {
+            articles.add(Map.of("title", title, "url", "https://newsdata.example/" + title));
+        }
+        when(newsData.getStockNewsAsync(anyString(), anyInt())).thenReturn(after(latencyMs, articles));
+    }
+
+    private CompletableFuture<List<NewsArticle>> stubRapidApi(long latencyMs, String... titles) {
+        List<NewsArticle> articles = new ArrayList<>();
+        for (String title : titles) {
+            NewsArticle article = new NewsArticle();
+            article.setTitle(title);
+            article.setUrl("https://rapidapi.example/" + title);
+            articles.add(article);
+        }
+        CompletableFuture<List<NewsArticle>> future = after(latencyMs, articles);
+        when(rapidApi.getStockNewsAsync(anyString(), anyInt())).thenReturn(future);
+        return future;
+    }
+
+    private static <T> CompletableFuture<T> after(long latencyMs, T value) {
+        return CompletableFuture.supplyAsync(() -> value,
+            CompletableFuture.delayedExecutor(latencyMs, TimeUnit.MILLISECONDS));
+    }
+
+    /** Cancellation runs in a callback on the thread that settled the result, just after it. */
+    private static void assertCancelled(CompletableFuture<?> future) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (!future.isCancelled() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertTrue(future.isCancelled());
+    }
+
+    private static List<String> titles(CompletableFuture<List<NewsArticle>> result) throws Exception {
+        return result.get(TIMEOUT_MS * 2, TimeUnit.MILLISECONDS).stream().map(NewsArticle::getTitle).toList();
+    }
+}
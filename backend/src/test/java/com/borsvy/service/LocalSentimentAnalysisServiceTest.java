@@ -0,0 +1,105 @@
+package com.borsvy.service;
+
+import com.borsvy.model.NewsArticle;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Routing between the local model and the LLM. The model knows two words, so
+ * a headline with one of them is about 79% sure and one with neither is a
+ * three-way tie, which a batch reports as neutral.
+ */
+class LocalSentimentAnalysisServiceTest {
+
+    private static final double THRESHOLD = 0.7;
+
+    private final LLMAnalysisService llm = mock(LLMAnalysisService.class);
+    private final LocalSentimentAnalysisService service = new LocalSentimentAnalysisService(llm);
+
+    {
+        HeadlineSentimentModel model = new HeadlineSentimentModel(10);
+        HeadlineSentimentModelTest.weigh(model, "surge", HeadlineSentimentModel.POSITIVE, 2f);
+        HeadlineSentimentModelTest.weigh(model, "plunge", HeadlineSentimentModel.NEGATIVE, 2f);
+        ReflectionTestUtils.setField(service, "model", model);
+        ReflectionTestUtils.setField(service, "escalationConfidence", THRESHOLD);
+        when(llm.analyzeNewsSentiment(anyString(), any())).thenReturn(Map.of("sentiment", "NEUTRAL", "confidence", 0.9));
+    }
+
+    @Test
+    void confidentBatchesStayLocal() {
+        Map<String, Object> result = service.analyzeNewsSentiment("AAPL", articles("surge", "Shares surge", "Stocks surge"));
+
+        assertEquals("local", result.get("source"));
+        assertEquals("POSITIVE", result.get("sentiment"));
+        assertTrue((double) result.get("confidence") >= THRESHOLD);
+        assertEquals(3, result.get("positiveCount"));
+        assertEquals(0, result.get("negativeCount"));
+        verifyNoInteractions(llm);
+    }
+
+    @Test
+    void unsureBatchesAreEscalated() {
+        List<NewsArticle> articles = articles("surge", "plunge", "quarterly report");
+        Map<String, Object> result = service.analyzeNewsSentiment("AAPL", articles);
+
+        assertEquals("llm", result.get("source"));
+        assertEquals("NEUTRAL", result.get("sentiment"));
+        verify(llm).analyzeNewsSentiment("AAPL", articles);
+    }
+
+    @Test
+    void thresholdIsTheCutOff() {
+        // One known word gives e^2 / (e^2 + 2), about 0.787
+        double confidence = Math.exp(2) / (Math.exp(2) + 2);
+        ReflectionTestUtils.setField(service, "escalationConfidence", confidence - 1e-9);
+        assertEquals("local", service.analyzeNewsSentiment("AAPL", articles("plunge")).get("source"));
+
+        ReflectionTestUtils.setField(service, "escalationConfidence", confidence + 1e-6);
+        assertEquals("llm", service.analyzeNewsSentiment("AAPL", articles("plunge")).get("source"));
+    }
+
+    @Test
+    void failedEscalationFallsBackToTheLocalResult() {
+        when(llm.analyzeNewsSentiment(anyString(), any())).thenThrow(new IllegalStateException("Groq is down"));
+        Map<String, Object> result = service.analyzeNewsSentiment("AAPL", articles("quarterly report"));
+
+        assertEquals("local", result.get("source"));
+        assertEquals("NEUTRAL", result.get("sentiment"));
+        assertEquals(1.0 / 3, (double) result.get("confidence"), 1e-9);
+    }
+
+    @Test
+    void missingModelSendsEverythingToTheLlm() {
+        LocalSentimentAnalysisService unloaded = new LocalSentimentAnalysisService(llm);
+        ReflectionTestUtils.setField(unloaded, "modelPath", "sentiment/missing.bin");
+        unloaded.init();
+
+        assertEquals("llm", unloaded.analyzeNewsSentiment("AAPL", articles("surge")).get("source"));
+        verify(llm).analyzeNewsSentiment(eq("AAPL"), any());
+    }
+
+    @Test
+    void emptyBatchesGoStraightToTheLlm() {
+        service.analyzeNewsSentiment("AAPL", List.of());
+        verify(llm).analyzeNewsSentiment("AAPL", List.of());
+    }
+
+    private static List<NewsArticle> articles(String... titles) {
+        List<NewsArticle> articles = new ArrayList<>();
+        for (String title : titles) {
+            NewsArticle article = new NewsArticle();
+            article.setTitle(title);
+            articles.add(article);
+        }
+        return articles;
+    }
+}
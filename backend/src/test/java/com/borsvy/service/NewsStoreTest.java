@@ -0,0 +1,82 @@
+package com.borsvy.service;
+
+import com.borsvy.client.ArticleThumbnailResolver;
+import com.borsvy.model.NewsArticle;
+import com.borsvy.repository.StoredNewsArticleRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class NewsStoreTest {
+
+    private final StoredNewsArticleRepository repository = mock(StoredNewsArticleRepository.class);
+    private final NewsStore store = new NewsStore(repository, mock(ArticleThumbnailResolver.class));
+
+    {
+        ReflectionTestUtils.setField(store, "perSymbolLimit", 100);
+    }
+
+    @Test
+    void readsAndIngestsDoNotWaitForTheDatabase() throws Exception {
+        CountDownLatch lookupStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(repository.findExistingUrlHashes(any())).thenAnswer(invocation -> {
+            lookupStarted.countDown();
+            release.await();
+            return List.of();
+        });
+
+        CompletableFuture<Integer> slow = CompletableFuture.supplyAsync(() ->
+            store.ingest("AAPL", List.of(article("Apple beats estimates", "2025-01-06T14:00:00")), null));
+        try {
+            assertTrue(lookupStarted.await(5, TimeUnit.SECONDS));
+            // The first ingest is stuck in the database, but its article is already served
+            assertEquals(LocalDateTime.of(2025, 1, 6, 14, 0),
+                CompletableFuture.supplyAsync(() -> store.newestPublishedAt("AAPL")).get(5, TimeUnit.SECONDS));
+            assertEquals(List.of("Apple beats estimates"), titles(store.getLatest("AAPL", 10)));
+
+            // A second ingest of the same story neither blocks nor stores it again
+            CompletableFuture<Integer> again = CompletableFuture.supplyAsync(() ->
+                store.ingest("AAPL", List.of(article("Apple beats estimates", "2025-01-06T14:00:00")), null));
+            assertEquals(0, again.get(5, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+        }
+        assertEquals(1, slow.get(5, TimeUnit.SECONDS));
+        verify(repository, times(1)).findExistingUrlHashes(any());
+        verify(repository, times(1)).saveAll(anyList());
+    }
+
+    @Test
+    void storiesStoredForAnotherSymbolAreLinked() {
+        NewsArticle article = article("Chipmakers rally on export news", "2025-01-06T15:00:00");
+        when(repository.findExistingUrlHashes(any()))
+            .thenReturn(List.of(ArticleThumbnailResolver.urlHash(article.getUrl())));
+
+        assertEquals(1, store.ingest("NVDA", List.of(article), null));
+        verify(repository).addSymbol(ArticleThumbnailResolver.urlHash(article.getUrl()), "NVDA");
+        verify(repository, never()).saveAll(anyList());
+    }
+
+    private static NewsArticle article(String title, String publishedDate) {
+        NewsArticle article = new NewsArticle();
+        article.setTitle(title);
+        article.setUrl("https://news.example/" + title.replace(' ', '-'));
+        article.setPublishedDate(publishedDate);
+        return article;
+    }
+
+    private static List<String> titles(List<NewsArticle> articles) {
+        return articles.stream().map(NewsArticle::getTitle).toList();
+    }
+}
@@ -0,0 +1,154 @@
+package com.borsvy.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RiskMathTest {
+
+    private static final double EPS = 1e-9;
+
+    @Test
+    void simpleReturnsFromCloses() {
+        double[][] returns = RiskMath.returns(new double[][] {{100, 110, 99}});
+        assertArrayEquals(new double[] {0.1, -0.1}, returns[0], EPS);
+    }
+
+    @Test
+    void covarianceMatrixMatchesPairwiseCovariance() {
+        // More rows than one fork-join task handles, so the split is exercised
+        double[][] returns = randomReturns(21, 120, 1);
+        double[][] cov = RiskMath.covarianceMatrix(returns, ForkJoinPool.commonPool());
+        for (int i = 0; i < returns.length; i++) {
+            for (int j = 0; j < returns.length; j++) {
+                assertEquals(RiskMath.covariance(returns[i], returns[j]), cov[i][j], EPS, i + "," + j);
+            }
+        }
+    }
+
+    @Test
+    void covarianceIsTheSampleCovariance() {
+        double[] a = {1, 2, 3, 4};
+        assertEquals(5.0 / 3, RiskMath.covariance(a, a), EPS);
+    }
+
+    @Test
+    void correlationHasUnitDiagonal() {
+        double[][] cov = RiskMath.covarianceMatrix(randomReturns(5, 60, 2), ForkJoinPool.commonPool());
+        double[][] corr = RiskMath.correlation(cov);
+        for (int i = 0; i < corr.length; i++) {
+            assertEquals(1, corr[i][i], EPS);
+            for (int j = 0; j < corr.length; j++) {
+                assertEquals(corr[i][j], corr[j][i], EPS);
+                assertTrue(Math.abs(corr[i][j]) <= 1 + EPS);
+            }
+        }
+    }
+
+    @Test
+    void portfolioVarianceMatchesWeightedSeries() {
+        double[][] returns = randomReturns(4, 250, 3);
+        double[] weights = {0.4, 0.3, 0.2, 0.1};
+        double[][] cov = RiskMath.covarianceMatrix(returns, ForkJoinPool.commonPool());
+        double[] portfolio = RiskMath.weightedReturns(weights, returns);
+        assertEquals(RiskMath.covariance(portfolio, portfolio), RiskMath.portfolioVariance(weights, cov), EPS);
+    }
+
+    @Test
+    void betaOfALeveragedSeries() {
+        double[] benchmark = randomReturns(1, 200, 4)[0];
+        double[] leveraged = new double[benchmark.length];
+        for (int t = 0; t < benchmark.length; t++) {
+            leveraged[t] = 2 * benchmark[t] + 0.001;
+        }
+        assertEquals(2, RiskMath.beta(leveraged, benchmark), 1e-9);
+        assertEquals(0, RiskMath.beta(benchmark, new double[benchmark.length]), EPS);
+    }
+
+    @Test
+    void historicalVarTakesTheLossTail() {
+        // Returns -0.01 .. -1.00: the worst 5 are -1.00 .. -0.96
+        double[] returns = new double[100];
+        for (int t = 0; t < 100; t++) {
+            returns[t] = -(t + 1) / 100.0;
+        }
+        double[] var = RiskMath.historicalVaR(returns, 0.95);
+        assertEquals(0.96, var[0], EPS);
+        assertEquals(0.98, var[1], EPS);
+        assertArrayEquals(new double[] {0, 0}, RiskMath.historicalVaR(new double[0], 0.95), EPS);
+    }
+
+    @Test
+    void parametricVarUsesNormalQuantile() {
+        double[] var = RiskMath.parametricVaR(0, 0.01, 0.95);
+        assertEquals(0.0164485, var[0], 1e-6);
+        // Expected shortfall of a standard normal at 95% is about 2.0627 sigma
+        assertEquals(0.020627, var[1], 1e-6);
+        assertTrue(var[1] > var[0]);
+    }
+
+    @Test
+    void normalQuantileKnownValues() {
+        assertEquals(0, RiskMath.normalQuantile(0.5), 1e-9);
+        assertEquals(1.6448536, RiskMath.normalQuantile(0.95), 1e-6);
+        assertEquals(2.3263479, RiskMath.normalQuantile(0.99), 1e-6);
+        assertEquals(-2.3263479, RiskMath.normalQuantile(0.01), 1e-6);
+    }
+
+    @Test
+    void choleskyReproducesTheCovariance() {
+        double[][] cov = RiskMath.covarianceMatrix(randomReturns(6, 200, 5), ForkJoinPool.commonPool());
+        assertArrayEquals(flatten(cov), flatten(multiplyTransposed(RiskMath.choleskyPacked(cov), cov.length)), 1e-12);
+    }
+
+    @Test
+    void choleskyHandlesSemiDefiniteCovariance() {
+        // Two identical assets: singular, so the plain factorization fails
+        double[] returns = randomReturns(1, 100, 6)[0];
+        double[][] cov = RiskMath.covarianceMatrix(new double[][] {returns, returns.clone()}, ForkJoinPool.commonPool());
+        double[][] product = multiplyTransposed(RiskMath.choleskyPacked(cov), 2);
+        for (int i = 0; i < 2; i++) {
+            for (int j = 0; j < 2; j++) {
+                assertEquals(cov[i][j], product[i][j], 1e-6);
+                assertFalse(Double.isNaN(product[i][j]));
+            }
+        }
+    }
+
+    private static double[][] randomReturns(int assets, int days, long seed) {
+        Random random = new Random(seed);
+        double[][] returns = new double[assets][days];
+        for (int t = 0; t < days; t++) {
+            double market = random.nextGaussian() * 0.01;
+            for (int i = 0; i < assets; i++) {
+                returns[i][t] = market * (0.5 + i * 0.1) + random.nextGaussian() * 0.005;
+            }
+        }
+        return returns;
+    }
+
+    private static double[][] multiplyTransposed(double[] packed, int n) {
+        double[][] product = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                double sum = 0;
+                for (int k = 0; k <= Math.min(i, j); k++) {
+                    sum += packed[i * (i + 1) / 2 + k] * packed[j * (j + 1) / 2 + k];
+                }
+                product[i][j] = sum;
+            }
+        }
+        return product;
+    }
+
+    private static double[] flatten(double[][] matrix) {
+        double[] flat = new double[matrix.length * matrix.length];
+        for (int i = 0; i < matrix.length; i++) {
+            System.arraycopy(matrix[i], 0, flat, i * matrix.length, matrix.length);
+        }
+        return flat;
+    }
+}
@@ -0,0 +1,77 @@
+package com.borsvy.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TitleSimhashTest {
+
+    private static final String TITLE = "Apple shares rise after strong quarterly iPhone earnings beat estimates";
+
+    @Test
+    void caseAndPunctuationDoNotMatter() {
+        long hash = TitleSimhash.of(TITLE);
+        assertEquals(hash, TitleSimhash.of(TITLE.toUpperCase(Locale.ROOT)));
+        assertEquals(hash, TitleSimhash.of("Apple Shares Rise After Strong Quarterly iPhone Earnings Beat Estimates!"));
+        assertEquals(hash, TitleSimhash.of("  Apple shares rise, after strong quarterly iPhone earnings: beat estimates "));
+    }
+
+    @Test
+    void singleCharacterTokensAreIgnored() {
+        assertEquals(TitleSimhash.of("Apple shares rise"), TitleSimhash.of("Apple's shares rise"));
+        assertEquals(TitleSimhash.of("Apple shares rise"), TitleSimhash.of("Apple shares & a rise"));
+    }
+
+    @Test
+    void publisherSuffixesAreDropped() {
+        long hash = TitleSimhash.of(TITLE);
+        assertEquals(hash, TitleSimhash.of(TITLE + " - Reuters"));
+        assertEquals(hash, TitleSimhash.of(TITLE + " | Yahoo Finance"));
+        assertTrue(TitleSimhash.isNearDuplicate(hash, TitleSimhash.of(TITLE + " - Reuters")));
+    }
+
+    @Test
+    void onlyShortTrailingTagsCountAsSuffixes() {
+        // A dash inside a word, or one too far from the end, is part of the headline
+        assertNotEquals(TitleSimhash.of("Coca"), TitleSimhash.of("Coca-Cola"));
+        String longTail = "Fed holds rates - investors now price in two cuts before the end of next year";
+        assertNotEquals(TitleSimhash.of("Fed holds rates"), TitleSimhash.of(longTail));
+    }
+
+    @Test
+    void differentStoriesAreFarApart() {
+        List<String> titles = List.of(
+            TITLE,
+            "Federal Reserve holds interest rates steady amid cooling inflation",
+            "Tesla recalls thousands of vehicles over faulty seat belt warning",
+            "Oil prices slump as OPEC output rises for third straight month",
+            "Microsoft completes acquisition of gaming studio after regulator approval",
+            "Bitcoin tops record high as exchange traded fund inflows surge");
+        for (int i = 0; i < titles.size(); i++) {
+            for (int j = i + 1; j < titles.size(); j++) {
+                long a = TitleSimhash.of(titles.get(i));
+                long b = TitleSimhash.of(titles.get(j));
+                assertFalse(TitleSimhash.isNearDuplicate(a, b), titles.get(i) + " / " + titles.get(j));
+            }
+        }
+    }
+
+    @Test
+    void emptyTitlesHashToZero() {
+        assertEquals(0, TitleSimhash.of(null));
+        assertEquals(0, TitleSimhash.of(""));
+        assertEquals(0, TitleSimhash.of("- | !"));
+    }
+
+    @Test
+    void nearDuplicateThresholdIsInclusive() {
+        long hash = TitleSimhash.of(TITLE);
+        long withinThreshold = hash ^ ((1L << TitleSimhash.NEAR_DUPLICATE_BITS) - 1);
+        long pastThreshold = hash ^ ((1L << (TitleSimhash.NEAR_DUPLICATE_BITS + 1)) - 1);
+        assertTrue(TitleSimhash.isNearDuplicate(hash, withinThreshold));
+        assertFalse(TitleSimhash.isNearDuplicate(hash, pastThreshold));
+    }
+}
@@ -0,0 +1,47 @@
+-- Representative volumes for QueryPlanTest: enough rows per table that a
+-- sequential scan is never the cheaper plan for a selective finder.
+
+INSERT INTO users (email, password, google_id)
+SELECT 'user' || i || '@example.com', 'hash', 'google-' || i
+FROM generate_series(1, 20000) i;
+
+INSERT INTO subscriptions (user_id, status, stripe_customer_id, stripe_subscription_id)
+SELECT i, CASE WHEN i % 10 = 0 THEN 'PRO' ELSE 'FREE' END, 'cus_' || i, 'sub_' || i
+FROM generate_series(1, 20000) i;
+
+INSERT INTO stock (symbol, name, type, industry, price, market_cap, last_updated)
+SELECT 'SYM' || i, 'Company ' || i, 'Common Stock', 'Industry ' || (i % 40), 10 + i % 500, i * 1e6, NOW()
+FROM generate_series(1, 5000) i;
+
+-- Three favorites per user, each (user, symbol) pair once
+INSERT INTO favorites (user_id, symbol, name, added_at)
+SELECT 1 + i % 20000, 'SYM' || (1 + i / 20000), 'Company ' || (1 + i / 20000), NOW()
+FROM generate_series(0, 59999) i;
+
+INSERT INTO portfolio_holdings (user_id, symbol, shares, buy_price, created_at)
+SELECT 1 + i % 20000, 'SYM' || (1 + i % 5000), 10, 100, NOW() - i * INTERVAL '1 minute'
+FROM generate_series(1, 60000) i;
+
+-- One alert in ten is still pending, as after a few months of use
+INSERT INTO price_alerts (user_id, symbol, target_price, direction, active, triggered, created_at, triggered_at)
+SELECT 1 + i % 20000, 'SYM' || (1 + i % 5000), 100, CASE WHEN i % 2 = 0 THEN 'above' ELSE 'below' END,
+       i % 10 = 0, i % 10 <> 0, NOW() - i * INTERVAL '1 minute',
+       CASE WHEN i % 10 <> 0 THEN NOW() - i * INTERVAL '30 seconds' END
+FROM generate_series(1, 100000) i;
+
+-- 200 symbols with an hourly snapshot over three weeks, across the monthly partitions
+INSERT INTO stock_analysis_history (symbol, recommendation, timestamp)
+SELECT 'SYM' || (1 + i % 200), 'HOLD', NOW() - (i / 200) * INTERVAL '1 hour'
+FROM generate_series(0, 99999) i;
+
+-- A day past the 30-day retention, so the purge finds one day of rows
+INSERT INTO news_articles (url_hash, url, title, title_simhash, source, published_at, thumbnail)
+SELECT md5(i::text), 'https://news.example.com/' || i, 'Headline ' || i, i, 'Example',
+       NOW() - i * INTERVAL '31 days' / 50000, CASE WHEN i % 3 = 0 THEN NULL ELSE 'https://img.example.com/' || i END
+FROM generate_series(1, 50000) i;
+
+INSERT INTO news_article_symbols (url_hash, symbol)
+SELECT md5(i::text), 'SYM' || (1 + i % 500)
+FROM generate_series(1, 50000) i;
+
+ANALYZE;